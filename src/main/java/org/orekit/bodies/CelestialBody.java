@@ -18,8 +18,10 @@ package org.orekit.bodies;
 
 import java.io.Serializable;
 
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.orekit.errors.OrekitException;
 import org.orekit.frames.Frame;
+import org.orekit.time.AbsoluteDate;
 import org.orekit.utils.PVCoordinatesProvider;
 
 /** Interface for celestial bodies like Sun, Moon or solar system planets.
@@ -56,4 +58,38 @@ public interface CelestialBody extends Serializable, PVCoordinatesProvider {
      */
     double getGM();
 
+    /** Get the position of the body in the selected frame.
+     * <p>
+     * This method is a fast path for {@code getPVCoordinates(date, frame).getPosition()},
+     * it avoids computing velocity and acceleration.
+     * </p>
+     * @param date current date
+     * @param frame the frame where to define the position
+     * @return position of the body (m)
+     * @exception OrekitException if position cannot be computed in given frame
+     * @since 8.0
+     */
+    Vector3D getPosition(AbsoluteDate date, Frame frame) throws OrekitException;
+
+    /** Get the positions and optionally the velocities of the body for several dates.
+     * <p>
+     * The coordinates for {@code dates[i]} are stored in the caller-provided
+     * arrays at indices {@code 3 * i}, {@code 3 * i + 1} and {@code 3 * i + 2}.
+     * When {@code frame} is the frame in which the body ephemeris is defined,
+     * no intermediate objects are built at all.
+     * </p>
+     * @param dates dates at which coordinates are desired
+     * @param frame the frame where to define the coordinates
+     * @param positions array where to store the positions (m), its
+     * length must be at least {@code 3 * dates.length}
+     * @param velocities array where to store the velocities (m/s), its
+     * length must be at least {@code 3 * dates.length}, may be null
+     * if only positions are desired
+     * @exception OrekitException if coordinates cannot be computed in given frame
+     * @since 8.0
+     */
+    void getPositionsVelocities(AbsoluteDate[] dates, Frame frame,
+                                double[] positions, double[] velocities)
+        throws OrekitException;
+
 }
@@ -20,15 +20,19 @@ import java.io.Serializable;
 
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.RotationConvention;
+import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.apache.commons.math3.util.Precision;
 import org.orekit.bodies.JPLEphemeridesLoader.EphemerisType;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitInternalError;
+import org.orekit.frames.FilteredTransformProvider;
 import org.orekit.frames.Frame;
 import org.orekit.frames.Transform;
 import org.orekit.frames.TransformProvider;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.CartesianDerivativesFilter;
 import org.orekit.utils.PVCoordinates;
 import org.orekit.utils.TimeStampedPVCoordinates;
 
@@ -40,6 +44,15 @@ class JPLCelestialBody implements CelestialBody {
     /** Serializable UID. */
     private static final long serialVersionUID = 3809787672779740923L;
 
+    /** Per-thread buffer for raw positions. */
+    private static final ThreadLocal<double[]> RAW_POSITION = new ThreadLocal<double[]>() {
+        /** {@inheritDoc} */
+        @Override
+        protected double[] initialValue() {
+            return new double[3];
+        }
+    };
+
     /** Name of the body. */
     private final String name;
 
@@ -110,6 +123,90 @@ class JPLCelestialBody implements CelestialBody {
 
     }
 
+    /** {@inheritDoc} */
+    public Vector3D getPosition(final AbsoluteDate date, final Frame frame)
+        throws OrekitException {
+
+        // get the scaled raw position
+        final double[] raw = RAW_POSITION.get();
+        rawPVProvider.getRawPositionVelocity(date, raw, null, 0);
+        final Vector3D position = new Vector3D(scale * raw[0], scale * raw[1], scale * raw[2]);
+
+        // the raw position is relative to the parent of the body centered inertially oriented frame
+        final Frame parent = getInertiallyOrientedFrame().getParent();
+        if (frame == parent) {
+            return position;
+        }
+
+        // convert to requested frame
+        return parent.getTransformTo(frame, date,
+                                     CartesianDerivativesFilter.USE_P,
+                                     AngularDerivativesFilter.USE_R).transformPosition(position);
+
+    }
+
+    /** {@inheritDoc} */
+    public void getPositionsVelocities(final AbsoluteDate[] dates, final Frame frame,
+                                       final double[] positions, final double[] velocities)
+        throws OrekitException {
+
+        final int n = 3 * dates.length;
+        if (positions.length < n) {
+            throw new DimensionMismatchException(positions.length, n);
+        }
+        if (velocities != null && velocities.length < n) {
+            throw new DimensionMismatchException(velocities.length, n);
+        }
+
+        final Frame parent = getInertiallyOrientedFrame().getParent();
+        for (int i = 0; i < dates.length; ++i) {
+
+            // get the scaled raw coordinates
+            rawPVProvider.getRawPositionVelocity(dates[i], positions, velocities, i);
+            final int i0 = 3 * i;
+            for (int j = i0; j < i0 + 3; ++j) {
+                positions[j] *= scale;
+                if (velocities != null) {
+                    velocities[j] *= scale;
+                }
+            }
+
+            if (frame != parent) {
+                // convert to requested frame
+                final Vector3D p = new Vector3D(positions[i0], positions[i0 + 1], positions[i0 + 2]);
+                if (velocities == null) {
+                    final Transform transform =
+                            parent.getTransformTo(frame, dates[i],
+                                                  CartesianDerivativesFilter.USE_P,
+                                                  AngularDerivativesFilter.USE_R);
+                    store(transform.transformPosition(p), positions, i0);
+                } else {
+                    final Transform transform =
+                            parent.getTransformTo(frame, dates[i],
+                                                  CartesianDerivativesFilter.USE_PV,
+                                                  AngularDerivativesFilter.USE_RR);
+                    final Vector3D v = new Vector3D(velocities[i0], velocities[i0 + 1], velocities[i0 + 2]);
+                    final PVCoordinates converted = transform.transformPVCoordinates(new PVCoordinates(p, v));
+                    store(converted.getPosition(), positions,  i0);
+                    store(converted.getVelocity(), velocities, i0);
+                }
+            }
+
+        }
+
+    }
+
+    /** Store a vector in a flat array.
+     * @param v vector to store
+     * @param array flat array
+     * @param i0 index of the first coordinate
+     */
+    private static void store(final Vector3D v, final double[] array, final int i0) {
+        array[i0]     = v.getX();
+        array[i0 + 1] = v.getY();
+        array[i0 + 2] = v.getZ();
+    }
+
     /** Replace the instance with a data transfer object for serialization.
      * <p>
      * This intermediate class serializes the files supported names, the ephemeris type
@@ -154,17 +251,35 @@ class JPLCelestialBody implements CelestialBody {
          * @param definingFrame frame in which celestial body coordinates are defined
          */
         InertiallyOriented(final Frame definingFrame) {
-            super(definingFrame, new TransformProvider() {
+            super(definingFrame, new FilteredTransformProvider() {
 
                 /** Serializable UID. */
                 private static final long serialVersionUID = -8610328386110652400L;
 
                 /** {@inheritDoc} */
                 public Transform getTransform(final AbsoluteDate date) throws OrekitException {
+                    return getTransform(date, CartesianDerivativesFilter.USE_PVA, AngularDerivativesFilter.USE_RRA);
+                }
+
+                /** {@inheritDoc}
+                 * <p>
+                 * The body velocity and acceleration are computed only if
+                 * some Cartesian derivatives are requested.
+                 * </p>
+                 */
+                public Transform getTransform(final AbsoluteDate date,
+                                              final CartesianDerivativesFilter cFilter,
+                                              final AngularDerivativesFilter aFilter)
+                    throws OrekitException {
 
                     // compute translation from parent frame to self
-                    final PVCoordinates pv = getPVCoordinates(date, definingFrame);
-                    final Transform translation = new Transform(date, pv.negate());
+                    final Transform translation;
+                    if (cFilter.getMaxOrder() > 0) {
+                        final PVCoordinates pv = getPVCoordinates(date, definingFrame);
+                        translation = new Transform(date, pv.negate());
+                    } else {
+                        translation = new Transform(date, getPosition(date, definingFrame).negate());
+                    }
 
                     // compute rotation from ICRF frame to self,
                     // as per the "Report of the IAU/IAG Working Group on Cartographic
@@ -21,6 +21,7 @@ import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -46,7 +47,7 @@ import org.orekit.time.TimeScalesFactory;
 import org.orekit.utils.Constants;
 import org.orekit.utils.OrekitConfiguration;
 import org.orekit.utils.PVCoordinates;
-import org.orekit.utils.GenericTimeStampedCache;
+import org.orekit.utils.TimeStampedCache;
 import org.orekit.utils.TimeStampedGenerator;
 
 /** Loader for JPL ephemerides binary files (DE 4xx) and similar formats (INPOP 06/08/10).
@@ -75,59 +76,59 @@ public class JPLEphemeridesLoader implements CelestialBodyLoader {
     /** Default supported files name pattern for IMCCE INPOP files. */
     public static final String DEFAULT_INPOP_SUPPORTED_NAMES = "^inpop.*\\.dat$";
 
-    /** 50 days in seconds. */
-    private static final double FIFTY_DAYS = 50 * Constants.JULIAN_DAY;
-
     /** DE number used by INPOP files. */
-    private static final int INPOP_DE_NUMBER = 100;
+    static final int INPOP_DE_NUMBER = 100;
 
     /** Maximal number of constants in headers. */
-    private static final int CONSTANTS_MAX_NUMBER           = 400;
+    static final int CONSTANTS_MAX_NUMBER           = 400;
 
     /** Offset of the ephemeris type in first header record. */
-    private static final int HEADER_EPHEMERIS_TYPE_OFFSET   = 2840;
+    static final int HEADER_EPHEMERIS_TYPE_OFFSET   = 2840;
 
     /** Offset of the record size (for INPOP files) in first header record. */
-    private static final int HEADER_RECORD_SIZE_OFFSET      = 2856;
+    static final int HEADER_RECORD_SIZE_OFFSET      = 2856;
 
     /** Offset of the start epoch in first header record. */
-    private static final int HEADER_START_EPOCH_OFFSET      = 2652;
+    static final int HEADER_START_EPOCH_OFFSET      = 2652;
 
     /** Offset of the end epoch in first header record. */
-    private static final int HEADER_END_EPOCH_OFFSET        = 2660;
+    static final int HEADER_END_EPOCH_OFFSET        = 2660;
 
     /** Offset of the astronomical unit in first header record. */
-    private static final int HEADER_ASTRONOMICAL_UNIT_OFFSET = 2680;
+    static final int HEADER_ASTRONOMICAL_UNIT_OFFSET = 2680;
 
     /** Offset of the Earth-Moon mass ratio in first header record. */
-    private static final int HEADER_EM_RATIO_OFFSET         = 2688;
+    static final int HEADER_EM_RATIO_OFFSET         = 2688;
 
     /** Offset of Chebishev coefficients indices in first header record. */
-    private static final int HEADER_CHEBISHEV_INDICES_OFFSET = 2696;
+    static final int HEADER_CHEBISHEV_INDICES_OFFSET = 2696;
 
     /** Offset of libration coefficients indices in first header record. */
-    private static final int HEADER_LIBRATION_INDICES_OFFSET = 2844;
+    static final int HEADER_LIBRATION_INDICES_OFFSET = 2844;
 
     /** Offset of chunks duration in first header record. */
-    private static final int HEADER_CHUNK_DURATION_OFFSET    = 2668;
+    static final int HEADER_CHUNK_DURATION_OFFSET    = 2668;
 
     /** Offset of the constants names in first header record. */
-    private static final int HEADER_CONSTANTS_NAMES_OFFSET  = 252;
+    static final int HEADER_CONSTANTS_NAMES_OFFSET  = 252;
 
     /** Offset of the constants values in second header record. */
-    private static final int HEADER_CONSTANTS_VALUES_OFFSET = 0;
+    static final int HEADER_CONSTANTS_VALUES_OFFSET = 0;
 
     /** Offset of the range start in the data records. */
-    private static final int DATA_START_RANGE_OFFSET        = 0;
+    static final int DATA_START_RANGE_OFFSET        = 0;
 
     /** Offset of the range end in the data records. */
-    private static final int DATE_END_RANGE_OFFSET          = 8;
+    static final int DATE_END_RANGE_OFFSET          = 8;
 
     /** The constant name for the astronomical unit. */
-    private static final String CONSTANT_AU = "AU";
+    static final String CONSTANT_AU = "AU";
 
     /** The constant name for the earth-moon mass ratio. */
-    private static final String CONSTANT_EMRAT = "EMRAT";
+    static final String CONSTANT_EMRAT = "EMRAT";
+
+    /** 50 days in seconds. */
+    private static final double FIFTY_DAYS = 50 * Constants.JULIAN_DAY;
 
     /** List of supported ephemerides types. */
     public enum EphemerisType {
@@ -181,13 +182,33 @@ public class JPLEphemeridesLoader implements CelestialBodyLoader {
          * @exception OrekitException if the date is not available to the loader
          */
         PVCoordinates getRawPV(final AbsoluteDate date) throws OrekitException;
+
+        /** Get the position and optionally the velocity at date.
+         * <p>
+         * This method does not build any intermediate object, it stores
+         * the coordinates directly in caller-provided arrays, at indices
+         * {@code 3 * index}, {@code 3 * index + 1} and {@code 3 * index + 2}.
+         * </p>
+         * @param date date at which the position-velocity is desired
+         * @param positions array where to store the position
+         * @param velocities array where to store the velocity (may be null
+         * if only position is desired)
+         * @param index index of the date in the arrays
+         * @exception OrekitException if the date is not available to the loader
+         * @since 8.0
+         */
+        void getRawPositionVelocity(final AbsoluteDate date,
+                                    final double[] positions, final double[] velocities,
+                                    final int index)
+            throws OrekitException;
+
     }
 
     /** Regular expression for supported files names. */
     private final String supportedNames;
 
     /** Ephemeris for selected body. */
-    private final GenericTimeStampedCache<PosVelChebyshev> ephemerides;
+    private final TimeStampedCache<PosVelChebyshev> ephemerides;
 
     /** Constants defined in the file. */
     private final AtomicReference<Map<String, Double>> constants;
@@ -251,7 +272,8 @@ public class JPLEphemeridesLoader implements CelestialBodyLoader {
             loadType = generateType;
         }
 
-        ephemerides = new GenericTimeStampedCache<PosVelChebyshev>(2, OrekitConfiguration.getCacheSlotsNumber(),
+        ephemerides = OrekitConfiguration.getCacheType().createCache("JPLEphemeridesLoader/" + loadType,
+                2, OrekitConfiguration.getCacheSlotsNumber(),
                 Double.POSITIVE_INFINITY, FIFTY_DAYS,
                 new EphemerisParser(), PosVelChebyshev.class);
         maxChunksDuration = Double.NaN;
@@ -337,62 +359,71 @@ public class JPLEphemeridesLoader implements CelestialBodyLoader {
      */
     public double getLoadedGravitationalCoefficient(final EphemerisType body)
         throws OrekitException {
+        return getGravitationalCoefficient(getLoadedConstants(), body);
+    }
+
+    /** Get the gravitational coefficient of a body from header constants.
+     * @param map constants defined in the ephemerides headers
+     * @param body body for which the gravitational coefficient is requested
+     * @return gravitational coefficient in m³/s²
+     */
+    static double getGravitationalCoefficient(final Map<String, Double> map, final EphemerisType body) {
 
         // coefficient in au³/day²
         final double rawGM;
         switch (body) {
             case SOLAR_SYSTEM_BARYCENTER :
-                return getLoadedGravitationalCoefficient(EphemerisType.SUN)        +
-                        getLoadedGravitationalCoefficient(EphemerisType.MERCURY)    +
-                        getLoadedGravitationalCoefficient(EphemerisType.VENUS)      +
-                        getLoadedGravitationalCoefficient(EphemerisType.EARTH_MOON) +
-                        getLoadedGravitationalCoefficient(EphemerisType.MARS)       +
-                        getLoadedGravitationalCoefficient(EphemerisType.JUPITER)    +
-                        getLoadedGravitationalCoefficient(EphemerisType.SATURN)     +
-                        getLoadedGravitationalCoefficient(EphemerisType.URANUS)     +
-                        getLoadedGravitationalCoefficient(EphemerisType.NEPTUNE)    +
-                        getLoadedGravitationalCoefficient(EphemerisType.PLUTO);
+                return getGravitationalCoefficient(map, EphemerisType.SUN)        +
+                        getGravitationalCoefficient(map, EphemerisType.MERCURY)    +
+                        getGravitationalCoefficient(map, EphemerisType.VENUS)      +
+                        getGravitationalCoefficient(map, EphemerisType.EARTH_MOON) +
+                        getGravitationalCoefficient(map, EphemerisType.MARS)       +
+                        getGravitationalCoefficient(map, EphemerisType.JUPITER)    +
+                        getGravitationalCoefficient(map, EphemerisType.SATURN)     +
+                        getGravitationalCoefficient(map, EphemerisType.URANUS)     +
+                        getGravitationalCoefficient(map, EphemerisType.NEPTUNE)    +
+                        getGravitationalCoefficient(map, EphemerisType.PLUTO);
             case SUN :
-                rawGM = getLoadedConstant("GMS", "GM_Sun");
+                rawGM = getConstant(map, "GMS", "GM_Sun");
                 break;
             case MERCURY :
-                rawGM = getLoadedConstant("GM1", "GM_Mer");
+                rawGM = getConstant(map, "GM1", "GM_Mer");
                 break;
             case VENUS :
-                rawGM = getLoadedConstant("GM2", "GM_Ven");
+                rawGM = getConstant(map, "GM2", "GM_Ven");
                 break;
             case EARTH_MOON :
-                rawGM = getLoadedConstant("GMB", "GM_EMB");
+                rawGM = getConstant(map, "GMB", "GM_EMB");
                 break;
             case EARTH :
-                return getLoadedEarthMoonMassRatio() *
-                        getLoadedGravitationalCoefficient(EphemerisType.MOON);
+                return getConstant(map, CONSTANT_EMRAT) *
+                        getGravitationalCoefficient(map, EphemerisType.MOON);
             case MOON :
-                return getLoadedGravitationalCoefficient(EphemerisType.EARTH_MOON) /
-                        (1.0 + getLoadedEarthMoonMassRatio());
+                return getGravitationalCoefficient(map, EphemerisType.EARTH_MOON) /
+                        (1.0 + getConstant(map, CONSTANT_EMRAT));
             case MARS :
-                rawGM = getLoadedConstant("GM4", "GM_Mar");
+                rawGM = getConstant(map, "GM4", "GM_Mar");
                 break;
             case JUPITER :
-                rawGM = getLoadedConstant("GM5", "GM_Jup");
+                rawGM = getConstant(map, "GM5", "GM_Jup");
                 break;
             case SATURN :
-                rawGM = getLoadedConstant("GM6", "GM_Sat");
+                rawGM = getConstant(map, "GM6", "GM_Sat");
                 break;
             case URANUS :
-                rawGM = getLoadedConstant("GM7", "GM_Ura");
+                rawGM = getConstant(map, "GM7", "GM_Ura");
                 break;
             case NEPTUNE :
-                rawGM = getLoadedConstant("GM8", "GM_Nep");
+                rawGM = getConstant(map, "GM8", "GM_Nep");
                 break;
             case PLUTO :
-                rawGM = getLoadedConstant("GM9", "GM_Plu");
+                rawGM = getConstant(map, "GM9", "GM_Plu");
                 break;
             default :
                 throw new OrekitInternalError(null);
         }
 
-        final double au    = getLoadedAstronomicalUnit();
+        final double au    = 1000.0 * getConstant(map, CONSTANT_AU);
         return rawGM * au * au * au / (Constants.JULIAN_DAY * Constants.JULIAN_DAY);
 
     }
@@ -412,6 +443,14 @@ public class JPLEphemeridesLoader implements CelestialBodyLoader {
      * @exception OrekitException if constants cannot be loaded
      */
     public double getLoadedConstant(final String ... names) throws OrekitException {
+        return getConstant(getLoadedConstants(), names);
+    }
+
+    /** Get the constants defined in the ephemerides headers, loading them if needed.
+     * @return constants defined in the ephemerides headers
+     * @exception OrekitException if constants cannot be loaded
+     */
+    private Map<String, Double> getLoadedConstants() throws OrekitException {
 
         // lazy loading of constants
         Map<String, Double> map = constants.get();
@@ -424,6 +463,17 @@ public class JPLEphemeridesLoader implements CelestialBodyLoader {
             constants.compareAndSet(null, map);
         }
 
+        return map;
+
+    }
+
+    /** Get a constant from a map.
+     * @param map constants defined in the ephemerides headers
+     * @param names alternate names of the constant
+     * @return value of the constant of NaN if the constant is not defined
+     */
+    static double getConstant(final Map<String, Double> map, final String ... names) {
+
         for (final String name : names) {
             if (map.containsKey(name)) {
                 return map.get(name).doubleValue();
@@ -1011,34 +1061,61 @@ public class JPLEphemeridesLoader implements CelestialBodyLoader {
         /** {@inheritDoc} */
         public PVCoordinates getRawPV(final AbsoluteDate date) throws TimeStampedCacheException {
 
-            // get raw PV from Chebyshev polynomials
-            PosVelChebyshev chebyshev;
+            // evaluate the Chebyshev polynomials
+            return getChebyshev(date).getPositionVelocityAcceleration(date);
+
+        }
+
+        /** {@inheritDoc} */
+        public void getRawPositionVelocity(final AbsoluteDate date,
+                                           final double[] positions, final double[] velocities,
+                                           final int index)
+            throws TimeStampedCacheException {
+
+            // evaluate the Chebyshev polynomials
+            getChebyshev(date).getPositionVelocity(date, positions, velocities, index);
+
+        }
+
+        /** Get the Chebyshev polynomials covering a date.
+         * @param date date to cover
+         * @return Chebyshev polynomials covering the date
+         * @exception TimeStampedCacheException if date cannot be covered
+         */
+        private PosVelChebyshev getChebyshev(final AbsoluteDate date) throws TimeStampedCacheException {
             try {
-                chebyshev = ephemerides.getNeighbors(date).get(0);
+                return ephemerides.getNeighbors(date).get(0);
             } catch (TimeStampedCacheException tce) {
                 // we cannot bracket the date, check if the last available chunk covers the specified date
-                chebyshev = ephemerides.getLatest();
+                final PosVelChebyshev chebyshev = ephemerides.getLatest();
                 if (!chebyshev.inRange(date)) {
                     // we were not able to recover from the error, the date is too far
                     throw tce;
                 }
+                return chebyshev;
             }
-
-            // evaluate the Chebyshev polynomials
-            return chebyshev.getPositionVelocityAcceleration(date);
-
         }
 
     }
 
     /** Raw position-velocity provider providing always zero. */
-    private static class ZeroRawPVProvider implements RawPVProvider {
+    static class ZeroRawPVProvider implements RawPVProvider {
 
         /** {@inheritDoc} */
         public PVCoordinates getRawPV(final AbsoluteDate date) {
             return PVCoordinates.ZERO;
         }
 
+        /** {@inheritDoc} */
+        public void getRawPositionVelocity(final AbsoluteDate date,
+                                           final double[] positions, final double[] velocities,
+                                           final int index) {
+            Arrays.fill(positions, 3 * index, 3 * index + 3, 0.0);
+            if (velocities != null) {
+                Arrays.fill(velocities, 3 * index, 3 * index + 3, 0.0);
+            }
+        }
+
     }
 
 }
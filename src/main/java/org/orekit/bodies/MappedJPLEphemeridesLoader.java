@@ -0,0 +1,832 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.bodies;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.bodies.JPLEphemeridesLoader.EphemerisType;
+import org.orekit.bodies.JPLEphemeridesLoader.RawPVProvider;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitInternalError;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.DateComponents;
+import org.orekit.time.TimeComponents;
+import org.orekit.time.TimeScale;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.PVCoordinates;
+
+/** Loader for JPL ephemerides binary files (DE 4xx and INPOP) using memory-mapping.
+ * <p>
+ * Contrary to {@link JPLEphemeridesLoader}, which reads files through the
+ * {@link org.orekit.data.DataProvidersManager data providers} and builds
+ * Chebyshev polynomials objects in a cache for each new time range, this
+ * loader maps the files in memory once. The record containing a date is
+ * located by direct computation from the date and the Chebyshev coefficients
+ * are evaluated straight from the mapped buffer, without any intermediate
+ * objects. As the mapped buffers are only read using absolute accesses, the
+ * bodies built by this loader can be used concurrently by several threads.
+ * </p>
+ * <p>
+ * This loader is intended for long analyses with files covering large time
+ * ranges. As files are mapped, they must be regular files on the filesystem,
+ * they cannot be compressed nor inside zip/jar archives. Several files can be
+ * used together, the first file (in the order given at construction) covering
+ * a date is used. The header constants are read from the first file.
+ * </p>
+ * <p>
+ * Bodies built by this loader are serialized like bodies built by {@link
+ * JPLEphemeridesLoader}, using the names of the files as supported names,
+ * so they can be restored as long as the same files are available to the
+ * data providers.
+ * </p>
+ * @see JPLEphemeridesLoader
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class MappedJPLEphemeridesLoader implements CelestialBodyLoader {
+
+    /** Number of header records before data records. */
+    private static final int HEADER_RECORDS = 2;
+
+    /** Size of an int in bytes. */
+    private static final int INT_SIZE = 4;
+
+    /** Size of a double in bytes. */
+    private static final int DOUBLE_SIZE = 8;
+
+    /** Size of constants names in bytes. */
+    private static final int CONSTANT_NAME_SIZE = 6;
+
+    /** Tolerance for dates at range boundaries (s). */
+    private static final double RANGE_TOLERANCE = 0.001;
+
+    /** Tolerance for dates at range boundaries when using TAI durations (s). */
+    private static final double COARSE_TOLERANCE = 10.0;
+
+    /** Mapped files. */
+    private final MappedFile[] files;
+
+    /** Regular expression matching the files names. */
+    private final String supportedNames;
+
+    /** Ephemeris type to generate. */
+    private final EphemerisType generateType;
+
+    /** Ephemeris type to load. */
+    private final EphemerisType loadType;
+
+    /** Create a loader for JPL ephemerides binary files.
+     * @param generateType ephemeris type to generate
+     * @param files JPL ephemerides binary files (DE 4xx or INPOP)
+     * @exception OrekitException if the files cannot be mapped or are not
+     * JPL ephemerides binary files
+     */
+    public MappedJPLEphemeridesLoader(final EphemerisType generateType, final File ... files)
+        throws OrekitException {
+        this(generateType, mapFiles(files));
+    }
+
+    /** Create a loader sharing already mapped files.
+     * @param generateType ephemeris type to generate
+     * @param files mapped files
+     */
+    private MappedJPLEphemeridesLoader(final EphemerisType generateType, final MappedFile[] files) {
+
+        this.files        = files;
+        this.generateType = generateType;
+        if (generateType == EphemerisType.SOLAR_SYSTEM_BARYCENTER) {
+            loadType = EphemerisType.EARTH_MOON;
+        } else if (generateType == EphemerisType.EARTH_MOON) {
+            loadType = EphemerisType.MOON;
+        } else {
+            loadType = generateType;
+        }
+
+        // build a regular expression matching exactly the files names
+        final StringBuilder builder = new StringBuilder("^(?:");
+        for (int i = 0; i < files.length; ++i) {
+            if (i > 0) {
+                builder.append('|');
+            }
+            builder.append(Pattern.quote(files[i].name));
+        }
+        this.supportedNames = builder.append(")$").toString();
+
+    }
+
+    /** Map files.
+     * @param files files to map
+     * @return mapped files
+     * @exception OrekitException if the files cannot be mapped or are not
+     * JPL ephemerides binary files, or if they are inconsistent with each other
+     */
+    private static MappedFile[] mapFiles(final File ... files) throws OrekitException {
+
+        if (files.length == 0) {
+            throw new OrekitException(OrekitMessages.NO_JPL_EPHEMERIDES_BINARY_FILES_FOUND);
+        }
+
+        final MappedFile[] mapped = new MappedFile[files.length];
+        for (int i = 0; i < files.length; ++i) {
+            mapped[i] = new MappedFile(files[i]);
+            if (i > 0) {
+                // check consistency with first file
+                final double au0 = mapped[0].getAstronomicalUnit();
+                final double au  = mapped[i].getAstronomicalUnit();
+                if (FastMath.abs(au0 - au) >= 10.0) {
+                    throw new OrekitException(OrekitMessages.INCONSISTENT_ASTRONOMICAL_UNIT_IN_FILES, au0, au);
+                }
+                final double emRat0 = mapped[0].getEarthMoonMassRatio();
+                final double emRat  = mapped[i].getEarthMoonMassRatio();
+                if (FastMath.abs(emRat0 - emRat) >= 1.0e-5) {
+                    throw new OrekitException(OrekitMessages.INCONSISTENT_EARTH_MOON_RATIO_IN_FILES, emRat0, emRat);
+                }
+            }
+        }
+
+        return mapped;
+
+    }
+
+    /** {@inheritDoc} */
+    public CelestialBody loadCelestialBody(final String name) throws OrekitException {
+
+        final double gm       = getLoadedGravitationalCoefficient(generateType);
+        final IAUPole iauPole = IAUPoleFactory.getIAUPole(generateType);
+        final double scale;
+        final Frame definingFrameAlignedWithICRF;
+        final RawPVProvider rawPVProvider;
+        switch (generateType) {
+            case SOLAR_SYSTEM_BARYCENTER : {
+                scale = -1.0;
+                final CelestialBody parentBody =
+                        new MappedJPLEphemeridesLoader(EphemerisType.EARTH_MOON, files).
+                        loadCelestialBody(CelestialBodyFactory.EARTH_MOON);
+                definingFrameAlignedWithICRF = parentBody.getInertiallyOrientedFrame();
+                rawPVProvider = new MappedRawPVProvider();
+                break;
+            }
+            case EARTH_MOON :
+                scale         = 1.0 / (1.0 + getLoadedEarthMoonMassRatio());
+                definingFrameAlignedWithICRF = FramesFactory.getGCRF();
+                rawPVProvider = new MappedRawPVProvider();
+                break;
+            case EARTH :
+                scale         = 1.0;
+                definingFrameAlignedWithICRF = FramesFactory.getGCRF();
+                rawPVProvider = new JPLEphemeridesLoader.ZeroRawPVProvider();
+                break;
+            case MOON :
+                scale         = 1.0;
+                definingFrameAlignedWithICRF = FramesFactory.getGCRF();
+                rawPVProvider = new MappedRawPVProvider();
+                break;
+            default : {
+                scale = 1.0;
+                final CelestialBody parentBody =
+                        new MappedJPLEphemeridesLoader(EphemerisType.SOLAR_SYSTEM_BARYCENTER, files).
+                        loadCelestialBody(CelestialBodyFactory.SOLAR_SYSTEM_BARYCENTER);
+                definingFrameAlignedWithICRF = parentBody.getInertiallyOrientedFrame();
+                rawPVProvider = new MappedRawPVProvider();
+            }
+        }
+
+        // build the celestial body
+        return new JPLCelestialBody(name, supportedNames, generateType, rawPVProvider,
+                                    gm, scale, iauPole, definingFrameAlignedWithICRF);
+
+    }
+
+    /** Get astronomical unit.
+     * @return astronomical unit in meters
+     */
+    public double getLoadedAstronomicalUnit() {
+        return files[0].getAstronomicalUnit();
+    }
+
+    /** Get Earth/Moon mass ratio.
+     * @return Earth/Moon mass ratio
+     */
+    public double getLoadedEarthMoonMassRatio() {
+        return files[0].getEarthMoonMassRatio();
+    }
+
+    /** Get the gravitational coefficient of a body.
+     * @param body body for which the gravitational coefficient is requested
+     * @return gravitational coefficient in m³/s²
+     */
+    public double getLoadedGravitationalCoefficient(final EphemerisType body) {
+        return JPLEphemeridesLoader.getGravitationalCoefficient(files[0].constants, body);
+    }
+
+    /** Get a constant defined in the ephemerides headers.
+     * <p>
+     * There are alternate names for constants since for example JPL names are
+     * different from INPOP names (Sun gravity: GMS or GM_Sun, Mars gravity:
+     * GM4 or GM_Mar...).
+     * </p>
+     * @param names alternate names of the constant
+     * @return value of the constant of NaN if the constant is not defined
+     */
+    public double getLoadedConstant(final String ... names) {
+        return JPLEphemeridesLoader.getConstant(files[0].constants, names);
+    }
+
+    /** Raw position-velocity provider evaluating mapped Chebyshev coefficients. */
+    private class MappedRawPVProvider implements RawPVProvider {
+
+        /** {@inheritDoc} */
+        public PVCoordinates getRawPV(final AbsoluteDate date) throws OrekitException {
+            for (final MappedFile file : files) {
+                final double dt = file.offset(date);
+                if (!Double.isNaN(dt)) {
+                    return file.getPositionVelocityAcceleration(loadType, dt);
+                }
+            }
+            throw outOfRange(date);
+        }
+
+        /** {@inheritDoc} */
+        public void getRawPositionVelocity(final AbsoluteDate date,
+                                           final double[] positions, final double[] velocities,
+                                           final int index)
+            throws OrekitException {
+            for (final MappedFile file : files) {
+                final double dt = file.offset(date);
+                if (!Double.isNaN(dt)) {
+                    file.getPositionVelocity(loadType, dt, positions, velocities, index);
+                    return;
+                }
+            }
+            throw outOfRange(date);
+        }
+
+        /** Create an exception for dates not covered by any file.
+         * @param date date not covered
+         * @return exception
+         */
+        private OrekitException outOfRange(final AbsoluteDate date) {
+            return new OrekitException(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE,
+                                       date, files[0].start, files[files.length - 1].end);
+        }
+
+    }
+
+    /** Memory-mapped JPL ephemerides binary file. */
+    private static class MappedFile {
+
+        /** Name of the file. */
+        private final String name;
+
+        /** Mapped file content. */
+        private final ByteBuffer buffer;
+
+        /** Constants defined in the header. */
+        private final Map<String, Double> constants;
+
+        /** Size of records in bytes. */
+        private final int recordSize;
+
+        /** Number of data records. */
+        private final int records;
+
+        /** Time scale of the date coordinates. */
+        private final TimeScale timeScale;
+
+        /** File start epoch. */
+        private final AbsoluteDate start;
+
+        /** File final epoch. */
+        private final AbsoluteDate end;
+
+        /** File start epoch as a Julian day. */
+        private final double startJD;
+
+        /** Duration of the file (s). */
+        private final double duration;
+
+        /** Duration of one record (s). */
+        private final double recordDuration;
+
+        /** Number of components contained in the file. */
+        private final int components;
+
+        /** Unit of the position coordinates (as a multiple of meters). */
+        private final double positionUnit;
+
+        /** Index of the first data for each body. */
+        private final int[] firstIndex;
+
+        /** Number of coefficients for each body. */
+        private final int[] coeffs;
+
+        /** Number of chunks for each body. */
+        private final int[] chunks;
+
+        /** Map a JPL ephemerides binary file.
+         * @param file file to map
+         * @exception OrekitException if the file cannot be mapped or is not
+         * a JPL ephemerides binary file
+         */
+        MappedFile(final File file) throws OrekitException {
+
+            this.name = file.getName();
+            try {
+
+                // map the whole file
+                final RandomAccessFile raf = new RandomAccessFile(file, "r");
+                try {
+                    // a single mapped buffer is limited to 2GB, which also
+                    // ensures int records offsets cannot overflow
+                    if (raf.length() > Integer.MAX_VALUE) {
+                        throw new OrekitException(OrekitMessages.TOO_LARGE_FILE_FOR_MAPPING,
+                                                  file.getAbsolutePath(), raf.length(), Integer.MAX_VALUE);
+                    }
+                    buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+                } finally {
+                    // the mapping remains valid after the file has been closed
+                    raf.close();
+                }
+                if (buffer.limit() < JPLEphemeridesLoader.HEADER_RECORD_SIZE_OFFSET + INT_SIZE) {
+                    throw new OrekitException(OrekitMessages.UNABLE_TO_READ_JPL_HEADER, name);
+                }
+
+                // detect the endian format, using the same heuristic as JPLEphemeridesLoader:
+                // the DE number is stored as unsigned int, if it is larger than half
+                // the range of an integer, the file is in little-endian format
+                buffer.order(ByteOrder.BIG_ENDIAN);
+                final long deNum = buffer.getInt(JPLEphemeridesLoader.HEADER_EPHEMERIS_TYPE_OFFSET) & 0xffffffffL;
+                if (deNum > (1 << 15)) {
+                    buffer.order(ByteOrder.LITTLE_ENDIAN);
+                }
+                final boolean inpop =
+                        buffer.getInt(JPLEphemeridesLoader.HEADER_EPHEMERIS_TYPE_OFFSET) == JPLEphemeridesLoader.INPOP_DE_NUMBER;
+
+                // records layout
+                recordSize = inpop ?
+                             buffer.getInt(JPLEphemeridesLoader.HEADER_RECORD_SIZE_OFFSET) << 3 :
+                             computeRecordSize();
+                if (recordSize <= 0 || buffer.limit() < HEADER_RECORDS * recordSize) {
+                    throw new OrekitException(OrekitMessages.UNABLE_TO_READ_JPL_HEADER, name);
+                }
+                records   = buffer.limit() / recordSize - HEADER_RECORDS;
+                constants = parseConstants();
+
+                // check astronomical unit and Earth-Moon mass ratio
+                final double au    = getAstronomicalUnit();
+                final double emRat = getEarthMoonMassRatio();
+                if (au < 1.4e11 || au > 1.6e11 || emRat < 80 || emRat > 82 || records <= 0) {
+                    throw new OrekitException(OrekitMessages.NOT_A_JPL_EPHEMERIDES_BINARY_FILE, name);
+                }
+
+                // as default, 3 polynomial coefficients for the cartesian coordinates
+                // (x, y, z) are contained in the file, positions are in kilometers
+                // and times are in TDB
+                if (inpop) {
+                    final double format = JPLEphemeridesLoader.getConstant(constants, "FORMAT");
+                    components = (!Double.isNaN(format) && (int) FastMath.IEEEremainder(format, 10) != 1) ? 6 : 3;
+                    final double unite  = JPLEphemeridesLoader.getConstant(constants, "UNITE");
+                    positionUnit = (!Double.isNaN(unite) && (int) unite == 0) ? au : 1000.0;
+                    final double timesc = JPLEphemeridesLoader.getConstant(constants, "TIMESC");
+                    timeScale = (!Double.isNaN(timesc) && (int) timesc == 1) ?
+                                TimeScalesFactory.getTCB() : TimeScalesFactory.getTDB();
+                } else {
+                    components   = 3;
+                    positionUnit = 1000.0;
+                    timeScale    = TimeScalesFactory.getTDB();
+                }
+
+                // covered date range
+                startJD  = buffer.getDouble(JPLEphemeridesLoader.HEADER_START_EPOCH_OFFSET);
+                start    = julianDayToDate(startJD);
+                end      = julianDayToDate(buffer.getDouble(JPLEphemeridesLoader.HEADER_END_EPOCH_OFFSET));
+                duration = end.offsetFrom(start, timeScale);
+                final double timeSpan = buffer.getDouble(JPLEphemeridesLoader.HEADER_CHUNK_DURATION_OFFSET);
+                recordDuration = Constants.JULIAN_DAY * timeSpan;
+
+                // indices of the Chebyshev coefficients for each ephemeris
+                boolean ok = duration > 0 && timeSpan > 0 && timeSpan < 100;
+                firstIndex = new int[11];
+                coeffs     = new int[11];
+                chunks     = new int[11];
+                for (int i = 0; i < 11; ++i) {
+                    final int offset = JPLEphemeridesLoader.HEADER_CHEBISHEV_INDICES_OFFSET + 12 * i;
+                    firstIndex[i] = buffer.getInt(offset);
+                    coeffs[i]     = buffer.getInt(offset + INT_SIZE);
+                    chunks[i]     = buffer.getInt(offset + 2 * INT_SIZE);
+                    ok = ok && firstIndex[i] >= 0 && coeffs[i] >= 0 && chunks[i] >= 0;
+                }
+                if (!ok) {
+                    throw new OrekitException(OrekitMessages.NOT_A_JPL_EPHEMERIDES_BINARY_FILE, name);
+                }
+
+            } catch (IOException ioe) {
+                throw new OrekitException(ioe, OrekitMessages.UNABLE_TO_FIND_FILE, file.getAbsolutePath());
+            }
+
+        }
+
+        /** Calculate the record size of a JPL ephemerides file.
+         * @return the record size for this file
+         * @throws OrekitException if the file contains unexpected data
+         */
+        private int computeRecordSize() throws OrekitException {
+
+            int size = 0;
+            boolean ok = true;
+
+            // iterate over the coefficient ptr array and sum up the record size
+            // the coeffPtr array has the dimensions [12][3], with 2 components for nutations
+            for (int j = 0; j < 12; j++) {
+                final int idx       = JPLEphemeridesLoader.HEADER_CHEBISHEV_INDICES_OFFSET + 12 * j;
+                final int coeffPtr1 = buffer.getInt(idx + INT_SIZE);
+                final int coeffPtr2 = buffer.getInt(idx + 2 * INT_SIZE);
+                ok = ok && (coeffPtr1 >= 0 || coeffPtr2 >= 0);
+                size += coeffPtr1 * coeffPtr2 * ((j == 11) ? 2 : 3);
+            }
+
+            // the libration ptr array has the dimension [3]
+            final int libratPtr1 = buffer.getInt(JPLEphemeridesLoader.HEADER_LIBRATION_INDICES_OFFSET + INT_SIZE);
+            final int libratPtr2 = buffer.getInt(JPLEphemeridesLoader.HEADER_LIBRATION_INDICES_OFFSET + 2 * INT_SIZE);
+            ok = ok && (libratPtr1 >= 0 || libratPtr2 >= 0);
+            size += libratPtr1 * libratPtr2 * 3 + 2;
+            size <<= 3;
+
+            if (!ok || size <= 0) {
+                throw new OrekitException(OrekitMessages.NOT_A_JPL_EPHEMERIDES_BINARY_FILE, name);
+            }
+
+            return size;
+
+        }
+
+        /** Parse constants from the two header records.
+         * @return map of parsed constants
+         */
+        private Map<String, Double> parseConstants() {
+
+            final Map<String, Double> map = new HashMap<String, Double>();
+            final byte[] bytes = new byte[CONSTANT_NAME_SIZE];
+            for (int i = 0; i < JPLEphemeridesLoader.CONSTANTS_MAX_NUMBER; ++i) {
+                final ByteBuffer view = buffer.duplicate();
+                view.position(JPLEphemeridesLoader.HEADER_CONSTANTS_NAMES_OFFSET + i * CONSTANT_NAME_SIZE);
+                view.get(bytes);
+                final String constantName;
+                try {
+                    constantName = new String(bytes, "US-ASCII").trim();
+                } catch (UnsupportedEncodingException uee) {
+                    throw new OrekitInternalError(uee);
+                }
+                if (constantName.length() == 0) {
+                    // no more constants to read
+                    break;
+                }
+                map.put(constantName,
+                        buffer.getDouble(recordSize + JPLEphemeridesLoader.HEADER_CONSTANTS_VALUES_OFFSET + DOUBLE_SIZE * i));
+            }
+
+            // INPOP files do not have constants for AU and EMRAT, thus extract them from
+            // the header record and create a constant for them to be consistent with JPL files
+            if (!map.containsKey(JPLEphemeridesLoader.CONSTANT_AU)) {
+                map.put(JPLEphemeridesLoader.CONSTANT_AU,
+                        buffer.getDouble(JPLEphemeridesLoader.HEADER_ASTRONOMICAL_UNIT_OFFSET));
+            }
+            if (!map.containsKey(JPLEphemeridesLoader.CONSTANT_EMRAT)) {
+                map.put(JPLEphemeridesLoader.CONSTANT_EMRAT,
+                        buffer.getDouble(JPLEphemeridesLoader.HEADER_EM_RATIO_OFFSET));
+            }
+
+            return map;
+
+        }
+
+        /** Get astronomical unit.
+         * @return astronomical unit in meters
+         */
+        public double getAstronomicalUnit() {
+            return 1000.0 * JPLEphemeridesLoader.getConstant(constants, JPLEphemeridesLoader.CONSTANT_AU);
+        }
+
+        /** Get Earth/Moon mass ratio.
+         * @return Earth/Moon mass ratio
+         */
+        public double getEarthMoonMassRatio() {
+            return JPLEphemeridesLoader.getConstant(constants, JPLEphemeridesLoader.CONSTANT_EMRAT);
+        }
+
+        /** Convert a Julian day to a date.
+         * @param t Julian day in file time scale
+         * @return date
+         */
+        private AbsoluteDate julianDayToDate(final double t) {
+            int    jDay    = (int) FastMath.floor(t);
+            double seconds = (t + 0.5 - jDay) * Constants.JULIAN_DAY;
+            if (seconds >= Constants.JULIAN_DAY) {
+                ++jDay;
+                seconds -= Constants.JULIAN_DAY;
+            }
+            return new AbsoluteDate(new DateComponents(DateComponents.JULIAN_EPOCH, jDay),
+                                    new TimeComponents(seconds), timeScale);
+        }
+
+        /** Get the offset of a date with respect to file start.
+         * @param date date to check
+         * @return offset from file start in file time scale (s),
+         * or NaN if the file does not cover the date
+         */
+        public double offset(final AbsoluteDate date) {
+            // coarse check using TAI durations, which are cheap to compute
+            if (date.durationFrom(start) >= -COARSE_TOLERANCE &&
+                date.durationFrom(end)   <=  COARSE_TOLERANCE) {
+                // accurate check in file time scale
+                final double dt = date.offsetFrom(start, timeScale);
+                if (dt >= -RANGE_TOLERANCE && dt <= duration + RANGE_TOLERANCE) {
+                    return dt;
+                }
+            }
+            return Double.NaN;
+        }
+
+        /** Get the position-velocity-acceleration of a body.
+         * @param body body to evaluate
+         * @param dt offset from file start in file time scale (s)
+         * @return position-velocity-acceleration
+         */
+        public PVCoordinates getPositionVelocityAcceleration(final EphemerisType body, final double dt) {
+
+            // select record and chunk
+            final int    k         = selectRecord(dt);
+            final int    base      = (HEADER_RECORDS + k) * recordSize;
+            final double dtRecord  = dt - recordOffset(k, JPLEphemeridesLoader.DATA_START_RANGE_OFFSET);
+            final int    b         = bodyIndex(body);
+            final int    nbCoeffs  = coeffs[b];
+            final double chunkSpan = recordDuration / chunks[b];
+            final int    i         = selectChunk(b, dtRecord, chunkSpan);
+
+            // normalize date
+            final double t    = (2 * (dtRecord - i * chunkSpan) - chunkSpan) / chunkSpan;
+            final double twoT = 2 * t;
+
+            // coefficients location
+            final int xIndex = base + DOUBLE_SIZE * (firstIndex[b] + components * i * nbCoeffs - 1);
+            final int yIndex = xIndex + DOUBLE_SIZE * nbCoeffs;
+            final int zIndex = yIndex + DOUBLE_SIZE * nbCoeffs;
+
+            // initialize Chebyshev polynomials recursion
+            double pKm1 = 1;
+            double pK   = t;
+            double xP   = positionUnit * buffer.getDouble(xIndex);
+            double yP   = positionUnit * buffer.getDouble(yIndex);
+            double zP   = positionUnit * buffer.getDouble(zIndex);
+
+            // initialize Chebyshev polynomials derivatives recursion
+            double qKm1 = 0;
+            double qK   = 1;
+            double xV   = 0;
+            double yV   = 0;
+            double zV   = 0;
+
+            // initialize Chebyshev polynomials second derivatives recursion
+            double rKm1 = 0;
+            double rK   = 0;
+            double xA   = 0;
+            double yA   = 0;
+            double zA   = 0;
+
+            // combine polynomials by applying coefficients
+            for (int j = 1; j < nbCoeffs; ++j) {
+
+                final double cx = positionUnit * buffer.getDouble(xIndex + DOUBLE_SIZE * j);
+                final double cy = positionUnit * buffer.getDouble(yIndex + DOUBLE_SIZE * j);
+                final double cz = positionUnit * buffer.getDouble(zIndex + DOUBLE_SIZE * j);
+
+                // consider last computed polynomials on position
+                xP += cx * pK;
+                yP += cy * pK;
+                zP += cz * pK;
+
+                // consider last computed polynomials on velocity
+                xV += cx * qK;
+                yV += cy * qK;
+                zV += cz * qK;
+
+                // consider last computed polynomials on acceleration
+                xA += cx * rK;
+                yA += cy * rK;
+                zA += cz * rK;
+
+                // compute next Chebyshev polynomial value
+                final double pKm2 = pKm1;
+                pKm1 = pK;
+                pK   = twoT * pKm1 - pKm2;
+
+                // compute next Chebyshev polynomial derivative
+                final double qKm2 = qKm1;
+                qKm1 = qK;
+                qK   = twoT * qKm1 + 2 * pKm1 - qKm2;
+
+                // compute next Chebyshev polynomial second derivative
+                final double rKm2 = rKm1;
+                rKm1 = rK;
+                rK   = twoT * rKm1 + 4 * qKm1 - rKm2;
+
+            }
+
+            final double vScale = 2 / chunkSpan;
+            final double aScale = vScale * vScale;
+            return new PVCoordinates(new Vector3D(xP, yP, zP),
+                                     new Vector3D(xV * vScale, yV * vScale, zV * vScale),
+                                     new Vector3D(xA * aScale, yA * aScale, zA * aScale));
+
+        }
+
+        /** Get the position and optionally the velocity of a body.
+         * @param body body to evaluate
+         * @param dt offset from file start in file time scale (s)
+         * @param positions array where to store the position
+         * @param velocities array where to store the velocity (may be null
+         * if only position is desired)
+         * @param index index of the date in the arrays
+         * @see PosVelChebyshev#getPositionVelocity(AbsoluteDate, double[], double[], int)
+         */
+        public void getPositionVelocity(final EphemerisType body, final double dt,
+                                        final double[] positions, final double[] velocities,
+                                        final int index) {
+
+            // select record and chunk
+            final int    k         = selectRecord(dt);
+            final int    base      = (HEADER_RECORDS + k) * recordSize;
+            final double dtRecord  = dt - recordOffset(k, JPLEphemeridesLoader.DATA_START_RANGE_OFFSET);
+            final int    b         = bodyIndex(body);
+            final int    nbCoeffs  = coeffs[b];
+            final double chunkSpan = recordDuration / chunks[b];
+            final int    i         = selectChunk(b, dtRecord, chunkSpan);
+
+            // normalize date
+            final double t    = (2 * (dtRecord - i * chunkSpan) - chunkSpan) / chunkSpan;
+            final double twoT = 2 * t;
+
+            // coefficients location
+            final int xIndex = base + DOUBLE_SIZE * (firstIndex[b] + components * i * nbCoeffs - 1);
+            final int yIndex = xIndex + DOUBLE_SIZE * nbCoeffs;
+            final int zIndex = yIndex + DOUBLE_SIZE * nbCoeffs;
+
+            // Clenshaw recurrences for the values and the derivatives
+            double xB1 = 0;
+            double yB1 = 0;
+            double zB1 = 0;
+            double xB2 = 0;
+            double yB2 = 0;
+            double zB2 = 0;
+            double xD1 = 0;
+            double yD1 = 0;
+            double zD1 = 0;
+            double xD2 = 0;
+            double yD2 = 0;
+            double zD2 = 0;
+
+            final boolean withVelocity = velocities != null;
+            for (int j = nbCoeffs - 1; j > 0; --j) {
+
+                if (withVelocity) {
+                    // the derivatives recurrence uses the values recurrence before update
+                    final double xD = 2 * xB1 + twoT * xD1 - xD2;
+                    final double yD = 2 * yB1 + twoT * yD1 - yD2;
+                    final double zD = 2 * zB1 + twoT * zD1 - zD2;
+                    xD2 = xD1;
+                    yD2 = yD1;
+                    zD2 = zD1;
+                    xD1 = xD;
+                    yD1 = yD;
+                    zD1 = zD;
+                }
+
+                final double xB = buffer.getDouble(xIndex + DOUBLE_SIZE * j) + twoT * xB1 - xB2;
+                final double yB = buffer.getDouble(yIndex + DOUBLE_SIZE * j) + twoT * yB1 - yB2;
+                final double zB = buffer.getDouble(zIndex + DOUBLE_SIZE * j) + twoT * zB1 - zB2;
+                xB2 = xB1;
+                yB2 = yB1;
+                zB2 = zB1;
+                xB1 = xB;
+                yB1 = yB;
+                zB1 = zB;
+
+            }
+
+            final int i0 = 3 * index;
+            positions[i0]     = positionUnit * (buffer.getDouble(xIndex) + t * xB1 - xB2);
+            positions[i0 + 1] = positionUnit * (buffer.getDouble(yIndex) + t * yB1 - yB2);
+            positions[i0 + 2] = positionUnit * (buffer.getDouble(zIndex) + t * zB1 - zB2);
+
+            if (withVelocity) {
+                final double vScale = positionUnit * 2 / chunkSpan;
+                velocities[i0]     = vScale * (xB1 + t * xD1 - xD2);
+                velocities[i0 + 1] = vScale * (yB1 + t * yD1 - yD2);
+                velocities[i0 + 2] = vScale * (zB1 + t * zD1 - zD2);
+            }
+
+        }
+
+        /** Select the data record covering a date.
+         * @param dt offset from file start in file time scale (s)
+         * @return index of the data record
+         */
+        private int selectRecord(final double dt) {
+            // first guess assuming regular records,
+            // then use the records ranges to handle irregular files
+            int k = FastMath.max(0, FastMath.min(records - 1, (int) FastMath.floor(dt / recordDuration)));
+            while (k > 0 && dt < recordOffset(k, JPLEphemeridesLoader.DATA_START_RANGE_OFFSET)) {
+                --k;
+            }
+            while (k < records - 1 && dt > recordOffset(k, JPLEphemeridesLoader.DATE_END_RANGE_OFFSET)) {
+                ++k;
+            }
+            return k;
+        }
+
+        /** Select the chunk covering a date within a record.
+         * @param b index of the body
+         * @param dtRecord offset from record start in file time scale (s)
+         * @param chunkSpan duration of one chunk (s)
+         * @return index of the chunk within the record
+         */
+        private int selectChunk(final int b, final double dtRecord, final double chunkSpan) {
+            return FastMath.max(0, FastMath.min(chunks[b] - 1, (int) FastMath.floor(dtRecord / chunkSpan)));
+        }
+
+        /** Get the offset of a record boundary with respect to file start.
+         * @param k index of the data record
+         * @param offset offset of the boundary Julian day within the record
+         * @return offset of the record boundary with respect to file start (s)
+         */
+        private double recordOffset(final int k, final int offset) {
+            final double jd = buffer.getDouble((HEADER_RECORDS + k) * recordSize + offset);
+            return (jd - startJD) * Constants.JULIAN_DAY;
+        }
+
+        /** Get the index of a body in the Chebyshev indices arrays.
+         * @param body body to evaluate
+         * @return index of the body
+         */
+        private static int bodyIndex(final EphemerisType body) {
+            switch (body) {
+                case MERCURY :
+                    return 0;
+                case VENUS :
+                    return 1;
+                case EARTH_MOON :
+                    return 2;
+                case MARS :
+                    return 3;
+                case JUPITER :
+                    return 4;
+                case SATURN :
+                    return 5;
+                case URANUS :
+                    return 6;
+                case NEPTUNE :
+                    return 7;
+                case PLUTO :
+                    return 8;
+                case MOON :
+                    return 9;
+                case SUN :
+                    return 10;
+                default :
+                    // solar system barycenter and Earth are never loaded
+                    throw new OrekitInternalError(null);
+            }
+        }
+
+    }
+
+}
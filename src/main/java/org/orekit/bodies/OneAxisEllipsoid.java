@@ -30,6 +30,8 @@ import org.orekit.errors.OrekitException;
 import org.orekit.frames.Frame;
 import org.orekit.frames.Transform;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.CartesianDerivativesFilter;
 import org.orekit.utils.PVCoordinates;
 import org.orekit.utils.TimeStampedPVCoordinates;
 
@@ -135,7 +137,9 @@ public class OneAxisEllipsoid extends Ellipsoid implements BodyShape {
         throws OrekitException {
 
         // transform line and close to body frame
-        final Transform frameToBodyFrame = frame.getTransformTo(bodyFrame, date);
+        final Transform frameToBodyFrame = frame.getTransformTo(bodyFrame, date,
+                                                                CartesianDerivativesFilter.USE_P,
+                                                                AngularDerivativesFilter.USE_R);
         final Line lineInBodyFrame = frameToBodyFrame.transformLine(line);
         final Vector3D closeInBodyFrame = frameToBodyFrame.transformPosition(close);
         final double closeAbscissa = lineInBodyFrame.toSubSpace(closeInBodyFrame).getX();
@@ -290,7 +294,9 @@ public class OneAxisEllipsoid extends Ellipsoid implements BodyShape {
         throws OrekitException {
 
         // transform point to body frame
-        final Vector3D pointInBodyFrame = frame.getTransformTo(bodyFrame, date).transformPosition(point);
+        final Vector3D pointInBodyFrame = frame.getTransformTo(bodyFrame, date,
+                                                               CartesianDerivativesFilter.USE_P,
+                                                               AngularDerivativesFilter.USE_R).transformPosition(point);
         final double   r2               = pointInBodyFrame.getX() * pointInBodyFrame.getX() +
                                           pointInBodyFrame.getY() * pointInBodyFrame.getY();
         final double   r                = FastMath.sqrt(r2);
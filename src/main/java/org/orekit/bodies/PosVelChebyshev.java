@@ -163,4 +163,84 @@ class PosVelChebyshev implements TimeStamped, Serializable {
 
     }
 
+    /** Get the position and optionally the velocity at a specified date.
+     * <p>
+     * This method uses Clenshaw recurrences and stores the coordinates
+     * directly in caller-provided arrays, at indices {@code 3 * index},
+     * {@code 3 * index + 1} and {@code 3 * index + 2}, so it does not
+     * build any intermediate object.
+     * </p>
+     * @param date date at which position-velocity is requested
+     * @param positions array where to store the position
+     * @param velocities array where to store the velocity (may be null
+     * if only position is desired)
+     * @param index index of the date in the arrays
+     * @since 8.0
+     */
+    public void getPositionVelocity(final AbsoluteDate date,
+                                    final double[] positions, final double[] velocities,
+                                    final int index) {
+
+        // normalize date
+        final double t = (2 * date.offsetFrom(start, timeScale) - duration) / duration;
+        final double twoT = 2 * t;
+
+        // Clenshaw recurrence for the values
+        double xB1 = 0;
+        double yB1 = 0;
+        double zB1 = 0;
+        double xB2 = 0;
+        double yB2 = 0;
+        double zB2 = 0;
+
+        // Clenshaw recurrence for the derivatives
+        double xD1 = 0;
+        double yD1 = 0;
+        double zD1 = 0;
+        double xD2 = 0;
+        double yD2 = 0;
+        double zD2 = 0;
+
+        final boolean withVelocity = velocities != null;
+        for (int k = xCoeffs.length - 1; k > 0; --k) {
+
+            if (withVelocity) {
+                // the derivatives recurrence uses the values recurrence before update
+                final double xD = 2 * xB1 + twoT * xD1 - xD2;
+                final double yD = 2 * yB1 + twoT * yD1 - yD2;
+                final double zD = 2 * zB1 + twoT * zD1 - zD2;
+                xD2 = xD1;
+                yD2 = yD1;
+                zD2 = zD1;
+                xD1 = xD;
+                yD1 = yD;
+                zD1 = zD;
+            }
+
+            final double xB = xCoeffs[k] + twoT * xB1 - xB2;
+            final double yB = yCoeffs[k] + twoT * yB1 - yB2;
+            final double zB = zCoeffs[k] + twoT * zB1 - zB2;
+            xB2 = xB1;
+            yB2 = yB1;
+            zB2 = zB1;
+            xB1 = xB;
+            yB1 = yB;
+            zB1 = zB;
+
+        }
+
+        final int i0 = 3 * index;
+        positions[i0]     = xCoeffs[0] + t * xB1 - xB2;
+        positions[i0 + 1] = yCoeffs[0] + t * yB1 - yB2;
+        positions[i0 + 2] = zCoeffs[0] + t * zB1 - zB2;
+
+        if (withVelocity) {
+            final double vScale = 2 / duration;
+            velocities[i0]     = vScale * (xB1 + t * xD1 - xD2);
+            velocities[i0 + 1] = vScale * (yB1 + t * yD1 - yD2);
+            velocities[i0 + 2] = vScale * (zB1 + t * zD1 - zD2);
+        }
+
+    }
+
 }
@@ -26,8 +26,16 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.regex.Pattern;
 
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 
@@ -68,6 +76,9 @@ public class DataProvidersManager {
     /** Name of the property defining the root directories or zip/jar files path for default configuration. */
     public static final String OREKIT_DATA_PATH = "orekit.data.path";
 
+    /** Default executor for concurrent feeding (lazily built). */
+    private static ExecutorService defaultExecutor;
+
     /** Supported data providers. */
     private final List<DataProvider> providers;
 
@@ -81,7 +92,7 @@ public class DataProvidersManager {
      */
     private DataProvidersManager() {
         providers = new ArrayList<DataProvider>();
-        loaded    = new LinkedHashSet<String>();
+        loaded    = Collections.synchronizedSet(new LinkedHashSet<String>());
     }
 
     /** Get the unique instance.
@@ -299,6 +310,125 @@ public class DataProvidersManager {
 
     }
 
+    /** Feed several independent data loaders concurrently.
+     * <p>
+     * This method is equivalent to calling {@link #feed(String, DataLoader)}
+     * for each loader, but the loaders are fed in parallel using a default
+     * pool of daemon threads. It is intended for applications that need
+     * several independent data sets at startup (for example Earth Orientation
+     * Parameters, UTC-TAI history and planetary ephemerides).
+     * </p>
+     * @param supportedNames regular expressions for file names supported by
+     * each loader
+     * @param loaders data loaders to use, they must be independent from
+     * each other
+     * @return list of indicators for some data loaded by each loader
+     * @exception OrekitException if one of the data loaders cannot be fed
+     * or if the default configuration cannot be set up
+     * @see #feed(List, List, ExecutorService)
+     * @since 8.0
+     */
+    public List<Boolean> feed(final List<String> supportedNames, final List<? extends DataLoader> loaders)
+        throws OrekitException {
+        return feed(supportedNames, loaders, getDefaultExecutor());
+    }
+
+    /** Feed several independent data loaders concurrently.
+     * <p>
+     * Each loader is fed by one task submitted to the executor, using the
+     * same algorithm as {@link #feed(String, DataLoader)}: for each loader,
+     * providers are still tried sequentially in the order in which they were
+     * {@link #addProvider(DataProvider) added}. The data providers must therefore
+     * support being used by several threads at once, which is the case for the
+     * providers from the Orekit library. Providers must not be added or removed
+     * while this method runs.
+     * </p>
+     * <p>
+     * If several loaders fail, the error triggered by the first one in the
+     * list is thrown, once all tasks have completed.
+     * </p>
+     * @param supportedNames regular expressions for file names supported by
+     * each loader
+     * @param loaders data loaders to use, they must be independent from
+     * each other
+     * @param executor executor service to use for concurrent feeding
+     * @return list of indicators for some data loaded by each loader
+     * @exception OrekitException if one of the data loaders cannot be fed
+     * or if the default configuration cannot be set up
+     * @since 8.0
+     */
+    public List<Boolean> feed(final List<String> supportedNames, final List<? extends DataLoader> loaders,
+                              final ExecutorService executor)
+        throws OrekitException {
+
+        if (supportedNames.size() != loaders.size()) {
+            throw new DimensionMismatchException(loaders.size(), supportedNames.size());
+        }
+
+        // set up a default configuration once, before tasks run concurrently
+        if (providers.isEmpty()) {
+            addDefaultProviders();
+        }
+
+        final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(loaders.size());
+        for (int i = 0; i < loaders.size(); ++i) {
+            final String     names  = supportedNames.get(i);
+            final DataLoader loader = loaders.get(i);
+            futures.add(executor.submit(new Callable<Boolean>() {
+                /** {@inheritDoc} */
+                public Boolean call() throws OrekitException {
+                    return feed(names, loader);
+                }
+            }));
+        }
+
+        // wait for all tasks to complete before reporting errors
+        final List<Boolean> results = new ArrayList<Boolean>(loaders.size());
+        Throwable firstError = null;
+        try {
+            for (final Future<Boolean> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException ee) {
+                    results.add(Boolean.FALSE);
+                    if (firstError == null) {
+                        firstError = ee.getCause();
+                    }
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new OrekitException(ie, LocalizedFormats.SIMPLE_MESSAGE, ie.getMessage());
+        }
+
+        if (firstError instanceof OrekitException) {
+            throw (OrekitException) firstError;
+        } else if (firstError != null) {
+            throw OrekitException.createInternalError(firstError);
+        }
+
+        return results;
+
+    }
+
+    /** Get the default executor for concurrent feeding.
+     * @return default executor
+     */
+    private static synchronized ExecutorService getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            final ThreadFactory factory = new ThreadFactory() {
+                /** {@inheritDoc} */
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "Orekit-data-feed");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+            defaultExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), factory);
+        }
+        return defaultExecutor;
+    }
+
     /** Data loading monitoring wrapper class. */
     private class MonitoringWrapper implements DataLoader {
 
@@ -0,0 +1,311 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.PreloadedCoefficientsReader;
+import org.orekit.forces.gravity.potential.TideSystem;
+import org.orekit.frames.EOPEntry;
+import org.orekit.frames.EOPHistoryLoader;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.DateComponents;
+import org.orekit.time.OffsetModel;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.time.UTCTAIOffsetsLoader;
+import org.orekit.utils.IERSConventions;
+
+/** Orekit data snapshot, for fast startup.
+ * <p>
+ * A snapshot is generated beforehand by {@link DataSnapshotWriter}, typically
+ * at application build or deployment time. At run time, it is memory-mapped
+ * read-only and used to configure the factories, so UTC-TAI history, Earth
+ * Orientation Parameters and gravity field are available without browsing
+ * the data providers nor parsing any text file:
+ * </p>
+ * <pre>
+ *   new DataSnapshot(file).configureFactories();
+ * </pre>
+ * <p>
+ * The factories must be configured before any data is loaded, and no other
+ * loaders should be registered in them, otherwise the snapshot may be ignored.
+ * Celestial bodies are not stored in snapshots: JPL ephemerides files are
+ * already binary files that are read on demand.
+ * </p>
+ * @see DataSnapshotWriter
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class DataSnapshot {
+
+    /** Size of an int in bytes. */
+    private static final int INT_SIZE = 4;
+
+    /** Size of a double in bytes. */
+    private static final int DOUBLE_SIZE = 8;
+
+    /** Number of doubles in EOP entries. */
+    private static final int EOP_DOUBLES = 8;
+
+    /** Snapshot file. */
+    private final File file;
+
+    /** Mapped file content. */
+    private final ByteBuffer buffer;
+
+    /** Offset of the UTC-TAI section. */
+    private final int utcOffset;
+
+    /** Offsets of the EOP sections. */
+    private final Map<IERSConventions, Integer> eopOffsets;
+
+    /** Offset of the gravity field section (negative if there is no gravity field). */
+    private final int gravityOffset;
+
+    /** Simple constructor.
+     * @param file snapshot file, generated by {@link DataSnapshotWriter}
+     * @exception OrekitException if file cannot be read or is not a snapshot file
+     */
+    public DataSnapshot(final File file) throws OrekitException {
+        try {
+
+            this.file = file;
+
+            // map the whole file
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            } finally {
+                // the mapping remains valid after the file has been closed
+                raf.close();
+            }
+
+            // parse header
+            if (buffer.getLong() != DataSnapshotWriter.MAGIC ||
+                buffer.getInt()  != DataSnapshotWriter.VERSION) {
+                throw notASnapshot(null);
+            }
+
+            // locate UTC-TAI section
+            utcOffset = buffer.position();
+            skip(buffer.getInt() * (2 * INT_SIZE + 2 * DOUBLE_SIZE));
+
+            // locate EOP sections
+            eopOffsets = new EnumMap<IERSConventions, Integer>(IERSConventions.class);
+            final int nbConventions = buffer.getInt();
+            for (int i = 0; i < nbConventions; ++i) {
+                final IERSConventions conventions = IERSConventions.valueOf(readString(buffer));
+                eopOffsets.put(conventions, buffer.position());
+                skip(buffer.getInt() * (INT_SIZE + EOP_DOUBLES * DOUBLE_SIZE));
+            }
+
+            // locate gravity field section
+            if (buffer.get() != 0) {
+                gravityOffset = buffer.position();
+                skip(2 * DOUBLE_SIZE);
+                TideSystem.valueOf(readString(buffer));
+                final int degree = buffer.getInt();
+                final int order  = buffer.getInt();
+                if (degree < 0 || order < 0 || order > degree) {
+                    throw notASnapshot(null);
+                }
+                skip(2 * DOUBLE_SIZE * coefficientsNumber(degree, order));
+            } else {
+                gravityOffset = -1;
+            }
+
+            if (buffer.hasRemaining()) {
+                throw notASnapshot(null);
+            }
+
+        } catch (BufferUnderflowException bue) {
+            throw notASnapshot(bue);
+        } catch (IllegalArgumentException iae) {
+            throw notASnapshot(iae);
+        } catch (IOException ioe) {
+            throw new OrekitException(ioe, OrekitMessages.UNABLE_TO_FIND_FILE, file.getAbsolutePath());
+        }
+    }
+
+    /** Get the snapshot file.
+     * @return snapshot file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /** Configure the factories to use the snapshot.
+     * <p>
+     * This method registers loaders in {@link TimeScalesFactory}, {@link
+     * FramesFactory} (one for each {@link IERSConventions IERS conventions}
+     * stored in the snapshot) and {@link GravityFieldFactory} (if a gravity
+     * field is stored in the snapshot). Data are decoded from the mapped file
+     * only when the factories need them.
+     * </p>
+     * @exception OrekitException if the gravity field cannot be set up
+     */
+    public void configureFactories() throws OrekitException {
+
+        TimeScalesFactory.addUTCTAIOffsetsLoader(new UTCTAIOffsetsLoader() {
+            /** {@inheritDoc} */
+            public List<OffsetModel> loadOffsets() {
+                return readOffsets();
+            }
+        });
+
+        for (final Map.Entry<IERSConventions, Integer> entry : eopOffsets.entrySet()) {
+            final int offset = entry.getValue();
+            FramesFactory.addEOPHistoryLoader(entry.getKey(), new EOPHistoryLoader() {
+                /** {@inheritDoc} */
+                public void fillHistory(final IERSConventions.NutationCorrectionConverter converter,
+                                        final SortedSet<EOPEntry> history)
+                    throws OrekitException {
+                    // EOP were stored after conversion, the converter is not needed
+                    readEOP(offset, history);
+                }
+            });
+        }
+
+        if (gravityOffset >= 0) {
+            GravityFieldFactory.addPotentialCoefficientsReader(readGravityField());
+        }
+
+    }
+
+    /** Read the UTC-TAI offsets.
+     * @return UTC-TAI offsets models
+     */
+    private List<OffsetModel> readOffsets() {
+        final ByteBuffer view = buffer.duplicate();
+        view.position(utcOffset);
+        final int n = view.getInt();
+        final List<OffsetModel> offsets = new ArrayList<OffsetModel>(n);
+        for (int i = 0; i < n; ++i) {
+            final DateComponents start = new DateComponents(DateComponents.MODIFIED_JULIAN_EPOCH, view.getInt());
+            final int    mjdRef = view.getInt();
+            final double offset = view.getDouble();
+            final double slope  = view.getDouble();
+            offsets.add(new OffsetModel(start, mjdRef, offset, slope));
+        }
+        return offsets;
+    }
+
+    /** Read one EOP history.
+     * @param offset offset of the EOP section
+     * @param history history to fill up
+     * @exception OrekitException if UTC time scale cannot be retrieved
+     */
+    private void readEOP(final int offset, final SortedSet<EOPEntry> history)
+        throws OrekitException {
+        final ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        final int n = view.getInt();
+        for (int i = 0; i < n; ++i) {
+            final int mjd = view.getInt();
+            history.add(new EOPEntry(mjd,
+                                     view.getDouble(), view.getDouble(),
+                                     view.getDouble(), view.getDouble(),
+                                     view.getDouble(), view.getDouble(),
+                                     view.getDouble(), view.getDouble()));
+        }
+    }
+
+    /** Read the gravity field.
+     * @return reader containing the gravity field
+     * @exception OrekitException if the gravity field cannot be set up
+     */
+    private PreloadedCoefficientsReader readGravityField() throws OrekitException {
+        try {
+            final ByteBuffer view = buffer.duplicate();
+            view.position(gravityOffset);
+            final double     ae         = view.getDouble();
+            final double     mu         = view.getDouble();
+            final TideSystem tideSystem = TideSystem.valueOf(readString(view));
+            final int        degree     = view.getInt();
+            final int        order      = view.getInt();
+            final int        rows       = degree + 1;
+            final double[][] c          = new double[rows][];
+            final double[][] s          = new double[rows][];
+            for (int n = 0; n <= degree; ++n) {
+                final int mMax = FastMath.min(n, order);
+                c[n] = new double[mMax + 1];
+                s[n] = new double[mMax + 1];
+                for (int m = 0; m <= mMax; ++m) {
+                    c[n][m] = view.getDouble();
+                    s[n][m] = view.getDouble();
+                }
+            }
+            return new PreloadedCoefficientsReader(file.getName(), ae, mu, tideSystem, c, s);
+        } catch (UnsupportedEncodingException uee) {
+            throw notASnapshot(uee);
+        }
+    }
+
+    /** Get the number of coefficients in a triangular array.
+     * @param degree maximal degree
+     * @param order maximal order
+     * @return number of coefficients
+     */
+    private static int coefficientsNumber(final int degree, final int order) {
+        return (order + 1) * (order + 2) / 2 + (degree - order) * (order + 1);
+    }
+
+    /** Skip some bytes in the mapped buffer.
+     * @param bytes number of bytes to skip
+     */
+    private void skip(final int bytes) {
+        if (bytes < 0 || bytes > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        buffer.position(buffer.position() + bytes);
+    }
+
+    /** Build an exception for files that are not snapshots.
+     * @param cause underlying cause (may be null)
+     * @return exception
+     */
+    private OrekitException notASnapshot(final Exception cause) {
+        return new OrekitException(cause, OrekitMessages.NOT_AN_OREKIT_DATA_SNAPSHOT, file.getAbsolutePath());
+    }
+
+    /** Read a string written by {@link java.io.DataOutput#writeUTF(String)}.
+     * @param view buffer to read from
+     * @return read string
+     * @exception UnsupportedEncodingException if UTF-8 is not supported (should never happen)
+     */
+    private static String readString(final ByteBuffer view) throws UnsupportedEncodingException {
+        final byte[] bytes = new byte[view.getShort() & 0xffff];
+        view.get(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+}
@@ -0,0 +1,197 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.data;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider.NormalizedSphericalHarmonics;
+import org.orekit.frames.EOPEntry;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.OffsetModel;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.IERSConventions;
+
+/** Writer for Orekit data snapshots.
+ * <p>
+ * This class exports the data already loaded (or loadable) by the factories
+ * into one binary file: the UTC-TAI history from {@link TimeScalesFactory},
+ * the Earth Orientation Parameters histories for all {@link IERSConventions
+ * IERS conventions} from {@link FramesFactory} and optionally one gravity field
+ * from {@link GravityFieldFactory}. The file can then be used by {@link
+ * DataSnapshot} to configure the factories without parsing any text file.
+ * </p>
+ * <p>
+ * The file is written in big-endian order. It contains a header with a magic
+ * number and a format version, followed by one section for UTC-TAI offsets,
+ * one section for EOP and one section for gravity field. EOP histories are
+ * stored once they have been converted by the loaders, so a snapshot does not
+ * depend on the original files formats. IERS conventions for which no EOP can
+ * be loaded are not stored.
+ * </p>
+ * @see DataSnapshot
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class DataSnapshotWriter {
+
+    /** Magic number at file start (ASCII for "OREKITSN"). */
+    static final long MAGIC = 0x4f52454b4954534eL;
+
+    /** Format version. */
+    static final int VERSION = 1;
+
+    /** Maximal degree of the gravity field to store. */
+    private final int gravityDegree;
+
+    /** Maximal order of the gravity field to store. */
+    private final int gravityOrder;
+
+    /** Simple constructor.
+     * @param gravityDegree maximal degree of the gravity field to store
+     * (if negative, no gravity field is stored)
+     * @param gravityOrder maximal order of the gravity field to store
+     */
+    public DataSnapshotWriter(final int gravityDegree, final int gravityOrder) {
+        this.gravityDegree = gravityDegree;
+        this.gravityOrder  = gravityOrder;
+    }
+
+    /** Write a data snapshot file.
+     * @param file file to write
+     * @exception OrekitException if data cannot be loaded or if the
+     * gravity field is time-dependent
+     * @exception IOException if file cannot be written
+     */
+    public void write(final File file) throws OrekitException, IOException {
+
+        // load everything before opening the file, so errors do not leave partial files
+        final List<OffsetModel> offsets = TimeScalesFactory.getUTC().getOffsetModels();
+        NormalizedSphericalHarmonicsProvider gravity = null;
+        if (gravityDegree >= 0) {
+            gravity = GravityFieldFactory.getNormalizedProvider(gravityDegree, gravityOrder);
+            if (gravity.getReferenceDate() != null) {
+                throw new OrekitException(OrekitMessages.TIME_DEPENDENT_GRAVITY_FIELD_IN_SNAPSHOT);
+            }
+        }
+
+        final DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+
+            // header
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+
+            // UTC-TAI offsets
+            out.writeInt(offsets.size());
+            for (final OffsetModel offset : offsets) {
+                out.writeInt(offset.getStart().getMJD());
+                out.writeInt(offset.getMJDRef());
+                out.writeDouble(offset.getOffset());
+                out.writeDouble(offset.getSlope());
+            }
+
+            // Earth Orientation Parameters
+            writeEOP(out);
+
+            // gravity field
+            out.writeBoolean(gravity != null);
+            if (gravity != null) {
+                writeGravity(out, gravity);
+            }
+
+        } finally {
+            out.close();
+        }
+
+    }
+
+    /** Write the Earth Orientation Parameters section.
+     * @param out output stream
+     * @exception IOException if file cannot be written
+     */
+    private void writeEOP(final DataOutputStream out) throws IOException {
+
+        // gather the available histories
+        final Map<IERSConventions, List<EOPEntry>> histories =
+                new EnumMap<IERSConventions, List<EOPEntry>>(IERSConventions.class);
+        for (final IERSConventions conventions : IERSConventions.values()) {
+            try {
+                final List<EOPEntry> entries = FramesFactory.getEOPHistory(conventions, true).getEntries();
+                if (!entries.isEmpty()) {
+                    histories.put(conventions, entries);
+                }
+            } catch (OrekitException oe) {
+                // no EOP available for these conventions, they will not be stored
+            }
+        }
+
+        out.writeInt(histories.size());
+        for (final Map.Entry<IERSConventions, List<EOPEntry>> history : histories.entrySet()) {
+            out.writeUTF(history.getKey().name());
+            out.writeInt(history.getValue().size());
+            for (final EOPEntry entry : history.getValue()) {
+                out.writeInt(entry.getMjd());
+                out.writeDouble(entry.getUT1MinusUTC());
+                out.writeDouble(entry.getLOD());
+                out.writeDouble(entry.getX());
+                out.writeDouble(entry.getY());
+                out.writeDouble(entry.getDdPsi());
+                out.writeDouble(entry.getDdEps());
+                out.writeDouble(entry.getDx());
+                out.writeDouble(entry.getDy());
+            }
+        }
+
+    }
+
+    /** Write the gravity field section.
+     * @param out output stream
+     * @param gravity gravity field provider
+     * @exception OrekitException if coefficients cannot be retrieved
+     * @exception IOException if file cannot be written
+     */
+    private void writeGravity(final DataOutputStream out, final NormalizedSphericalHarmonicsProvider gravity)
+        throws OrekitException, IOException {
+        out.writeDouble(gravity.getAe());
+        out.writeDouble(gravity.getMu());
+        out.writeUTF(gravity.getTideSystem().name());
+        out.writeInt(gravity.getMaxDegree());
+        out.writeInt(gravity.getMaxOrder());
+        final NormalizedSphericalHarmonics harmonics = gravity.onDate(AbsoluteDate.J2000_EPOCH);
+        for (int n = 0; n <= gravity.getMaxDegree(); ++n) {
+            for (int m = 0; m <= FastMath.min(n, gravity.getMaxOrder()); ++m) {
+                out.writeDouble(harmonics.getNormalizedCnm(n, m));
+                out.writeDouble(harmonics.getNormalizedSnm(n, m));
+            }
+        }
+    }
+
+}
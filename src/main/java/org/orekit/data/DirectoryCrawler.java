@@ -21,9 +21,6 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.ParseException;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 
@@ -47,6 +44,14 @@ import org.orekit.errors.OrekitMessages;
  * Zip archives entries are supported recursively.
  * </p>
  * <p>
+ * The directories listings are kept in an index, so feeding several data
+ * loaders from the same crawler does not browse the filesystem again for
+ * directories that did not change. The index can be persisted in a file
+ * using {@link #DirectoryCrawler(File, File)}, so it is reused across
+ * runs. Gzip-compressed files are decompressed in a background thread
+ * while the data loader parses them.
+ * </p>
+ * <p>
  * This is a simple application of the <code>visitor</code> design pattern for
  * directory hierarchy crawling.
  * </p>
@@ -58,22 +63,53 @@ public class DirectoryCrawler implements DataProvider {
     /** Root directory. */
     private final File root;
 
+    /** Index of the directories tree. */
+    private final DirectoryIndex index;
+
+    /** File where the index is persisted (may be null). */
+    private final File indexFile;
+
     /** Build a data files crawler.
      * @param root root of the directories tree (must be a directory)
      * @exception OrekitException if root is not a directory
      */
     public DirectoryCrawler(final File root) throws OrekitException {
+        this(root, null);
+    }
+
+    /** Build a data files crawler with a persistent index.
+     * <p>
+     * The index is loaded from the file if it exists, and saved back
+     * after each feeding that changed it. An unreadable index file is
+     * silently ignored, the index being rebuilt from the filesystem.
+     * </p>
+     * @param root root of the directories tree (must be a directory)
+     * @param indexFile file where the index of the tree is persisted
+     * (may be null if index should be kept in memory only)
+     * @exception OrekitException if root is not a directory
+     * @since 8.0
+     */
+    public DirectoryCrawler(final File root, final File indexFile) throws OrekitException {
         if (!root.isDirectory()) {
             throw new OrekitException(OrekitMessages.NOT_A_DIRECTORY, root.getAbsolutePath());
         }
-        this.root = root;
+        this.root      = root;
+        this.index     = new DirectoryIndex(root);
+        this.indexFile = indexFile;
+        if (indexFile != null) {
+            index.load(indexFile);
+        }
     }
 
     /** {@inheritDoc} */
     public boolean feed(final Pattern supported, final DataLoader visitor)
         throws OrekitException {
         try {
-            return feed(supported, visitor, root);
+            final boolean loaded = feed(supported, visitor, root);
+            if (indexFile != null && index.isModified()) {
+                index.save(indexFile);
+            }
+            return loaded;
         } catch (IOException ioe) {
             throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
         } catch (ParseException pe) {
@@ -95,50 +131,42 @@ public class DirectoryCrawler implements DataProvider {
         throws OrekitException, IOException, ParseException {
 
         // search in current directory
-        final File[] list = directory.listFiles();
-        Arrays.sort(list, new Comparator<File>() {
-            @Override
-            public int compare(final File o1, final File o2) {
-                return o1.compareTo(o2);
-            }
-        });
+        final DirectoryIndex.Entry[] list = index.list(directory);
 
         OrekitException delayedException = null;
         boolean loaded = false;
         for (int i = 0; i < list.length; ++i) {
             try {
                 if (visitor.stillAcceptsData()) {
-                    if (list[i].isDirectory()) {
-
-                        // recurse in the sub-directory
-                        loaded = feed(supported, visitor, list[i]) || loaded;
-
-                    } else if (ZIP_ARCHIVE_PATTERN.matcher(list[i].getName()).matches()) {
-
-                        // browse inside the zip/jar file
-                        final DataProvider zipProvider = new ZipJarCrawler(list[i]);
-                        loaded = zipProvider.feed(supported, visitor) || loaded;
-
-                    } else {
-
-                        // remove suffix from gzip files
-                        final Matcher gzipMatcher = GZIP_FILE_PATTERN.matcher(list[i].getName());
-                        final String baseName =
-                            gzipMatcher.matches() ? gzipMatcher.group(1) : list[i].getName();
-
-                        if (supported.matcher(baseName).matches()) {
-
-                            // visit the current file
-                            InputStream input = new FileInputStream(list[i]);
-                            if (gzipMatcher.matches()) {
-                                input = new GZIPInputStream(input);
-                            }
-                            visitor.loadData(input, list[i].getPath());
-                            input.close();
-                            loaded = true;
-
+                    final File file = new File(directory, list[i].getName());
+                    switch (list[i].getKind()) {
+                        case DIRECTORY :
+                            // recurse in the sub-directory
+                            loaded = feed(supported, visitor, file) || loaded;
+                            break;
+                        case ARCHIVE : {
+                            // browse inside the zip/jar file
+                            final DataProvider zipProvider = new ZipJarCrawler(file);
+                            loaded = zipProvider.feed(supported, visitor) || loaded;
+                            break;
                         }
+                        default :
+                            if (supported.matcher(list[i].getBaseName()).matches()) {
+
+                                // visit the current file
+                                InputStream input = new FileInputStream(file);
+                                if (list[i].getKind() == DirectoryIndex.Kind.GZIP) {
+                                    // decompress in a background thread while the loader parses
+                                    input = new PipelinedInputStream(new GZIPInputStream(input));
+                                }
+                                try {
+                                    visitor.loadData(input, file.getPath());
+                                } finally {
+                                    input.close();
+                                }
+                                loaded = true;
 
+                            }
                     }
                 }
             } catch (OrekitException oe) {
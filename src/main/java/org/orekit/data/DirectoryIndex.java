@@ -0,0 +1,322 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.data;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+
+/** Index of a directories tree, used by {@link DirectoryCrawler}.
+ * <p>
+ * The index maps each directory of the tree to its sorted list of entries,
+ * with their kind (sub-directory, zip/jar archive, gzip-compressed file or
+ * regular file) and the base name used to match data loaders patterns. A
+ * directory is listed again only when its modification time changes, so
+ * feeding several data loaders from the same tree does not browse the
+ * filesystem over and over. The index can be persisted to a file so it
+ * survives restarts.
+ * </p>
+ * <p>
+ * As filesystems may have coarse modification times, directories modified
+ * less than {@link #SAFETY_MARGIN} milliseconds before they were listed are
+ * always listed again.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+class DirectoryIndex {
+
+    /** Safety margin for directories modification times (ms). */
+    static final long SAFETY_MARGIN = 2000L;
+
+    /** Header of persisted index files. */
+    private static final String HEADER = "# Orekit directory index, version 1";
+
+    /** Encoding of persisted index files. */
+    private static final String ENCODING = "UTF-8";
+
+    /** Separator for persisted fields. */
+    private static final char SEPARATOR = '\t';
+
+    /** Kind of entries. */
+    enum Kind {
+
+        /** Sub-directory. */
+        DIRECTORY,
+
+        /** Zip or jar archive. */
+        ARCHIVE,
+
+        /** Gzip-compressed file. */
+        GZIP,
+
+        /** Regular file. */
+        REGULAR;
+
+    }
+
+    /** Listed directories, indexed by their path relative to root. */
+    private final Map<String, Listing> listings;
+
+    /** Root of the directories tree. */
+    private final File root;
+
+    /** Indicator for index changed since last load or save. */
+    private volatile boolean modified;
+
+    /** Simple constructor.
+     * @param root root of the directories tree
+     */
+    DirectoryIndex(final File root) {
+        this.root     = root;
+        this.listings = new ConcurrentHashMap<String, Listing>();
+        this.modified = false;
+    }
+
+    /** Get the entries of a directory.
+     * @param directory directory to list
+     * @return sorted entries of the directory
+     */
+    Entry[] list(final File directory) {
+
+        final String key = relativePath(directory);
+        final Listing cached = listings.get(key);
+        final long lastModified = directory.lastModified();
+        if (cached != null && cached.lastModified == lastModified &&
+            lastModified + SAFETY_MARGIN < cached.listed) {
+            // the directory has not changed since it was listed
+            return cached.entries;
+        }
+
+        // list the directory
+        final File[] files = directory.listFiles();
+        Arrays.sort(files);
+        final Entry[] entries = new Entry[files.length];
+        for (int i = 0; i < files.length; ++i) {
+            entries[i] = new Entry(files[i].getName(), files[i].isDirectory());
+        }
+        listings.put(key, new Listing(lastModified, System.currentTimeMillis(), entries));
+        modified = true;
+        return entries;
+
+    }
+
+    /** Check if the index has been modified since it was last loaded or saved.
+     * @return true if the index has been modified
+     */
+    boolean isModified() {
+        return modified;
+    }
+
+    /** Get the path of a directory relative to root.
+     * @param directory directory
+     * @return path of the directory relative to root, using '/' as separator
+     */
+    private String relativePath(final File directory) {
+        final String rootPath = root.getPath();
+        final String path     = directory.getPath();
+        final String relative = path.length() > rootPath.length() ? path.substring(rootPath.length() + 1) : "";
+        return relative.replace(File.separatorChar, '/');
+    }
+
+    /** Load the index from a file.
+     * <p>
+     * Unreadable or inconsistent files are ignored, as the index will
+     * simply be rebuilt from the filesystem.
+     * </p>
+     * @param file file containing a persisted index
+     */
+    void load(final File file) {
+        if (!file.isFile()) {
+            return;
+        }
+        try {
+            final BufferedReader reader =
+                    new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING));
+            try {
+                if (!HEADER.equals(reader.readLine())) {
+                    return;
+                }
+                String directory = null;
+                long lastModified = 0;
+                long listed = 0;
+                final List<Entry> entries = new ArrayList<Entry>();
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    final String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+                    if (fields.length == 4 && "D".equals(fields[0])) {
+                        if (directory != null) {
+                            listings.put(directory, new Listing(lastModified, listed,
+                                                                entries.toArray(new Entry[entries.size()])));
+                        }
+                        lastModified = Long.parseLong(fields[1]);
+                        listed       = Long.parseLong(fields[2]);
+                        directory    = fields[3];
+                        entries.clear();
+                    } else if (fields.length == 2 && directory != null &&
+                               ("S".equals(fields[0]) || "F".equals(fields[0]))) {
+                        entries.add(new Entry(fields[1], "S".equals(fields[0])));
+                    } else {
+                        // inconsistent file, ignore it completely
+                        listings.clear();
+                        return;
+                    }
+                }
+                if (directory != null) {
+                    listings.put(directory, new Listing(lastModified, listed,
+                                                        entries.toArray(new Entry[entries.size()])));
+                }
+                modified = false;
+            } finally {
+                reader.close();
+            }
+        } catch (IOException ioe) {
+            listings.clear();
+        } catch (NumberFormatException nfe) {
+            listings.clear();
+        }
+    }
+
+    /** Save the index to a file.
+     * <p>
+     * The index is first written to a temporary file which is then renamed,
+     * so concurrent readers never see partially written files.
+     * </p>
+     * @param file file where to save the index
+     * @exception IOException if index cannot be saved
+     */
+    synchronized void save(final File file) throws IOException {
+        final File tmp = new File(file.getPath() + ".tmp");
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), ENCODING));
+        try {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (final Map.Entry<String, Listing> mapEntry : listings.entrySet()) {
+                final Listing listing = mapEntry.getValue();
+                writer.write("D" + SEPARATOR + listing.lastModified + SEPARATOR + listing.listed +
+                             SEPARATOR + mapEntry.getKey() + '\n');
+                for (final Entry entry : listing.entries) {
+                    writer.write((entry.getKind() == Kind.DIRECTORY ? "S" : "F") + SEPARATOR +
+                                 entry.getName() + '\n');
+                }
+            }
+        } finally {
+            writer.close();
+        }
+        if (file.exists() && !file.delete() || !tmp.renameTo(file)) {
+            throw new IOException(file.getPath());
+        }
+        modified = false;
+    }
+
+    /** Listing of one directory. */
+    private static class Listing {
+
+        /** Modification time of the directory when listed. */
+        private final long lastModified;
+
+        /** Time at which the directory was listed. */
+        private final long listed;
+
+        /** Sorted entries. */
+        private final Entry[] entries;
+
+        /** Simple constructor.
+         * @param lastModified modification time of the directory when listed
+         * @param listed time at which the directory was listed
+         * @param entries sorted entries
+         */
+        Listing(final long lastModified, final long listed, final Entry[] entries) {
+            this.lastModified = lastModified;
+            this.listed       = listed;
+            this.entries      = entries;
+        }
+
+    }
+
+    /** Entry in a directory. */
+    static class Entry {
+
+        /** Name of the entry. */
+        private final String name;
+
+        /** Name to match against loaders patterns. */
+        private final String baseName;
+
+        /** Kind of the entry. */
+        private final Kind kind;
+
+        /** Simple constructor.
+         * @param name name of the entry
+         * @param isDirectory if true, the entry is a sub-directory
+         */
+        Entry(final String name, final boolean isDirectory) {
+            this.name = name;
+            if (isDirectory) {
+                kind     = Kind.DIRECTORY;
+                baseName = name;
+            } else if (DataProvider.ZIP_ARCHIVE_PATTERN.matcher(name).matches()) {
+                kind     = Kind.ARCHIVE;
+                baseName = name;
+            } else {
+                final Matcher gzipMatcher = DataProvider.GZIP_FILE_PATTERN.matcher(name);
+                if (gzipMatcher.matches()) {
+                    kind     = Kind.GZIP;
+                    baseName = gzipMatcher.group(1);
+                } else {
+                    kind     = Kind.REGULAR;
+                    baseName = name;
+                }
+            }
+        }
+
+        /** Get the name of the entry.
+         * @return name of the entry
+         */
+        String getName() {
+            return name;
+        }
+
+        /** Get the name to match against loaders patterns.
+         * @return name to match against loaders patterns (i.e. without
+         * compression suffix)
+         */
+        String getBaseName() {
+            return baseName;
+        }
+
+        /** Get the kind of the entry.
+         * @return kind of the entry
+         */
+        Kind getKind() {
+            return kind;
+        }
+
+    }
+
+}
@@ -0,0 +1,212 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.math3.util.FastMath;
+
+/** Input stream reading its source in a separate thread.
+ * <p>
+ * This stream is used to pipeline decompression and parsing: a background
+ * thread reads (and hence decompresses) the source stream by chunks and
+ * pushes them in a small bounded queue, while the caller thread parses the
+ * chunks already available.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+class PipelinedInputStream extends InputStream {
+
+    /** Size of the chunks. */
+    private static final int CHUNK_SIZE = 16384;
+
+    /** Maximum number of chunks waiting to be parsed. */
+    private static final int MAX_CHUNKS = 4;
+
+    /** Marker for end of stream. */
+    private static final byte[] END = new byte[0];
+
+    /** Executor for background reading. */
+    private static ExecutorService executor;
+
+    /** Chunks read by the background thread. */
+    private final BlockingQueue<byte[]> queue;
+
+    /** Latch released when the background thread has completed. */
+    private final CountDownLatch done;
+
+    /** Indicator for closed stream. */
+    private volatile boolean closed;
+
+    /** Error encountered by the background thread. */
+    private volatile IOException error;
+
+    /** Current chunk. */
+    private byte[] chunk;
+
+    /** Position in current chunk. */
+    private int position;
+
+    /** Simple constructor.
+     * <p>
+     * The source stream is read and closed by the background thread.
+     * </p>
+     * @param source source stream
+     */
+    PipelinedInputStream(final InputStream source) {
+        this.queue    = new ArrayBlockingQueue<byte[]>(MAX_CHUNKS);
+        this.done     = new CountDownLatch(1);
+        this.chunk    = null;
+        this.position = 0;
+        this.closed   = false;
+        getExecutor().execute(new Runnable() {
+            /** {@inheritDoc} */
+            public void run() {
+                try {
+                    final byte[] buffer = new byte[CHUNK_SIZE];
+                    int r = 0;
+                    while (r >= 0 && !closed) {
+                        int n = 0;
+                        while (n < CHUNK_SIZE && (r = source.read(buffer, n, CHUNK_SIZE - n)) >= 0) {
+                            n += r;
+                        }
+                        if (n > 0) {
+                            final byte[] read = new byte[n];
+                            System.arraycopy(buffer, 0, read, 0, n);
+                            queue.put(read);
+                        }
+                    }
+                } catch (IOException ioe) {
+                    error = ioe;
+                } catch (InterruptedException ie) {
+                    error = new InterruptedIOException(ie.getMessage());
+                } finally {
+                    try {
+                        source.close();
+                    } catch (IOException ioe) {
+                        // ignored, the data has already been read
+                    }
+                    try {
+                        queue.put(END);
+                    } catch (InterruptedException ie) {
+                        // nobody will read the end marker
+                    }
+                    done.countDown();
+                }
+            }
+        });
+    }
+
+    /** Get the executor for background reading.
+     * @return executor for background reading
+     */
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            final ThreadFactory factory = new ThreadFactory() {
+                /** {@inheritDoc} */
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "Orekit-data-pipeline");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+            executor = Executors.newCachedThreadPool(factory);
+        }
+        return executor;
+    }
+
+    /** Make sure a chunk with remaining data is available.
+     * @return false if the end of stream has been reached
+     * @exception IOException if the background thread failed to read the source
+     */
+    private boolean fill() throws IOException {
+        while (chunk == null || position >= chunk.length) {
+            if (chunk == END) {
+                return false;
+            }
+            try {
+                chunk    = queue.take();
+                position = 0;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(ie.getMessage());
+            }
+            if (chunk == END) {
+                if (error != null) {
+                    throw error;
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read() throws IOException {
+        return fill() ? (chunk[position++] & 0xff) : -1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        final int n = FastMath.min(len, chunk.length - position);
+        System.arraycopy(chunk, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int available() {
+        return (chunk == null || chunk == END) ? 0 : chunk.length - position;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        // stop the background thread and wait for it to release the source
+        closed = true;
+        try {
+            do {
+                // make room in the queue, in case the background thread is blocked
+                queue.clear();
+            } while (!done.await(1, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ie.getMessage());
+        }
+        chunk = END;
+    }
+
+}
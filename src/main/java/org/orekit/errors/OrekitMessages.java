@@ -176,7 +176,13 @@ public enum OrekitMessages implements Localizable {
     UNABLE_TO_COMPUTE_DSST_MEAN_PARAMETERS("unable to compute mean orbit from osculating orbit after {0} iterations"),
     OUT_OF_RANGE_DERIVATION_ORDER("derivation order {0} is out of range"),
     OUT_OF_RANGE_LATITUDE("out of range latitude: {0}, [{1}, {2}]"),
-    ORBIT_TYPE_NOT_ALLOWED("orbit type {0} not allowed here, allowed types: {1}");
+    ORBIT_TYPE_NOT_ALLOWED("orbit type {0} not allowed here, allowed types: {1}"),
+    NOT_A_TABULATED_TRANSFORM_FILE("file {0} is not a tabulated transform file"),
+    OUT_OF_RANGE_TABULATED_TRANSFORM_DATE("out of range date for tabulated transform: {0}, [{1}, {2}]"),
+    NOT_AN_OREKIT_DATA_SNAPSHOT("file {0} is not an Orekit data snapshot"),
+    TIME_DEPENDENT_GRAVITY_FIELD_IN_SNAPSHOT("time-dependent gravity fields cannot be stored in data snapshots"),
+    NOT_AN_OREKIT_GRAVITY_GRID("file {0} is not an Orekit gravity grid"),
+    TOO_LARGE_FILE_FOR_MAPPING("file {0} is too large to be mapped in memory ({1} bytes, limit is {2} bytes)");
 
     // CHECKSTYLE: resume JavadocVariable check
 
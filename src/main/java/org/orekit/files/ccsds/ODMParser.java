@@ -31,6 +31,7 @@ import org.orekit.errors.OrekitMessages;
 import org.orekit.files.general.OrbitFile;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.DateTimeComponents;
+import org.orekit.time.DateTimeParser;
 import org.orekit.time.TimeScalesFactory;
 import org.orekit.utils.Constants;
 import org.orekit.utils.IERSConventions;
@@ -271,7 +272,7 @@ public abstract class ODMParser {
                     odmFile.setHeaderComment(comment);
                     comment.clear();
                 }
-                odmFile.setCreationDate(new AbsoluteDate(keyValue.getValue(), TimeScalesFactory.getUTC()));
+                odmFile.setCreationDate(DateTimeParser.parseDate(keyValue.getValue(), TimeScalesFactory.getUTC()));
                 return true;
 
             case ORIGINATOR:
@@ -567,34 +568,53 @@ public abstract class ODMParser {
      */
     protected AbsoluteDate parseDate(final String date, final OrbitFile.TimeSystem timeSystem)
         throws OrekitException {
+        return parseDate(date, 0, date.length(), timeSystem);
+    }
+
+    /** Parse a date from a range of characters.
+     * <p>
+     * This method allows parsing dates directly from data lines,
+     * without extracting intermediate strings.
+     * </p>
+     * @param sequence character sequence containing the date
+     * @param start index of the first character of the date
+     * @param end index after the last character of the date
+     * @param timeSystem time system to use
+     * @return parsed date
+     * @exception OrekitException if some time scale cannot be retrieved
+     * @since 8.0
+     */
+    protected AbsoluteDate parseDate(final CharSequence sequence, final int start, final int end,
+                                     final OrbitFile.TimeSystem timeSystem)
+        throws OrekitException {
         switch (timeSystem) {
             case GMST:
-                return new AbsoluteDate(date, TimeScalesFactory.getGMST(conventions, false));
+                return DateTimeParser.parseDate(sequence, start, end, TimeScalesFactory.getGMST(conventions, false));
             case GPS:
-                return new AbsoluteDate(date, TimeScalesFactory.getGPS());
+                return DateTimeParser.parseDate(sequence, start, end, TimeScalesFactory.getGPS());
             case TAI:
-                return new AbsoluteDate(date, TimeScalesFactory.getTAI());
+                return DateTimeParser.parseDate(sequence, start, end, TimeScalesFactory.getTAI());
             case TCB:
-                return new AbsoluteDate(date, TimeScalesFactory.getTCB());
+                return DateTimeParser.parseDate(sequence, start, end, TimeScalesFactory.getTCB());
             case TDB:
-                return new AbsoluteDate(date, TimeScalesFactory.getTDB());
+                return DateTimeParser.parseDate(sequence, start, end, TimeScalesFactory.getTDB());
             case TCG:
-                return new AbsoluteDate(date, TimeScalesFactory.getTCG());
+                return DateTimeParser.parseDate(sequence, start, end, TimeScalesFactory.getTCG());
             case TT:
-                return new AbsoluteDate(date, TimeScalesFactory.getTT());
+                return DateTimeParser.parseDate(sequence, start, end, TimeScalesFactory.getTT());
             case UT1:
-                return new AbsoluteDate(date, TimeScalesFactory.getUT1(conventions, false));
+                return DateTimeParser.parseDate(sequence, start, end, TimeScalesFactory.getUT1(conventions, false));
             case UTC:
-                return new AbsoluteDate(date, TimeScalesFactory.getUTC());
+                return DateTimeParser.parseDate(sequence, start, end, TimeScalesFactory.getUTC());
             case MET: {
-                final DateTimeComponents clock = DateTimeComponents.parseDateTime(date);
+                final DateTimeComponents clock = DateTimeParser.parseDateTime(sequence, start, end);
                 final double offset = clock.getDate().getYear() * Constants.JULIAN_YEAR +
                         clock.getDate().getDayOfYear() * Constants.JULIAN_DAY +
                         clock.getTime().getSecondsInDay();
                 return missionReferenceDate.shiftedBy(offset);
             }
             case MRT: {
-                final DateTimeComponents clock = DateTimeComponents.parseDateTime(date);
+                final DateTimeComponents clock = DateTimeParser.parseDateTime(sequence, start, end);
                 final double offset = clock.getDate().getYear() * Constants.JULIAN_YEAR +
                         clock.getDate().getDayOfYear() * Constants.JULIAN_DAY +
                         clock.getTime().getSecondsInDay();
@@ -35,6 +35,7 @@ import org.orekit.frames.Frame;
 import org.orekit.frames.LOFType;
 import org.orekit.orbits.CartesianOrbit;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.time.DateTimeParser;
 import org.orekit.utils.IERSConventions;
 import org.orekit.utils.PVCoordinates;
 
@@ -249,25 +250,30 @@ public class OEMParser extends ODMParser implements OrbitFileParser {
             if (line.trim().length() > 0) {
                 pi.keyValue = new KeyValue(line, pi.lineNumber, pi.fileName);
                 if (pi.keyValue.getKeyword() == null) {
-                    Scanner sc = null;
+                    // split the line in place, without creating intermediate strings
+                    final int n = splitFields(line, pi.fieldsStart, pi.fieldsEnd);
+                    if (n < 7 || (n > 7 && n < 10)) {
+                        throw new OrekitException(OrekitMessages.UNABLE_TO_PARSE_LINE_IN_FILE,
+                                                  pi.lineNumber, pi.fileName, line);
+                    }
                     try {
-                        sc = new Scanner(line);
-                        final AbsoluteDate date = parseDate(sc.next(), pi.lastEphemeridesBlock.getMetaData().getTimeSystem());
-                        final Vector3D position = new Vector3D(Double.parseDouble(sc.next()) * 1000,
-                                                               Double.parseDouble(sc.next()) * 1000,
-                                                               Double.parseDouble(sc.next()) * 1000);
-                        final Vector3D velocity = new Vector3D(Double.parseDouble(sc.next()) * 1000,
-                                                               Double.parseDouble(sc.next()) * 1000,
-                                                               Double.parseDouble(sc.next()) * 1000);
+                        final AbsoluteDate date = parseDate(line, pi.fieldsStart[0], pi.fieldsEnd[0],
+                                                            pi.lastEphemeridesBlock.getMetaData().getTimeSystem());
+                        final Vector3D position = new Vector3D(parseField(line, pi, 1) * 1000,
+                                                               parseField(line, pi, 2) * 1000,
+                                                               parseField(line, pi, 3) * 1000);
+                        final Vector3D velocity = new Vector3D(parseField(line, pi, 4) * 1000,
+                                                               parseField(line, pi, 5) * 1000,
+                                                               parseField(line, pi, 6) * 1000);
                         final CartesianOrbit orbit =
                                 new CartesianOrbit(new PVCoordinates(position, velocity),
                                                    pi.lastEphemeridesBlock.getMetaData().getFrame(),
                                                    date, pi.file.getMuUsed());
                         Vector3D acceleration = null;
-                        if (sc.hasNext()) {
-                            acceleration = new Vector3D(Double.parseDouble(sc.next()) * 1000,
-                                                        Double.parseDouble(sc.next()) * 1000,
-                                                        Double.parseDouble(sc.next()) * 1000);
+                        if (n >= 10) {
+                            acceleration = new Vector3D(parseField(line, pi, 7) * 1000,
+                                                        parseField(line, pi, 8) * 1000,
+                                                        parseField(line, pi, 9) * 1000);
                         }
                         final OEMFile.EphemeridesDataLine epDataLine =
                                 new OEMFile.EphemeridesDataLine(orbit, acceleration);
@@ -275,10 +281,6 @@ public class OEMParser extends ODMParser implements OrbitFileParser {
                     } catch (NumberFormatException nfe) {
                         throw new OrekitException(OrekitMessages.UNABLE_TO_PARSE_LINE_IN_FILE,
                                                   pi.lineNumber, pi.fileName, line);
-                    } finally {
-                        if (sc != null) {
-                            sc.close();
-                        }
                     }
                 } else {
                     switch (pi.keyValue.getKeyword()) {
@@ -307,6 +309,46 @@ public class OEMParser extends ODMParser implements OrbitFileParser {
         }
     }
 
+    /** Split a line in whitespace separated fields.
+     * @param line line to split
+     * @param fieldsStart array where to store fields start indices
+     * @param fieldsEnd array where to store fields end indices
+     * @return number of fields in the line (may be larger than
+     * the arrays size, in which case only the first fields are stored)
+     */
+    private static int splitFields(final String line, final int[] fieldsStart, final int[] fieldsEnd) {
+        int n = 0;
+        int i = 0;
+        while (i < line.length()) {
+            while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+                ++i;
+            }
+            if (i < line.length()) {
+                final int start = i;
+                while (i < line.length() && !Character.isWhitespace(line.charAt(i))) {
+                    ++i;
+                }
+                if (n < fieldsStart.length) {
+                    fieldsStart[n] = start;
+                    fieldsEnd[n]   = i;
+                }
+                ++n;
+            }
+        }
+        return n;
+    }
+
+    /** Parse a real field from a line already split.
+     * @param line line containing the field
+     * @param pi the parser info
+     * @param index index of the field
+     * @return parsed field
+     * @exception NumberFormatException if the field cannot be parsed
+     */
+    private static double parseField(final String line, final ParseInfo pi, final int index) {
+        return DateTimeParser.parseDouble(line, pi.fieldsStart[index], pi.fieldsEnd[index]);
+    }
+
     /**
      * Parse the covariance data lines, create a set of CovarianceMatrix objects
      * and add them in the covarianceMatrices list of the ephemerides block.
@@ -411,9 +453,17 @@ public class OEMParser extends ODMParser implements OrbitFileParser {
         /** Stored comments. */
         private List<String> commentTmp;
 
+        /** Start indices of the fields in ephemerides data lines. */
+        private final int[] fieldsStart;
+
+        /** End indices of the fields in ephemerides data lines. */
+        private final int[] fieldsEnd;
+
         /** Create a new {@link ParseInfo} object. */
         protected ParseInfo() {
             lineNumber = 0;
+            fieldsStart = new int[10];
+            fieldsEnd   = new int[10];
             file = new OEMFile();
             commentTmp = new ArrayList<String>();
         }
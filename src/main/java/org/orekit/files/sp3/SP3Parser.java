@@ -36,6 +36,7 @@ import org.orekit.files.general.OrbitFile.TimeSystem;
 import org.orekit.files.sp3.SP3File.SP3FileType;
 import org.orekit.files.sp3.SP3File.SP3OrbitType;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.time.DateTimeParser;
 import org.orekit.time.TimeScale;
 import org.orekit.time.TimeScalesFactory;
 import org.orekit.utils.PVCoordinates;
@@ -345,12 +346,13 @@ public class SP3Parser implements OrbitFileParser {
 
         switch (line.charAt(0)) {
             case '*': {
-                final int year = Integer.parseInt(line.substring(3, 7).trim());
-                final int month = Integer.parseInt(line.substring(8, 10).trim());
-                final int day = Integer.parseInt(line.substring(11, 13).trim());
-                final int hour = Integer.parseInt(line.substring(14, 16).trim());
-                final int minute = Integer.parseInt(line.substring(17, 19).trim());
-                final double second = Double.parseDouble(line.substring(20, 31).trim());
+                // parse fixed columns in place, without creating intermediate strings
+                final int year = DateTimeParser.parseInt(line, 3, 7);
+                final int month = DateTimeParser.parseInt(line, 8, 10);
+                final int day = DateTimeParser.parseInt(line, 11, 13);
+                final int hour = DateTimeParser.parseInt(line, 14, 16);
+                final int minute = DateTimeParser.parseInt(line, 17, 19);
+                final double second = DateTimeParser.parseDouble(line, 20, 31);
 
                 pi.latestEpoch = new AbsoluteDate(year, month, day,
                                                   hour, minute, second,
@@ -0,0 +1,197 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.orekit.bodies.CelestialBody;
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.Frame;
+import org.orekit.frames.Transform;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.utils.PVCoordinatesProvider;
+
+/** Memo for quantities shared by several force models during one derivatives evaluation.
+ * <p>
+ * When a {@link org.orekit.propagation.numerical.NumericalPropagator numerical propagator}
+ * evaluates the time derivatives of the state, all {@link ForceModel force models} are
+ * called in turn with the same {@link SpacecraftState} instance. Several of them need
+ * the same quantities, like the transform between the inertial frame and the Earth frame
+ * (gravity field, solid tides, ocean tides) or the Sun position (third body attraction,
+ * solar radiation pressure). This class computes these quantities lazily, at most once
+ * for each state.
+ * </p>
+ * <p>
+ * The memo is bound to the state passed to its methods: as soon as a method is called
+ * with a different state instance, all previously computed quantities are dropped.
+ * Instances are retrieved from {@link
+ * org.orekit.propagation.numerical.TimeDerivativesEquations#getEvaluationContext()}.
+ * </p>
+ * <p>
+ * This class is <em>not</em> thread-safe, each derivatives evaluation chain must use
+ * its own instance.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class EvaluationContext {
+
+    /** State for which the memoized quantities are valid. */
+    private SpacecraftState state;
+
+    /** Transforms from various frames to the state frame. */
+    private final Map<Frame, Transform> fromFrames;
+
+    /** Transforms from the state frame to various frames. */
+    private final Map<Frame, Transform> toFrames;
+
+    /** Positions of various bodies in the state frame. */
+    private final Map<PVCoordinatesProvider, Vector3D> positions;
+
+    /** Number of requests served. */
+    private long requests;
+
+    /** Number of quantities actually computed. */
+    private long computations;
+
+    /** Simple constructor.
+     */
+    public EvaluationContext() {
+        this.state        = null;
+        this.fromFrames   = new IdentityHashMap<Frame, Transform>();
+        this.toFrames     = new IdentityHashMap<Frame, Transform>();
+        this.positions    = new IdentityHashMap<PVCoordinatesProvider, Vector3D>();
+        this.requests     = 0;
+        this.computations = 0;
+    }
+
+    /** Get the transform from a frame to the state frame.
+     * <p>
+     * This method is equivalent to {@code frame.getTransformTo(s.getFrame(), s.getDate())}.
+     * </p>
+     * @param s current state
+     * @param frame frame from which the transform starts
+     * @return transform from {@code frame} to state frame at state date
+     * @exception OrekitException if transform cannot be computed
+     */
+    public Transform getTransformFrom(final SpacecraftState s, final Frame frame)
+        throws OrekitException {
+        checkState(s);
+        ++requests;
+        return lookupTransformFrom(s, frame);
+    }
+
+    /** Get the transform from the state frame to a frame.
+     * <p>
+     * The transform is computed as the inverse of {@link
+     * #getTransformFrom(SpacecraftState, Frame)}, so both are consistent.
+     * </p>
+     * @param s current state
+     * @param frame frame to which the transform ends
+     * @return transform from state frame to {@code frame} at state date
+     * @exception OrekitException if transform cannot be computed
+     */
+    public Transform getTransformTo(final SpacecraftState s, final Frame frame)
+        throws OrekitException {
+        checkState(s);
+        ++requests;
+        Transform transform = toFrames.get(frame);
+        if (transform == null) {
+            transform = lookupTransformFrom(s, frame).getInverse();
+            toFrames.put(frame, transform);
+        }
+        return transform;
+    }
+
+    /** Get the position of a body in the state frame.
+     * <p>
+     * This method is equivalent to {@code body.getPVCoordinates(s.getDate(), s.getFrame()).getPosition()},
+     * using the faster {@link CelestialBody#getPosition(org.orekit.time.AbsoluteDate, Frame)}
+     * when the body is a {@link CelestialBody}.
+     * </p>
+     * @param s current state
+     * @param body body whose position is desired
+     * @return position of the body in state frame at state date
+     * @exception OrekitException if position cannot be computed
+     */
+    public Vector3D getPosition(final SpacecraftState s, final PVCoordinatesProvider body)
+        throws OrekitException {
+        checkState(s);
+        ++requests;
+        Vector3D position = positions.get(body);
+        if (position == null) {
+            ++computations;
+            position = (body instanceof CelestialBody) ?
+                       ((CelestialBody) body).getPosition(s.getDate(), s.getFrame()) :
+                       body.getPVCoordinates(s.getDate(), s.getFrame()).getPosition();
+            positions.put(body, position);
+        }
+        return position;
+    }
+
+    /** Get the number of requests served since instance creation.
+     * @return number of requests served
+     * @see #getComputations()
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /** Get the number of quantities actually computed since instance creation.
+     * <p>
+     * The difference between {@link #getRequests()} and this number is the
+     * number of computations saved by sharing quantities.
+     * </p>
+     * @return number of quantities actually computed
+     * @see #getRequests()
+     */
+    public long getComputations() {
+        return computations;
+    }
+
+    /** Look up the transform from a frame to the state frame, computing it if needed.
+     * @param s current state
+     * @param frame frame from which the transform starts
+     * @return transform from {@code frame} to state frame at state date
+     * @exception OrekitException if transform cannot be computed
+     */
+    private Transform lookupTransformFrom(final SpacecraftState s, final Frame frame)
+        throws OrekitException {
+        Transform transform = fromFrames.get(frame);
+        if (transform == null) {
+            ++computations;
+            transform = frame.getTransformTo(s.getFrame(), s.getDate());
+            fromFrames.put(frame, transform);
+        }
+        return transform;
+    }
+
+    /** Drop memoized quantities if state changed.
+     * @param s current state
+     */
+    private void checkState(final SpacecraftState s) {
+        if (s != state) {
+            state = s;
+            fromFrames.clear();
+            toFrames.clear();
+            positions.clear();
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import org.apache.commons.math3.ode.AbstractParameterizable;
 import org.apache.commons.math3.util.FastMath;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.EvaluationContext;
 import org.orekit.forces.ForceModel;
 import org.orekit.forces.gravity.potential.TideSystem;
 import org.orekit.forces.gravity.potential.TideSystemProvider;
@@ -129,8 +130,9 @@ public class CunninghamAttractionModel
         // get the position in body frame
         final AbsoluteDate date = s.getDate();
         final UnnormalizedSphericalHarmonics harmonics = provider.onDate(date);
-        final Transform fromBodyFrame = bodyFrame.getTransformTo(s.getFrame(), date);
-        final Transform toBodyFrame   = fromBodyFrame.getInverse();
+        final EvaluationContext context = adder.getEvaluationContext();
+        final Transform fromBodyFrame = context.getTransformFrom(s, bodyFrame);
+        final Transform toBodyFrame   = context.getTransformTo(s, bodyFrame);
         final Vector3D relative = toBodyFrame.transformPosition(s.getPVCoordinates().getPosition());
 
         final double x = relative.getX();
@@ -26,6 +26,7 @@ import org.apache.commons.math3.ode.AbstractParameterizable;
 import org.apache.commons.math3.util.FastMath;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.EvaluationContext;
 import org.orekit.forces.ForceModel;
 import org.orekit.forces.gravity.potential.TideSystem;
 import org.orekit.forces.gravity.potential.TideSystemProvider;
@@ -126,9 +127,10 @@ public class DrozinerAttractionModel
         // Get the position in body frame
         final AbsoluteDate date = s.getDate();
         final UnnormalizedSphericalHarmonics harmonics = provider.onDate(date);
-        final Transform bodyToInertial = centralBodyFrame.getTransformTo(s.getFrame(), date);
+        final EvaluationContext context = adder.getEvaluationContext();
+        final Transform bodyToInertial = context.getTransformFrom(s, centralBodyFrame);
         final Vector3D posInBody =
-            bodyToInertial.getInverse().transformVector(s.getPVCoordinates().getPosition());
+            context.getTransformTo(s, centralBodyFrame).transformVector(s.getPVCoordinates().getPosition());
         final double xBody = posInBody.getX();
         final double yBody = posInBody.getY();
         final double zBody = posInBody.getZ();
@@ -0,0 +1,429 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.gravity;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.math3.analysis.differentiation.DerivativeStructure;
+import org.apache.commons.math3.geometry.euclidean.threed.FieldRotation;
+import org.apache.commons.math3.geometry.euclidean.threed.FieldVector3D;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.ode.AbstractParameterizable;
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.EvaluationContext;
+import org.orekit.forces.ForceModel;
+import org.orekit.frames.Frame;
+import org.orekit.frames.Transform;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.numerical.TimeDerivativesEquations;
+import org.orekit.time.AbsoluteDate;
+
+/** Gravity field model interpolating accelerations tabulated on a body-fixed grid.
+ * <p>
+ * This model wraps a {@link HolmesFeatherstoneAttractionModel} and replaces the
+ * spherical harmonics evaluation by a tricubic Lagrange interpolation (4 points
+ * along radius, latitude and longitude, i.e. 64 grid nodes) of the non-central
+ * acceleration tabulated in a file generated beforehand by {@link
+ * GriddedGravityWriter}. The interpolation cost does not depend on the degree of
+ * the field, so this is mainly intended for long propagations with high degree
+ * fields in a known altitude band, for example LEO missions with 120&times;120
+ * fields, trading a controlled amount of accuracy for speed. Outside of the
+ * tabulated band, the wrapped model is evaluated directly.
+ * </p>
+ * <p>
+ * The file is memory-mapped read-only, so loading is almost instantaneous, the
+ * grid does not use heap memory and several threads or JVMs on the same host share
+ * the same physical pages. Instances are thread-safe as long as the central attraction
+ * coefficient is not changed.
+ * </p>
+ * <p>
+ * The interpolation error is driven by the angular step with respect to the shortest
+ * wavelength of the field, and by the radial step with respect to the (a<sub>e</sub>/r)<sup>n</sup>
+ * decay of the highest degrees. As interpolation is cubic, the error decreases as the
+ * fourth power of the steps, so halving the angular step reduces it by a factor about 16
+ * and multiplies the file size by 4. The angular step should be a small fraction of the
+ * shortest half-wavelength 180°/n<sub>max</sub> of the field (i.e. 1.5° for a degree 120
+ * field). The accuracy obtained for a given grid can be checked by comparing {@link
+ * #gradient(AbsoluteDate, Vector3D)} with {@link HolmesFeatherstoneAttractionModel#gradient(AbsoluteDate,
+ * Vector3D) the direct evaluation} at random points in the band.
+ * </p>
+ * <p>
+ * Time-dependent fields are frozen at the date used when writing the grid. If the
+ * central attraction coefficient of the wrapped model is changed (for example during
+ * orbit determination), the tabulated accelerations are scaled accordingly. The
+ * partial derivatives with respect to position and velocity are computed by the
+ * wrapped model, as they are needed only for state transition matrices which do
+ * not require the same accuracy as the accelerations themselves.
+ * </p>
+ * @see GriddedGravityWriter
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class GriddedGravityAttractionModel extends AbstractParameterizable implements ForceModel {
+
+    /** Size of a double in bytes. */
+    private static final int DOUBLE_SIZE = 8;
+
+    /** Gridded file. */
+    private final File file;
+
+    /** Wrapped model, used outside of the grid and for partial derivatives. */
+    private final HolmesFeatherstoneAttractionModel direct;
+
+    /** Name of the body frame in which grid was computed. */
+    private final String frameName;
+
+    /** Central attraction coefficient used when grid was computed. */
+    private final double gridMu;
+
+    /** Minimum radius of the grid. */
+    private final double rMin;
+
+    /** Maximum radius of the grid. */
+    private final double rMax;
+
+    /** Radial step. */
+    private final double radialStep;
+
+    /** Latitude step. */
+    private final double latitudeStep;
+
+    /** Longitude step. */
+    private final double longitudeStep;
+
+    /** Number of radius shells. */
+    private final int radialPoints;
+
+    /** Number of latitude points. */
+    private final int latitudePoints;
+
+    /** Number of longitude points. */
+    private final int longitudePoints;
+
+    /** Mapped accelerations. */
+    private final DoubleBuffer accelerations;
+
+    /** Simple constructor.
+     * @param file gridded gravity file, generated by {@link GriddedGravityWriter}
+     * @param direct wrapped model, used outside of the grid and for partial derivatives
+     * (it should be the model used to generate the grid)
+     * @exception OrekitException if file cannot be read or is not a gridded gravity file,
+     * or if its body frame does not match the wrapped model body frame
+     */
+    public GriddedGravityAttractionModel(final File file, final HolmesFeatherstoneAttractionModel direct)
+        throws OrekitException {
+
+        super(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT);
+
+        try {
+
+            this.file   = file;
+            this.direct = direct;
+
+            // map the whole file
+            final ByteBuffer buffer;
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                if (raf.length() > Integer.MAX_VALUE) {
+                    throw new OrekitException(OrekitMessages.TOO_LARGE_FILE_FOR_MAPPING,
+                                              file.getAbsolutePath(), raf.length(), Integer.MAX_VALUE);
+                }
+                buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            } finally {
+                // the mapping remains valid after the file has been closed
+                raf.close();
+            }
+
+            // parse header
+            if (buffer.getLong() != GriddedGravityWriter.MAGIC ||
+                buffer.getInt()  != GriddedGravityWriter.VERSION) {
+                throw new OrekitException(OrekitMessages.NOT_AN_OREKIT_GRAVITY_GRID, file.getAbsolutePath());
+            }
+            frameName       = readString(buffer);
+            gridMu          = buffer.getDouble();
+            rMin            = buffer.getDouble();
+            rMax            = buffer.getDouble();
+            radialPoints    = buffer.getInt();
+            latitudePoints  = buffer.getInt();
+            longitudePoints = buffer.getInt();
+
+            final long nodes = ((long) radialPoints) * latitudePoints * longitudePoints;
+            if (!(rMax > rMin) ||
+                radialPoints    < GriddedGravityWriter.MIN_POINTS ||
+                latitudePoints  < GriddedGravityWriter.MIN_POINTS ||
+                longitudePoints < GriddedGravityWriter.MIN_POINTS ||
+                buffer.remaining() != nodes * GriddedGravityWriter.RECORD_DOUBLES * DOUBLE_SIZE) {
+                throw new OrekitException(OrekitMessages.NOT_AN_OREKIT_GRAVITY_GRID, file.getAbsolutePath());
+            }
+
+            // the grid is tabulated in body frame, it must match the wrapped model
+            if (!frameName.equals(direct.getBodyFrame().getName())) {
+                throw new OrekitException(OrekitMessages.FRAMES_MISMATCH,
+                                          frameName, direct.getBodyFrame().getName());
+            }
+
+            radialStep    = (rMax - rMin) / (radialPoints - 1);
+            latitudeStep  = FastMath.PI / (latitudePoints - 1);
+            longitudeStep = 2 * FastMath.PI / longitudePoints;
+            accelerations = buffer.slice().asDoubleBuffer();
+
+        } catch (BufferUnderflowException bue) {
+            throw new OrekitException(bue, OrekitMessages.NOT_AN_OREKIT_GRAVITY_GRID, file.getAbsolutePath());
+        } catch (IOException ioe) {
+            throw new OrekitException(ioe, OrekitMessages.UNABLE_TO_FIND_FILE, file.getAbsolutePath());
+        }
+
+    }
+
+    /** Read a string written by {@link java.io.DataOutput#writeUTF(String)}.
+     * @param buffer buffer to read from
+     * @return read string
+     * @exception UnsupportedEncodingException if UTF-8 is not supported (should never happen)
+     */
+    private static String readString(final ByteBuffer buffer) throws UnsupportedEncodingException {
+        final byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    /** Get the gridded file.
+     * @return gridded file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /** Get the wrapped model.
+     * @return wrapped model
+     */
+    public HolmesFeatherstoneAttractionModel getDirectModel() {
+        return direct;
+    }
+
+    /** Get the name of the body frame in which grid was computed.
+     * @return name of the body frame in which grid was computed
+     */
+    public String getFrameName() {
+        return frameName;
+    }
+
+    /** Get the minimum radius of the grid.
+     * @return minimum radius of the grid (m)
+     */
+    public double getMinRadius() {
+        return rMin;
+    }
+
+    /** Get the maximum radius of the grid.
+     * @return maximum radius of the grid (m)
+     */
+    public double getMaxRadius() {
+        return rMax;
+    }
+
+    /** Check if a position is covered by the grid.
+     * @param position position in body frame
+     * @return true if position is covered by the grid
+     */
+    public boolean isInGrid(final Vector3D position) {
+        final double r = position.getNorm();
+        return r >= rMin && r <= rMax;
+    }
+
+    /** Compute the gradient of the non-central part of the gravity field.
+     * <p>
+     * The gradient is interpolated if position is covered by the grid,
+     * otherwise it is computed by the wrapped model.
+     * </p>
+     * @param date current date
+     * @param position position at which gravity field is desired in body frame
+     * @return gradient of the non-central part of the gravity field
+     * @exception OrekitException if wrapped model cannot be evaluated
+     */
+    public double[] gradient(final AbsoluteDate date, final Vector3D position)
+        throws OrekitException {
+
+        final double x = position.getX();
+        final double y = position.getY();
+        final double z = position.getZ();
+        final double r = FastMath.sqrt(x * x + y * y + z * z);
+        if (!(r >= rMin && r <= rMax)) {
+            return direct.gradient(date, position);
+        }
+
+        // interpolation weights along each axis
+        final double[] w = new double[12];
+        final int iR   = select(r - rMin, radialStep, radialPoints, w, 0);
+        final int iLat = select(FastMath.asin(z / r) + 0.5 * FastMath.PI, latitudeStep, latitudePoints, w, 4);
+        final double sLon = (FastMath.atan2(y, x) + FastMath.PI) / longitudeStep;
+        final int    fLon = (int) FastMath.floor(sLon);
+        weights(sLon - fLon, w, 8);
+
+        // longitude indices wrap around
+        final int[] lonIndices = new int[4];
+        for (int k = 0; k < 4; ++k) {
+            lonIndices[k] = (fLon - 1 + k + 2 * longitudePoints) % longitudePoints;
+        }
+
+        double gx = 0;
+        double gy = 0;
+        double gz = 0;
+        for (int i = 0; i < 4; ++i) {
+            final int shell = (iR + i) * latitudePoints;
+            for (int j = 0; j < 4; ++j) {
+                final double wij = w[i] * w[4 + j];
+                final int    row = (shell + iLat + j) * longitudePoints;
+                for (int k = 0; k < 4; ++k) {
+                    // absolute reads do not change buffer state, so they are thread-safe
+                    final int    index = GriddedGravityWriter.RECORD_DOUBLES * (row + lonIndices[k]);
+                    final double wijk  = wij * w[8 + k];
+                    gx += wijk * accelerations.get(index);
+                    gy += wijk * accelerations.get(index + 1);
+                    gz += wijk * accelerations.get(index + 2);
+                }
+            }
+        }
+
+        // scale if central attraction coefficient has been changed
+        final double scale = direct.getParameter(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT) / gridMu;
+        return new double[] {
+            scale * gx, scale * gy, scale * gz
+        };
+
+    }
+
+    /** Select the interpolation nodes along a non-periodic axis.
+     * @param offset offset of the point with respect to first node
+     * @param step step between nodes
+     * @param n number of nodes
+     * @param w array where to store the interpolation weights
+     * @param start index of the first weight in the array
+     * @return index of the first interpolation node
+     */
+    private static int select(final double offset, final double step, final int n,
+                              final double[] w, final int start) {
+        final double s     = offset / step;
+        final int    first = FastMath.max(0, FastMath.min(n - 4, (int) FastMath.floor(s) - 1));
+        weights(s - (first + 1), w, start);
+        return first;
+    }
+
+    /** Compute the cubic Lagrange interpolation weights for nodes at -1, 0, 1 and 2.
+     * @param t normalized abscissa of the point with respect to node 0
+     * @param w array where to store the interpolation weights
+     * @param start index of the first weight in the array
+     */
+    private static void weights(final double t, final double[] w, final int start) {
+        final double tP1 = t + 1;
+        final double tM1 = t - 1;
+        final double tM2 = t - 2;
+        w[start]     = -t   * tM1 * tM2 / 6;
+        w[start + 1] =  tP1 * tM1 * tM2 / 2;
+        w[start + 2] = -tP1 * t   * tM2 / 2;
+        w[start + 3] =  tP1 * t   * tM1 / 6;
+    }
+
+    /** {@inheritDoc} */
+    public void addContribution(final SpacecraftState s, final TimeDerivativesEquations adder)
+        throws OrekitException {
+
+        // get the position in body frame
+        final Frame bodyFrame           = direct.getBodyFrame();
+        final EvaluationContext context = adder.getEvaluationContext();
+        final Transform fromBodyFrame   = context.getTransformFrom(s, bodyFrame);
+        final Transform toBodyFrame     = context.getTransformTo(s, bodyFrame);
+        final Vector3D position         = toBodyFrame.transformPosition(s.getPVCoordinates().getPosition());
+
+        // gradient of the non-central part of the gravity field
+        final Vector3D gInertial = fromBodyFrame.transformVector(new Vector3D(gradient(s.getDate(), position)));
+
+        adder.addXYZAcceleration(gInertial.getX(), gInertial.getY(), gInertial.getZ());
+
+    }
+
+    /** {@inheritDoc}
+     * <p>
+     * The partial derivatives are computed by the wrapped model.
+     * </p>
+     */
+    public FieldVector3D<DerivativeStructure> accelerationDerivatives(final AbsoluteDate date, final Frame frame,
+                                                                      final FieldVector3D<DerivativeStructure> position, final FieldVector3D<DerivativeStructure> velocity,
+                                                                      final FieldRotation<DerivativeStructure> rotation, final DerivativeStructure mass)
+        throws OrekitException {
+        return direct.accelerationDerivatives(date, frame, position, velocity, rotation, mass);
+    }
+
+    /** {@inheritDoc} */
+    public FieldVector3D<DerivativeStructure> accelerationDerivatives(final SpacecraftState s, final String paramName)
+        throws OrekitException, IllegalArgumentException {
+
+        complainIfNotSupported(paramName);
+
+        // get the position in body frame
+        final AbsoluteDate date       = s.getDate();
+        final Transform fromBodyFrame = direct.getBodyFrame().getTransformTo(s.getFrame(), date);
+        final Transform toBodyFrame   = fromBodyFrame.getInverse();
+        final Vector3D position       = toBodyFrame.transformPosition(s.getPVCoordinates().getPosition());
+
+        // gradient of the non-central part of the gravity field
+        final Vector3D gInertial = fromBodyFrame.transformVector(new Vector3D(gradient(date, position)));
+
+        final double mu = getParameter(paramName);
+        return new FieldVector3D<DerivativeStructure>(new DerivativeStructure(1, 1, gInertial.getX(), gInertial.getX() / mu),
+                              new DerivativeStructure(1, 1, gInertial.getY(), gInertial.getY() / mu),
+                              new DerivativeStructure(1, 1, gInertial.getZ(), gInertial.getZ() / mu));
+
+    }
+
+    /** {@inheritDoc} */
+    public EventDetector[] getEventsDetectors() {
+        return new EventDetector[0];
+    }
+
+    /** {@inheritDoc}
+     * <p>
+     * The parameter is shared with the wrapped model.
+     * </p>
+     */
+    public double getParameter(final String name)
+        throws IllegalArgumentException {
+        complainIfNotSupported(name);
+        return direct.getParameter(name);
+    }
+
+    /** {@inheritDoc}
+     * <p>
+     * The parameter is shared with the wrapped model.
+     * </p>
+     */
+    public void setParameter(final String name, final double value)
+        throws IllegalArgumentException {
+        complainIfNotSupported(name);
+        direct.setParameter(name, value);
+    }
+
+}
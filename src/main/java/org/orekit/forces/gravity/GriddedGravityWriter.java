@@ -0,0 +1,203 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.gravity;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.time.AbsoluteDate;
+
+/** Writer for gridded gravity files.
+ * <p>
+ * This class evaluates the non-central part of the acceleration of a {@link
+ * HolmesFeatherstoneAttractionModel Holmes-Featherstone} gravity field on a
+ * regular three-dimensional grid in body frame (radius shells &times; geocentric
+ * latitude &times; longitude) covering an altitude band, and stores the
+ * accelerations in a compact binary file. The file can then be used by
+ * {@link GriddedGravityAttractionModel} to replace the spherical harmonics
+ * evaluation by interpolation.
+ * </p>
+ * <p>
+ * The file is written in big-endian order. It contains a header with the body
+ * frame name, the central attraction coefficient used, the radial bounds and
+ * the number of points along each axis, followed by one fixed-size record per
+ * grid node, with the three Cartesian components of the acceleration in body
+ * frame. Latitudes span [-π/2, +π/2] including the poles, longitudes span
+ * [-π, +π[ and wrap around.
+ * </p>
+ * <p>
+ * Generating the grid requires one full evaluation of the field for each
+ * node, so it may take several minutes for high degree fields and fine grids.
+ * It is intended to be done once and the file reused for many propagations.
+ * </p>
+ * @see GriddedGravityAttractionModel
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class GriddedGravityWriter {
+
+    /** Magic number at file start (ASCII for "OREKITGG"). */
+    static final long MAGIC = 0x4f52454b49544747L;
+
+    /** Format version. */
+    static final int VERSION = 1;
+
+    /** Number of doubles per record. */
+    static final int RECORD_DOUBLES = 3;
+
+    /** Minimum number of points along each axis (for cubic interpolation). */
+    static final int MIN_POINTS = 4;
+
+    /** Size of the header in bytes, excluding the frame name characters. */
+    private static final int HEADER_FIXED_SIZE = 8 + 4 + 2 + 3 * 8 + 3 * 4;
+
+    /** Size of a double in bytes. */
+    private static final int DOUBLE_SIZE = 8;
+
+    /** Gravity field to tabulate. */
+    private final HolmesFeatherstoneAttractionModel model;
+
+    /** Minimum altitude of the band. */
+    private final double minAltitude;
+
+    /** Maximum altitude of the band. */
+    private final double maxAltitude;
+
+    /** Number of radius shells. */
+    private final int radialPoints;
+
+    /** Number of latitude points. */
+    private final int latitudePoints;
+
+    /** Number of longitude points. */
+    private final int longitudePoints;
+
+    /** Simple constructor.
+     * <p>
+     * Altitudes are counted from the equatorial radius of the field. Numbers of
+     * points smaller than 4 are raised to 4, as interpolation is cubic along
+     * each axis. The interpolation error depends mainly on the angular step
+     * with respect to the shortest wavelength of the field and decreases as the
+     * fourth power of the steps (see {@link GriddedGravityAttractionModel} for
+     * guidelines about steps selection). As the file is memory-mapped in one
+     * buffer when read, the total file size must not exceed 2GB.
+     * </p>
+     * @param model gravity field to tabulate
+     * @param minAltitude minimum altitude of the band (m)
+     * @param maxAltitude maximum altitude of the band (m)
+     * @param radialPoints number of radius shells, including both band limits
+     * @param latitudePoints number of latitude points, including both poles
+     * @param longitudePoints number of longitude points
+     */
+    public GriddedGravityWriter(final HolmesFeatherstoneAttractionModel model,
+                                final double minAltitude, final double maxAltitude,
+                                final int radialPoints, final int latitudePoints,
+                                final int longitudePoints) {
+        this.model           = model;
+        this.minAltitude     = minAltitude;
+        this.maxAltitude     = maxAltitude;
+        this.radialPoints    = FastMath.max(MIN_POINTS, radialPoints);
+        this.latitudePoints  = FastMath.max(MIN_POINTS, latitudePoints);
+        this.longitudePoints = FastMath.max(MIN_POINTS, longitudePoints);
+    }
+
+    /** Write a gridded gravity file.
+     * <p>
+     * Time-dependent fields are frozen at the specified date.
+     * </p>
+     * @param file file to write
+     * @param date date at which field is evaluated
+     * @exception OrekitException if field cannot be evaluated or if
+     * grid is too large to be memory-mapped when read
+     * @exception IOException if file cannot be written
+     */
+    public void write(final File file, final AbsoluteDate date)
+        throws OrekitException, IOException {
+
+        // check the file can be mapped in one buffer when read
+        final String frameName = model.getBodyFrame().getName();
+        final long   size      = HEADER_FIXED_SIZE + frameName.getBytes("UTF-8").length +
+                                 ((long) radialPoints) * latitudePoints * longitudePoints *
+                                 RECORD_DOUBLES * DOUBLE_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new OrekitException(OrekitMessages.TOO_LARGE_FILE_FOR_MAPPING,
+                                      file.getAbsolutePath(), size, Integer.MAX_VALUE);
+        }
+
+        final double ae          = model.getProvider().getAe();
+        final double rMin        = ae + minAltitude;
+        final double rMax        = ae + maxAltitude;
+        final double radialStep  = (rMax - rMin) / (radialPoints - 1);
+        final double latStep     = FastMath.PI / (latitudePoints - 1);
+        final double lonStep     = 2 * FastMath.PI / longitudePoints;
+
+        // precompute longitudes trigonometric functions, they are used for all shells
+        final double[] cosLon = new double[longitudePoints];
+        final double[] sinLon = new double[longitudePoints];
+        for (int k = 0; k < longitudePoints; ++k) {
+            final double lon = -FastMath.PI + k * lonStep;
+            cosLon[k] = FastMath.cos(lon);
+            sinLon[k] = FastMath.sin(lon);
+        }
+
+        final DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+
+            // header
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(frameName);
+            out.writeDouble(model.getParameter(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT));
+            out.writeDouble(rMin);
+            out.writeDouble(rMax);
+            out.writeInt(radialPoints);
+            out.writeInt(latitudePoints);
+            out.writeInt(longitudePoints);
+
+            // records
+            for (int i = 0; i < radialPoints; ++i) {
+                final double r = rMin + i * radialStep;
+                for (int j = 0; j < latitudePoints; ++j) {
+                    final double lat    = -0.5 * FastMath.PI + j * latStep;
+                    final double rCos   = r * FastMath.cos(lat);
+                    final double rSin   = r * FastMath.sin(lat);
+                    for (int k = 0; k < longitudePoints; ++k) {
+                        final double[] g = model.gradient(date, new Vector3D(rCos * cosLon[k],
+                                                                             rCos * sinLon[k],
+                                                                             rSin));
+                        out.writeDouble(g[0]);
+                        out.writeDouble(g[1]);
+                        out.writeDouble(g[2]);
+                    }
+                }
+            }
+
+        } finally {
+            out.close();
+        }
+
+    }
+
+}
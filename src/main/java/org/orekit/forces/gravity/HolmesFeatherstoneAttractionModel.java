@@ -18,6 +18,7 @@ package org.orekit.forces.gravity;
 
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import org.apache.commons.math3.analysis.differentiation.DerivativeStructure;
 import org.apache.commons.math3.geometry.euclidean.threed.FieldRotation;
@@ -29,6 +30,7 @@ import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.ode.AbstractParameterizable;
 import org.apache.commons.math3.util.FastMath;
 import org.orekit.errors.OrekitException;
+import org.orekit.forces.EvaluationContext;
 import org.orekit.forces.ForceModel;
 import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
 import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider.NormalizedSphericalHarmonics;
@@ -65,6 +67,22 @@ import org.orekit.time.AbsoluteDate;
  * computers and mobile devices do have sufficient memory so this caching has become
  * feasible nowadays.
  * <p>
+ * The work arrays needed by the recursions (Legendre functions columns, distance
+ * powers, longitude cosines and sines) are allocated once for each thread using
+ * the model and reused afterwards, so evaluating the field does not allocate
+ * arrays whose size depends on degree and order. This is important for high degree
+ * fields evaluated millions of times by numerical propagators.
+ * </p>
+ * <p>
+ * An adaptive mode can be selected at construction time by providing an
+ * acceleration accuracy target. In this mode, the degree actually evaluated is
+ * selected at each call from the current radius, using the (a<sub>e</sub>/r)<sup>n</sup>
+ * decay of the terms and the magnitudes of the coefficients of each degree, so that
+ * the estimated contribution of the neglected terms remains below the target. This
+ * is useful for high altitude satellites (MEO, GEO) for which most high degree terms
+ * are far below integrator tolerance. The degree used by the last evaluation is
+ * available from {@link #getLastDegree()}.
+ * </p>
  * @author Luc Maisonobe
  * @since 6.0
  */
@@ -78,6 +96,15 @@ public class HolmesFeatherstoneAttractionModel
      */
     private static final int SCALING = 930;
 
+    /** Margin factor applied to the accuracy target before decreasing degree.
+     * <p>
+     * The degree is increased as soon as the accuracy target requires it, but
+     * it is decreased only when the lower degree would still fulfill a stricter
+     * target, thus avoiding chattering when radius oscillates around a threshold.
+     * </p>
+     */
+    private static final double HYSTERESIS = 0.5;
+
     /** Provider for the spherical harmonics. */
     private final NormalizedSphericalHarmonicsProvider provider;
 
@@ -99,6 +126,18 @@ public class HolmesFeatherstoneAttractionModel
     /** Scaled sectorial Pbar<sub>m,m</sub>/u<sup>m</sup> &times; 2<sup>-SCALING</sup>. */
     private final double[] sectorial;
 
+    /** Index of the first recursion coefficient of each order in the flattened arrays. */
+    private final int[] columnStart;
+
+    /** Acceleration accuracy target for adaptive degree (non-positive for full degree). */
+    private final double accuracy;
+
+    /** Acceleration magnitude bounds for each degree, at unit distance ratio and unit &mu;/r². */
+    private final double[] degreeMagnitudes;
+
+    /** Per-thread work arrays. */
+    private final ThreadLocal<Workspace> workspace;
+
     /** Creates a new instance.
      * @param centralBodyFrame rotating body frame
      * @param provider provider for spherical harmonics
@@ -106,12 +145,49 @@ public class HolmesFeatherstoneAttractionModel
      */
     public HolmesFeatherstoneAttractionModel(final Frame centralBodyFrame,
                                              final NormalizedSphericalHarmonicsProvider provider) {
+        this(centralBodyFrame, provider, 0.0, null);
+    }
+
+    /** Creates a new instance with adaptive degree.
+     * <p>
+     * The magnitudes of the coefficients used to select the degree are computed
+     * once at construction, at the reference date of the provider (or at J2000
+     * epoch if the provider has no reference date).
+     * </p>
+     * @param centralBodyFrame rotating body frame
+     * @param provider provider for spherical harmonics
+     * @param accuracy acceleration accuracy target (m/s²), if not strictly
+     * positive, the full degree of the provider is always evaluated
+     * @exception OrekitException if coefficients cannot be retrieved
+     * @since 8.0
+     */
+    public HolmesFeatherstoneAttractionModel(final Frame centralBodyFrame,
+                                             final NormalizedSphericalHarmonicsProvider provider,
+                                             final double accuracy)
+        throws OrekitException {
+        this(centralBodyFrame, provider, accuracy,
+             accuracy > 0 ? computeDegreeMagnitudes(provider) : null);
+    }
+
+    /** Creates a new instance.
+     * @param centralBodyFrame rotating body frame
+     * @param provider provider for spherical harmonics
+     * @param accuracy acceleration accuracy target (m/s²)
+     * @param degreeMagnitudes acceleration magnitude bounds for each degree
+     * (null if accuracy is not strictly positive)
+     */
+    private HolmesFeatherstoneAttractionModel(final Frame centralBodyFrame,
+                                              final NormalizedSphericalHarmonicsProvider provider,
+                                              final double accuracy,
+                                              final double[] degreeMagnitudes) {
 
         super(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT);
 
         this.provider  = provider;
         this.mu        = provider.getMu();
         this.bodyFrame = centralBodyFrame;
+        this.accuracy  = accuracy;
+        this.degreeMagnitudes = degreeMagnitudes;
 
         // the pre-computed arrays hold coefficients from triangular arrays in a single
         // storing neither diagonal elements (n = m) nor the non-diagonal element n=1, m=0
@@ -120,6 +196,7 @@ public class HolmesFeatherstoneAttractionModel
         gnmOj = new double[size];
         hnmOj = new double[size];
         enm   = new double[size];
+        columnStart = new int[degree + 1];
 
         // pre-compute the recursion coefficients corresponding to equations 19 and 22
         // from Holmes and Featherstone paper
@@ -127,6 +204,7 @@ public class HolmesFeatherstoneAttractionModel
         // later on, i.e. from rightmost column to leftmost column
         int index = 0;
         for (int m = degree; m >= 0; --m) {
+            columnStart[m] = index;
             final int j = (m == 0) ? 2 : 1;
             for (int n = FastMath.max(2, m + 1); n <= degree; ++n) {
                 final double f = (n - m) * (n + m + 1);
@@ -145,6 +223,52 @@ public class HolmesFeatherstoneAttractionModel
             sectorial[m] = FastMath.sqrt((2 * m + 1) / (2.0 * m)) * sectorial[m - 1];
         }
 
+        // work arrays, allocated lazily once for each thread
+        final int order = provider.getMaxOrder();
+        workspace = new ThreadLocal<Workspace>() {
+            /** {@inheritDoc} */
+            @Override
+            protected Workspace initialValue() {
+                return new Workspace(degree, order);
+            }
+        };
+
+    }
+
+    /** Compute the acceleration magnitude bounds for each degree.
+     * <p>
+     * The magnitude of each degree is the root mean square of the normalized
+     * coefficients over the sphere, multiplied by √(2n+1) to bound the maximum
+     * value, and by (n+1) to account for the radial derivative of the
+     * (a/r)<sup>n+1</sup> factor.
+     * </p>
+     * @param provider provider for spherical harmonics
+     * @return acceleration magnitude bounds for each degree, at unit distance
+     * ratio and unit &mu;/r²
+     * @exception OrekitException if coefficients cannot be retrieved
+     */
+    private static double[] computeDegreeMagnitudes(final NormalizedSphericalHarmonicsProvider provider)
+        throws OrekitException {
+
+        final NormalizedSphericalHarmonics harmonics =
+                provider.onDate(provider.getReferenceDate() == null ?
+                                AbsoluteDate.J2000_EPOCH : provider.getReferenceDate());
+
+        final int degree = provider.getMaxDegree();
+        final int order  = provider.getMaxOrder();
+        final double[] magnitudes = new double[degree + 1];
+        for (int n = 2; n <= degree; ++n) {
+            double sum = 0;
+            for (int m = 0; m <= FastMath.min(n, order); ++m) {
+                final double cnm = harmonics.getNormalizedCnm(n, m);
+                final double snm = harmonics.getNormalizedSnm(n, m);
+                sum += cnm * cnm + snm * snm;
+            }
+            magnitudes[n] = (n + 1) * FastMath.sqrt((2 * n + 1) * sum);
+        }
+
+        return magnitudes;
+
     }
 
     /** {@inheritDoc} */
@@ -152,6 +276,22 @@ public class HolmesFeatherstoneAttractionModel
         return provider.getTideSystem();
     }
 
+    /** Get the provider for the spherical harmonics.
+     * @return provider for the spherical harmonics
+     * @since 8.0
+     */
+    public NormalizedSphericalHarmonicsProvider getProvider() {
+        return provider;
+    }
+
+    /** Get the rotating body frame.
+     * @return rotating body frame
+     * @since 8.0
+     */
+    public Frame getBodyFrame() {
+        return bodyFrame;
+    }
+
     /** Compute the value of the gravity field.
      * @param date current date
      * @param position position at which gravity field is desired in body frame
@@ -172,14 +312,14 @@ public class HolmesFeatherstoneAttractionModel
     public double nonCentralPart(final AbsoluteDate date, final Vector3D position)
         throws OrekitException {
 
-        final int degree = provider.getMaxDegree();
-        final int order  = provider.getMaxOrder();
         final NormalizedSphericalHarmonics harmonics = provider.onDate(date);
 
-        // allocate the columns for recursion
-        double[] pnm0Plus2 = new double[degree + 1];
-        double[] pnm0Plus1 = new double[degree + 1];
-        double[] pnm0      = new double[degree + 1];
+        // retrieve the columns for recursion
+        final Workspace w  = workspace.get();
+        w.reset();
+        double[] pnm0Plus2 = w.pnm0Plus2;
+        double[] pnm0Plus1 = w.pnm0Plus1;
+        double[] pnm0      = w.pnm0;
 
         // compute polar coordinates
         final double x   = position.getX();
@@ -196,18 +336,21 @@ public class HolmesFeatherstoneAttractionModel
         final double tOu = z / rho;
 
         // compute distance powers
-        final double[] aOrN = createDistancePowersArray(provider.getAe() / r);
+        final double[] aOrN = fillDistancePowersArray(provider.getAe() / r, w.aOrN);
+
+        // select degree and order to evaluate
+        final int degree = selectDegree(r, aOrN, w);
+        final int order  = FastMath.min(degree, provider.getMaxOrder());
 
         // compute longitude cosines/sines
-        final double[][] cosSinLambda = createCosSinArrays(position.getX() / rho, position.getY() / rho);
+        final double[][] cosSinLambda = fillCosSinArrays(position.getX() / rho, position.getY() / rho, w.cosSin);
 
         // outer summation over order
-        int    index = 0;
         double value = 0;
         for (int m = degree; m >= 0; --m) {
 
             // compute tesseral terms without derivatives
-            index = computeTesseral(m, degree, index, t, u, tOu,
+            computeTesseral(m, degree, columnStart[m], t, u, tOu,
                                     pnm0Plus2, pnm0Plus1, null, pnm0, null, null);
 
             if (m <= order) {
@@ -251,15 +394,15 @@ public class HolmesFeatherstoneAttractionModel
     public double[] gradient(final AbsoluteDate date, final Vector3D position)
         throws OrekitException {
 
-        final int degree = provider.getMaxDegree();
-        final int order  = provider.getMaxOrder();
         final NormalizedSphericalHarmonics harmonics = provider.onDate(date);
 
-        // allocate the columns for recursion
-        double[] pnm0Plus2  = new double[degree + 1];
-        double[] pnm0Plus1  = new double[degree + 1];
-        double[] pnm0       = new double[degree + 1];
-        final double[] pnm1 = new double[degree + 1];
+        // retrieve the columns for recursion
+        final Workspace w   = workspace.get();
+        w.reset();
+        double[] pnm0Plus2  = w.pnm0Plus2;
+        double[] pnm0Plus1  = w.pnm0Plus1;
+        double[] pnm0       = w.pnm0;
+        final double[] pnm1 = w.pnm1;
 
         // compute polar coordinates
         final double x    = position.getX();
@@ -277,19 +420,22 @@ public class HolmesFeatherstoneAttractionModel
         final double tOu  = z / rho;
 
         // compute distance powers
-        final double[] aOrN = createDistancePowersArray(provider.getAe() / r);
+        final double[] aOrN = fillDistancePowersArray(provider.getAe() / r, w.aOrN);
+
+        // select degree and order to evaluate
+        final int degree = selectDegree(r, aOrN, w);
+        final int order  = FastMath.min(degree, provider.getMaxOrder());
 
         // compute longitude cosines/sines
-        final double[][] cosSinLambda = createCosSinArrays(position.getX() / rho, position.getY() / rho);
+        final double[][] cosSinLambda = fillCosSinArrays(position.getX() / rho, position.getY() / rho, w.cosSin);
 
         // outer summation over order
-        int    index = 0;
         double value = 0;
-        final double[] gradient = new double[3];
+        final double[] gradient = w.gradient;
         for (int m = degree; m >= 0; --m) {
 
             // compute tesseral terms with derivatives
-            index = computeTesseral(m, degree, index, t, u, tOu,
+            computeTesseral(m, degree, columnStart[m], t, u, tOu,
                                     pnm0Plus2, pnm0Plus1, null, pnm0, pnm1, null);
 
             if (m <= order) {
@@ -366,17 +512,17 @@ public class HolmesFeatherstoneAttractionModel
     public GradientHessian gradientHessian(final AbsoluteDate date, final Vector3D position)
         throws OrekitException {
 
-        final int degree = provider.getMaxDegree();
-        final int order  = provider.getMaxOrder();
         final NormalizedSphericalHarmonics harmonics = provider.onDate(date);
 
-        // allocate the columns for recursion
-        double[] pnm0Plus2  = new double[degree + 1];
-        double[] pnm0Plus1  = new double[degree + 1];
-        double[] pnm0       = new double[degree + 1];
-        double[] pnm1Plus1  = new double[degree + 1];
-        double[] pnm1       = new double[degree + 1];
-        final double[] pnm2 = new double[degree + 1];
+        // retrieve the columns for recursion
+        final Workspace w   = workspace.get();
+        w.reset();
+        double[] pnm0Plus2  = w.pnm0Plus2;
+        double[] pnm0Plus1  = w.pnm0Plus1;
+        double[] pnm0       = w.pnm0;
+        double[] pnm1Plus1  = w.pnm1Plus1;
+        double[] pnm1       = w.pnm1;
+        final double[] pnm2 = w.pnm2;
 
         // compute polar coordinates
         final double x    = position.getX();
@@ -394,20 +540,23 @@ public class HolmesFeatherstoneAttractionModel
         final double tOu  = z / rho;
 
         // compute distance powers
-        final double[] aOrN = createDistancePowersArray(provider.getAe() / r);
+        final double[] aOrN = fillDistancePowersArray(provider.getAe() / r, w.aOrN);
+
+        // select degree and order to evaluate
+        final int degree = selectDegree(r, aOrN, w);
+        final int order  = FastMath.min(degree, provider.getMaxOrder());
 
         // compute longitude cosines/sines
-        final double[][] cosSinLambda = createCosSinArrays(position.getX() / rho, position.getY() / rho);
+        final double[][] cosSinLambda = fillCosSinArrays(position.getX() / rho, position.getY() / rho, w.cosSin);
 
         // outer summation over order
-        int    index = 0;
         double value = 0;
-        final double[]   gradient = new double[3];
-        final double[][] hessian  = new double[3][3];
+        final double[]   gradient = w.gradient;
+        final double[][] hessian  = w.hessian;
         for (int m = degree; m >= 0; --m) {
 
             // compute tesseral terms
-            index = computeTesseral(m, degree, index, t, u, tOu,
+            computeTesseral(m, degree, columnStart[m], t, u, tOu,
                                     pnm0Plus2, pnm0Plus1, pnm1Plus1, pnm0, pnm1, pnm2);
 
             if (m <= order) {
@@ -549,14 +698,73 @@ public class HolmesFeatherstoneAttractionModel
 
     }
 
+    /** Get the degree used by the last evaluation performed in the calling thread.
+     * <p>
+     * If the model was built without an accuracy target, this is always the
+     * maximal degree of the spherical harmonics provider.
+     * </p>
+     * @return degree used by the last evaluation in the calling thread
+     * (max degree of the provider if no evaluation has been performed yet)
+     * @since 8.0
+     */
+    public int getLastDegree() {
+        return workspace.get().degree;
+    }
+
+    /** Select the degree to evaluate.
+     * @param r distance to central body center
+     * @param aOrN array containing (a/r)<sup>n</sup>
+     * @param w work arrays for the current thread
+     * @return degree to evaluate
+     */
+    private int selectDegree(final double r, final double[] aOrN, final Workspace w) {
+
+        if (degreeMagnitudes == null) {
+            // full degree is always evaluated
+            return w.degree;
+        }
+
+        // find the degrees needed to fulfill the accuracy target and the stricter target
+        // (degree 2 is always evaluated, if available)
+        final int    lowest         = FastMath.min(2, degreeMagnitudes.length - 1);
+        final double scaledAccuracy = accuracy * r * r / mu;
+        int    needed = lowest;
+        int    strict = -1;
+        double tail   = 0;
+        for (int n = degreeMagnitudes.length - 1; n > lowest; --n) {
+            tail += aOrN[n] * degreeMagnitudes[n];
+            if (strict < 0 && tail > HYSTERESIS * scaledAccuracy) {
+                strict = n;
+            }
+            if (tail > scaledAccuracy) {
+                needed = n;
+                break;
+            }
+        }
+        if (strict < 0) {
+            strict = lowest;
+        }
+
+        if (needed > w.degree) {
+            // accuracy requires a higher degree
+            w.degree = needed;
+        } else if (strict < w.degree) {
+            // the stricter target allows a lower degree
+            w.degree = strict;
+        }
+
+        return w.degree;
+
+    }
+
     /** Compute a/r powers array.
      * @param aOr a/r
-     * @return array containing (a/r)<sup>n</sup>
+     * @param aOrN array to fill up
+     * @return array containing (a/r)<sup>n</sup> (i.e. {@code aOrN} itself)
      */
-    private double[] createDistancePowersArray(final double aOr) {
+    private double[] fillDistancePowersArray(final double aOr, final double[] aOrN) {
 
         // initialize array
-        final double[] aOrN = new double[provider.getMaxDegree() + 1];
         aOrN[0] = 1;
         aOrN[1] = aOr;
 
@@ -574,13 +782,14 @@ public class HolmesFeatherstoneAttractionModel
     /** Compute longitude cosines and sines.
      * @param cosLambda cos(λ)
      * @param sinLambda sin(λ)
+     * @param cosSin arrays to fill up
      * @return array containing cos(m &times; λ) in row 0
-     * and sin(m &times; λ) in row 1
+     * and sin(m &times; λ) in row 1 (i.e. {@code cosSin} itself)
      */
-    private double[][] createCosSinArrays(final double cosLambda, final double sinLambda) {
+    private double[][] fillCosSinArrays(final double cosLambda, final double sinLambda,
+                                        final double[][] cosSin) {
 
         // initialize arrays
-        final double[][] cosSin = new double[2][provider.getMaxOrder() + 1];
         cosSin[0][0] = 1;
         cosSin[1][0] = 0;
         if (provider.getMaxOrder() > 0) {
@@ -608,13 +817,89 @@ public class HolmesFeatherstoneAttractionModel
 
     }
 
+    /** Work arrays for one thread. */
+    private static class Workspace {
+
+        /** Column for scaled P<sub>n,m+2</sub>/u<sup>m+2</sup>. */
+        private final double[] pnm0Plus2;
+
+        /** Column for scaled P<sub>n,m+1</sub>/u<sup>m+1</sup>. */
+        private final double[] pnm0Plus1;
+
+        /** Column for scaled P<sub>n,m</sub>/u<sup>m</sup>. */
+        private final double[] pnm0;
+
+        /** Column for scaled dP<sub>n,m+1</sub>/u<sup>m+1</sup>. */
+        private final double[] pnm1Plus1;
+
+        /** Column for scaled dP<sub>n,m</sub>/u<sup>m</sup>. */
+        private final double[] pnm1;
+
+        /** Column for scaled d²P<sub>n,m</sub>/u<sup>m</sup>. */
+        private final double[] pnm2;
+
+        /** Distance powers (a/r)<sup>n</sup>. */
+        private final double[] aOrN;
+
+        /** Longitude cosines and sines. */
+        private final double[][] cosSin;
+
+        /** Gradient in spherical coordinates. */
+        private final double[] gradient;
+
+        /** Hessian in spherical coordinates. */
+        private final double[][] hessian;
+
+        /** Degree used by last evaluation. */
+        private int degree;
+
+        /** Simple constructor.
+         * @param degree max degree of the field
+         * @param order max order of the field
+         */
+        Workspace(final int degree, final int order) {
+            pnm0Plus2 = new double[degree + 1];
+            pnm0Plus1 = new double[degree + 1];
+            pnm0      = new double[degree + 1];
+            pnm1Plus1 = new double[degree + 1];
+            pnm1      = new double[degree + 1];
+            pnm2      = new double[degree + 1];
+            aOrN      = new double[degree + 1];
+            cosSin    = new double[2][order + 1];
+            gradient  = new double[3];
+            hessian   = new double[3][3];
+            this.degree = degree;
+        }
+
+        /** Reset the arrays that are accumulated or read before being written.
+         * <p>
+         * Some elements of the recursion columns are multiplied by zero
+         * coefficients before being written during an evaluation, they must
+         * not hold non-finite values left over from a previous evaluation.
+         * </p>
+         */
+        void reset() {
+            Arrays.fill(pnm0Plus2, 0.0);
+            Arrays.fill(pnm0Plus1, 0.0);
+            Arrays.fill(pnm0,      0.0);
+            Arrays.fill(pnm1Plus1, 0.0);
+            Arrays.fill(pnm1,      0.0);
+            Arrays.fill(pnm2,      0.0);
+            Arrays.fill(gradient,  0.0);
+            for (final double[] row : hessian) {
+                Arrays.fill(row, 0.0);
+            }
+        }
+
+    }
+
     /** Compute one order of tesseral terms.
      * <p>
      * This corresponds to equations 27 and 30 of the paper.
      * </p>
      * @param m current order
      * @param degree max degree
-     * @param index index in the flattened array
+     * @param index index of the first coefficient of order m in the flattened arrays
      * @param t cos(θ), where θ is the polar angle
      * @param u sin(θ), where θ is the polar angle
      * @param tOu t/u
@@ -627,9 +912,8 @@ public class HolmesFeatherstoneAttractionModel
      * (may be null if first derivatives are not needed)
      * @param pnm2 array to fill with scaled d²P<sub>n,m</sub>/u<sup>m</sup>
      * (may be null if second derivatives are not needed)
-     * @return new value for index
      */
-    private int computeTesseral(final int m, final int degree, final int index,
+    private void computeTesseral(final int m, final int degree, final int index,
                                 final double t, final double u, final double tOu,
                                 final double[] pnm0Plus2, final double[] pnm0Plus1, final double[] pnm1Plus1,
                                 final double[] pnm0, final double[] pnm1, final double[] pnm2) {
@@ -701,8 +985,6 @@ public class HolmesFeatherstoneAttractionModel
 
         }
 
-        return localIndex;
-
     }
 
     /** {@inheritDoc} */
@@ -711,8 +993,9 @@ public class HolmesFeatherstoneAttractionModel
 
         // get the position in body frame
         final AbsoluteDate date       = s.getDate();
-        final Transform fromBodyFrame = bodyFrame.getTransformTo(s.getFrame(), date);
-        final Transform toBodyFrame   = fromBodyFrame.getInverse();
+        final EvaluationContext context = adder.getEvaluationContext();
+        final Transform fromBodyFrame = context.getTransformFrom(s, bodyFrame);
+        final Transform toBodyFrame   = context.getTransformTo(s, bodyFrame);
         final Vector3D position       = toBodyFrame.transformPosition(s.getPVCoordinates().getPosition());
 
         // gradient of the non-central part of the gravity field
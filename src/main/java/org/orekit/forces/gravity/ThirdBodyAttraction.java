@@ -63,7 +63,7 @@ public class ThirdBodyAttraction extends AbstractParameterizable implements Forc
         throws OrekitException {
 
         // compute bodies separation vectors and squared norm
-        final Vector3D centralToBody = body.getPVCoordinates(s.getDate(), s.getFrame()).getPosition();
+        final Vector3D centralToBody = adder.getEvaluationContext().getPosition(s, body);
         final double r2Central       = centralToBody.getNormSq();
         final Vector3D satToBody     = centralToBody.subtract(s.getPVCoordinates().getPosition());
         final double r2Sat           = satToBody.getNormSq();
@@ -87,7 +87,7 @@ public class ThirdBodyAttraction extends AbstractParameterizable implements Forc
         throws OrekitException {
 
         // compute bodies separation vectors and squared norm
-        final Vector3D centralToBody    = body.getPVCoordinates(date, frame).getPosition();
+        final Vector3D centralToBody    = body.getPosition(date, frame);
         final double r2Central          = centralToBody.getNormSq();
         final FieldVector3D<DerivativeStructure> satToBody = position.subtract(centralToBody).negate();
         final DerivativeStructure r2Sat = satToBody.getNormSq();
@@ -108,7 +108,7 @@ public class ThirdBodyAttraction extends AbstractParameterizable implements Forc
         complainIfNotSupported(paramName);
 
         // compute bodies separation vectors and squared norm
-        final Vector3D centralToBody = body.getPVCoordinates(s.getDate(), s.getFrame()).getPosition();
+        final Vector3D centralToBody = body.getPosition(s.getDate(), s.getFrame());
         final double r2Central       = centralToBody.getNormSq();
         final Vector3D satToBody     = centralToBody.subtract(s.getPVCoordinates().getPosition());
         final double r2Sat           = satToBody.getNormSq();
@@ -27,7 +27,7 @@ import org.orekit.errors.OrekitException;
 import org.orekit.errors.TimeStampedCacheException;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeStamped;
-import org.orekit.utils.GenericTimeStampedCache;
+import org.orekit.utils.OrekitConfiguration;
 import org.orekit.utils.TimeStampedCache;
 import org.orekit.utils.TimeStampedGenerator;
 
@@ -74,9 +74,11 @@ public class CachedNormalizedSphericalHarmonicsProvider implements NormalizedSph
         final int k       = rawProvider.getMaxDegree() + 1;
         this.size         = (k * (k + 1)) / 2;
 
-        cache = new GenericTimeStampedCache<TimeStampedSphericalHarmonics>(nbPoints, maxSlots, maxSpan,
-                                                                           newSlotInterval, new Generator(step),
-                                                                           TimeStampedSphericalHarmonics.class);
+        cache = OrekitConfiguration.getCacheType().createCache("CachedNormalizedSphericalHarmonicsProvider/" +
+                                                               rawProvider.getClass().getSimpleName(),
+                                                               nbPoints, maxSlots, maxSpan,
+                                                               newSlotInterval, new Generator(step),
+                                                               TimeStampedSphericalHarmonics.class);
     }
 
     /** {@inheritDoc} */
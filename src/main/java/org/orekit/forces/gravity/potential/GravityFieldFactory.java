@@ -405,7 +405,9 @@ public class GravityFieldFactory {
             for (final PotentialCoefficientsReader reader : READERS) {
                 reader.setMaxParseDegree(maxParseDegree);
                 reader.setMaxParseOrder(maxParseOrder);
-                DataProvidersManager.getInstance().feed(reader.getSupportedNames(), reader);
+                if (reader.stillAcceptsData()) {
+                    DataProvidersManager.getInstance().feed(reader.getSupportedNames(), reader);
+                }
                 if (!reader.stillAcceptsData()) {
                     return reader;
                 }
@@ -0,0 +1,79 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.gravity.potential;
+
+import java.io.InputStream;
+import java.util.regex.Pattern;
+
+import org.orekit.errors.OrekitException;
+
+/** Reader for gravity field coefficients already available in memory.
+ *
+ * <p> This reader does not parse any file, its coefficients are set at
+ * construction. It is used for example when restoring a gravity field
+ * from an {@link org.orekit.data.DataSnapshot Orekit data snapshot}. As
+ * for the other readers, the proper way to use it is to register it to
+ * the {@link GravityFieldFactory}.</p>
+ *
+ * @see GravityFieldFactory
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class PreloadedCoefficientsReader extends PotentialCoefficientsReader {
+
+    /** Simple constructor.
+     * @param name name of the gravity field (used only in error messages)
+     * @param ae central body reference radius
+     * @param mu central body attraction coefficient
+     * @param tideSystem tide system
+     * @param normalizedC normalized cosine coefficients triangular array
+     * (a reference to the array will be stored)
+     * @param normalizedS normalized sine coefficients triangular array
+     * (a reference to the array will be stored)
+     * @exception OrekitException if a coefficient is missing
+     */
+    public PreloadedCoefficientsReader(final String name, final double ae, final double mu,
+                                       final TideSystem tideSystem,
+                                       final double[][] normalizedC, final double[][] normalizedS)
+        throws OrekitException {
+        // the supported names pattern is used only if more coefficients than
+        // available are requested, it should not match any regular file
+        super(Pattern.quote(name), false);
+        setAe(ae);
+        setMu(mu);
+        setTideSystem(tideSystem);
+        setRawCoefficients(true, normalizedC, normalizedS, name);
+        setReadComplete(true);
+    }
+
+    /** {@inheritDoc}
+     * <p>
+     * As coefficients are set at construction, this method does nothing.
+     * </p>
+     */
+    public void loadData(final InputStream input, final String name) {
+        // nothing to do
+    }
+
+    /** {@inheritDoc} */
+    public RawSphericalHarmonicsProvider getProvider(final boolean wantNormalized,
+                                                     final int degree, final int order)
+        throws OrekitException {
+        return getConstantProvider(wantNormalized, degree, order);
+    }
+
+}
@@ -0,0 +1,684 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.radiation;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.math3.analysis.UnivariateFunction;
+import org.apache.commons.math3.analysis.solvers.AllowedSolution;
+import org.apache.commons.math3.analysis.solvers.BracketingNthOrderBrentSolver;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitExceptionWrapper;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.Frame;
+import org.orekit.propagation.BoundedPropagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.AbstractDetector;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.CartesianDerivativesFilter;
+import org.orekit.utils.Constants;
+import org.orekit.utils.OrekitConfiguration;
+import org.orekit.utils.PVCoordinatesProvider;
+import org.orekit.utils.TimeSpanMap;
+import org.orekit.utils.TimeStampedCache;
+import org.orekit.utils.TimeStampedGenerator;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/** Eclipse engine shared by radiation pressure force models and eclipse detectors.
+ * <p>
+ * {@link SolarRadiationPressure} and {@link org.orekit.propagation.events.EclipseDetector
+ * EclipseDetector} both compute the occulted body (typically the Sun) and occulting
+ * body (typically the Earth) positions at each evaluation, and they cannot share this
+ * work. This engine retrieves these positions from short-span Hermite interpolation on
+ * regularly spaced samples (positions and velocities) held in thread-safe time-stamped
+ * caches, and keeps the geometry of the last date evaluated, so the force model, the
+ * {@link EclipseEngineDetector eclipse detectors} and the integrator steps share it.
+ * </p>
+ * <p>
+ * The engine serves both the {@link #getLightingRatio(SpacecraftState) lighting ratio}
+ * and the {@link #getUmbraG(SpacecraftState) umbra} and {@link #getPenumbraG(SpacecraftState)
+ * penumbra} switching functions. It also provides a {@link #computeLighting(BoundedPropagator,
+ * double, double) bulk mode}, computing all eclipses of an ephemeris in one pass.
+ * </p>
+ * <p>
+ * The interpolation error decreases very quickly with the sampling step. The default
+ * settings ({@link #DEFAULT_GRID_POINTS} points separated by {@link #DEFAULT_STEP}) are
+ * suited to the Sun and an Earth-centered propagation frame. The engine frame should be
+ * the propagation frame, otherwise satellite positions are transformed to it at each call.
+ * </p>
+ * @see SolarRadiationPressure#SolarRadiationPressure(EclipseEngine, RadiationSensitive)
+ * @see EclipseEngineDetector
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class EclipseEngine implements Serializable {
+
+    /** Lighting status. */
+    public enum Lighting {
+
+        /** Occulted body fully visible. */
+        LIGHT,
+
+        /** Occulted body partially hidden. */
+        PENUMBRA,
+
+        /** Occulted body fully hidden. */
+        UMBRA;
+
+    }
+
+    /** Default number of interpolation points. */
+    public static final int DEFAULT_GRID_POINTS = 4;
+
+    /** Default step between interpolation points (s). */
+    public static final double DEFAULT_STEP = 3600.0;
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20161016L;
+
+    /** Maximum number of independent cached time slots. */
+    private static final int MAX_SLOTS = 10;
+
+    /** Maximum duration span of one slot (s). */
+    private static final double MAX_SPAN = 30 * Constants.JULIAN_DAY;
+
+    /** Time interval above which a new slot is created (s). */
+    private static final double NEW_SLOT_INTERVAL = Constants.JULIAN_DAY;
+
+    /** Occulted body. */
+    private final PVCoordinatesProvider occulted;
+
+    /** Occulted body radius (m). */
+    private final double occultedRadius;
+
+    /** Occulting body. */
+    private final PVCoordinatesProvider occulting;
+
+    /** Occulting body radius (m). */
+    private final double occultingRadius;
+
+    /** Frame in which geometry is computed. */
+    private final Frame frame;
+
+    /** Step between interpolation points (s). */
+    private final double step;
+
+    /** Cache for occulted body samples. */
+    private final transient TimeStampedCache<TimeStampedPVCoordinates> occultedCache;
+
+    /** Cache for occulting body samples. */
+    private final transient TimeStampedCache<TimeStampedPVCoordinates> occultingCache;
+
+    /** Geometry at last evaluated date. */
+    private transient Geometry last;
+
+    /** Build an engine with default interpolation settings.
+     * @param occulted the body to be occulted
+     * @param occultedRadius the radius of the body to be occulted (m)
+     * @param occulting the occulting body
+     * @param occultingRadius the occulting body radius (m)
+     * @param frame frame in which geometry is computed (should be the propagation frame)
+     */
+    public EclipseEngine(final PVCoordinatesProvider occulted,  final double occultedRadius,
+                         final PVCoordinatesProvider occulting, final double occultingRadius,
+                         final Frame frame) {
+        this(occulted, occultedRadius, occulting, occultingRadius, frame,
+             DEFAULT_GRID_POINTS, DEFAULT_STEP);
+    }
+
+    /** Build an engine.
+     * @param occulted the body to be occulted
+     * @param occultedRadius the radius of the body to be occulted (m)
+     * @param occulting the occulting body
+     * @param occultingRadius the occulting body radius (m)
+     * @param frame frame in which geometry is computed (should be the propagation frame)
+     * @param gridPoints number of interpolation points
+     * @param step step between interpolation points (s)
+     */
+    public EclipseEngine(final PVCoordinatesProvider occulted,  final double occultedRadius,
+                         final PVCoordinatesProvider occulting, final double occultingRadius,
+                         final Frame frame, final int gridPoints, final double step) {
+        this.occulted        = occulted;
+        this.occultedRadius  = FastMath.abs(occultedRadius);
+        this.occulting       = occulting;
+        this.occultingRadius = FastMath.abs(occultingRadius);
+        this.frame           = frame;
+        this.step            = step;
+        this.occultedCache   = createCache("occulted", occulted, gridPoints);
+        this.occultingCache  = createCache("occulting", occulting, gridPoints);
+    }
+
+    /** Create a cache for one body.
+     * @param role role of the body
+     * @param body body to sample
+     * @param gridPoints number of interpolation points
+     * @return cache for the body samples
+     */
+    private TimeStampedCache<TimeStampedPVCoordinates> createCache(final String role,
+                                                                   final PVCoordinatesProvider body,
+                                                                   final int gridPoints) {
+        return OrekitConfiguration.getCacheType().createCache("EclipseEngine/" + role,
+                                                              gridPoints, MAX_SLOTS, MAX_SPAN,
+                                                              NEW_SLOT_INTERVAL, new Generator(body, gridPoints),
+                                                              TimeStampedPVCoordinates.class);
+    }
+
+    /** Get the occulted body.
+     * @return the occulted body
+     */
+    public PVCoordinatesProvider getOcculted() {
+        return occulted;
+    }
+
+    /** Get the occulted body radius.
+     * @return occulted body radius (m)
+     */
+    public double getOccultedRadius() {
+        return occultedRadius;
+    }
+
+    /** Get the occulting body.
+     * @return the occulting body
+     */
+    public PVCoordinatesProvider getOcculting() {
+        return occulting;
+    }
+
+    /** Get the occulting body radius.
+     * @return occulting body radius (m)
+     */
+    public double getOccultingRadius() {
+        return occultingRadius;
+    }
+
+    /** Get the frame in which geometry is computed.
+     * @return frame in which geometry is computed
+     */
+    public Frame getFrame() {
+        return frame;
+    }
+
+    /** Get the number of interpolation points.
+     * @return number of interpolation points
+     */
+    public int getGridPoints() {
+        return occultedCache.getNeighborsSize();
+    }
+
+    /** Get the step between interpolation points.
+     * @return step between interpolation points (s)
+     */
+    public double getStep() {
+        return step;
+    }
+
+    /** Get the interpolated position of the occulted body.
+     * @param date current date
+     * @param outputFrame frame in which position should be provided
+     * @return position of the occulted body in the specified frame
+     * @exception OrekitException if position cannot be computed
+     */
+    public Vector3D getOccultedPosition(final AbsoluteDate date, final Frame outputFrame)
+        throws OrekitException {
+        final Vector3D p = getGeometry(date).occultedPosition;
+        return (outputFrame == frame) ? p : frame.transformPosition(p, outputFrame, date);
+    }
+
+    /** Get the interpolated position of the occulting body.
+     * @param date current date
+     * @param outputFrame frame in which position should be provided
+     * @return position of the occulting body in the specified frame
+     * @exception OrekitException if position cannot be computed
+     */
+    public Vector3D getOccultingPosition(final AbsoluteDate date, final Frame outputFrame)
+        throws OrekitException {
+        final Vector3D p = getGeometry(date).occultingPosition;
+        return (outputFrame == frame) ? p : frame.transformPosition(p, outputFrame, date);
+    }
+
+    /** Get the lighting ratio ([0-1]).
+     * @param s spacecraft state
+     * @return lighting ratio
+     * @exception OrekitException if the trajectory is inside the occulting body
+     * or if positions cannot be computed
+     */
+    public double getLightingRatio(final SpacecraftState s) throws OrekitException {
+        return getLightingRatio(s.getPVCoordinates().getPosition(), s.getFrame(), s.getDate());
+    }
+
+    /** Get the lighting ratio ([0-1]).
+     * @param position the satellite's position in the selected frame
+     * @param positionFrame in which is defined the position
+     * @param date the date
+     * @return lighting ratio
+     * @exception OrekitException if the trajectory is inside the occulting body
+     * or if positions cannot be computed
+     * @see SolarRadiationPressure#getLightingRatio(Vector3D, Frame, AbsoluteDate)
+     */
+    public double getLightingRatio(final Vector3D position, final Frame positionFrame, final AbsoluteDate date)
+        throws OrekitException {
+        final double[] angles = getEclipseAngles(toEngineFrame(position, positionFrame, date), date);
+        if (Double.isNaN(angles[1])) {
+            throw new OrekitException(OrekitMessages.TRAJECTORY_INSIDE_BRILLOUIN_SPHERE, angles[3]);
+        }
+        return SolarRadiationPressure.computeLightingRatio(angles[0], angles[1], angles[2]);
+    }
+
+    /** Get the umbra switching function.
+     * <p>
+     * This function is negative when the occulted body is fully hidden,
+     * it is the same function as {@link org.orekit.propagation.events.EclipseDetector
+     * EclipseDetector} configured {@link org.orekit.propagation.events.EclipseDetector#withUmbra()
+     * for umbra}.
+     * </p>
+     * @param s spacecraft state
+     * @return value of the umbra switching function
+     * @exception OrekitException if positions cannot be computed
+     */
+    public double getUmbraG(final SpacecraftState s) throws OrekitException {
+        return switchingFunctions(s.getPVCoordinates().getPosition(), s.getFrame(), s.getDate())[0];
+    }
+
+    /** Get the penumbra switching function.
+     * <p>
+     * This function is negative when the occulted body is at least partially hidden,
+     * it is the same function as {@link org.orekit.propagation.events.EclipseDetector
+     * EclipseDetector} configured {@link org.orekit.propagation.events.EclipseDetector#withPenumbra()
+     * for penumbra}.
+     * </p>
+     * @param s spacecraft state
+     * @return value of the penumbra switching function
+     * @exception OrekitException if positions cannot be computed
+     */
+    public double getPenumbraG(final SpacecraftState s) throws OrekitException {
+        return switchingFunctions(s.getPVCoordinates().getPosition(), s.getFrame(), s.getDate())[1];
+    }
+
+    /** Get the lighting status.
+     * @param s spacecraft state
+     * @return lighting status
+     * @exception OrekitException if positions cannot be computed
+     */
+    public Lighting getLighting(final SpacecraftState s) throws OrekitException {
+        return getLighting(switchingFunctions(s.getPVCoordinates().getPosition(), s.getFrame(), s.getDate()));
+    }
+
+    /** Compute the lighting status throughout an ephemeris.
+     * <p>
+     * The ephemeris is sampled in one pass from its {@link BoundedPropagator#getMinDate()
+     * first date} to its {@link BoundedPropagator#getMaxDate() last date}, evaluating
+     * both switching functions at once for each sample, and locating the transitions
+     * between samples. The propagator is only used as a {@link PVCoordinatesProvider},
+     * so its own events detectors and step handlers are not triggered. As with events
+     * detection, eclipses shorter than the sampling interval may be missed.
+     * </p>
+     * @param propagator ephemeris to analyze
+     * @param maxCheck maximal interval between samples (s)
+     * @param threshold convergence threshold for transitions dates (s)
+     * @return map of the lighting status, the transitions are the eclipses
+     * entries and exits
+     * @exception OrekitException if positions cannot be computed
+     */
+    public TimeSpanMap<Lighting> computeLighting(final BoundedPropagator propagator,
+                                                 final double maxCheck, final double threshold)
+        throws OrekitException {
+        try {
+
+            final AbsoluteDate start = propagator.getMinDate();
+            final AbsoluteDate end   = propagator.getMaxDate();
+            final BracketingNthOrderBrentSolver solver = new BracketingNthOrderBrentSolver(threshold, 5);
+
+            double[] gA = switchingFunctions(propagator, start);
+            Lighting current = getLighting(gA);
+            final TimeSpanMap<Lighting> map = new TimeSpanMap<Lighting>(current);
+
+            AbsoluteDate ta = start;
+            while (ta.compareTo(end) < 0) {
+
+                final double         dt = FastMath.min(maxCheck, end.durationFrom(ta));
+                final AbsoluteDate   tb = ta.shiftedBy(dt);
+                final double[]       gB = switchingFunctions(propagator, tb);
+
+                // locate the transitions of both switching functions
+                final List<AbsoluteDate> roots = new ArrayList<AbsoluteDate>(2);
+                for (int k = 0; k < gA.length; ++k) {
+                    if ((gA[k] >= 0) ^ (gB[k] >= 0)) {
+                        final AbsoluteDate t0 = ta;
+                        final int index = k;
+                        final UnivariateFunction f = new UnivariateFunction() {
+                            /** {@inheritDoc} */
+                            public double value(final double t) {
+                                try {
+                                    return switchingFunctions(propagator, t0.shiftedBy(t))[index];
+                                } catch (OrekitException oe) {
+                                    throw new OrekitExceptionWrapper(oe);
+                                }
+                            }
+                        };
+                        final double root = solver.solve(AbstractDetector.DEFAULT_MAX_ITER, f,
+                                                         0, dt, AllowedSolution.RIGHT_SIDE);
+                        roots.add(ta.shiftedBy(root));
+                    }
+                }
+                Collections.sort(roots);
+
+                for (final AbsoluteDate root : roots) {
+                    final Lighting lighting = getLighting(switchingFunctions(propagator, root));
+                    if (lighting != current) {
+                        map.addValidAfter(lighting, root);
+                        current = lighting;
+                    }
+                }
+
+                ta = tb;
+                gA = gB;
+
+            }
+
+            return map;
+
+        } catch (OrekitExceptionWrapper oew) {
+            throw oew.getException();
+        }
+    }
+
+    /** Get the lighting status corresponding to switching functions values.
+     * @param g switching functions values (umbra first, penumbra second)
+     * @return lighting status
+     */
+    private Lighting getLighting(final double[] g) {
+        if (g[0] < 0) {
+            return Lighting.UMBRA;
+        } else if (g[1] < 0) {
+            return Lighting.PENUMBRA;
+        } else {
+            return Lighting.LIGHT;
+        }
+    }
+
+    /** Compute the umbra and penumbra switching functions from an ephemeris.
+     * @param propagator ephemeris
+     * @param date current date
+     * @return switching functions values (umbra first, penumbra second)
+     * @exception OrekitException if positions cannot be computed
+     */
+    private double[] switchingFunctions(final BoundedPropagator propagator, final AbsoluteDate date)
+        throws OrekitException {
+        return switchingFunctions(propagator.getPVCoordinates(date, frame).getPosition(), frame, date);
+    }
+
+    /** Compute the umbra and penumbra switching functions.
+     * @param position the satellite's position in the selected frame
+     * @param positionFrame in which is defined the position
+     * @param date the date
+     * @return switching functions values (umbra first, penumbra second)
+     * @exception OrekitException if positions cannot be computed
+     */
+    private double[] switchingFunctions(final Vector3D position, final Frame positionFrame,
+                                        final AbsoluteDate date)
+        throws OrekitException {
+        final double[] angles = getEclipseAngles(toEngineFrame(position, positionFrame, date), date);
+        if (Double.isNaN(angles[2])) {
+            return new double[] {
+                FastMath.PI, FastMath.PI
+            };
+        }
+        if (Double.isNaN(angles[1])) {
+            return new double[] {
+                -FastMath.PI, -FastMath.PI
+            };
+        }
+        return new double[] {
+            angles[0] - angles[1] + angles[2],
+            angles[0] - angles[1] - angles[2]
+        };
+    }
+
+    /** Convert a satellite position to engine frame.
+     * @param position the satellite's position in the selected frame
+     * @param positionFrame in which is defined the position
+     * @param date the date
+     * @return position in engine frame
+     * @exception OrekitException if position cannot be transformed
+     */
+    private Vector3D toEngineFrame(final Vector3D position, final Frame positionFrame, final AbsoluteDate date)
+        throws OrekitException {
+        return (positionFrame == frame) ? position : positionFrame.transformPosition(position, frame, date);
+    }
+
+    /** Compute the eclipse angles.
+     * @param position the satellite's position in engine frame
+     * @param date the date
+     * @return an array containing the angle between occulted and occulting bodies as seen
+     * from satellite, the occulting body apparent radius, the occulted body apparent radius
+     * (NaN for apparent radii if satellite is inside the body) and the distance to the
+     * occulting body center
+     * @exception OrekitException if positions cannot be computed
+     */
+    private double[] getEclipseAngles(final Vector3D position, final AbsoluteDate date)
+        throws OrekitException {
+        final Geometry geometry = getGeometry(date);
+        final Vector3D ps = geometry.occultedPosition.subtract(position);
+        final Vector3D po = geometry.occultingPosition.subtract(position);
+        final double   ro = po.getNorm();
+        return new double[] {
+            Vector3D.angle(ps, po),
+            FastMath.asin(occultingRadius / ro),
+            FastMath.asin(occultedRadius / ps.getNorm()),
+            ro
+        };
+    }
+
+    /** Get the bodies geometry at some date.
+     * @param date the date
+     * @return bodies geometry
+     * @exception OrekitException if positions cannot be computed
+     */
+    private Geometry getGeometry(final AbsoluteDate date) throws OrekitException {
+        Geometry geometry = last;
+        if (geometry == null || !geometry.date.equals(date)) {
+            try {
+                geometry = new Geometry(date, interpolate(occultedCache, date), interpolate(occultingCache, date));
+            } catch (OrekitExceptionWrapper oew) {
+                // something went wrong while generating the sample,
+                // we just forward the exception up
+                throw oew.getException();
+            }
+            last = geometry;
+        }
+        return geometry;
+    }
+
+    /** Interpolate a body position.
+     * @param cache cache for the body samples
+     * @param date interpolation date
+     * @return interpolated position
+     * @exception OrekitException if samples cannot be retrieved
+     */
+    private Vector3D interpolate(final TimeStampedCache<TimeStampedPVCoordinates> cache,
+                                 final AbsoluteDate date)
+        throws OrekitException {
+        return TimeStampedPVCoordinates.interpolate(date, CartesianDerivativesFilter.USE_PV,
+                                                    cache.getNeighbors(date)).getPosition();
+    }
+
+    /** Replace the instance with a data transfer object for serialization.
+     * <p>
+     * This intermediate class serializes only the data needed for generation,
+     * but does <em>not</em> serializes the cache itself (in fact the cache is
+     * not serializable).
+     * </p>
+     * @return data transfer object that will be serialized
+     */
+    private Object writeReplace() {
+        return new DTO(occulted, occultedRadius, occulting, occultingRadius,
+                       frame, occultedCache.getNeighborsSize(), step);
+    }
+
+    /** Bodies geometry at one date. */
+    private static class Geometry {
+
+        /** Date. */
+        private final AbsoluteDate date;
+
+        /** Occulted body position in engine frame. */
+        private final Vector3D occultedPosition;
+
+        /** Occulting body position in engine frame. */
+        private final Vector3D occultingPosition;
+
+        /** Simple constructor.
+         * @param date date
+         * @param occultedPosition occulted body position in engine frame
+         * @param occultingPosition occulting body position in engine frame
+         */
+        Geometry(final AbsoluteDate date, final Vector3D occultedPosition, final Vector3D occultingPosition) {
+            this.date              = date;
+            this.occultedPosition  = occultedPosition;
+            this.occultingPosition = occultingPosition;
+        }
+
+    }
+
+    /** Local generator for bodies samples. */
+    private class Generator implements TimeStampedGenerator<TimeStampedPVCoordinates> {
+
+        /** Sampled body. */
+        private final PVCoordinatesProvider body;
+
+        /** Number of interpolation points. */
+        private final int gridPoints;
+
+        /** Simple constructor.
+         * @param body sampled body
+         * @param gridPoints number of interpolation points
+         */
+        Generator(final PVCoordinatesProvider body, final int gridPoints) {
+            this.body       = body;
+            this.gridPoints = gridPoints;
+        }
+
+        /** {@inheritDoc} */
+        public List<TimeStampedPVCoordinates> generate(final TimeStampedPVCoordinates existing,
+                                                       final AbsoluteDate date) {
+
+            try {
+                final List<TimeStampedPVCoordinates> generated = new ArrayList<TimeStampedPVCoordinates>();
+
+                if (existing == null) {
+
+                    // no prior existing samples, just generate a first set
+                    for (int i = 0; i < gridPoints; ++i) {
+                        generated.add(body.getPVCoordinates(date.shiftedBy(i * step), frame));
+                    }
+
+                } else {
+
+                    // some samples have already been generated
+                    // add the missing ones up to specified date
+
+                    AbsoluteDate t = existing.getDate();
+                    if (date.compareTo(t) > 0) {
+                        // forward generation
+                        do {
+                            t = t.shiftedBy(step);
+                            generated.add(generated.size(), body.getPVCoordinates(t, frame));
+                        } while (t.compareTo(date) <= 0);
+                    } else {
+                        // backward generation
+                        do {
+                            t = t.shiftedBy(-step);
+                            generated.add(0, body.getPVCoordinates(t, frame));
+                        } while (t.compareTo(date) >= 0);
+                    }
+                }
+
+                // return the generated samples
+                return generated;
+            } catch (OrekitException oe) {
+                throw new OrekitExceptionWrapper(oe);
+            }
+
+        }
+
+    }
+
+    /** Internal class used only for serialization. */
+    private static class DTO implements Serializable {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20161016L;
+
+        /** Occulted body. */
+        private final PVCoordinatesProvider occulted;
+
+        /** Occulted body radius (m). */
+        private final double occultedRadius;
+
+        /** Occulting body. */
+        private final PVCoordinatesProvider occulting;
+
+        /** Occulting body radius (m). */
+        private final double occultingRadius;
+
+        /** Frame in which geometry is computed. */
+        private final Frame frame;
+
+        /** Number of interpolation points. */
+        private final int gridPoints;
+
+        /** Step between interpolation points (s). */
+        private final double step;
+
+        /** Simple constructor.
+         * @param occulted the body to be occulted
+         * @param occultedRadius the radius of the body to be occulted (m)
+         * @param occulting the occulting body
+         * @param occultingRadius the occulting body radius (m)
+         * @param frame frame in which geometry is computed
+         * @param gridPoints number of interpolation points
+         * @param step step between interpolation points (s)
+         */
+        private DTO(final PVCoordinatesProvider occulted,  final double occultedRadius,
+                    final PVCoordinatesProvider occulting, final double occultingRadius,
+                    final Frame frame, final int gridPoints, final double step) {
+            this.occulted        = occulted;
+            this.occultedRadius  = occultedRadius;
+            this.occulting       = occulting;
+            this.occultingRadius = occultingRadius;
+            this.frame           = frame;
+            this.gridPoints      = gridPoints;
+            this.step            = step;
+        }
+
+        /** Replace the deserialized data transfer object with a {@link EclipseEngine}.
+         * @return replacement {@link EclipseEngine}
+         */
+        private Object readResolve() {
+            // build a new engine, with empty caches
+            return new EclipseEngine(occulted, occultedRadius, occulting, occultingRadius,
+                                     frame, gridPoints, step);
+        }
+
+    }
+
+}
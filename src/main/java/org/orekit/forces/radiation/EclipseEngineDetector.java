@@ -0,0 +1,146 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.radiation;
+
+import org.orekit.errors.OrekitException;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.AbstractDetector;
+import org.orekit.propagation.events.handlers.EventHandler;
+import org.orekit.propagation.events.handlers.StopOnIncreasing;
+
+/** Finder for satellite eclipse related events, based on a shared {@link EclipseEngine}.
+ * <p>
+ * This detector has the same switching functions as {@link
+ * org.orekit.propagation.events.EclipseDetector EclipseDetector}, but bodies
+ * positions are retrieved from an {@link EclipseEngine} which may be shared
+ * with other detectors and with a {@link SolarRadiationPressure} force model.
+ * </p>
+ * <p>The default implementation behavior is to {@link
+ * org.orekit.propagation.events.handlers.EventHandler.Action#CONTINUE continue}
+ * propagation when entering the eclipse and to {@link
+ * org.orekit.propagation.events.handlers.EventHandler.Action#STOP stop} propagation
+ * when exiting the eclipse. This can be changed by calling {@link
+ * #withHandler(EventHandler)} after construction.</p>
+ * @see EclipseEngine
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class EclipseEngineDetector extends AbstractDetector<EclipseEngineDetector> {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20161016L;
+
+    /** Shared eclipse engine. */
+    private final EclipseEngine engine;
+
+    /** Umbra, if true, or penumbra, if false, detection flag. */
+    private final boolean totalEclipse;
+
+    /** Build a new eclipse detector.
+     * <p>The new instance is a total eclipse (umbra) detector with default
+     * values for maximal checking interval ({@link #DEFAULT_MAXCHECK})
+     * and convergence threshold ({@link #DEFAULT_THRESHOLD}).</p>
+     * @param engine shared eclipse engine
+     */
+    public EclipseEngineDetector(final EclipseEngine engine) {
+        this(DEFAULT_MAXCHECK, DEFAULT_THRESHOLD, DEFAULT_MAX_ITER,
+             new StopOnIncreasing<EclipseEngineDetector>(), engine, true);
+    }
+
+    /** Private constructor with full parameters.
+     * <p>
+     * This constructor is private as users are expected to use the builder
+     * API with the various {@code withXxx()} methods to set up the instance
+     * in a readable manner without using a huge amount of parameters.
+     * </p>
+     * @param maxCheck maximum checking interval (s)
+     * @param threshold convergence threshold (s)
+     * @param maxIter maximum number of iterations in the event time search
+     * @param handler event handler to call at event occurrences
+     * @param engine shared eclipse engine
+     * @param totalEclipse umbra (true) or penumbra (false) detection flag
+     */
+    private EclipseEngineDetector(final double maxCheck, final double threshold,
+                                  final int maxIter, final EventHandler<? super EclipseEngineDetector> handler,
+                                  final EclipseEngine engine, final boolean totalEclipse) {
+        super(maxCheck, threshold, maxIter, handler);
+        this.engine       = engine;
+        this.totalEclipse = totalEclipse;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected EclipseEngineDetector create(final double newMaxCheck, final double newThreshold,
+                                           final int newMaxIter,
+                                           final EventHandler<? super EclipseEngineDetector> newHandler) {
+        return new EclipseEngineDetector(newMaxCheck, newThreshold, newMaxIter, newHandler,
+                                         engine, totalEclipse);
+    }
+
+    /**
+     * Setup the detector to full umbra detection.
+     * <p>
+     * This will override a penumbra/umbra flag if it has been configured previously.
+     * </p>
+     * @return a new detector with updated configuration (the instance is not changed)
+     * @see #withPenumbra()
+     */
+    public EclipseEngineDetector withUmbra() {
+        return new EclipseEngineDetector(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), getHandler(),
+                                         engine, true);
+    }
+
+    /**
+     * Setup the detector to penumbra detection.
+     * <p>
+     * This will override a penumbra/umbra flag if it has been configured previously.
+     * </p>
+     * @return a new detector with updated configuration (the instance is not changed)
+     * @see #withUmbra()
+     */
+    public EclipseEngineDetector withPenumbra() {
+        return new EclipseEngineDetector(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), getHandler(),
+                                         engine, false);
+    }
+
+    /** Get the shared eclipse engine.
+     * @return shared eclipse engine
+     */
+    public EclipseEngine getEngine() {
+        return engine;
+    }
+
+    /** Get the total eclipse detection flag.
+     * @return the total eclipse detection flag (true for umbra events detection,
+     * false for penumbra events detection)
+     */
+    public boolean getTotalEclipse() {
+        return totalEclipse;
+    }
+
+    /** Compute the value of the switching function.
+     * This function becomes negative when entering the region of shadow
+     * and positive when exiting.
+     * @param s the current state information: date, kinematics, attitude
+     * @return value of the switching function
+     * @exception OrekitException if some specific error occurs
+     */
+    public double g(final SpacecraftState s) throws OrekitException {
+        return totalEclipse ? engine.getUmbraG(s) : engine.getPenumbraG(s);
+    }
+
+}
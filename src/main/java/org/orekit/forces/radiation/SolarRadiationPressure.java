@@ -62,6 +62,9 @@ public class SolarRadiationPressure extends AbstractParameterizable implements F
     /** Spacecraft. */
     private final RadiationSensitive spacecraft;
 
+    /** Shared eclipse engine (may be null). */
+    private final EclipseEngine engine;
+
     /** Simple constructor with default reference values.
      * <p>When this constructor is used, the reference values are:</p>
      * <ul>
@@ -93,11 +96,70 @@ public class SolarRadiationPressure extends AbstractParameterizable implements F
                                   final PVCoordinatesProvider sun,
                                   final double equatorialRadius,
                                   final RadiationSensitive spacecraft) {
+        this(dRef, pRef, sun, equatorialRadius, spacecraft, null);
+    }
+
+    /** Simple constructor with default reference values and shared eclipse engine.
+     * <p>When this constructor is used, the reference values are:</p>
+     * <ul>
+     *   <li>d<sub>ref</sub> = 149597870000.0 m</li>
+     *   <li>p<sub>ref</sub> = 4.56 10<sup>-6</sup> N/m²</li>
+     * </ul>
+     * <p>
+     * The Sun position, lighting ratio and eclipse detectors are retrieved
+     * from the engine, whose occulted body must be the Sun.
+     * </p>
+     * @param engine shared eclipse engine
+     * @param spacecraft the object physical and geometrical information
+     * @since 8.0
+     */
+    public SolarRadiationPressure(final EclipseEngine engine, final RadiationSensitive spacecraft) {
+        this(D_REF, P_REF, engine, spacecraft);
+    }
+
+    /** Complete constructor with shared eclipse engine.
+     * <p>
+     * The Sun position, lighting ratio and eclipse detectors are retrieved
+     * from the engine, whose occulted body must be the Sun.
+     * </p>
+     * @param dRef reference distance for the solar radiation pressure (m)
+     * @param pRef reference solar radiation pressure at dRef (N/m²)
+     * @param engine shared eclipse engine
+     * @param spacecraft the object physical and geometrical information
+     * @since 8.0
+     */
+    public SolarRadiationPressure(final double dRef, final double pRef,
+                                  final EclipseEngine engine, final RadiationSensitive spacecraft) {
+        this(dRef, pRef, engine.getOcculted(), engine.getOccultingRadius(), spacecraft, engine);
+    }
+
+    /** Private constructor with full parameters.
+     * @param dRef reference distance for the solar radiation pressure (m)
+     * @param pRef reference solar radiation pressure at dRef (N/m²)
+     * @param sun Sun model
+     * @param equatorialRadius spherical shape model (for umbra/penumbra computation)
+     * @param spacecraft the object physical and geometrical information
+     * @param engine shared eclipse engine (may be null)
+     */
+    private SolarRadiationPressure(final double dRef, final double pRef,
+                                   final PVCoordinatesProvider sun,
+                                   final double equatorialRadius,
+                                   final RadiationSensitive spacecraft,
+                                   final EclipseEngine engine) {
         super(RadiationSensitive.ABSORPTION_COEFFICIENT, RadiationSensitive.REFLECTION_COEFFICIENT);
         this.kRef = pRef * dRef * dRef;
         this.sun  = sun;
         this.equatorialRadius = equatorialRadius;
         this.spacecraft = spacecraft;
+        this.engine     = engine;
+    }
+
+    /** Get the shared eclipse engine.
+     * @return shared eclipse engine, or null if the force model computes eclipses by itself
+     * @since 8.0
+     */
+    public EclipseEngine getEclipseEngine() {
+        return engine;
     }
 
     /** {@inheritDoc} */
@@ -107,11 +169,20 @@ public class SolarRadiationPressure extends AbstractParameterizable implements F
         final AbsoluteDate date         = s.getDate();
         final Frame        frame        = s.getFrame();
         final Vector3D     position     = s.getPVCoordinates().getPosition();
-        final Vector3D     sunSatVector = position.subtract(sun.getPVCoordinates(date, frame).getPosition());
+        final Vector3D     sunPosition;
+        final double       ratio;
+        if (engine == null) {
+            sunPosition = adder.getEvaluationContext().getPosition(s, sun);
+            ratio       = getLightingRatio(position, sunPosition);
+        } else {
+            sunPosition = engine.getOccultedPosition(date, frame);
+            ratio       = engine.getLightingRatio(position, frame, date);
+        }
+        final Vector3D     sunSatVector = position.subtract(sunPosition);
         final double       r2           = sunSatVector.getNormSq();
 
         // compute flux
-        final double   rawP = kRef * getLightingRatio(position, frame, date) / r2;
+        final double   rawP = kRef * ratio / r2;
         final Vector3D flux = new Vector3D(rawP / FastMath.sqrt(r2), sunSatVector);
 
         final Vector3D acceleration = spacecraft.radiationPressureAcceleration(date, frame, position, s.getAttitude().getRotation(),
@@ -146,18 +217,36 @@ public class SolarRadiationPressure extends AbstractParameterizable implements F
      */
     public double getLightingRatio(final Vector3D position, final Frame frame, final AbsoluteDate date)
         throws OrekitException {
+        if (engine != null) {
+            return engine.getLightingRatio(position, frame, date);
+        }
+        return getLightingRatio(position, sun.getPVCoordinates(date, frame).getPosition());
+    }
+
+    /** Get the lighting ratio ([0-1]).
+     * @param position the satellite's position in the selected frame.
+     * @param sunPosition the Sun position in the same frame
+     * @return lighting ratio
+     * @exception OrekitException if the trajectory is inside the Earth
+     */
+    private double getLightingRatio(final Vector3D position, final Vector3D sunPosition)
+        throws OrekitException {
 
         // Compute useful angles
-        final double[] angle = getEclipseAngles(position, frame, date);
+        final double[] angle = getEclipseAngles(position, sunPosition);
 
-        // Sat-Sun / Sat-CentralBody angle
-        final double sunEarthAngle = angle[0];
+        return computeLightingRatio(angle[0], angle[1], angle[2]);
 
-        // Central Body apparent radius
-        final double alphaCentral = angle[1];
+    }
 
-        // Sun apparent radius
-        final double alphaSun = angle[2];
+    /** Compute the lighting ratio ([0-1]) from eclipse angles.
+     * @param sunEarthAngle Sat-Sun / Sat-CentralBody angle
+     * @param alphaCentral Central Body apparent radius
+     * @param alphaSun Sun apparent radius
+     * @return lighting ratio
+     */
+    static double computeLightingRatio(final double sunEarthAngle, final double alphaCentral,
+                                       final double alphaSun) {
 
         double result = 1.0;
 
@@ -192,18 +281,48 @@ public class SolarRadiationPressure extends AbstractParameterizable implements F
 
     /** {@inheritDoc} */
     public EventDetector[] getEventsDetectors() {
+        if (engine != null) {
+            return new EventDetector[] {
+                createEngineDetector().withUmbra(), createEngineDetector().withPenumbra()
+            };
+        }
         return new EventDetector[] {
             new UmbraDetector(), new PenumbraDetector()
         };
     }
 
+    /** Create a detector based on the shared eclipse engine.
+     * @return detector with the same settings as the internal umbra and penumbra detectors
+     */
+    private EclipseEngineDetector createEngineDetector() {
+        return new EclipseEngineDetector(engine).
+               withMaxCheck(60.0).
+               withThreshold(1.0e-3).
+               withHandler(new EventHandler<EclipseEngineDetector>() {
+
+                   /** {@inheritDoc} */
+                   public Action eventOccurred(final SpacecraftState s, final EclipseEngineDetector detector,
+                                               final boolean increasing) {
+                       return Action.RESET_DERIVATIVES;
+                   }
+
+                   /** {@inheritDoc} */
+                   @Override
+                   public SpacecraftState resetState(final EclipseEngineDetector detector,
+                                                     final SpacecraftState oldState) {
+                       return oldState;
+                   }
+
+               });
+    }
+
     /** {@inheritDoc} */
     public FieldVector3D<DerivativeStructure> accelerationDerivatives(final AbsoluteDate date, final Frame frame,
                                               final FieldVector3D<DerivativeStructure> position, final FieldVector3D<DerivativeStructure> velocity,
                                               final FieldRotation<DerivativeStructure> rotation, final DerivativeStructure mass)
         throws OrekitException {
 
-        final FieldVector3D<DerivativeStructure> sunSatVector = position.subtract(sun.getPVCoordinates(date, frame).getPosition());
+        final FieldVector3D<DerivativeStructure> sunSatVector = position.subtract(getSunPosition(date, frame));
         final DerivativeStructure r2  = sunSatVector.getNormSq();
 
         // compute flux
@@ -224,7 +343,7 @@ public class SolarRadiationPressure extends AbstractParameterizable implements F
         final AbsoluteDate date         = s.getDate();
         final Frame        frame        = s.getFrame();
         final Vector3D     position     = s.getPVCoordinates().getPosition();
-        final Vector3D     sunSatVector = position.subtract(sun.getPVCoordinates(date, frame).getPosition());
+        final Vector3D     sunSatVector = position.subtract(getSunPosition(date, frame));
         final double       r2           = sunSatVector.getNormSq();
 
         // compute flux
@@ -236,6 +355,19 @@ public class SolarRadiationPressure extends AbstractParameterizable implements F
 
     }
 
+    /** Get the Sun position.
+     * @param date current date
+     * @param frame frame in which position should be provided
+     * @return Sun position, retrieved from the shared eclipse engine if available
+     * @exception OrekitException if position cannot be computed
+     */
+    private Vector3D getSunPosition(final AbsoluteDate date, final Frame frame)
+        throws OrekitException {
+        return (engine == null) ?
+               sun.getPVCoordinates(date, frame).getPosition() :
+               engine.getOccultedPosition(date, frame);
+    }
+
     /** {@inheritDoc} */
     public double getParameter(final String name)
         throws IllegalArgumentException {
@@ -268,9 +400,20 @@ public class SolarRadiationPressure extends AbstractParameterizable implements F
                                       final Frame frame,
                                       final AbsoluteDate date)
         throws OrekitException {
+        return getEclipseAngles(position, sun.getPVCoordinates(date, frame).getPosition());
+    }
+
+    /** Get the useful angles for eclipse computation.
+     * @param position the satellite's position in the selected frame.
+     * @param sunPosition the Sun position in the same frame
+     * @return the 3 angles {(satCentral, satSun), Central body apparent radius, Sun apparent radius}
+     * @exception OrekitException if the trajectory is inside the Earth
+     */
+    private double[] getEclipseAngles(final Vector3D position, final Vector3D sunPosition)
+        throws OrekitException {
         final double[] angle = new double[3];
 
-        final Vector3D satSunVector = sun.getPVCoordinates(date, frame).getPosition().subtract(position);
+        final Vector3D satSunVector = sunPosition.subtract(position);
 
         // Sat-Sun / Sat-CentralBody angle
         angle[0] = Vector3D.angle(satSunVector, position.negate());
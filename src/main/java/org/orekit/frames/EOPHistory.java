@@ -30,7 +30,6 @@ import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeFunction;
 import org.orekit.time.TimeStamped;
 import org.orekit.utils.Constants;
-import org.orekit.utils.GenericTimeStampedCache;
 import org.orekit.utils.IERSConventions;
 import org.orekit.utils.ImmutableTimeStampedCache;
 import org.orekit.utils.OrekitConfiguration;
@@ -360,8 +359,10 @@ public class EOPHistory implements Serializable {
 
     /** Get a non-modifiable view of the EOP entries.
      * @return non-modifiable view of the EOP entries
+     * (empty if history has no data)
+     * @since 8.0
      */
-    List<EOPEntry> getEntries() {
+    public List<EOPEntry> getEntries() {
         return cache.getAll();
     }
 
@@ -463,12 +464,13 @@ public class EOPHistory implements Serializable {
             this.step            = 60 * 60;
             this.tidalCorrection = tidalCorrection;
             this.cache           =
-                new GenericTimeStampedCache<TidalCorrectionEntry>(8,
-                                                                  OrekitConfiguration.getCacheSlotsNumber(),
-                                                                  Constants.JULIAN_DAY * 30,
-                                                                  Constants.JULIAN_DAY,
-                                                                  this,
-                                                                  TidalCorrectionEntry.class);
+                OrekitConfiguration.getCacheType().createCache("EOPHistory/tidal corrections",
+                                                               8,
+                                                               OrekitConfiguration.getCacheSlotsNumber(),
+                                                               Constants.JULIAN_DAY * 30,
+                                                               Constants.JULIAN_DAY,
+                                                               this,
+                                                               TidalCorrectionEntry.class);
         }
 
         /** {@inheritDoc} */
@@ -0,0 +1,51 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+import org.orekit.errors.OrekitException;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.CartesianDerivativesFilter;
+
+/** Interface for Transform providers that can skip computation of some derivatives.
+ * <p>
+ * Some providers compute rates and accelerations from additional data (for
+ * example length of day from Earth Orientation Parameters). When callers only
+ * need positions or rotations, these computations can be avoided.
+ * </p>
+ * @see Frame#getTransformTo(Frame, AbsoluteDate, CartesianDerivativesFilter, AngularDerivativesFilter)
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public interface FilteredTransformProvider extends TransformProvider {
+
+    /** Get the {@link Transform} corresponding to specified date, with only some derivatives.
+     * <p>
+     * The derivatives up to the levels specified by the filters must be
+     * computed, higher derivatives may be either computed or set to zero.
+     * </p>
+     * @param date current date
+     * @param cFilter filter for derivatives of the Cartesian part to compute
+     * @param aFilter filter for derivatives of the angular part to compute
+     * @return transform at specified date
+     * @exception OrekitException if transform cannot be computed at given date
+     */
+    Transform getTransform(AbsoluteDate date,
+                           CartesianDerivativesFilter cFilter, AngularDerivativesFilter aFilter)
+        throws OrekitException;
+
+}
@@ -18,10 +18,14 @@ package org.orekit.frames;
 
 import java.io.Serializable;
 
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.orekit.errors.OrekitIllegalArgumentException;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.CartesianDerivativesFilter;
+import org.orekit.utils.PVCoordinates;
 
 
 /** Tridimensional references frames class.
@@ -69,6 +73,9 @@ public class Frame implements Serializable {
     /** Indicator for pseudo-inertial frames. */
     private final boolean pseudoInertial;
 
+    /** Cache for paths to other frames (lazily built, not serialized). */
+    private transient volatile FramePathCache pathCache;
+
     /** Private constructor used only for the root frame.
      * @param name name of the frame
      * @param pseudoInertial true if frame is considered pseudo-inertial
@@ -247,54 +254,112 @@ public class Frame implements Serializable {
             return Transform.IDENTITY;
         }
 
-        // common ancestor to both frames in the frames tree
-        final Frame common = findCommon(this, destination);
+        return getPath(destination).getTransform(date);
 
-        // transform from common to instance
-        Transform commonToInstance = Transform.IDENTITY;
-        for (Frame frame = this; frame != common; frame = frame.parent) {
-            commonToInstance =
-                new Transform(date, frame.transformProvider.getTransform(date), commonToInstance);
-        }
+    }
+
+    /** Get the transform from the instance to another frame, with only some derivatives.
+     * <p>
+     * This method is similar to {@link #getTransformTo(Frame, AbsoluteDate)}, but
+     * the derivatives beyond the levels specified by the filters may be neither
+     * computed by the {@link FilteredTransformProvider transform providers} nor
+     * combined, they are set to zero in the returned transform. For example
+     * when only {@link Transform#transformPosition(Vector3D) positions} are
+     * transformed, {@link CartesianDerivativesFilter#USE_P} and {@link
+     * AngularDerivativesFilter#USE_R} avoid computing Earth rotation rate
+     * and combining velocities and accelerations.
+     * </p>
+     * <p>
+     * As combining velocities needs rotation rates, the angular derivation
+     * order used is at least the Cartesian derivation order.
+     * </p>
+     * @param destination destination frame to which we want to transform vectors
+     * @param date the date (can be null if it is sure than no date dependent frame is used)
+     * @param cFilter filter for derivatives of the Cartesian part to compute
+     * @param aFilter filter for derivatives of the angular part to compute
+     * @return transform from the instance to the destination frame
+     * @exception OrekitException if some frame specific error occurs
+     * @since 8.0
+     */
+    public Transform getTransformTo(final Frame destination, final AbsoluteDate date,
+                                    final CartesianDerivativesFilter cFilter,
+                                    final AngularDerivativesFilter aFilter)
+        throws OrekitException {
 
-        // transform from destination up to common
-        Transform commonToDestination = Transform.IDENTITY;
-        for (Frame frame = destination; frame != common; frame = frame.parent) {
-            commonToDestination =
-                new Transform(date, frame.transformProvider.getTransform(date), commonToDestination);
+        if (this == destination) {
+            // shortcut for special case that may be frequent
+            return Transform.IDENTITY;
         }
 
-        // transform from instance to destination via common
-        return new Transform(date, commonToInstance.getInverse(), commonToDestination);
+        return getPath(destination).getTransform(date, cFilter, aFilter);
 
     }
 
-    /** Get the provider for transform from parent frame to instance.
-     * @return provider for transform from parent frame to instance
+    /** Transform a position vector from the instance to another frame.
+     * <p>
+     * This method is equivalent to {@code getTransformTo(destination, date).transformPosition(position)},
+     * but it applies the elementary transforms one at a time to the vector and
+     * does not build any composite transform, which is faster when only one
+     * vector is transformed.
+     * </p>
+     * @param position position in the instance frame
+     * @param destination destination frame to which we want to transform the position
+     * @param date the date (can be null if it is sure than no date dependent frame is used)
+     * @return position in the destination frame
+     * @exception OrekitException if some frame specific error occurs
+     * @since 8.0
      */
-    public TransformProvider getTransformProvider() {
-        return transformProvider;
+    public Vector3D transformPosition(final Vector3D position, final Frame destination, final AbsoluteDate date)
+        throws OrekitException {
+        return (this == destination) ? position : getPath(destination).transformPosition(date, position);
     }
 
-    /** Find the deepest common ancestor of two frames in the frames tree.
-     * @param from origin frame
-     * @param to destination frame
-     * @return an ancestor frame of both <code>from</code> and <code>to</code>
+    /** Transform position and velocity from the instance to another frame.
+     * <p>
+     * This method is similar to {@code getTransformTo(destination, date).transformPVCoordinates(pv)},
+     * but it applies the elementary transforms one at a time to the coordinates and
+     * does not build any composite transform, which is faster when only one
+     * coordinates set is transformed. Acceleration is neither used nor computed,
+     * it is set to zero in the returned coordinates.
+     * </p>
+     * @param pv position-velocity in the instance frame
+     * @param destination destination frame to which we want to transform the coordinates
+     * @param date the date (can be null if it is sure than no date dependent frame is used)
+     * @return position-velocity in the destination frame, with zero acceleration
+     * @exception OrekitException if some frame specific error occurs
+     * @since 8.0
      */
-    private static Frame findCommon(final Frame from, final Frame to) {
-
-        // select deepest frames that could be the common ancestor
-        Frame currentF = from.depth > to.depth ? from.getAncestor(from.depth - to.depth) : from;
-        Frame currentT = from.depth > to.depth ? to : to.getAncestor(to.depth - from.depth);
+    public PVCoordinates transformPositionVelocity(final PVCoordinates pv, final Frame destination,
+                                                   final AbsoluteDate date)
+        throws OrekitException {
+        return (this == destination) ?
+               new PVCoordinates(pv.getPosition(), pv.getVelocity()) :
+               getPath(destination).transformPositionVelocity(date, pv);
+    }
 
-        // go upward until we find a match
-        while (currentF != currentT) {
-            currentF = currentF.parent;
-            currentT = currentT.parent;
+    /** Get the path from the instance to another frame.
+     * <p>
+     * Paths are computed lazily and cached, as the frames tree is immutable.
+     * </p>
+     * @param destination destination frame
+     * @return path from the instance to the destination frame
+     */
+    private FramePath getPath(final Frame destination) {
+        FramePathCache cache = pathCache;
+        if (cache == null) {
+            // concurrent threads may build several caches here,
+            // this is harmless as they are equivalent
+            cache     = new FramePathCache(this);
+            pathCache = cache;
         }
+        return cache.getPath(destination);
+    }
 
-        return currentF;
-
+    /** Get the provider for transform from parent frame to instance.
+     * @return provider for transform from parent frame to instance
+     */
+    public TransformProvider getTransformProvider() {
+        return transformProvider;
     }
 
     /** Determine if a Frame is a child of another one.
@@ -0,0 +1,264 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.orekit.errors.OrekitException;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.CartesianDerivativesFilter;
+import org.orekit.utils.PVCoordinates;
+
+/** Precomputed path between two frames in the frames tree.
+ * <p>
+ * The path holds the providers to apply, from the source frame up to
+ * the deepest common ancestor, and then down to the destination frame.
+ * As frames trees are immutable, paths can be computed once and reused
+ * for all dates.
+ * </p>
+ * <p>
+ * Instances of this class are immutable, hence thread-safe.
+ * </p>
+ * @see Frame#getTransformTo(Frame, AbsoluteDate)
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+class FramePath {
+
+    /** Destination frame. */
+    private final Frame destination;
+
+    /** Providers from source frame upward to common ancestor (excluded). */
+    private final TransformProvider[] upward;
+
+    /** Providers from destination frame upward to common ancestor (excluded). */
+    private final TransformProvider[] downward;
+
+    /** Simple constructor.
+     * @param source source frame
+     * @param destination destination frame
+     */
+    FramePath(final Frame source, final Frame destination) {
+
+        this.destination = destination;
+
+        // common ancestor to both frames in the frames tree
+        final Frame common = findCommon(source, destination);
+
+        final List<TransformProvider> up = new ArrayList<TransformProvider>();
+        for (Frame frame = source; frame != common; frame = frame.getParent()) {
+            up.add(frame.getTransformProvider());
+        }
+        this.upward = up.toArray(new TransformProvider[up.size()]);
+
+        final List<TransformProvider> down = new ArrayList<TransformProvider>();
+        for (Frame frame = destination; frame != common; frame = frame.getParent()) {
+            down.add(frame.getTransformProvider());
+        }
+        this.downward = down.toArray(new TransformProvider[down.size()]);
+
+    }
+
+    /** Find the deepest common ancestor of two frames in the frames tree.
+     * @param from origin frame
+     * @param to destination frame
+     * @return an ancestor frame of both <code>from</code> and <code>to</code>
+     */
+    private static Frame findCommon(final Frame from, final Frame to) {
+
+        // select deepest frames that could be the common ancestor
+        Frame currentF = from.getDepth() > to.getDepth() ? from.getAncestor(from.getDepth() - to.getDepth()) : from;
+        Frame currentT = from.getDepth() > to.getDepth() ? to : to.getAncestor(to.getDepth() - from.getDepth());
+
+        // go upward until we find a match
+        while (currentF != currentT) {
+            currentF = currentF.getParent();
+            currentT = currentT.getParent();
+        }
+
+        return currentF;
+
+    }
+
+    /** Get the destination frame.
+     * @return destination frame
+     */
+    public Frame getDestination() {
+        return destination;
+    }
+
+    /** Get the transform from source frame to destination frame.
+     * @param date the date (can be null if it is sure than no date dependent frame is used)
+     * @return transform from source frame to destination frame
+     * @exception OrekitException if some frame specific error occurs
+     */
+    public Transform getTransform(final AbsoluteDate date) throws OrekitException {
+
+        // transform from common to source
+        Transform commonToSource = Transform.IDENTITY;
+        for (final TransformProvider provider : upward) {
+            commonToSource = new Transform(date, provider.getTransform(date), commonToSource);
+        }
+
+        // transform from destination up to common
+        Transform commonToDestination = Transform.IDENTITY;
+        for (final TransformProvider provider : downward) {
+            commonToDestination = new Transform(date, provider.getTransform(date), commonToDestination);
+        }
+
+        // transform from source to destination via common
+        return new Transform(date, commonToSource.getInverse(), commonToDestination);
+
+    }
+
+    /** Get the transform from source frame to destination frame, with only some derivatives.
+     * <p>
+     * As combining velocities needs rotation rates, the angular derivation
+     * order used internally is at least the Cartesian derivation order.
+     * </p>
+     * @param date the date (can be null if it is sure than no date dependent frame is used)
+     * @param cFilter filter for derivatives of the Cartesian part to compute
+     * @param aFilter filter for derivatives of the angular part to compute
+     * @return transform from source frame to destination frame
+     * @exception OrekitException if some frame specific error occurs
+     */
+    public Transform getTransform(final AbsoluteDate date,
+                                  final CartesianDerivativesFilter cFilter,
+                                  final AngularDerivativesFilter aFilter)
+        throws OrekitException {
+
+        final AngularDerivativesFilter aUsed =
+                (aFilter.getMaxOrder() < cFilter.getMaxOrder()) ?
+                AngularDerivativesFilter.getFilter(cFilter.getMaxOrder()) : aFilter;
+
+        // transform from common to source
+        Transform commonToSource = Transform.IDENTITY;
+        for (final TransformProvider provider : upward) {
+            commonToSource = new Transform(date, getTransform(provider, date, cFilter, aUsed), commonToSource,
+                                           cFilter, aUsed);
+        }
+
+        // transform from destination up to common
+        Transform commonToDestination = Transform.IDENTITY;
+        for (final TransformProvider provider : downward) {
+            commonToDestination = new Transform(date, getTransform(provider, date, cFilter, aUsed), commonToDestination,
+                                                cFilter, aUsed);
+        }
+
+        // transform from source to destination via common
+        return new Transform(date, commonToSource.getInverse(cFilter, aUsed), commonToDestination,
+                             cFilter, aUsed);
+
+    }
+
+    /** Get the transform from one provider, with only some derivatives if possible.
+     * @param provider transform provider
+     * @param date the date
+     * @param cFilter filter for derivatives of the Cartesian part to compute
+     * @param aFilter filter for derivatives of the angular part to compute
+     * @return transform from provider (may include more derivatives than requested)
+     * @exception OrekitException if some frame specific error occurs
+     */
+    private static Transform getTransform(final TransformProvider provider, final AbsoluteDate date,
+                                          final CartesianDerivativesFilter cFilter,
+                                          final AngularDerivativesFilter aFilter)
+        throws OrekitException {
+        return (provider instanceof FilteredTransformProvider) ?
+               ((FilteredTransformProvider) provider).getTransform(date, cFilter, aFilter) :
+               provider.getTransform(date);
+    }
+
+    /** Transform a position vector from source frame to destination frame.
+     * <p>
+     * The elementary transforms are applied one at a time to the vector,
+     * no composite transform is built.
+     * </p>
+     * @param date the date (can be null if it is sure than no date dependent frame is used)
+     * @param position position in source frame
+     * @return position in destination frame
+     * @exception OrekitException if some frame specific error occurs
+     */
+    public Vector3D transformPosition(final AbsoluteDate date, final Vector3D position)
+        throws OrekitException {
+
+        Vector3D p = position;
+
+        // from source up to common
+        for (final TransformProvider provider : upward) {
+            final Transform t = getTransform(provider, date,
+                                             CartesianDerivativesFilter.USE_P, AngularDerivativesFilter.USE_R);
+            p = t.getRotation().applyInverseTo(p).subtract(t.getTranslation());
+        }
+
+        // from common down to destination
+        for (int i = downward.length - 1; i >= 0; --i) {
+            final Transform t = getTransform(downward[i], date,
+                                             CartesianDerivativesFilter.USE_P, AngularDerivativesFilter.USE_R);
+            p = t.getRotation().applyTo(p.add(t.getTranslation()));
+        }
+
+        return p;
+
+    }
+
+    /** Transform position and velocity from source frame to destination frame.
+     * <p>
+     * The elementary transforms are applied one at a time to the coordinates,
+     * no composite transform is built. Acceleration is neither used nor computed,
+     * it is set to zero in the returned coordinates.
+     * </p>
+     * @param date the date (can be null if it is sure than no date dependent frame is used)
+     * @param pv position-velocity in source frame
+     * @return position-velocity in destination frame, with zero acceleration
+     * @exception OrekitException if some frame specific error occurs
+     */
+    public PVCoordinates transformPositionVelocity(final AbsoluteDate date, final PVCoordinates pv)
+        throws OrekitException {
+
+        Vector3D p = pv.getPosition();
+        Vector3D v = pv.getVelocity();
+
+        // from source up to common
+        for (final TransformProvider provider : upward) {
+            final Transform t = getTransform(provider, date,
+                                             CartesianDerivativesFilter.USE_PV, AngularDerivativesFilter.USE_RR);
+            final Rotation  r = t.getRotation();
+            final Vector3D  w = t.getRotationRate();
+            final Vector3D newP = r.applyInverseTo(p).subtract(t.getTranslation());
+            v = r.applyInverseTo(v.add(Vector3D.crossProduct(w, p))).subtract(t.getVelocity());
+            p = newP;
+        }
+
+        // from common down to destination
+        for (int i = downward.length - 1; i >= 0; --i) {
+            final Transform t = getTransform(downward[i], date,
+                                             CartesianDerivativesFilter.USE_PV, AngularDerivativesFilter.USE_RR);
+            final Rotation  r = t.getRotation();
+            final Vector3D  w = t.getRotationRate();
+            p = r.applyTo(p.add(t.getTranslation()));
+            v = r.applyTo(v.add(t.getVelocity())).subtract(Vector3D.crossProduct(w, p));
+        }
+
+        return new PVCoordinates(p, v);
+
+    }
+
+}
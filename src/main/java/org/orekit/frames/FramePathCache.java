@@ -0,0 +1,76 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/** Small cache for the paths from one frame to other frames.
+ * <p>
+ * The cache holds a fixed number of paths and replaces them in
+ * round-robin order, so frames created on the fly (local orbital
+ * frames, topocentric frames...) do not accumulate. Lookups are
+ * lock-free, so this class is thread-safe.
+ * </p>
+ * @see FramePath
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+class FramePathCache {
+
+    /** Number of cached paths. */
+    private static final int SIZE = 8;
+
+    /** Source frame. */
+    private final Frame source;
+
+    /** Cached paths. */
+    private final AtomicReferenceArray<FramePath> paths;
+
+    /** Index of the next path to replace. */
+    private final AtomicInteger next;
+
+    /** Simple constructor.
+     * @param source source frame
+     */
+    FramePathCache(final Frame source) {
+        this.source = source;
+        this.paths  = new AtomicReferenceArray<FramePath>(SIZE);
+        this.next   = new AtomicInteger(0);
+    }
+
+    /** Get the path to a destination frame, building it if needed.
+     * @param destination destination frame
+     * @return path from source frame to destination frame
+     */
+    public FramePath getPath(final Frame destination) {
+
+        for (int i = 0; i < SIZE; ++i) {
+            final FramePath path = paths.get(i);
+            if (path != null && path.getDestination() == destination) {
+                return path;
+            }
+        }
+
+        // the path is not cached yet
+        final FramePath path = new FramePath(source, destination);
+        paths.set((next.getAndIncrement() & Integer.MAX_VALUE) % SIZE, path);
+        return path;
+
+    }
+
+}
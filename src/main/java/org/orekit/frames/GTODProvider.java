@@ -28,6 +28,8 @@ import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeFunction;
 import org.orekit.time.TimeScalesFactory;
 import org.orekit.time.UT1Scale;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.CartesianDerivativesFilter;
 import org.orekit.utils.Constants;
 import org.orekit.utils.IERSConventions;
 
@@ -39,7 +41,7 @@ import org.orekit.utils.IERSConventions;
  * @author Pascal Parraud
  * @author Thierry Ceolin
  */
-public class GTODProvider implements EOPBasedTransformProvider {
+public class GTODProvider implements EOPBasedTransformProvider, FilteredTransformProvider {
 
     /** Serializable UID. */
     private static final long serialVersionUID = 20141228L;
@@ -104,6 +106,27 @@ public class GTODProvider implements EOPBasedTransformProvider {
 
     }
 
+    /** {@inheritDoc}
+     * <p>
+     * The Earth rotation rate (which depends on length of day)
+     * is computed only if some derivatives are requested.
+     * </p>
+     */
+    public Transform getTransform(final AbsoluteDate date,
+                                  final CartesianDerivativesFilter cFilter,
+                                  final AngularDerivativesFilter aFilter)
+        throws OrekitException {
+
+        if (cFilter.getMaxOrder() > 0 || aFilter.getMaxOrder() > 0) {
+            return getTransform(date);
+        }
+
+        // compute proper rotation only
+        final double gast = gastFunction.value(date).getValue();
+        return new Transform(date, new Rotation(Vector3D.PLUS_K, gast, RotationConvention.FRAME_TRANSFORM));
+
+    }
+
     /** Replace the instance with a data transfer object for serialization.
      * <p>
      * This intermediate class serializes only the frame key.
@@ -26,7 +26,8 @@ import org.orekit.errors.OrekitExceptionWrapper;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.utils.AngularDerivativesFilter;
 import org.orekit.utils.CartesianDerivativesFilter;
-import org.orekit.utils.GenericTimeStampedCache;
+import org.orekit.utils.OrekitConfiguration;
+import org.orekit.utils.TimeStampedCache;
 import org.orekit.utils.TimeStampedGenerator;
 
 /** Transform provider using thread-safe interpolation on transforms sample.
@@ -37,7 +38,7 @@ import org.orekit.utils.TimeStampedGenerator;
  * derivatives can be used, the derivatives will be added appropriately
  * by the interpolation process.
  * </p>
- * @see GenericTimeStampedCache
+ * @see TimeStampedCache
  * @see ShiftingTransformProvider
  * @author Luc Maisonobe
  */
@@ -64,8 +65,17 @@ public class InterpolatingTransformProvider implements TransformProvider {
     /** Grid points time step. */
     private final double step;
 
+    /** Maximum number of independent cached time slots. */
+    private final int maxSlots;
+
+    /** Maximum duration span in seconds of one slot. */
+    private final double maxSpan;
+
+    /** Time interval above which a new slot is created. */
+    private final double newSlotInterval;
+
     /** Cache for sample points. */
-    private final transient GenericTimeStampedCache<Transform> cache;
+    private final transient TimeStampedCache<Transform> cache;
 
     /** Simple constructor.
      * @param rawProvider provider for raw (non-interpolated) transforms
@@ -78,11 +88,11 @@ public class InterpolatingTransformProvider implements TransformProvider {
      * @param gridPoints number of interpolation grid points
      * @param step grid points time step
      * @param maxSlots maximum number of independent cached time slots
-     * in the {@link GenericTimeStampedCache time-stamped cache}
+     * in the {@link TimeStampedCache time-stamped cache}
      * @param maxSpan maximum duration span in seconds of one slot
-     * in the {@link GenericTimeStampedCache time-stamped cache}
+     * in the {@link TimeStampedCache time-stamped cache}
      * @param newSlotInterval time interval above which a new slot is created
-     * in the {@link GenericTimeStampedCache time-stamped cache}
+     * in the {@link TimeStampedCache time-stamped cache}
      * @deprecated as of 7.0, replaced with {@link #InterpolatingTransformProvider(TransformProvider,
      * CartesianDerivativesFilter, AngularDerivativesFilter, AbsoluteDate, AbsoluteDate,
      * int, double, int, double, double)}
@@ -108,11 +118,11 @@ public class InterpolatingTransformProvider implements TransformProvider {
      * @param gridPoints number of interpolation grid points
      * @param step grid points time step
      * @param maxSlots maximum number of independent cached time slots
-     * in the {@link GenericTimeStampedCache time-stamped cache}
+     * in the {@link TimeStampedCache time-stamped cache}
      * @param maxSpan maximum duration span in seconds of one slot
-     * in the {@link GenericTimeStampedCache time-stamped cache}
+     * in the {@link TimeStampedCache time-stamped cache}
      * @param newSlotInterval time interval above which a new slot is created
-     * in the {@link GenericTimeStampedCache time-stamped cache}
+     * in the {@link TimeStampedCache time-stamped cache}
      */
     public InterpolatingTransformProvider(final TransformProvider rawProvider,
                                           final CartesianDerivativesFilter cFilter,
@@ -125,9 +135,15 @@ public class InterpolatingTransformProvider implements TransformProvider {
         this.aFilter     = aFilter;
         this.earliest    = earliest;
         this.latest      = latest;
-        this.step        = step;
-        this.cache       = new GenericTimeStampedCache<Transform>(gridPoints, maxSlots, maxSpan, newSlotInterval,
-                                                                  new Generator(), Transform.class);
+        this.step            = step;
+        this.maxSlots        = maxSlots;
+        this.maxSpan         = maxSpan;
+        this.newSlotInterval = newSlotInterval;
+        this.cache           = OrekitConfiguration.getCacheType().createCache("InterpolatingTransformProvider/" +
+                                                                              rawProvider.getClass().getSimpleName(),
+                                                                              gridPoints, maxSlots, maxSpan,
+                                                                              newSlotInterval, new Generator(),
+                                                                              Transform.class);
     }
 
     /** Get the underlying provider for raw (non-interpolated) transforms.
@@ -179,7 +195,7 @@ public class InterpolatingTransformProvider implements TransformProvider {
     private Object writeReplace() {
         return new DTO(rawProvider, cFilter.getMaxOrder(), aFilter.getMaxOrder(),
                        earliest, latest, cache.getNeighborsSize(), step,
-                       cache.getMaxSlots(), cache.getMaxSpan(), cache.getNewSlotQuantumGap());
+                       maxSlots, maxSpan, newSlotInterval);
     }
 
     /** Internal class used only for serialization. */
@@ -227,11 +243,11 @@ public class InterpolatingTransformProvider implements TransformProvider {
          * @param gridPoints number of interpolation grid points
          * @param step grid points time step
          * @param maxSlots maximum number of independent cached time slots
-         * in the {@link GenericTimeStampedCache time-stamped cache}
+         * in the {@link TimeStampedCache time-stamped cache}
          * @param maxSpan maximum duration span in seconds of one slot
-         * in the {@link GenericTimeStampedCache time-stamped cache}
+         * in the {@link TimeStampedCache time-stamped cache}
          * @param newSlotInterval time interval above which a new slot is created
-         * in the {@link GenericTimeStampedCache time-stamped cache}
+         * in the {@link TimeStampedCache time-stamped cache}
          */
         private DTO(final TransformProvider rawProvider, final int cDerivatives, final int aDerivatives,
                     final AbsoluteDate earliest, final AbsoluteDate latest,
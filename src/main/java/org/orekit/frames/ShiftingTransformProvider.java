@@ -27,14 +27,15 @@ import org.orekit.errors.OrekitExceptionWrapper;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.utils.AngularDerivativesFilter;
 import org.orekit.utils.CartesianDerivativesFilter;
-import org.orekit.utils.GenericTimeStampedCache;
+import org.orekit.utils.OrekitConfiguration;
+import org.orekit.utils.TimeStampedCache;
 import org.orekit.utils.TimeStampedGenerator;
 
 /** Transform provider using thread-safe shifts on transforms sample.
  * <p>
  * The shifts take derivatives into account, up to user specified order.
  * </p>
- * @see GenericTimeStampedCache
+ * @see TimeStampedCache
  * @see InterpolatingTransformProvider
  * @since 7.1
  * @author Luc Maisonobe
@@ -47,8 +48,17 @@ public class ShiftingTransformProvider implements TransformProvider {
     /** First level cache. */
     private final InterpolatingTransformProvider interpolatingProvider;
 
+    /** Maximum number of independent cached time slots. */
+    private final int maxSlots;
+
+    /** Maximum duration span in seconds of one slot. */
+    private final double maxSpan;
+
+    /** Time interval above which a new slot is created. */
+    private final double newSlotInterval;
+
     /** Cache for sample points. */
-    private final transient GenericTimeStampedCache<Transform> cache;
+    private final transient TimeStampedCache<Transform> cache;
 
     /** Simple constructor.
      * @param rawProvider provider for raw (non-interpolated) transforms
@@ -59,11 +69,11 @@ public class ShiftingTransformProvider implements TransformProvider {
      * @param gridPoints number of interpolation grid points
      * @param step grid points time step
      * @param maxSlots maximum number of independent cached time slots
-     * in the {@link GenericTimeStampedCache time-stamped cache}
+     * in the {@link TimeStampedCache time-stamped cache}
      * @param maxSpan maximum duration span in seconds of one slot
-     * in the {@link GenericTimeStampedCache time-stamped cache}
+     * in the {@link TimeStampedCache time-stamped cache}
      * @param newSlotInterval time interval above which a new slot is created
-     * in the {@link GenericTimeStampedCache time-stamped cache}
+     * in the {@link TimeStampedCache time-stamped cache}
      */
     public ShiftingTransformProvider(final TransformProvider rawProvider,
                                      final CartesianDerivativesFilter cFilter,
@@ -80,17 +90,23 @@ public class ShiftingTransformProvider implements TransformProvider {
     /** Simple constructor.
      * @param interpolatingProvider first level cache provider
      * @param maxSlots maximum number of independent cached time slots
-     * in the {@link GenericTimeStampedCache time-stamped cache}
+     * in the {@link TimeStampedCache time-stamped cache}
      * @param maxSpan maximum duration span in seconds of one slot
-     * in the {@link GenericTimeStampedCache time-stamped cache}
+     * in the {@link TimeStampedCache time-stamped cache}
      * @param newSlotInterval time interval above which a new slot is created
-     * in the {@link GenericTimeStampedCache time-stamped cache}
+     * in the {@link TimeStampedCache time-stamped cache}
      */
     private ShiftingTransformProvider(final InterpolatingTransformProvider interpolatingProvider,
                                      final int maxSlots, final double maxSpan, final double newSlotInterval) {
         this.interpolatingProvider = interpolatingProvider;
-        this.cache = new GenericTimeStampedCache<Transform>(2, maxSlots, maxSpan, newSlotInterval,
-                                                            new Generator(), Transform.class);
+        this.maxSlots              = maxSlots;
+        this.maxSpan               = maxSpan;
+        this.newSlotInterval       = newSlotInterval;
+        this.cache                 = OrekitConfiguration.getCacheType().createCache("ShiftingTransformProvider/" +
+                                                                                    interpolatingProvider.getRawProvider().getClass().getSimpleName(),
+                                                                                    2, maxSlots, maxSpan,
+                                                                                    newSlotInterval, new Generator(),
+                                                                                    Transform.class);
     }
 
     /** Get the underlying provider for raw (non-interpolated) transforms.
@@ -145,7 +161,7 @@ public class ShiftingTransformProvider implements TransformProvider {
      */
     private Object writeReplace() {
         return new DTO(interpolatingProvider,
-                       cache.getMaxSlots(), cache.getMaxSpan(), cache.getNewSlotQuantumGap());
+                       maxSlots, maxSpan, newSlotInterval);
     }
 
     /** Internal class used only for serialization. */
@@ -169,11 +185,11 @@ public class ShiftingTransformProvider implements TransformProvider {
         /** Simple constructor.
          * @param interpolatingProvider first level cache provider
          * @param maxSlots maximum number of independent cached time slots
-         * in the {@link GenericTimeStampedCache time-stamped cache}
+         * in the {@link TimeStampedCache time-stamped cache}
          * @param maxSpan maximum duration span in seconds of one slot
-         * in the {@link GenericTimeStampedCache time-stamped cache}
+         * in the {@link TimeStampedCache time-stamped cache}
          * @param newSlotInterval time interval above which a new slot is created
-         * in the {@link GenericTimeStampedCache time-stamped cache}
+         * in the {@link TimeStampedCache time-stamped cache}
          */
         private DTO(final InterpolatingTransformProvider interpolatingProvider,
                     final int maxSlots, final double maxSpan, final double newSlotInterval) {
@@ -29,13 +29,15 @@ import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeFunction;
 import org.orekit.time.TimeScalesFactory;
 import org.orekit.time.UT1Scale;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.CartesianDerivativesFilter;
 import org.orekit.utils.Constants;
 
 /** Terrestrial Intermediate Reference Frame.
  * <p> The pole motion is not considered : Pseudo Earth Fixed Frame. It handles
  * the earth rotation angle, its parent frame is the {@link CIRFProvider}</p>
  */
-class TIRFProvider implements EOPBasedTransformProvider {
+class TIRFProvider implements EOPBasedTransformProvider, FilteredTransformProvider {
 
     /** Serializable UID. */
     private static final long serialVersionUID = 20130919L;
@@ -98,6 +100,27 @@ class TIRFProvider implements EOPBasedTransformProvider {
 
     }
 
+    /** {@inheritDoc}
+     * <p>
+     * The Earth rotation rate (which depends on length of day)
+     * is computed only if some derivatives are requested.
+     * </p>
+     */
+    public Transform getTransform(final AbsoluteDate date,
+                                  final CartesianDerivativesFilter cFilter,
+                                  final AngularDerivativesFilter aFilter)
+        throws OrekitException {
+
+        if (cFilter.getMaxOrder() > 0 || aFilter.getMaxOrder() > 0) {
+            return getTransform(date);
+        }
+
+        // compute proper rotation only
+        final double correctedERA = era.value(date).getValue();
+        return new Transform(date, new Rotation(Vector3D.PLUS_K, correctedERA, RotationConvention.FRAME_TRANSFORM));
+
+    }
+
     /** Get the Earth Rotation Angle at the current date.
      * @param  date the date
      * @return Earth Rotation Angle at the current date in radians
@@ -0,0 +1,286 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitInternalError;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.TimeStampedAngularCoordinates;
+
+/** Transform provider serving rotations from a tabulated transforms file.
+ * <p>
+ * The file is generated beforehand by {@link TabulatedTransformWriter}, for
+ * example for GCRF to ITRF over the operational period of an application.
+ * It is memory-mapped read-only, so loading is almost instantaneous, no
+ * IERS data needs to be read, and several JVMs on the same host share the
+ * same physical pages. Instances are thread-safe.
+ * </p>
+ * <p>
+ * Rotations are computed by Hermite interpolation of the tabulated
+ * rotations and rotation rates, using the number of points stored in
+ * the file. For GCRF to ITRF with IERS 2010 conventions, the interpolation
+ * error is about 3 10<sup>-12</sup> rad with a 1 minute step and 2 points,
+ * 1.5 10<sup>-11</sup> rad with a 5 minutes step and 2 points and 5
+ * 10<sup>-11</sup> rad with a 15 minutes step and 2 points. As the tabulated
+ * rotation rates do not include the slow variations of Earth Orientation
+ * Parameters, the error grows linearly with step and using more than 2
+ * points does not improve accuracy.
+ * </p>
+ * <p>
+ * Typical use is to attach the provider to the parent frame used when
+ * writing the file:
+ * </p>
+ * <pre>
+ *   Frame itrf = new Frame(FramesFactory.getGCRF(),
+ *                          new TabulatedTransformProvider(file),
+ *                          "tabulated ITRF");
+ * </pre>
+ * @see TabulatedTransformWriter
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class TabulatedTransformProvider implements TransformProvider {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20160322L;
+
+    /** Size of a double in bytes. */
+    private static final int DOUBLE_SIZE = 8;
+
+    /** Tabulated file. */
+    private final File file;
+
+    /** Name of the frame from which transforms were computed. */
+    private final String fromName;
+
+    /** Name of the frame to which transforms were computed. */
+    private final String toName;
+
+    /** Grid start date. */
+    private final AbsoluteDate start;
+
+    /** Grid step. */
+    private final double step;
+
+    /** Number of grid points. */
+    private final int n;
+
+    /** Number of points to use for interpolation. */
+    private final int interpolationPoints;
+
+    /** Offset of first record in file. */
+    private final int recordsOffset;
+
+    /** Mapped file content. */
+    private final transient ByteBuffer buffer;
+
+    /** Simple constructor.
+     * @param file tabulated transforms file, generated by {@link TabulatedTransformWriter}
+     * @exception OrekitException if file cannot be read or is not a tabulated transforms file
+     */
+    public TabulatedTransformProvider(final File file) throws OrekitException {
+        try {
+
+            this.file = file;
+
+            // map the whole file
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            } finally {
+                // the mapping remains valid after the file has been closed
+                raf.close();
+            }
+
+            // parse header
+            if (buffer.getLong() != TabulatedTransformWriter.MAGIC ||
+                buffer.getInt()  != TabulatedTransformWriter.VERSION) {
+                throw new OrekitException(OrekitMessages.NOT_A_TABULATED_TRANSFORM_FILE, file.getAbsolutePath());
+            }
+            fromName = readString(buffer);
+            toName   = readString(buffer);
+            final long   startSeconds  = buffer.getLong();
+            final double startFraction = buffer.getDouble();
+            start                      = AbsoluteDate.J2000_EPOCH.shiftedBy(startSeconds).shiftedBy(startFraction);
+            step                       = buffer.getDouble();
+            n                          = buffer.getInt();
+            interpolationPoints        = buffer.getInt();
+            recordsOffset              = buffer.position();
+
+            if (step <= 0 || interpolationPoints < 1 || n < interpolationPoints ||
+                buffer.limit() != recordsOffset + ((long) n) * TabulatedTransformWriter.RECORD_DOUBLES * DOUBLE_SIZE) {
+                throw new OrekitException(OrekitMessages.NOT_A_TABULATED_TRANSFORM_FILE, file.getAbsolutePath());
+            }
+
+        } catch (BufferUnderflowException bue) {
+            throw new OrekitException(bue, OrekitMessages.NOT_A_TABULATED_TRANSFORM_FILE, file.getAbsolutePath());
+        } catch (IOException ioe) {
+            throw new OrekitException(ioe, OrekitMessages.UNABLE_TO_FIND_FILE, file.getAbsolutePath());
+        }
+    }
+
+    /** Read a string written by {@link java.io.DataOutput#writeUTF(String)}.
+     * @param buffer buffer to read from
+     * @return read string
+     * @exception UnsupportedEncodingException if UTF-8 is not supported (should never happen)
+     */
+    private static String readString(final ByteBuffer buffer) throws UnsupportedEncodingException {
+        final byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    /** Get the tabulated file.
+     * @return tabulated file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /** Get the name of the frame from which transforms were computed.
+     * @return name of the frame from which transforms were computed
+     */
+    public String getFromName() {
+        return fromName;
+    }
+
+    /** Get the name of the frame to which transforms were computed.
+     * @return name of the frame to which transforms were computed
+     */
+    public String getToName() {
+        return toName;
+    }
+
+    /** Get the first date of the grid.
+     * @return first date of the grid
+     */
+    public AbsoluteDate getMinDate() {
+        return start;
+    }
+
+    /** Get the last date of the grid.
+     * @return last date of the grid
+     */
+    public AbsoluteDate getMaxDate() {
+        return start.shiftedBy((n - 1) * step);
+    }
+
+    /** Get the grid step.
+     * @return grid step (s)
+     */
+    public double getStep() {
+        return step;
+    }
+
+    /** Get the number of points used for interpolation.
+     * @return number of points used for interpolation
+     */
+    public int getInterpolationPoints() {
+        return interpolationPoints;
+    }
+
+    /** {@inheritDoc} */
+    public Transform getTransform(final AbsoluteDate date) throws OrekitException {
+
+        final double dt = date.durationFrom(start);
+        if (dt < 0 || dt > (n - 1) * step) {
+            throw new OrekitException(OrekitMessages.OUT_OF_RANGE_TABULATED_TRANSFORM_DATE,
+                                      date, getMinDate(), getMaxDate());
+        }
+
+        // select interpolation points around date
+        final int central = (int) FastMath.floor(dt / step);
+        final int first   = FastMath.max(0, FastMath.min(n - interpolationPoints,
+                                                         central - (interpolationPoints - 1) / 2));
+
+        final List<TimeStampedAngularCoordinates> sample =
+                new ArrayList<TimeStampedAngularCoordinates>(interpolationPoints);
+        for (int i = first; i < first + interpolationPoints; ++i) {
+            // absolute reads do not change buffer state, so they are thread-safe
+            final int offset = recordsOffset + i * TabulatedTransformWriter.RECORD_DOUBLES * DOUBLE_SIZE;
+            final Rotation r = new Rotation(buffer.getDouble(offset),
+                                            buffer.getDouble(offset +     DOUBLE_SIZE),
+                                            buffer.getDouble(offset + 2 * DOUBLE_SIZE),
+                                            buffer.getDouble(offset + 3 * DOUBLE_SIZE),
+                                            false);
+            final Vector3D w = new Vector3D(buffer.getDouble(offset + 4 * DOUBLE_SIZE),
+                                            buffer.getDouble(offset + 5 * DOUBLE_SIZE),
+                                            buffer.getDouble(offset + 6 * DOUBLE_SIZE));
+            sample.add(new TimeStampedAngularCoordinates(start.shiftedBy(i * step), r, w, Vector3D.ZERO));
+        }
+
+        return new Transform(date,
+                             TimeStampedAngularCoordinates.interpolate(date, AngularDerivativesFilter.USE_RR, sample));
+
+    }
+
+    /** Replace the instance with a data transfer object for serialization.
+     * <p>
+     * This intermediate class serializes only the file name.
+     * </p>
+     * @return data transfer object that will be serialized
+     */
+    private Object writeReplace() {
+        return new DataTransferObject(file);
+    }
+
+    /** Internal class used only for serialization. */
+    private static class DataTransferObject implements Serializable {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20160322L;
+
+        /** Tabulated file. */
+        private final File file;
+
+        /** Simple constructor.
+         * @param file tabulated file
+         */
+        DataTransferObject(final File file) {
+            this.file = file;
+        }
+
+        /** Replace the deserialized data transfer object with a {@link TabulatedTransformProvider}.
+         * @return replacement {@link TabulatedTransformProvider}
+         */
+        private Object readResolve() {
+            try {
+                return new TabulatedTransformProvider(file);
+            } catch (OrekitException oe) {
+                throw new OrekitInternalError(oe);
+            }
+        }
+
+    }
+
+}
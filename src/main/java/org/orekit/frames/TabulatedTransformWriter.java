@@ -0,0 +1,154 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.time.AbsoluteDate;
+
+/** Writer for tabulated transforms files.
+ * <p>
+ * This class evaluates the orientation of one frame with respect to another
+ * frame (typically {@link FramesFactory#getITRF(org.orekit.utils.IERSConventions,
+ * boolean) ITRF} with respect to {@link FramesFactory#getGCRF() GCRF}, including
+ * precession, nutation and all Earth Orientation Parameters corrections) on a
+ * regular time grid, and stores the rotations and rotation rates in a compact
+ * binary file. The file can then be used by {@link TabulatedTransformProvider}
+ * without loading any IERS data.
+ * </p>
+ * <p>
+ * The file is written in big-endian order. It contains a header with the
+ * frames names, the grid start date, step, size and number of interpolation
+ * points, followed by one fixed-size record per grid point, with the rotation
+ * quaternion and the rotation rate (7 doubles). Translations are not stored,
+ * so this is intended for frames sharing the same origin.
+ * </p>
+ * @see TabulatedTransformProvider
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class TabulatedTransformWriter {
+
+    /** Magic number at file start (ASCII for "OREKITTT"). */
+    static final long MAGIC = 0x4f52454b49545454L;
+
+    /** Format version. */
+    static final int VERSION = 1;
+
+    /** Number of doubles per record. */
+    static final int RECORD_DOUBLES = 7;
+
+    /** Frame from which transforms are computed. */
+    private final Frame from;
+
+    /** Frame to which transforms are computed. */
+    private final Frame to;
+
+    /** Grid step. */
+    private final double step;
+
+    /** Number of points to use for interpolation. */
+    private final int interpolationPoints;
+
+    /** Simple constructor.
+     * <p>
+     * The interpolation error depends on step and number of points. For
+     * GCRF to ITRF, with 2 points, a 5 minutes step leads to errors about
+     * 1.5 10<sup>-11</sup> rad, i.e. about 0.1 mm on Earth surface (see
+     * {@link TabulatedTransformProvider} for details).
+     * </p>
+     * @param from frame from which transforms are computed (parent frame
+     * when the file is used with {@link TabulatedTransformProvider})
+     * @param to frame to which transforms are computed
+     * @param step grid step (s)
+     * @param interpolationPoints number of points to use for interpolation
+     */
+    public TabulatedTransformWriter(final Frame from, final Frame to,
+                                    final double step, final int interpolationPoints) {
+        this.from                = from;
+        this.to                  = to;
+        this.step                = step;
+        this.interpolationPoints = interpolationPoints;
+    }
+
+    /** Write a tabulated transforms file.
+     * <p>
+     * The grid starts exactly at start date, and ends at the first
+     * grid point after or at end date.
+     * </p>
+     * @param file file to write
+     * @param start start date of the grid
+     * @param end end date of the grid
+     * @exception OrekitException if transforms cannot be computed
+     * @exception IOException if file cannot be written
+     */
+    public void write(final File file, final AbsoluteDate start, final AbsoluteDate end)
+        throws OrekitException, IOException {
+
+        final int n = FastMath.max(interpolationPoints,
+                                   1 + (int) FastMath.ceil(end.durationFrom(start) / step));
+
+        // split start date to preserve accuracy
+        final double startOffset  = start.durationFrom(AbsoluteDate.J2000_EPOCH);
+        final long   startSeconds = (long) FastMath.floor(startOffset);
+        final double startFraction =
+                start.durationFrom(AbsoluteDate.J2000_EPOCH.shiftedBy(startSeconds));
+
+        final DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+
+            // header
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(from.getName());
+            out.writeUTF(to.getName());
+            out.writeLong(startSeconds);
+            out.writeDouble(startFraction);
+            out.writeDouble(step);
+            out.writeInt(n);
+            out.writeInt(interpolationPoints);
+
+            // records
+            for (int i = 0; i < n; ++i) {
+                final Transform t = from.getTransformTo(to, start.shiftedBy(i * step));
+                final Rotation  r = t.getRotation();
+                final Vector3D  w = t.getRotationRate();
+                out.writeDouble(r.getQ0());
+                out.writeDouble(r.getQ1());
+                out.writeDouble(r.getQ2());
+                out.writeDouble(r.getQ3());
+                out.writeDouble(w.getX());
+                out.writeDouble(w.getY());
+                out.writeDouble(w.getZ());
+            }
+
+        } finally {
+            out.close();
+        }
+
+    }
+
+}
@@ -19,6 +19,7 @@ package org.orekit.frames;
 import org.apache.commons.math3.analysis.UnivariateFunction;
 import org.apache.commons.math3.analysis.solvers.BracketingNthOrderBrentSolver;
 import org.apache.commons.math3.analysis.solvers.UnivariateSolver;
+import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.exception.TooManyEvaluationsException;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
@@ -29,6 +30,8 @@ import org.orekit.bodies.GeodeticPoint;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitExceptionWrapper;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.CartesianDerivativesFilter;
 import org.orekit.utils.Constants;
 import org.orekit.utils.PVCoordinates;
 import org.orekit.utils.PVCoordinatesProvider;
@@ -166,7 +169,8 @@ public class TopocentricFrame extends Frame implements PVCoordinatesProvider {
         throws OrekitException {
 
         // Transform given point from given frame to topocentric frame
-        final Transform t = frame.getTransformTo(this, date);
+        final Transform t = frame.getTransformTo(this, date,
+                                                 CartesianDerivativesFilter.USE_P, AngularDerivativesFilter.USE_R);
         final Vector3D extPointTopo = t.transformPosition(extPoint);
 
         // Elevation angle is PI/2 - angle between zenith and given point direction
@@ -188,7 +192,9 @@ public class TopocentricFrame extends Frame implements PVCoordinatesProvider {
         throws OrekitException {
 
         // Transform given point from given frame to topocentric frame
-        final Transform t = getTransformTo(frame, date).getInverse();
+        final Transform t = getTransformTo(frame, date,
+                                           CartesianDerivativesFilter.USE_P, AngularDerivativesFilter.USE_R).
+                            getInverse(CartesianDerivativesFilter.USE_P, AngularDerivativesFilter.USE_R);
         final Vector3D extPointTopo = t.transformPosition(extPoint);
 
         // Compute azimuth
@@ -212,7 +218,8 @@ public class TopocentricFrame extends Frame implements PVCoordinatesProvider {
         throws OrekitException {
 
         // Transform given point from given frame to topocentric frame
-        final Transform t = frame.getTransformTo(this, date);
+        final Transform t = frame.getTransformTo(this, date,
+                                                 CartesianDerivativesFilter.USE_P, AngularDerivativesFilter.USE_R);
         final Vector3D extPointTopo = t.transformPosition(extPoint);
 
         // Compute range
@@ -220,6 +227,73 @@ public class TopocentricFrame extends Frame implements PVCoordinatesProvider {
 
     }
 
+    /** Get the elevation, azimuth and range of several points at the same date.
+     * <p>
+     * The points are provided in structure-of-arrays layout: point i has
+     * coordinates (x[i], y[i], z[i]) in the specified frame. The frame transform
+     * is computed once and no object is allocated per point. Output arrays
+     * that are null are ignored, so only the needed quantities are computed.
+     * </p>
+     * @param x abscissas of the points
+     * @param y ordinates of the points
+     * @param z heights of the points
+     * @param frame frame in which the points are defined
+     * @param date computation date
+     * @param elevation placeholder for the elevations (may be null)
+     * @param azimuth placeholder for the azimuths (may be null)
+     * @param range placeholder for the ranges (may be null)
+     * @exception OrekitException if frames transformations cannot be computed
+     * @exception DimensionMismatchException if arrays lengths are not all equal
+     * @see #getElevation(Vector3D, Frame, AbsoluteDate)
+     * @see #getAzimuth(Vector3D, Frame, AbsoluteDate)
+     * @see #getRange(Vector3D, Frame, AbsoluteDate)
+     * @since 8.0
+     */
+    public void getElevationAzimuthRange(final double[] x, final double[] y, final double[] z,
+                                         final Frame frame, final AbsoluteDate date,
+                                         final double[] elevation, final double[] azimuth, final double[] range)
+        throws OrekitException, DimensionMismatchException {
+
+        final int n = x.length;
+        for (final double[] array : new double[][] {y, z, elevation, azimuth, range}) {
+            if (array != null && array.length != n) {
+                throw new DimensionMismatchException(array.length, n);
+            }
+        }
+
+        // Transform given points from given frame to topocentric frame
+        final Transform t = frame.getTransformTo(this, date,
+                                                 CartesianDerivativesFilter.USE_P, AngularDerivativesFilter.USE_R);
+        final double[][] m  = t.getRotation().getMatrix();
+        final Vector3D   tr = t.getTranslation();
+
+        for (int i = 0; i < n; ++i) {
+
+            final double px = x[i] + tr.getX();
+            final double py = y[i] + tr.getY();
+            final double pz = z[i] + tr.getZ();
+            final double tx = m[0][0] * px + m[0][1] * py + m[0][2] * pz;
+            final double ty = m[1][0] * px + m[1][1] * py + m[1][2] * pz;
+            final double tz = m[2][0] * px + m[2][1] * py + m[2][2] * pz;
+            final double r  = FastMath.sqrt(tx * tx + ty * ty + tz * tz);
+
+            if (elevation != null) {
+                elevation[i] = FastMath.asin(tz / r);
+            }
+
+            if (azimuth != null) {
+                final double a = FastMath.atan2(tx, ty);
+                azimuth[i] = (a < 0.) ? a + MathUtils.TWO_PI : a;
+            }
+
+            if (range != null) {
+                range[i] = r;
+            }
+
+        }
+
+    }
+
     /** Get the range rate of a point with regards to the topocentric frame center point.
      * @param extPV point/velocity for which range rate shall be computed
      * @param frame frame in which the point is defined
@@ -23,6 +23,7 @@ import java.util.Collection;
 import java.util.List;
 
 import org.apache.commons.math3.RealFieldElement;
+import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.geometry.euclidean.threed.FieldRotation;
 import org.apache.commons.math3.geometry.euclidean.threed.FieldVector3D;
 import org.apache.commons.math3.geometry.euclidean.threed.Line;
@@ -257,6 +258,34 @@ public class Transform
                                     compositeRotationAcceleration(first, second)));
     }
 
+    /** Build a transform by combining two existing ones, computing only some derivatives.
+     * <p>
+     * This constructor is similar to {@link #Transform(AbsoluteDate, Transform, Transform)},
+     * but the derivatives beyond the levels specified by the filters are neither
+     * used nor computed, they are set to zero in the combined transform. Beware
+     * that combining velocities uses the rotation rate of the first transform, so if
+     * the combined transform is itself combined later on, its angular derivation
+     * order should not be lower than its Cartesian derivation order.
+     * </p>
+     * @param date date of the transform
+     * @param first first transform applied
+     * @param second second transform applied
+     * @param cFilter filter for derivatives of the Cartesian part to compute
+     * @param aFilter filter for derivatives of the angular part to compute
+     * @since 8.0
+     */
+    public Transform(final AbsoluteDate date, final Transform first, final Transform second,
+                     final CartesianDerivativesFilter cFilter, final AngularDerivativesFilter aFilter) {
+        this(date,
+             new PVCoordinates(compositeTranslation(first, second),
+                               cFilter.getMaxOrder() < 1 ? Vector3D.ZERO : compositeVelocity(first, second),
+                               cFilter.getMaxOrder() < 2 ? Vector3D.ZERO : compositeAcceleration(first, second)),
+             new AngularCoordinates(compositeRotation(first, second),
+                                    aFilter.getMaxOrder() < 1 ? Vector3D.ZERO : compositeRotationRate(first, second),
+                                    aFilter.getMaxOrder() < 2 ?
+                                    Vector3D.ZERO : compositeRotationAcceleration(first, second)));
+    }
+
     /** Compute a composite translation.
      * @param first first applied transform
      * @param second second applied transform
@@ -495,6 +524,51 @@ public class Transform
 
     }
 
+    /** Get the inverse transform of the instance, computing only some derivatives.
+     * <p>
+     * The derivatives beyond the levels specified by the filters are neither
+     * used nor computed, they are set to zero in the inverse transform. As the
+     * inverse velocity depends on the rotation rate, the angular derivation
+     * order should not be lower than the Cartesian derivation order.
+     * </p>
+     * @param cFilter filter for derivatives of the Cartesian part to compute
+     * @param aFilter filter for derivatives of the angular part to compute
+     * @return inverse transform of the instance
+     * @since 8.0
+     */
+    public Transform getInverse(final CartesianDerivativesFilter cFilter, final AngularDerivativesFilter aFilter) {
+
+        final Rotation r  = angular.getRotation();
+        final Vector3D rp = r.applyTo(cartesian.getPosition());
+        final Vector3D o  = angular.getRotationRate();
+
+        final Vector3D pInv = rp.negate();
+        Vector3D vInv = Vector3D.ZERO;
+        Vector3D aInv = Vector3D.ZERO;
+        if (cFilter.getMaxOrder() > 0) {
+            final Vector3D rv     = r.applyTo(cartesian.getVelocity());
+            final Vector3D crossP = Vector3D.crossProduct(o, rp);
+            vInv = crossP.subtract(rv);
+            if (cFilter.getMaxOrder() > 1) {
+                final Vector3D oDot        = angular.getRotationAcceleration();
+                final Vector3D ra          = r.applyTo(cartesian.getAcceleration());
+                final Vector3D crossV      = Vector3D.crossProduct(o, rv);
+                final Vector3D crossDotP   = Vector3D.crossProduct(oDot, rp);
+                final Vector3D crossCrossP = Vector3D.crossProduct(o, crossP);
+                aInv = new Vector3D(-1, ra, 2, crossV, 1, crossDotP, -1, crossCrossP);
+            }
+        }
+
+        final Vector3D oInv    = aFilter.getMaxOrder() < 1 ?
+                                 Vector3D.ZERO : r.applyInverseTo(o).negate();
+        final Vector3D oDotInv = aFilter.getMaxOrder() < 2 ?
+                                 Vector3D.ZERO : r.applyInverseTo(angular.getRotationAcceleration()).negate();
+
+        return new Transform(date, new PVCoordinates(pInv, vInv, aInv),
+                             new AngularCoordinates(r.revert(), oInv, oDotInv));
+
+    }
+
     /** Get a frozen transform.
      * <p>
      * This method creates a copy of the instance but frozen in time,
@@ -576,6 +650,166 @@ public class Transform
         return angular.applyTo(new TimeStampedPVCoordinates(pv.getDate(), 1, pv, 1, cartesian));
     }
 
+    /** Transform positions arrays (including translation effects).
+     * <p>
+     * The positions are provided in structure-of-arrays layout: point i has
+     * coordinates (x[i], y[i], z[i]). The rotation matrix is computed once
+     * and no object is allocated per point. The output arrays may be the
+     * same as the input arrays, the transform is then performed in place.
+     * </p>
+     * @param x abscissas of the positions to transform
+     * @param y ordinates of the positions to transform
+     * @param z heights of the positions to transform
+     * @param xOut placeholder for the abscissas of transformed positions
+     * @param yOut placeholder for the ordinates of transformed positions
+     * @param zOut placeholder for the heights of transformed positions
+     * @exception DimensionMismatchException if arrays lengths are not all equal
+     * @since 8.0
+     */
+    public void transformPositions(final double[] x, final double[] y, final double[] z,
+                                   final double[] xOut, final double[] yOut, final double[] zOut)
+        throws DimensionMismatchException {
+
+        checkLengths(x.length, y, z, xOut, yOut, zOut);
+
+        final double[][] m = angular.getRotation().getMatrix();
+        final Vector3D   t = cartesian.getPosition();
+        final double tx = t.getX();
+        final double ty = t.getY();
+        final double tz = t.getZ();
+        for (int i = 0; i < x.length; ++i) {
+            final double px = x[i] + tx;
+            final double py = y[i] + ty;
+            final double pz = z[i] + tz;
+            xOut[i] = m[0][0] * px + m[0][1] * py + m[0][2] * pz;
+            yOut[i] = m[1][0] * px + m[1][1] * py + m[1][2] * pz;
+            zOut[i] = m[2][0] * px + m[2][1] * py + m[2][2] * pz;
+        }
+
+    }
+
+    /** Transform vectors arrays (ignoring translation effects).
+     * <p>
+     * The vectors are provided in structure-of-arrays layout: vector i has
+     * coordinates (x[i], y[i], z[i]). The rotation matrix is computed once
+     * and no object is allocated per vector. The output arrays may be the
+     * same as the input arrays, the transform is then performed in place.
+     * </p>
+     * @param x abscissas of the vectors to transform
+     * @param y ordinates of the vectors to transform
+     * @param z heights of the vectors to transform
+     * @param xOut placeholder for the abscissas of transformed vectors
+     * @param yOut placeholder for the ordinates of transformed vectors
+     * @param zOut placeholder for the heights of transformed vectors
+     * @exception DimensionMismatchException if arrays lengths are not all equal
+     * @since 8.0
+     */
+    public void transformVectors(final double[] x, final double[] y, final double[] z,
+                                 final double[] xOut, final double[] yOut, final double[] zOut)
+        throws DimensionMismatchException {
+
+        checkLengths(x.length, y, z, xOut, yOut, zOut);
+
+        final double[][] m = angular.getRotation().getMatrix();
+        for (int i = 0; i < x.length; ++i) {
+            final double vx = x[i];
+            final double vy = y[i];
+            final double vz = z[i];
+            xOut[i] = m[0][0] * vx + m[0][1] * vy + m[0][2] * vz;
+            yOut[i] = m[1][0] * vx + m[1][1] * vy + m[1][2] * vz;
+            zOut[i] = m[2][0] * vx + m[2][1] * vy + m[2][2] * vz;
+        }
+
+    }
+
+    /** Transform positions and velocities arrays (including kinematic effects).
+     * <p>
+     * The coordinates are provided in structure-of-arrays layout: point i has
+     * position (px[i], py[i], pz[i]) and velocity (vx[i], vy[i], vz[i]).
+     * Accelerations are ignored. The rotation matrix is computed once and no
+     * object is allocated per point. The output arrays may be the same as the
+     * input arrays, the transform is then performed in place.
+     * </p>
+     * @param px abscissas of the positions to transform
+     * @param py ordinates of the positions to transform
+     * @param pz heights of the positions to transform
+     * @param vx abscissas of the velocities to transform
+     * @param vy ordinates of the velocities to transform
+     * @param vz heights of the velocities to transform
+     * @param pxOut placeholder for the abscissas of transformed positions
+     * @param pyOut placeholder for the ordinates of transformed positions
+     * @param pzOut placeholder for the heights of transformed positions
+     * @param vxOut placeholder for the abscissas of transformed velocities
+     * @param vyOut placeholder for the ordinates of transformed velocities
+     * @param vzOut placeholder for the heights of transformed velocities
+     * @exception DimensionMismatchException if arrays lengths are not all equal
+     * @since 8.0
+     */
+    public void transformPositionsVelocities(final double[] px, final double[] py, final double[] pz,
+                                             final double[] vx, final double[] vy, final double[] vz,
+                                             final double[] pxOut, final double[] pyOut, final double[] pzOut,
+                                             final double[] vxOut, final double[] vyOut, final double[] vzOut)
+        throws DimensionMismatchException {
+
+        checkLengths(px.length, py, pz, vx, vy, vz, pxOut, pyOut, pzOut, vxOut, vyOut, vzOut);
+
+        final double[][] m = angular.getRotation().getMatrix();
+        final Vector3D   t = cartesian.getPosition();
+        final Vector3D   v = cartesian.getVelocity();
+        final Vector3D   o = angular.getRotationRate();
+        final double tx = t.getX();
+        final double ty = t.getY();
+        final double tz = t.getZ();
+        final double tvx = v.getX();
+        final double tvy = v.getY();
+        final double tvz = v.getZ();
+        final double ox = o.getX();
+        final double oy = o.getY();
+        final double oz = o.getZ();
+        for (int i = 0; i < px.length; ++i) {
+
+            // translation
+            final double ix  = px[i] + tx;
+            final double iy  = py[i] + ty;
+            final double iz  = pz[i] + tz;
+            final double ivx = vx[i] + tvx;
+            final double ivy = vy[i] + tvy;
+            final double ivz = vz[i] + tvz;
+
+            // rotation
+            final double rx  = m[0][0] * ix  + m[0][1] * iy  + m[0][2] * iz;
+            final double ry  = m[1][0] * ix  + m[1][1] * iy  + m[1][2] * iz;
+            final double rz  = m[2][0] * ix  + m[2][1] * iy  + m[2][2] * iz;
+            final double rvx = m[0][0] * ivx + m[0][1] * ivy + m[0][2] * ivz;
+            final double rvy = m[1][0] * ivx + m[1][1] * ivy + m[1][2] * ivz;
+            final double rvz = m[2][0] * ivx + m[2][1] * ivy + m[2][2] * ivz;
+
+            // rotation rate effect on velocity
+            pxOut[i] = rx;
+            pyOut[i] = ry;
+            pzOut[i] = rz;
+            vxOut[i] = rvx - (oy * rz - oz * ry);
+            vyOut[i] = rvy - (oz * rx - ox * rz);
+            vzOut[i] = rvz - (ox * ry - oy * rx);
+
+        }
+
+    }
+
+    /** Check arrays lengths.
+     * @param n expected length
+     * @param arrays arrays to check
+     * @exception DimensionMismatchException if some array does not have the expected length
+     */
+    private static void checkLengths(final int n, final double[] ... arrays)
+        throws DimensionMismatchException {
+        for (final double[] array : arrays) {
+            if (array.length != n) {
+                throw new DimensionMismatchException(array.length, n);
+            }
+        }
+    }
+
     /** Transform {@link FieldPVCoordinates} including kinematic effects.
      * @param pv position-velocity to transform.
      * @param <T> type of the field elements
@@ -0,0 +1,355 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.PropagationException;
+import org.orekit.propagation.sampling.MultiSatFixedStepHandler;
+import org.orekit.propagation.sampling.OrekitFixedStepHandler;
+import org.orekit.time.AbsoluteDate;
+
+/** This class propagates several {@link Propagator propagators} in parallel
+ * and calls a global step handler with synchronized states.
+ * <p>
+ * Each propagator runs in its own task, submitted to an executor service.
+ * The propagators are set up in {@link Propagator#MASTER_MODE master mode}
+ * with a fixed step, so all of them provide states on the same regular
+ * time grid. The thread that called {@link #propagate(AbsoluteDate, AbsoluteDate)
+ * propagate} collects these states and calls the global {@link
+ * MultiSatFixedStepHandler} once per grid date, with the states of all
+ * satellites at this date, in propagators order.
+ * </p>
+ * <p>
+ * States are buffered between the propagation tasks and the global handler,
+ * so the executor may have fewer threads than there are propagators (a
+ * single thread is allowed). In this case, propagators that run first buffer
+ * all their states until the other ones catch up, which increases memory
+ * consumption.
+ * </p>
+ * <p>
+ * If one propagator is stopped before target date (typically by an event
+ * detector), the global handler is called with {@code isLast} set to true
+ * at the last grid date reached by this propagator, and the other propagations
+ * are aborted.
+ * </p>
+ * <p>
+ * As the propagators are switched to master mode with an internal step handler,
+ * any step handler previously set up will be lost. The propagators must not be
+ * used by other threads while the parallelizer is running.
+ * </p>
+ * @see MultiSatFixedStepHandler
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class PropagatorsParallelizer {
+
+    /** Propagators to run. */
+    private final List<Propagator> propagators;
+
+    /** Fixed time step between global handler calls. */
+    private final double h;
+
+    /** Global step handler. */
+    private final MultiSatFixedStepHandler globalHandler;
+
+    /** Executor service for propagation tasks (may be null). */
+    private final ExecutorService executor;
+
+    /** Simple constructor.
+     * <p>
+     * With this constructor, a new executor service with one thread
+     * per propagator is created for each propagation and shut down
+     * afterwards.
+     * </p>
+     * @param propagators propagators to run
+     * @param h fixed time step between global handler calls (s)
+     * @param globalHandler global step handler
+     */
+    public PropagatorsParallelizer(final List<Propagator> propagators, final double h,
+                                   final MultiSatFixedStepHandler globalHandler) {
+        this(propagators, h, globalHandler, null);
+    }
+
+    /** Simple constructor.
+     * @param propagators propagators to run
+     * @param h fixed time step between global handler calls (s)
+     * @param globalHandler global step handler
+     * @param executor executor service for propagation tasks, if null
+     * a new executor service with one thread per propagator is created for
+     * each propagation and shut down afterwards
+     */
+    public PropagatorsParallelizer(final List<Propagator> propagators, final double h,
+                                   final MultiSatFixedStepHandler globalHandler,
+                                   final ExecutorService executor) {
+        if (h <= 0) {
+            throw new NotStrictlyPositiveException(h);
+        }
+        this.propagators   = new ArrayList<Propagator>(propagators);
+        this.h             = h;
+        this.globalHandler = globalHandler;
+        this.executor      = executor;
+    }
+
+    /** Get an unmodifiable list of the propagators.
+     * @return unmodifiable list of the propagators
+     */
+    public List<Propagator> getPropagators() {
+        return Collections.unmodifiableList(propagators);
+    }
+
+    /** Propagate all satellites in parallel.
+     * @param start start date from which orbits should be propagated
+     * @param target target date to which orbits should be propagated
+     * @return states of all satellites at the date of the last global handler call,
+     * in propagators order
+     * @exception OrekitException if some propagation or the global handler fails
+     */
+    public List<SpacecraftState> propagate(final AbsoluteDate start, final AbsoluteDate target)
+        throws OrekitException {
+
+        final int n = propagators.size();
+        final ExecutorService service = (executor == null) ? createExecutor(n) : executor;
+
+        // set up the propagation tasks
+        final Monitor monitor = new Monitor();
+        final List<BlockingQueue<Entry>> queues = new ArrayList<BlockingQueue<Entry>>(n);
+        final List<Future<SpacecraftState>> futures = new ArrayList<Future<SpacecraftState>>(n);
+        for (final Propagator propagator : propagators) {
+            final BlockingQueue<Entry> queue = new LinkedBlockingQueue<Entry>();
+            propagator.setMasterMode(h, new QueueFeeder(queue, monitor));
+            queues.add(queue);
+        }
+        for (int k = 0; k < n; ++k) {
+            final Propagator           propagator = propagators.get(k);
+            final BlockingQueue<Entry> queue      = queues.get(k);
+            futures.add(service.submit(new Callable<SpacecraftState>() {
+                /** {@inheritDoc} */
+                public SpacecraftState call() throws PropagationException {
+                    try {
+                        return propagator.propagate(start, target);
+                    } finally {
+                        // the end marker is always queued, even when propagation fails,
+                        // so the synchronizing thread never waits forever
+                        queue.add(Entry.END);
+                    }
+                }
+            }));
+        }
+
+        try {
+
+            // synchronize steps
+            // (the global handler is initialized from the first synchronized states,
+            //  as some propagators initialize their own handlers more than once)
+            final SpacecraftState[] states = new SpacecraftState[n];
+            boolean isFirst = true;
+            boolean isLast  = n == 0;
+            if (isLast) {
+                globalHandler.init(Collections.<SpacecraftState>emptyList(), target);
+            }
+            while (!isLast) {
+                for (int k = 0; k < n; ++k) {
+                    final Entry entry = next(queues.get(k), futures.get(k));
+                    states[k] = entry.state;
+                    isLast    = isLast || entry.isLast;
+                }
+                final List<SpacecraftState> synchronizedStates =
+                        Collections.unmodifiableList(Arrays.asList(states.clone()));
+                if (isFirst) {
+                    globalHandler.init(synchronizedStates, target);
+                    isFirst = false;
+                }
+                globalHandler.handleStep(synchronizedStates, isLast);
+            }
+
+            return Collections.unmodifiableList(Arrays.asList(states));
+
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new OrekitException(ie, LocalizedFormats.SIMPLE_MESSAGE, ie.getMessage());
+        } finally {
+
+            // abort remaining propagations and wait until no propagator is in use anymore
+            monitor.stop();
+            for (final Future<SpacecraftState> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ee) {
+                    // ignored, either the error has already been reported
+                    // or the propagation has been aborted on purpose
+                }
+            }
+
+            if (executor == null) {
+                service.shutdown();
+            }
+
+        }
+
+    }
+
+    /** Get the next entry from a propagation task.
+     * @param queue queue fed by the task
+     * @param future handle on the task
+     * @return next entry (never the end marker)
+     * @exception OrekitException if the task failed
+     * @exception InterruptedException if the synchronizing thread is interrupted
+     */
+    private Entry next(final BlockingQueue<Entry> queue, final Future<SpacecraftState> future)
+        throws OrekitException, InterruptedException {
+
+        final Entry entry = queue.take();
+        if (entry != Entry.END) {
+            return entry;
+        }
+
+        // the task ended without providing the expected state, this is an error
+        try {
+            future.get();
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof OrekitException) {
+                throw (OrekitException) ee.getCause();
+            }
+            throw OrekitException.createInternalError(ee.getCause());
+        }
+        throw OrekitException.createInternalError(null);
+
+    }
+
+    /** Create an executor service with one daemon thread per propagator.
+     * @param n number of propagators
+     * @return new executor service
+     */
+    private static ExecutorService createExecutor(final int n) {
+        final ThreadFactory factory = new ThreadFactory() {
+            /** {@inheritDoc} */
+            public Thread newThread(final Runnable r) {
+                final Thread thread = Executors.defaultThreadFactory().newThread(r);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        return Executors.newFixedThreadPool(FastMath.max(1, n), factory);
+    }
+
+    /** Shared stop flag for all propagation tasks. */
+    private static class Monitor {
+
+        /** Indicator for stopped propagation. */
+        private volatile boolean stopped;
+
+        /** Stop all propagations. */
+        void stop() {
+            stopped = true;
+        }
+
+        /** Check if propagations have been stopped.
+         * @return true if propagations have been stopped
+         */
+        boolean isStopped() {
+            return stopped;
+        }
+
+    }
+
+    /** Entry exchanged between propagation tasks and the synchronizing thread. */
+    private static class Entry {
+
+        /** Marker for the end of a propagation task. */
+        private static final Entry END = new Entry(null, true);
+
+        /** State at grid date. */
+        private final SpacecraftState state;
+
+        /** Indicator for last step. */
+        private final boolean isLast;
+
+        /** Simple constructor.
+         * @param state state at grid date
+         * @param isLast indicator for last step
+         */
+        Entry(final SpacecraftState state, final boolean isLast) {
+            this.state  = state;
+            this.isLast = isLast;
+        }
+
+    }
+
+    /** Fixed step handler feeding a queue. */
+    private static class QueueFeeder implements OrekitFixedStepHandler {
+
+        /** Queue to feed. */
+        private final BlockingQueue<Entry> queue;
+
+        /** Shared stop flag. */
+        private final Monitor monitor;
+
+        /** Simple constructor.
+         * @param queue queue to feed
+         * @param monitor shared stop flag
+         */
+        QueueFeeder(final BlockingQueue<Entry> queue, final Monitor monitor) {
+            this.queue   = queue;
+            this.monitor = monitor;
+        }
+
+        /** {@inheritDoc} */
+        public void init(final SpacecraftState s0, final AbsoluteDate t) {
+            // nothing to do, the first step is always at propagation start
+        }
+
+        /** {@inheritDoc} */
+        public void handleStep(final SpacecraftState currentState, final boolean isLast)
+            throws PropagationException {
+            feed(currentState, isLast);
+        }
+
+        /** Feed the queue.
+         * @param state state to add
+         * @param isLast indicator for last step
+         * @exception PropagationException if propagation has been stopped
+         */
+        private void feed(final SpacecraftState state, final boolean isLast)
+            throws PropagationException {
+            if (monitor.isStopped()) {
+                // abort this propagation, the global propagation is already finished
+                throw new PropagationException(LocalizedFormats.SIMPLE_MESSAGE, "propagation aborted");
+            }
+            queue.add(new Entry(state, isLast));
+        }
+
+    }
+
+}
@@ -41,6 +41,7 @@ import org.orekit.propagation.BoundedPropagator;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.events.EventDetector;
 import org.orekit.propagation.events.EventState;
+import org.orekit.propagation.events.InterpolatedStatesCache;
 import org.orekit.propagation.sampling.OrekitStepInterpolator;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.utils.PVCoordinatesProvider;
@@ -80,6 +81,9 @@ public abstract class AbstractAnalyticalPropagator extends AbstractPropagator {
     /** Event steps. */
     private final Collection<EventState<?>> eventsStates;
 
+    /** Interpolated states shared by all event detectors. */
+    private final InterpolatedStatesCache statesCache;
+
     /** Build a new instance.
      * @param attitudeProvider provider for attitude computation
      */
@@ -91,6 +95,7 @@ public abstract class AbstractAnalyticalPropagator extends AbstractPropagator {
         lastPropagationEnd       = AbsoluteDate.FUTURE_INFINITY;
         statesInitialized        = false;
         eventsStates             = new ArrayList<EventState<?>>();
+        statesCache              = new InterpolatedStatesCache();
     }
 
     /** {@inheritDoc} */
@@ -100,7 +105,19 @@ public abstract class AbstractAnalyticalPropagator extends AbstractPropagator {
 
     /** {@inheritDoc} */
     public <T extends EventDetector> void addEventDetector(final T detector) {
-        eventsStates.add(new EventState<T>(detector));
+        eventsStates.add(new EventState<T>(detector, statesCache));
+    }
+
+    /** Get the cache for interpolated states shared by all event detectors.
+     * <p>
+     * The cache can be used to enable {@link InterpolatedStatesCache#setGridAlignment(boolean)
+     * sampling grids alignment} or to monitor the number of interpolations saved.
+     * </p>
+     * @return cache for interpolated states shared by all event detectors
+     * @since 8.0
+     */
+    public InterpolatedStatesCache getInterpolatedStatesCache() {
+        return statesCache;
     }
 
     /** {@inheritDoc} */
@@ -202,6 +219,9 @@ public abstract class AbstractAnalyticalPropagator extends AbstractPropagator {
         AbsoluteDate previousT = interpolator.getGlobalPreviousDate();
         AbsoluteDate currentT  = interpolator.getGlobalCurrentDate();
 
+        // states cached during previous step are not needed anymore
+        statesCache.clear();
+
         // initialize the events states if needed
         if (!statesInitialized) {
 
@@ -270,6 +290,7 @@ public abstract class AbstractAnalyticalPropagator extends AbstractPropagator {
 
             final SpacecraftState resetState = currentEvent.reset(eventY);
             if (resetState != null) {
+                statesCache.clear();
                 resetIntermediateState(resetState, interpolator.isForward());
                 return resetState;
             }
@@ -35,6 +35,8 @@ import org.orekit.orbits.Orbit;
 import org.orekit.propagation.BoundedPropagator;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.time.IrregularTimeGrid;
+import org.orekit.time.TimeGrid;
 import org.orekit.utils.ImmutableTimeStampedCache;
 import org.orekit.utils.TimeStampedPVCoordinates;
 import org.orekit.utils.PVCoordinatesProvider;
@@ -70,6 +72,9 @@ public class Ephemeris extends AbstractAnalyticalPropagator implements BoundedPr
     /** Thread-safe cache. */
     private final transient ImmutableTimeStampedCache<SpacecraftState> cache;
 
+    /** Time grid of the tabulated states (lazily built). */
+    private transient volatile TimeGrid grid;
+
     /** Constructor with tabulated states.
      * @param states tabulates states
      * @param interpolationPoints number of points to use in interpolation
@@ -123,6 +128,23 @@ public class Ephemeris extends AbstractAnalyticalPropagator implements BoundedPr
         return maxDate;
     }
 
+    /** Get the time grid of the tabulated states.
+     * <p>
+     * The grid can be used to iterate over the tabulated dates without
+     * materializing them, or to sample another propagator at the same
+     * dates using {@link org.orekit.propagation.sampling.OrekitStepNormalizer}.
+     * </p>
+     * @return time grid of the tabulated states
+     * @since 8.0
+     */
+    public TimeGrid getTimeGrid() {
+        if (grid == null) {
+            // concurrent threads may build the grid twice, which is harmless
+            grid = new IrregularTimeGrid(cache.getAll());
+        }
+        return grid;
+    }
+
     @Override
     public Frame getFrame() {
         return this.frame;
@@ -0,0 +1,602 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical.tle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Transform;
+import org.orekit.time.AbsoluteDate;
+
+/** Batch propagator for large sets of TLE.
+ * <p>
+ * This class is intended for catalog-scale computation, where thousands of
+ * objects must be propagated to the same dates. The SGP4 constants of all
+ * near-Earth objects are stored in primitive arrays (one array per constant),
+ * and the results are written directly into caller-provided {@code double[]}
+ * buffers, so no object is allocated per object and per date. Deep-space
+ * objects still rely on one underlying {@link DeepSDP4} instance each, but
+ * their results are also computed without intermediate objects.
+ * </p>
+ * <p>
+ * The objects are split in blocks that are propagated concurrently using
+ * an {@link ExecutorService executor service}. Each block is handled by
+ * exactly one task, so the underlying deep-space propagators are never
+ * used by two threads at the same time during one call. Instances of this
+ * class are however <em>not</em> thread-safe: the same instance should not
+ * be used concurrently from several user threads.
+ * </p>
+ * <p>
+ * The results are stored in one-dimensional arrays, grouped by object. The
+ * {@code c} coordinate (0 for X, 1 for Y, 2 for Z) of object {@code k} at
+ * date index {@code j} is stored at index {@code 3 * (k * dates.length + j) + c}.
+ * If propagation fails for one object at one date (for example because
+ * eccentricity becomes too large for a decaying object), the corresponding
+ * coordinates are set to {@code Double.NaN} and the other objects are
+ * computed normally.
+ * </p>
+ * @see TLEPropagator
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class TLEBatchPropagator {
+
+    /** Default number of objects per block. */
+    public static final int DEFAULT_BLOCK_SIZE = 64;
+
+    /** Number of primitive double values per stored transform. */
+    private static final int TRANSFORM_SIZE = 18;
+
+    /** Shared executor using all available processors. */
+    private static ExecutorService defaultExecutor;
+
+    /** Propagated TLE. */
+    private final TLE[] tles;
+
+    /** Reference date for time offsets. */
+    private final AbsoluteDate reference;
+
+    /** Offsets of TLE epochs with respect to reference date (s). */
+    private final double[] tleOffset;
+
+    /** Propagators for deep-space objects (null for near-Earth objects). */
+    private final TLEPropagator[] deepSpace;
+
+    /** Mean anomaly at epoch. */
+    private final double[] m0;
+
+    /** Perigee argument at epoch. */
+    private final double[] pa0;
+
+    /** Right ascension of ascending node at epoch. */
+    private final double[] raan0;
+
+    /** Eccentricity at epoch. */
+    private final double[] e0;
+
+    /** Inclination at epoch. */
+    private final double[] i0;
+
+    /** Ballistic coefficient. */
+    private final double[] bStar;
+
+    /** Flags for perigee less than 220 km. */
+    private final boolean[] lessThan220;
+
+    // CHECKSTYLE: stop JavadocVariable check
+    // the following arrays mirror the fields of the same name in TLEPropagator and SGP4
+    private final double[] xmdot;
+    private final double[] omgdot;
+    private final double[] xnodot;
+    private final double[] xnodcf;
+    private final double[] c1;
+    private final double[] c4;
+    private final double[] c5;
+    private final double[] t2cof;
+    private final double[] t3cof;
+    private final double[] t4cof;
+    private final double[] t5cof;
+    private final double[] a0dp;
+    private final double[] xn0dp;
+    private final double[] cosi0;
+    private final double[] sini0;
+    private final double[] eta;
+    private final double[] delM0;
+    private final double[] d2;
+    private final double[] d3;
+    private final double[] d4;
+    private final double[] sinM0;
+    private final double[] omgcof;
+    private final double[] xmcof;
+    // CHECKSTYLE: resume JavadocVariable check
+
+    /** Executor service for parallel computation (null for computation in caller thread). */
+    private final ExecutorService executor;
+
+    /** Number of objects per block. */
+    private final int blockSize;
+
+    /** Build a batch propagator for all TLE of a series.
+     * <p>
+     * Each TLE in the series is considered as a separate object. The
+     * propagation is performed using all available processors.
+     * </p>
+     * @param series series of TLE to propagate
+     * @exception OrekitException if some underlying model cannot be initialized
+     */
+    public TLEBatchPropagator(final TLESeries series)
+        throws OrekitException {
+        this(series.getTLEs());
+    }
+
+    /** Build a batch propagator using all available processors.
+     * @param tles TLE to propagate
+     * @exception OrekitException if some underlying model cannot be initialized
+     */
+    public TLEBatchPropagator(final List<TLE> tles)
+        throws OrekitException {
+        this(tles, getDefaultExecutor(), DEFAULT_BLOCK_SIZE);
+    }
+
+    /** Build a batch propagator.
+     * @param tles TLE to propagate
+     * @param executor executor service to use for parallel computation
+     * (if null, all computation will be done in the caller thread)
+     * @param blockSize number of objects handled by each task
+     * @exception OrekitException if some underlying model cannot be initialized
+     */
+    public TLEBatchPropagator(final List<TLE> tles, final ExecutorService executor,
+                              final int blockSize)
+        throws OrekitException {
+
+        if (blockSize <= 0) {
+            throw new NotStrictlyPositiveException(blockSize);
+        }
+
+        final int n    = tles.size();
+        this.tles      = tles.toArray(new TLE[n]);
+        this.reference = n == 0 ? AbsoluteDate.J2000_EPOCH : this.tles[0].getDate();
+        this.executor  = executor;
+        this.blockSize = blockSize;
+
+        tleOffset   = new double[n];
+        deepSpace   = new TLEPropagator[n];
+        m0          = new double[n];
+        pa0         = new double[n];
+        raan0       = new double[n];
+        e0          = new double[n];
+        i0          = new double[n];
+        bStar       = new double[n];
+        lessThan220 = new boolean[n];
+        xmdot       = new double[n];
+        omgdot      = new double[n];
+        xnodot      = new double[n];
+        xnodcf      = new double[n];
+        c1          = new double[n];
+        c4          = new double[n];
+        c5          = new double[n];
+        t2cof       = new double[n];
+        t3cof       = new double[n];
+        t4cof       = new double[n];
+        t5cof       = new double[n];
+        a0dp        = new double[n];
+        xn0dp       = new double[n];
+        cosi0       = new double[n];
+        sini0       = new double[n];
+        eta         = new double[n];
+        delM0       = new double[n];
+        d2          = new double[n];
+        d3          = new double[n];
+        d4          = new double[n];
+        sinM0       = new double[n];
+        omgcof      = new double[n];
+        xmcof       = new double[n];
+
+        for (int k = 0; k < n; ++k) {
+
+            final TLE tle = this.tles[k];
+            tleOffset[k]  = tle.getDate().durationFrom(reference);
+
+            final TLEPropagator propagator = TLEPropagator.selectExtrapolator(tle);
+            if (propagator instanceof SGP4) {
+                // near-Earth object, extract the constants from the already initialized model
+                final SGP4 sgp4 = (SGP4) propagator;
+                m0[k]          = tle.getMeanAnomaly();
+                pa0[k]         = tle.getPerigeeArgument();
+                raan0[k]       = tle.getRaan();
+                e0[k]          = tle.getE();
+                i0[k]          = tle.getI();
+                bStar[k]       = tle.getBStar();
+                lessThan220[k] = sgp4.lessThan220;
+                xmdot[k]       = sgp4.xmdot;
+                omgdot[k]      = sgp4.omgdot;
+                xnodot[k]      = sgp4.xnodot;
+                xnodcf[k]      = sgp4.xnodcf;
+                c1[k]          = sgp4.c1;
+                c4[k]          = sgp4.c4;
+                c5[k]          = sgp4.c5;
+                t2cof[k]       = sgp4.t2cof;
+                t3cof[k]       = sgp4.t3cof;
+                t4cof[k]       = sgp4.t4cof;
+                t5cof[k]       = sgp4.t5cof;
+                a0dp[k]        = sgp4.a0dp;
+                xn0dp[k]       = sgp4.xn0dp;
+                cosi0[k]       = sgp4.cosi0;
+                sini0[k]       = sgp4.sini0;
+                eta[k]         = sgp4.eta;
+                delM0[k]       = sgp4.delM0;
+                d2[k]          = sgp4.d2;
+                d3[k]          = sgp4.d3;
+                d4[k]          = sgp4.d4;
+                sinM0[k]       = sgp4.sinM0;
+                omgcof[k]      = sgp4.omgcof;
+                xmcof[k]       = sgp4.xmcof;
+            } else {
+                // deep-space object, we keep the full model
+                deepSpace[k] = propagator;
+            }
+
+        }
+
+    }
+
+    /** Get the propagated TLE.
+     * @return list of propagated TLE, in objects order
+     */
+    public List<TLE> getTLEs() {
+        return Arrays.asList(tles.clone());
+    }
+
+    /** Get the number of propagated objects.
+     * @return number of propagated objects
+     */
+    public int getSize() {
+        return tles.length;
+    }
+
+    /** Propagate all objects to several dates, in TEME frame.
+     * <p>
+     * The layout of the output arrays is described in the class documentation.
+     * </p>
+     * @param dates propagation dates
+     * @param positions array where to put positions (m), must have
+     * {@code 3 * getSize() * dates.length} elements
+     * @param velocities array where to put velocities (m/s), must have
+     * {@code 3 * getSize() * dates.length} elements, may be null if
+     * velocities are not needed
+     * @exception OrekitException if computation is interrupted
+     */
+    public void propagate(final AbsoluteDate[] dates,
+                          final double[] positions, final double[] velocities)
+        throws OrekitException {
+        propagate(dates, null, positions, velocities);
+    }
+
+    /** Propagate all objects to several dates, in a specified frame.
+     * <p>
+     * The transform from TEME to the specified frame is computed only once
+     * per date, in the caller thread, and shared by all objects.
+     * </p>
+     * <p>
+     * The layout of the output arrays is described in the class documentation.
+     * </p>
+     * @param dates propagation dates
+     * @param frame output frame (typically an ITRF frame), if null results
+     * are provided in TEME frame
+     * @param positions array where to put positions (m), must have
+     * {@code 3 * getSize() * dates.length} elements
+     * @param velocities array where to put velocities (m/s), must have
+     * {@code 3 * getSize() * dates.length} elements, may be null if
+     * velocities are not needed
+     * @exception OrekitException if frame transforms cannot be computed
+     * or computation is interrupted
+     */
+    public void propagate(final AbsoluteDate[] dates, final Frame frame,
+                          final double[] positions, final double[] velocities)
+        throws OrekitException {
+
+        final int expected = 3 * tles.length * dates.length;
+        if (positions.length != expected) {
+            throw new DimensionMismatchException(positions.length, expected);
+        }
+        if (velocities != null && velocities.length != expected) {
+            throw new DimensionMismatchException(velocities.length, expected);
+        }
+
+        // time offsets with respect to reference date
+        final double[] dt = new double[dates.length];
+        for (int j = 0; j < dates.length; ++j) {
+            dt[j] = dates[j].durationFrom(reference);
+        }
+
+        // frames transforms, shared by all objects
+        final double[] transforms;
+        if (frame == null) {
+            transforms = null;
+        } else {
+            transforms = new double[TRANSFORM_SIZE * dates.length];
+            final Frame teme = FramesFactory.getTEME();
+            for (int j = 0; j < dates.length; ++j) {
+                storeTransform(teme.getTransformTo(frame, dates[j]), transforms, TRANSFORM_SIZE * j);
+            }
+        }
+
+        if (executor == null) {
+            propagateBlock(0, tles.length, dt, transforms, positions, velocities);
+            return;
+        }
+
+        // split the objects in blocks
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int start = 0; start < tles.length; start += blockSize) {
+            final int blockStart = start;
+            final int blockEnd   = FastMath.min(start + blockSize, tles.length);
+            tasks.add(new Callable<Void>() {
+                /** {@inheritDoc} */
+                public Void call() {
+                    propagateBlock(blockStart, blockEnd, dt, transforms, positions, velocities);
+                    return null;
+                }
+            });
+        }
+
+        try {
+            for (final Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new OrekitException(ie, LocalizedFormats.SIMPLE_MESSAGE, ie.getMessage());
+        } catch (ExecutionException ee) {
+            throw OrekitException.createInternalError(ee.getCause());
+        }
+
+    }
+
+    /** Store a transform as primitive double values.
+     * <p>
+     * The stored values are the rotation matrix (9 values, row by row),
+     * the translation (3 values), the translation velocity (3 values)
+     * and the rotation rate (3 values).
+     * </p>
+     * @param transform transform to store
+     * @param array array where to store the transform
+     * @param offset index of the first value in the array
+     */
+    private static void storeTransform(final Transform transform, final double[] array, final int offset) {
+        final Rotation rotation = transform.getRotation();
+        final Vector3D col0 = rotation.applyTo(Vector3D.PLUS_I);
+        final Vector3D col1 = rotation.applyTo(Vector3D.PLUS_J);
+        final Vector3D col2 = rotation.applyTo(Vector3D.PLUS_K);
+        array[offset]      = col0.getX();
+        array[offset +  1] = col1.getX();
+        array[offset +  2] = col2.getX();
+        array[offset +  3] = col0.getY();
+        array[offset +  4] = col1.getY();
+        array[offset +  5] = col2.getY();
+        array[offset +  6] = col0.getZ();
+        array[offset +  7] = col1.getZ();
+        array[offset +  8] = col2.getZ();
+        array[offset +  9] = transform.getTranslation().getX();
+        array[offset + 10] = transform.getTranslation().getY();
+        array[offset + 11] = transform.getTranslation().getZ();
+        array[offset + 12] = transform.getVelocity().getX();
+        array[offset + 13] = transform.getVelocity().getY();
+        array[offset + 14] = transform.getVelocity().getZ();
+        array[offset + 15] = transform.getRotationRate().getX();
+        array[offset + 16] = transform.getRotationRate().getY();
+        array[offset + 17] = transform.getRotationRate().getZ();
+    }
+
+    /** Propagate a block of objects to all dates.
+     * @param start index of the first object of the block (included)
+     * @param end index of the last object of the block (excluded)
+     * @param dt dates offsets with respect to reference date (s)
+     * @param transforms primitive transforms for all dates (null for TEME output)
+     * @param positions array where to put positions (m)
+     * @param velocities array where to put velocities (m/s), may be null
+     */
+    private void propagateBlock(final int start, final int end, final double[] dt,
+                                final double[] transforms,
+                                final double[] positions, final double[] velocities) {
+
+        // scratch array for TEME position and velocity
+        final double[] pv = new double[6];
+
+        for (int k = start; k < end; ++k) {
+            for (int j = 0; j < dt.length; ++j) {
+
+                final int index = 3 * (k * dt.length + j);
+                final double tSince = (dt[j] - tleOffset[k]) / 60.0;
+                try {
+                    if (deepSpace[k] == null) {
+                        nearEarthPositionVelocity(k, tSince, pv);
+                    } else {
+                        deepSpacePositionVelocity(deepSpace[k], tSince, pv);
+                    }
+                } catch (OrekitException oe) {
+                    // this object cannot be propagated at this date
+                    Arrays.fill(pv, Double.NaN);
+                }
+
+                if (transforms == null) {
+                    System.arraycopy(pv, 0, positions, index, 3);
+                    if (velocities != null) {
+                        System.arraycopy(pv, 3, velocities, index, 3);
+                    }
+                } else {
+                    applyTransform(transforms, TRANSFORM_SIZE * j, pv, positions, velocities, index);
+                }
+
+            }
+        }
+
+    }
+
+    /** Compute position and velocity for a near-Earth object.
+     * <p>
+     * This method mirrors {@link SGP4#sxpPropagate(double)}, using primitive
+     * arrays storage instead of instance fields.
+     * </p>
+     * @param k index of the object
+     * @param tSince the offset from TLE epoch (min)
+     * @param pv array where to put position and velocity
+     * @exception OrekitException if current orbit is out of supported range
+     */
+    private void nearEarthPositionVelocity(final int k, final double tSince, final double[] pv)
+        throws OrekitException {
+
+        // Update for secular gravity and atmospheric drag.
+        final double xmdf   = m0[k] + xmdot[k] * tSince;
+        final double omgadf = pa0[k] + omgdot[k] * tSince;
+        final double xn0ddf = raan0[k] + xnodot[k] * tSince;
+        double omega = omgadf;
+        double xmp   = xmdf;
+        final double tsq   = tSince * tSince;
+        final double xnode = xn0ddf + xnodcf[k] * tsq;
+        double tempa = 1 - c1[k] * tSince;
+        double tempe = bStar[k] * c4[k] * tSince;
+        double templ = t2cof[k] * tsq;
+
+        if (!lessThan220[k]) {
+            final double delomg = omgcof[k] * tSince;
+            double delm = 1. + eta[k] * FastMath.cos(xmdf);
+            delm = xmcof[k] * (delm * delm * delm - delM0[k]);
+            final double temp = delomg + delm;
+            xmp = xmdf + temp;
+            omega = omgadf - temp;
+            final double tcube = tsq * tSince;
+            final double tfour = tSince * tcube;
+            tempa = tempa - d2[k] * tsq - d3[k] * tcube - d4[k] * tfour;
+            tempe = tempe + bStar[k] * c5[k] * (FastMath.sin(xmp) - sinM0[k]);
+            templ = templ + t3cof[k] * tcube + tfour * (t4cof[k] + tSince * t5cof[k]);
+        }
+
+        final double a = a0dp[k] * tempa * tempa;
+
+        // A highly arbitrary lower limit on e,  of 1e-6:
+        final double e = FastMath.max(e0[k] - tempe, 1e-6);
+
+        final double xl = xmp + omega + xnode + xn0dp[k] * templ;
+
+        TLEPropagator.computePositionVelocity(a, e, i0[k], omega, xnode, xl, cosi0[k], sini0[k],
+                                              pv, 0, pv, 3);
+
+    }
+
+    /** Compute position and velocity for a deep-space object.
+     * @param propagator underlying propagator
+     * @param tSince the offset from TLE epoch (min)
+     * @param pv array where to put position and velocity
+     * @exception OrekitException if current orbit is out of supported range
+     */
+    private static void deepSpacePositionVelocity(final TLEPropagator propagator, final double tSince,
+                                                  final double[] pv)
+        throws OrekitException {
+        propagator.sxpPropagate(tSince);
+        TLEPropagator.computePositionVelocity(propagator.a, propagator.e, propagator.i,
+                                              propagator.omega, propagator.xnode, propagator.xl,
+                                              propagator.cosi0, propagator.sini0,
+                                              pv, 0, pv, 3);
+    }
+
+    /** Apply a primitive transform to a TEME position-velocity.
+     * @param transforms primitive transforms for all dates
+     * @param tOffset index of the first value of the transform to apply
+     * @param pv TEME position and velocity
+     * @param positions array where to put positions (m)
+     * @param velocities array where to put velocities (m/s), may be null
+     * @param index index of the first component in the output arrays
+     */
+    private static void applyTransform(final double[] transforms, final int tOffset, final double[] pv,
+                                       final double[] positions, final double[] velocities,
+                                       final int index) {
+
+        // translated position
+        final double px = pv[0] + transforms[tOffset +  9];
+        final double py = pv[1] + transforms[tOffset + 10];
+        final double pz = pv[2] + transforms[tOffset + 11];
+
+        // rotated position
+        final double rpx = transforms[tOffset]     * px + transforms[tOffset + 1] * py + transforms[tOffset + 2] * pz;
+        final double rpy = transforms[tOffset + 3] * px + transforms[tOffset + 4] * py + transforms[tOffset + 5] * pz;
+        final double rpz = transforms[tOffset + 6] * px + transforms[tOffset + 7] * py + transforms[tOffset + 8] * pz;
+        positions[index]     = rpx;
+        positions[index + 1] = rpy;
+        positions[index + 2] = rpz;
+
+        if (velocities != null) {
+
+            // translated velocity
+            final double vx = pv[3] + transforms[tOffset + 12];
+            final double vy = pv[4] + transforms[tOffset + 13];
+            final double vz = pv[5] + transforms[tOffset + 14];
+
+            // rotated velocity, including rotation rate effect
+            final double wx = transforms[tOffset + 15];
+            final double wy = transforms[tOffset + 16];
+            final double wz = transforms[tOffset + 17];
+            velocities[index]     = transforms[tOffset]     * vx + transforms[tOffset + 1] * vy + transforms[tOffset + 2] * vz -
+                                    (wy * rpz - wz * rpy);
+            velocities[index + 1] = transforms[tOffset + 3] * vx + transforms[tOffset + 4] * vy + transforms[tOffset + 5] * vz -
+                                    (wz * rpx - wx * rpz);
+            velocities[index + 2] = transforms[tOffset + 6] * vx + transforms[tOffset + 7] * vy + transforms[tOffset + 8] * vz -
+                                    (wx * rpy - wy * rpx);
+
+        }
+
+    }
+
+    /** Get the default executor.
+     * <p>
+     * The default executor is shared by all batch propagators, it uses
+     * one daemon thread per available processor.
+     * </p>
+     * @return default executor
+     */
+    private static synchronized ExecutorService getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            final ThreadFactory factory = new ThreadFactory() {
+                /** {@inheritDoc} */
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "TLE-batch");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+            defaultExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), factory);
+        }
+        return defaultExecutor;
+    }
+
+}
@@ -340,18 +340,50 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
      * (too large eccentricity, too low perigee ...)
      */
     private PVCoordinates computePVCoordinates() throws OrekitException {
+        final double[] pv = new double[6];
+        computePositionVelocity(a, e, i, omega, xnode, xl, cosi0, sini0, pv, 0, pv, 3);
+        return new PVCoordinates(new Vector3D(pv[0], pv[1], pv[2]),
+                                 new Vector3D(pv[3], pv[4], pv[5]));
+    }
+
+    /** Retrieves the position and velocity from final elements.
+     * <p>
+     * This method does not allocate any object, it is shared between
+     * the regular propagators and {@link TLEBatchPropagator}.
+     * </p>
+     * @param finalA final semi major axis
+     * @param finalE final eccentricity
+     * @param finalI final inclination
+     * @param finalOmega final perigee argument
+     * @param finalXnode final RAAN
+     * @param finalXl final L from SPTRCK #3
+     * @param cosI cosinus of inclination
+     * @param sinI sinus of inclination
+     * @param position array where to put position (m)
+     * @param pOffset index of the first position component in the array
+     * @param velocity array where to put velocity (m/s), may be null
+     * @param vOffset index of the first velocity component in the array
+     * @exception OrekitException if current orbit is out of supported range
+     * (too large eccentricity, too low perigee ...)
+     */
+    static void computePositionVelocity(final double finalA, final double finalE, final double finalI,
+                                        final double finalOmega, final double finalXnode, final double finalXl,
+                                        final double cosI, final double sinI,
+                                        final double[] position, final int pOffset,
+                                        final double[] velocity, final int vOffset)
+        throws OrekitException {
 
         // Long period periodics
-        final double axn = e * FastMath.cos(omega);
-        double temp = 1.0 / (a * (1.0 - e * e));
-        final double xlcof = 0.125 * TLEConstants.A3OVK2 * sini0 * (3.0 + 5.0 * cosi0) / (1.0 + cosi0);
-        final double aycof = 0.25 * TLEConstants.A3OVK2 * sini0;
+        final double axn = finalE * FastMath.cos(finalOmega);
+        double temp = 1.0 / (finalA * (1.0 - finalE * finalE));
+        final double xlcof = 0.125 * TLEConstants.A3OVK2 * sinI * (3.0 + 5.0 * cosI) / (1.0 + cosI);
+        final double aycof = 0.25 * TLEConstants.A3OVK2 * sinI;
         final double xll = temp * xlcof * axn;
         final double aynl = temp * aycof;
-        final double xlt = xl + xll;
-        final double ayn = e * FastMath.sin(omega) + aynl;
+        final double xlt = finalXl + xll;
+        final double ayn = finalE * FastMath.sin(finalOmega) + aynl;
         final double elsq = axn * axn + ayn * ayn;
-        final double capu = MathUtils.normalizeAngle(xlt - xnode, FastMath.PI);
+        final double capu = MathUtils.normalizeAngle(xlt - finalXnode, FastMath.PI);
         double epw = capu;
         double ecosE = 0;
         double esinE = 0;
@@ -359,13 +391,13 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
         double cosEPW = 0;
 
         // Dundee changes:  items dependent on cosio get recomputed:
-        final double cosi0Sq = cosi0 * cosi0;
+        final double cosi0Sq = cosI * cosI;
         final double x3thm1 = 3.0 * cosi0Sq - 1.0;
         final double x1mth2 = 1.0 - cosi0Sq;
         final double x7thm1 = 7.0 * cosi0Sq - 1.0;
 
-        if (e > (1 - 1e-6)) {
-            throw new OrekitException(OrekitMessages.TOO_LARGE_ECCENTRICITY_FOR_PROPAGATION_MODEL, e);
+        if (finalE > (1 - 1e-6)) {
+            throw new OrekitException(OrekitMessages.TOO_LARGE_ECCENTRICITY_FOR_PROPAGATION_MODEL, finalE);
         }
 
         // Solve Kepler's' Equation.
@@ -385,7 +417,7 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
             final double fdot = 1.0 - ecosE;
             double delta_epw = f / fdot;
             if (j == 0) {
-                final double maxNewtonRaphson = 1.25 * FastMath.abs(e);
+                final double maxNewtonRaphson = 1.25 * FastMath.abs(finalE);
                 doSecondOrderNewtonRaphson = false;
                 if (delta_epw > maxNewtonRaphson) {
                     delta_epw = maxNewtonRaphson;
@@ -403,9 +435,9 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
 
         // Short period preliminary quantities
         temp = 1.0 - elsq;
-        final double pl = a * temp;
-        final double r = a * (1.0 - ecosE);
-        double temp2 = a / r;
+        final double pl = finalA * temp;
+        final double r = finalA * (1.0 - ecosE);
+        double temp2 = finalA / r;
         final double betal = FastMath.sqrt(temp);
         temp = esinE / (1.0 + betal);
         final double cosu = temp2 * (cosEPW - axn + ayn * temp);
@@ -419,8 +451,8 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
         // Update for short periodics
         final double rk = r * (1.0 - 1.5 * temp2 * betal * x3thm1) + 0.5 * temp1 * x1mth2 * cos2u;
         final double uk = u - 0.25 * temp2 * x7thm1 * sin2u;
-        final double xnodek = xnode + 1.5 * temp2 * cosi0 * sin2u;
-        final double xinck = i + 1.5 * temp2 * cosi0 * sini0 * cos2u;
+        final double xnodek = finalXnode + 1.5 * temp2 * cosI * sin2u;
+        final double xinck = finalI + 1.5 * temp2 * cosI * sinI * cos2u;
 
         // Orientation vectors
         final double sinuk = FastMath.sin(uk);
@@ -437,11 +469,16 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
 
         // Position and velocity
         final double cr = 1000 * rk * TLEConstants.EARTH_RADIUS;
-        final Vector3D pos = new Vector3D(cr * ux, cr * uy, cr * uz);
+        position[pOffset]     = cr * ux;
+        position[pOffset + 1] = cr * uy;
+        position[pOffset + 2] = cr * uz;
+        if (velocity == null) {
+            return;
+        }
 
-        final double rdot   = TLEConstants.XKE * FastMath.sqrt(a) * esinE / r;
+        final double rdot   = TLEConstants.XKE * FastMath.sqrt(finalA) * esinE / r;
         final double rfdot  = TLEConstants.XKE * FastMath.sqrt(pl) / r;
-        final double xn     = TLEConstants.XKE / (a * FastMath.sqrt(a));
+        final double xn     = TLEConstants.XKE / (finalA * FastMath.sqrt(finalA));
         final double rdotk  = rdot - xn * temp1 * x1mth2 * sin2u;
         final double rfdotk = rfdot + xn * temp1 * (x1mth2 * cos2u + 1.5 * x3thm1);
         final double vx     = xmx * cosuk - cosnok * sinuk;
@@ -449,11 +486,9 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
         final double vz     = sinik * cosuk;
 
         final double cv = 1000.0 * TLEConstants.EARTH_RADIUS / 60.0;
-        final Vector3D vel = new Vector3D(cv * (rdotk * ux + rfdotk * vx),
-                                          cv * (rdotk * uy + rfdotk * vy),
-                                          cv * (rdotk * uz + rfdotk * vz));
-
-        return new PVCoordinates(pos, vel);
+        velocity[vOffset]     = cv * (rdotk * ux + rfdotk * vx);
+        velocity[vOffset + 1] = cv * (rdotk * uy + rfdotk * vy);
+        velocity[vOffset + 2] = cv * (rdotk * uz + rfdotk * vz);
 
     }
 
@@ -20,6 +20,8 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -414,4 +416,16 @@ public class TLESeries implements DataLoader {
         return (TLE) tles.last();
     }
 
+    /** Get all the loaded TLE.
+     * @return list of all loaded TLE, in chronological order
+     * @since 8.0
+     */
+    public List<TLE> getTLEs() {
+        final List<TLE> list = new ArrayList<TLE>(tles.size());
+        for (final TimeStamped tle : tles) {
+            list.add((TLE) tle);
+        }
+        return list;
+    }
+
 }
@@ -0,0 +1,252 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.handlers.EventHandler;
+import org.orekit.time.AbsoluteDate;
+
+/** Wrapper adapting the checking interval of an event detector to the switching function variations.
+ * <p>
+ * With a regular detector, each step is sampled with a fixed {@link #getMaxCheckInterval()
+ * maximal checking interval}, regardless of how far the switching function is from zero.
+ * As this interval must be small enough to separate the closest events, most of the
+ * calls to {@link #g(SpacecraftState) g} are wasted far from any root. This wrapper
+ * uses the rate of change of the switching function to bound how soon a sign change
+ * can occur: if |g(t)| ≥ |g(t<sub>a</sub>)| - ġ<sub>max</sub> |t - t<sub>a</sub>|, no
+ * root can exist before |g(t<sub>a</sub>)| / ġ<sub>max</sub>, so the next check is
+ * scheduled at this date.
+ * </p>
+ * <p>
+ * The bound ġ<sub>max</sub> on the rate is either set by the user with {@link
+ * #withMaxRate(double)}, which is rigorous, or estimated by finite differences between
+ * the two last checks (which are already available, so the estimation does not need
+ * any additional evaluation), multiplied by a {@link #withSafetyFactor(double) safety
+ * factor}. Finite differences estimation is the default mode.
+ * </p>
+ * <p>
+ * The adaptive interval is always between the {@link #getMaxCheckInterval() maximal
+ * checking interval} of the wrapped detector and a {@link #getMaxInterval() maximal
+ * adaptive interval}. With a rigorous bound set by {@link #withMaxRate(double)}, no
+ * sign change can occur before the next check, so near roots the sampling is the same
+ * as without the wrapper and the guarantees on separation of close events are preserved.
+ * With finite differences estimation, the interval is only a heuristic: if the rate is
+ * underestimated, the interval may grow up to the maximal adaptive interval and a pair
+ * of roots closer than this interval, that the fixed checking interval would have
+ * bracketed, may be missed. This mode should be restricted to smooth switching functions
+ * like those of apside, node or eclipse detectors, with a maximal adaptive interval
+ * smaller than the shortest expected separation between events.
+ * </p>
+ * <p>
+ * The adaptive interval is used by propagators that rely on {@link EventState} (i.e.
+ * analytical propagators); integration-based propagators delegate events sampling to
+ * the integrator, which uses the fixed maximal checking interval.
+ * </p>
+ * <pre>
+ *   propagator.addEventDetector(new AdaptiveCheckDetector&lt;EclipseDetector&gt;(eclipse, 3600.0));
+ * </pre>
+ * @param <T> class type for the generic version
+ * @see EventState
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class AdaptiveCheckDetector<T extends EventDetector> extends AbstractDetector<AdaptiveCheckDetector<T>> {
+
+    /** Default safety factor for rates estimated by finite differences. */
+    public static final double DEFAULT_SAFETY_FACTOR = 2.0;
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20161016L;
+
+    /** Wrapped event detector. */
+    private final T rawDetector;
+
+    /** Maximal adaptive checking interval (s). */
+    private final double maxInterval;
+
+    /** Bound on the switching function rate of change (NaN for finite differences estimation). */
+    private final double maxRate;
+
+    /** Safety factor for rates estimated by finite differences. */
+    private final double safetyFactor;
+
+    /** Wrap an {@link EventDetector event detector}.
+     * <p>
+     * The rate of change of the switching function is estimated by
+     * finite differences, with {@link #DEFAULT_SAFETY_FACTOR default
+     * safety factor}. This is a heuristic, which may miss pairs of events
+     * closer than {@code maxInterval}; use {@link #withMaxRate(double)}
+     * to set a rigorous bound and preserve the guarantees of the fixed
+     * checking interval.
+     * </p>
+     * @param rawDetector event detector to wrap
+     * @param maxInterval maximal adaptive checking interval (s)
+     */
+    public AdaptiveCheckDetector(final T rawDetector, final double maxInterval) {
+        this(rawDetector.getMaxCheckInterval(), rawDetector.getThreshold(),
+             rawDetector.getMaxIterationCount(), new LocalHandler<T>(),
+             rawDetector, maxInterval, Double.NaN, DEFAULT_SAFETY_FACTOR);
+    }
+
+    /** Private constructor with full parameters.
+     * <p>
+     * This constructor is private as users are expected to use the builder
+     * API with the various {@code withXxx()} methods to set up the instance
+     * in a readable manner without using a huge amount of parameters.
+     * </p>
+     * @param maxCheck maximum checking interval (s)
+     * @param threshold convergence threshold (s)
+     * @param maxIter maximum number of iterations in the event time search
+     * @param handler event handler to call at event occurrences
+     * @param rawDetector event detector to wrap
+     * @param maxInterval maximal adaptive checking interval (s)
+     * @param maxRate bound on the switching function rate of change
+     * (NaN for finite differences estimation)
+     * @param safetyFactor safety factor for rates estimated by finite differences
+     */
+    private AdaptiveCheckDetector(final double maxCheck, final double threshold, final int maxIter,
+                                  final EventHandler<? super AdaptiveCheckDetector<T>> handler,
+                                  final T rawDetector, final double maxInterval,
+                                  final double maxRate, final double safetyFactor) {
+        super(maxCheck, threshold, maxIter, handler);
+        this.rawDetector  = rawDetector;
+        this.maxInterval  = maxInterval;
+        this.maxRate      = maxRate;
+        this.safetyFactor = safetyFactor;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected AdaptiveCheckDetector<T> create(final double newMaxCheck, final double newThreshold,
+                                              final int newMaxIter,
+                                              final EventHandler<? super AdaptiveCheckDetector<T>> newHandler) {
+        return new AdaptiveCheckDetector<T>(newMaxCheck, newThreshold, newMaxIter, newHandler,
+                                            rawDetector, maxInterval, maxRate, safetyFactor);
+    }
+
+    /** Set up a rigorous bound on the switching function rate of change.
+     * <p>
+     * The bound must hold throughout the propagation, for example the
+     * switching function of a {@link NodeDetector} is the Z coordinate
+     * of the satellite, so its rate of change is bounded by the velocity.
+     * </p>
+     * @param newMaxRate bound on |dg/dt|, or NaN to estimate the rate by finite differences
+     * @return a new detector with updated configuration (the instance is not changed)
+     * @see #getMaxRate()
+     */
+    public AdaptiveCheckDetector<T> withMaxRate(final double newMaxRate) {
+        return new AdaptiveCheckDetector<T>(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(),
+                                            getHandler(), rawDetector, maxInterval, newMaxRate, safetyFactor);
+    }
+
+    /** Set up the safety factor for rates estimated by finite differences.
+     * @param newSafetyFactor safety factor for rates estimated by finite differences
+     * @return a new detector with updated configuration (the instance is not changed)
+     * @see #getSafetyFactor()
+     */
+    public AdaptiveCheckDetector<T> withSafetyFactor(final double newSafetyFactor) {
+        return new AdaptiveCheckDetector<T>(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(),
+                                            getHandler(), rawDetector, maxInterval, maxRate, newSafetyFactor);
+    }
+
+    /** Set up the maximal adaptive checking interval.
+     * @param newMaxInterval maximal adaptive checking interval (s)
+     * @return a new detector with updated configuration (the instance is not changed)
+     * @see #getMaxInterval()
+     */
+    public AdaptiveCheckDetector<T> withMaxInterval(final double newMaxInterval) {
+        return new AdaptiveCheckDetector<T>(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(),
+                                            getHandler(), rawDetector, newMaxInterval, maxRate, safetyFactor);
+    }
+
+    /** Get the wrapped raw detector.
+     * @return the wrapped raw detector
+     */
+    public T getDetector() {
+        return rawDetector;
+    }
+
+    /** Get the maximal adaptive checking interval.
+     * @return maximal adaptive checking interval (s)
+     */
+    public double getMaxInterval() {
+        return maxInterval;
+    }
+
+    /** Get the bound on the switching function rate of change.
+     * @return bound on |dg/dt|, or NaN if the rate is estimated by finite differences
+     */
+    public double getMaxRate() {
+        return maxRate;
+    }
+
+    /** Get the safety factor for rates estimated by finite differences.
+     * @return safety factor for rates estimated by finite differences
+     */
+    public double getSafetyFactor() {
+        return safetyFactor;
+    }
+
+    /** Compute the interval before next check.
+     * @param g value of the switching function at the last check
+     * @param estimatedRate rate of change of the switching function estimated
+     * by finite differences between the two last checks (NaN if not available)
+     * @return interval before next check (s), always between {@link #getMaxCheckInterval()}
+     * and {@link #getMaxInterval()}
+     */
+    public double getCheckInterval(final double g, final double estimatedRate) {
+        final double bound = Double.isNaN(maxRate) ? safetyFactor * estimatedRate : maxRate;
+        if (Double.isNaN(bound)) {
+            // we have no information yet, use the regular checking interval
+            return getMaxCheckInterval();
+        }
+        final double interval = (bound <= 0) ? maxInterval : FastMath.abs(g) / bound;
+        return FastMath.max(getMaxCheckInterval(), FastMath.min(maxInterval, interval));
+    }
+
+    /** {@inheritDoc} */
+    public void init(final SpacecraftState s0, final AbsoluteDate t) {
+        rawDetector.init(s0, t);
+    }
+
+    /** {@inheritDoc} */
+    public double g(final SpacecraftState s) throws OrekitException {
+        return rawDetector.g(s);
+    }
+
+    /** Local class for handling events. */
+    private static class LocalHandler<T extends EventDetector> implements EventHandler<AdaptiveCheckDetector<T>> {
+
+        /** {@inheritDoc} */
+        public Action eventOccurred(final SpacecraftState s, final AdaptiveCheckDetector<T> acd,
+                                    final boolean increasing)
+            throws OrekitException {
+            return acd.rawDetector.eventOccurred(s, increasing);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public SpacecraftState resetState(final AdaptiveCheckDetector<T> acd, final SpacecraftState oldState)
+            throws OrekitException {
+            return acd.rawDetector.resetState(oldState);
+        }
+
+    }
+
+}
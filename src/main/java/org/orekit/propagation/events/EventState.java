@@ -44,6 +44,9 @@ import org.orekit.time.AbsoluteDate;
  * the detector should trigger an event or not during the proposed
  * step (and hence the step should be reduced to ensure the event
  * occurs at a bound rather than inside the step).</p>
+ * <p>If the detector is an {@link AdaptiveCheckDetector}, the step is
+ * not sampled with a fixed interval, but with intervals adapted to the
+ * switching function value and rate of change.</p>
  * @author Luc Maisonobe
  * @param <T> class type for the generic version
  */
@@ -90,11 +93,28 @@ public class EventState<T extends EventDetector> implements Serializable {
     /** Next action indicator. */
     private EventHandler.Action nextAction;
 
+    /** Rate of change of g estimated by finite differences between the two last checks. */
+    private double lastRate;
+
+    /** Cache for interpolated states shared with other detectors (may be null). */
+    private final transient InterpolatedStatesCache statesCache;
+
     /** Simple constructor.
      * @param detector monitored event detector
      */
     public EventState(final T detector) {
+        this(detector, null);
+    }
+
+    /** Simple constructor.
+     * @param detector monitored event detector
+     * @param statesCache cache for interpolated states shared with the
+     * other detectors of the same propagator (may be null)
+     * @since 8.0
+     */
+    public EventState(final T detector, final InterpolatedStatesCache statesCache) {
         this.detector     = detector;
+        this.statesCache  = statesCache;
 
         // some dummy values ...
         t0                = null;
@@ -105,6 +125,7 @@ public class EventState<T extends EventDetector> implements Serializable {
         previousEventTime = null;
         increasing        = true;
         nextAction        = EventHandler.Action.CONTINUE;
+        lastRate          = Double.NaN;
 
     }
 
@@ -126,8 +147,9 @@ public class EventState<T extends EventDetector> implements Serializable {
      */
     public void init(final SpacecraftState s0, final AbsoluteDate t) {
         detector.init(s0, t);
-        lastT = AbsoluteDate.PAST_INFINITY;
-        lastG = Double.NaN;
+        lastT    = AbsoluteDate.PAST_INFINITY;
+        lastG    = Double.NaN;
+        lastRate = Double.NaN;
     }
 
     /** Compute the value of the switching function.
@@ -192,14 +214,25 @@ public class EventState<T extends EventDetector> implements Serializable {
                 // we cannot do anything on such a small step, don't trigger any events
                 return false;
             }
-            final int    n = FastMath.max(1, (int) FastMath.ceil(FastMath.abs(dt) / detector.getMaxCheckInterval()));
+            final AdaptiveCheckDetector<?> adaptive =
+                    (detector instanceof AdaptiveCheckDetector) ? (AdaptiveCheckDetector<?>) detector : null;
+            int n;
+            if (adaptive != null) {
+                // the number of substeps is increased on the fly as the step is sampled
+                n = 1;
+            } else {
+                n = FastMath.max(1, (int) FastMath.ceil(FastMath.abs(dt) / detector.getMaxCheckInterval()));
+            }
+            if (adaptive == null && statesCache != null && statesCache.isGridAlignment()) {
+                // round up to a power of two, so the sampling grids of all detectors are nested
+                n = Integer.highestOneBit(n) == n ? n : 2 * Integer.highestOneBit(n);
+            }
             final double h = dt / n;
 
             final UnivariateFunction f = new UnivariateFunction() {
                 public double value(final double t) throws LocalWrapperException {
                     try {
-                        interpolator.setInterpolatedDate(t0.shiftedBy(t));
-                        return g(interpolator.getInterpolatedState());
+                        return g(interpolate(interpolator, t0.shiftedBy(t)));
                     } catch (OrekitException oe) {
                         throw new LocalWrapperException(oe);
                     }
@@ -211,12 +244,29 @@ public class EventState<T extends EventDetector> implements Serializable {
 
             AbsoluteDate ta = t0;
             double ga = g0;
+            AbsoluteDate tb = null;
+            boolean retry = false;
             for (int i = 0; i < n; ++i) {
 
                 // evaluate detector value at the end of the substep
-                final AbsoluteDate tb = (i == n - 1) ? t1 : t0.shiftedBy((i + 1) * h);
-                interpolator.setInterpolatedDate(tb);
-                final double gb = g(interpolator.getInterpolatedState());
+                if (!retry) {
+                    if (adaptive == null) {
+                        tb = (i == n - 1) ? t1 : t0.shiftedBy((i + 1) * h);
+                    } else {
+                        final double remaining = t1.durationFrom(ta);
+                        final double interval  = adaptive.getCheckInterval(ga, lastRate);
+                        if (FastMath.abs(remaining) <= interval) {
+                            // this is the last substep
+                            tb = t1;
+                        } else {
+                            // there are more substeps after this one
+                            tb = ta.shiftedBy(forward ? interval : -interval);
+                            ++n;
+                        }
+                    }
+                }
+                retry = false;
+                final double gb = g(interpolate(interpolator, tb));
 
                 // check events occurrence
                 if (g0Positive ^ (gb >= 0)) {
@@ -248,6 +298,7 @@ public class EventState<T extends EventDetector> implements Serializable {
                         if (forward ^ (ta.compareTo(tb) >= 0)) {
                             // we were able to skip this spurious root
                             --i;
+                            retry = true;
                         } else {
                             // we can't avoid this root before the end of the step,
                             // we have to handle it despite it is close to the former one
@@ -264,12 +315,14 @@ public class EventState<T extends EventDetector> implements Serializable {
                         return true;
                     } else {
                         // no sign change: there is no event for now
+                        updateRate(ta, ga, tb, gb);
                         ta = tb;
                         ga = gb;
                     }
 
                 } else {
                     // no sign change: there is no event for now
+                    updateRate(ta, ga, tb, gb);
                     ta = tb;
                     ga = gb;
                 }
@@ -287,6 +340,36 @@ public class EventState<T extends EventDetector> implements Serializable {
 
     }
 
+    /** Update the finite differences estimate of the switching function rate of change.
+     * @param ta start of the substep
+     * @param ga value of the switching function at substep start
+     * @param tb end of the substep
+     * @param gb value of the switching function at substep end
+     */
+    private void updateRate(final AbsoluteDate ta, final double ga,
+                            final AbsoluteDate tb, final double gb) {
+        final double duration = FastMath.abs(tb.durationFrom(ta));
+        if (duration > 0) {
+            lastRate = FastMath.abs(gb - ga) / duration;
+        }
+    }
+
+    /** Get an interpolated state, using the shared cache if available.
+     * @param interpolator step interpolator for the proposed step
+     * @param date interpolation date
+     * @return interpolated state
+     * @exception OrekitException if state cannot be interpolated
+     */
+    private SpacecraftState interpolate(final OrekitStepInterpolator interpolator, final AbsoluteDate date)
+        throws OrekitException {
+        if (statesCache == null) {
+            interpolator.setInterpolatedDate(date);
+            return interpolator.getInterpolatedState();
+        } else {
+            return statesCache.getInterpolatedState(interpolator, date);
+        }
+    }
+
     /** Get the occurrence time of the event triggered in the current
      * step.
      * @return occurrence time of the event triggered in the current
@@ -344,6 +427,10 @@ public class EventState<T extends EventDetector> implements Serializable {
             newState = null;
         } else {
             newState = detector.resetState(oldState);
+            if (newState != null) {
+                // the switching function may have changed abruptly
+                lastRate = Double.NaN;
+            }
         }
 
         pendingEvent      = false;
@@ -0,0 +1,306 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+import org.apache.commons.math3.util.MathUtils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.Frame;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+
+/** Visibility engine shared by the detectors of many ground stations.
+ * <p>
+ * Adding one {@link ElevationDetector} per station to a propagator implies that
+ * each detector computes the transform from the propagation frame to its own
+ * topocentric frame, at each check of each step and at each iteration of the root
+ * solver. With hundreds of stations, the same Earth frame transform is computed
+ * hundreds of times for each date. This engine computes the satellite position
+ * in the body frame shared by all stations only once for each state, and then
+ * the elevation (or azimuth) of the requested station only, using the station
+ * positions and topocentric directions precomputed at construction.
+ * </p>
+ * <p>
+ * Events are detected by one {@link StationVisibilityDetector} per station, so
+ * rise and set events are reported independently for each station through the
+ * regular {@link org.orekit.propagation.events.handlers.EventHandler EventHandler}
+ * callbacks:
+ * </p>
+ * <pre>
+ *   GroundStationsVisibility visibility = new GroundStationsVisibility(stations);
+ *   for (final StationVisibilityDetector detector : visibility.getDetectors()) {
+ *       propagator.addEventDetector(detector.withConstantElevation(FastMath.toRadians(5.0)).
+ *                                   withHandler(handler));
+ *   }
+ * </pre>
+ * <p>
+ * As propagators evaluate detectors one after the other, each detector sampling
+ * the whole step before the next one starts, the satellite positions in body frame
+ * are cached for all dates of the current step, not only for the last state. They
+ * are keyed by date and reused only for states with the same frame and position.
+ * As the engine does not know when steps change, the cache is simply cleared when
+ * it reaches its capacity. This class is <em>not</em> thread-safe, an engine and
+ * its detectors must be used by one propagator only.
+ * </p>
+ * @see StationVisibilityDetector
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class GroundStationsVisibility implements Serializable {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20161016L;
+
+    /** Maximum number of cached positions. */
+    private static final int CAPACITY = 256;
+
+    /** Stations. */
+    private final List<TopocentricFrame> stations;
+
+    /** Body frame shared by all stations. */
+    private final Frame bodyFrame;
+
+    /** Stations abscissas in body frame. */
+    private final double[] sx;
+
+    /** Stations ordinates in body frame. */
+    private final double[] sy;
+
+    /** Stations heights in body frame. */
+    private final double[] sz;
+
+    /** Zenith directions (x, y, z, one triplet per station) in body frame. */
+    private final double[] zenith;
+
+    /** East directions (x, y, z, one triplet per station) in body frame. */
+    private final double[] east;
+
+    /** North directions (x, y, z, one triplet per station) in body frame. */
+    private final double[] north;
+
+    /** Satellite positions in body frame, for the dates of the current step. */
+    private transient Map<AbsoluteDate, CachedPosition> cache;
+
+    /** Number of elevation or azimuth requests. */
+    private transient long requests;
+
+    /** Number of frame transforms computed. */
+    private transient long transforms;
+
+    /** Simple constructor.
+     * @param stations stations to monitor, they must all be defined on
+     * the same body frame
+     * @exception OrekitIllegalArgumentException if stations do not share the same body frame
+     */
+    public GroundStationsVisibility(final List<TopocentricFrame> stations)
+        throws OrekitIllegalArgumentException {
+
+        this.stations  = Collections.unmodifiableList(new ArrayList<TopocentricFrame>(stations));
+        this.bodyFrame = stations.isEmpty() ? null : stations.get(0).getParent();
+
+        final int n = stations.size();
+        sx     = new double[n];
+        sy     = new double[n];
+        sz     = new double[n];
+        zenith = new double[3 * n];
+        east   = new double[3 * n];
+        north  = new double[3 * n];
+        for (int i = 0; i < n; ++i) {
+            final TopocentricFrame station = stations.get(i);
+            if (station.getParent() != bodyFrame) {
+                throw new OrekitIllegalArgumentException(OrekitMessages.FRAMES_MISMATCH,
+                                                         station.getParent().getName(), bodyFrame.getName());
+            }
+            final Vector3D p = station.getParentShape().transform(station.getPoint());
+            sx[i] = p.getX();
+            sy[i] = p.getY();
+            sz[i] = p.getZ();
+            store(station.getZenith(), zenith, i);
+            store(station.getEast(),   east,   i);
+            store(station.getNorth(),  north,  i);
+        }
+
+    }
+
+    /** Store a vector in a flat array.
+     * @param v vector to store
+     * @param array flat array
+     * @param i index of the vector
+     */
+    private static void store(final Vector3D v, final double[] array, final int i) {
+        array[3 * i]     = v.getX();
+        array[3 * i + 1] = v.getY();
+        array[3 * i + 2] = v.getZ();
+    }
+
+    /** Get the monitored stations.
+     * @return unmodifiable view of the monitored stations
+     */
+    public List<TopocentricFrame> getStations() {
+        return stations;
+    }
+
+    /** Get a detector for one station.
+     * <p>
+     * The detector uses default values for maximal checking interval ({@link
+     * AbstractDetector#DEFAULT_MAXCHECK}) and convergence threshold ({@link
+     * AbstractDetector#DEFAULT_THRESHOLD}), a 0° minimum elevation and a
+     * handler that continues propagation at both rise and set.
+     * </p>
+     * @param index index of the station in the {@link #getStations() stations list}
+     * @return detector for the station
+     */
+    public StationVisibilityDetector getDetector(final int index) {
+        return new StationVisibilityDetector(this, index);
+    }
+
+    /** Get detectors for all stations.
+     * @return detectors for all stations, in the same order as {@link #getStations()}
+     * @see #getDetector(int)
+     */
+    public List<StationVisibilityDetector> getDetectors() {
+        final List<StationVisibilityDetector> detectors =
+                new ArrayList<StationVisibilityDetector>(stations.size());
+        for (int i = 0; i < stations.size(); ++i) {
+            detectors.add(getDetector(i));
+        }
+        return detectors;
+    }
+
+    /** Get the elevation of the satellite as seen from one station.
+     * @param s spacecraft state
+     * @param index index of the station in the {@link #getStations() stations list}
+     * @return elevation of the satellite (rad)
+     * @exception OrekitException if frames transforms cannot be computed
+     */
+    public double getElevation(final SpacecraftState s, final int index)
+        throws OrekitException {
+        final Vector3D p = getBodyPosition(s);
+        final double dx = p.getX() - sx[index];
+        final double dy = p.getY() - sy[index];
+        final double dz = p.getZ() - sz[index];
+        final double up = dx * zenith[3 * index] + dy * zenith[3 * index + 1] + dz * zenith[3 * index + 2];
+        return FastMath.asin(up / FastMath.sqrt(dx * dx + dy * dy + dz * dz));
+    }
+
+    /** Get the azimuth of the satellite as seen from one station.
+     * @param s spacecraft state
+     * @param index index of the station in the {@link #getStations() stations list}
+     * @return azimuth of the satellite (rad), in [0, 2π[
+     * @exception OrekitException if frames transforms cannot be computed
+     */
+    public double getAzimuth(final SpacecraftState s, final int index)
+        throws OrekitException {
+        final Vector3D p = getBodyPosition(s);
+        final double dx = p.getX() - sx[index];
+        final double dy = p.getY() - sy[index];
+        final double dz = p.getZ() - sz[index];
+        final double e  = dx * east[3 * index]  + dy * east[3 * index + 1]  + dz * east[3 * index + 2];
+        final double n  = dx * north[3 * index] + dy * north[3 * index + 1] + dz * north[3 * index + 2];
+        final double a  = FastMath.atan2(e, n);
+        return (a < 0.) ? a + MathUtils.TWO_PI : a;
+    }
+
+    /** Get the number of elevation or azimuth requests served.
+     * @return number of elevation or azimuth requests served
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /** Get the number of frame transforms actually computed.
+     * <p>
+     * With one {@link ElevationDetector} per station, this number would be
+     * at least equal to {@link #getRequests()}.
+     * </p>
+     * @return number of frame transforms actually computed
+     */
+    public long getTransforms() {
+        return transforms;
+    }
+
+    /** Get the satellite position in body frame, using the cache if possible.
+     * @param s spacecraft state
+     * @return satellite position in body frame
+     * @exception OrekitException if frames transforms cannot be computed
+     */
+    private Vector3D getBodyPosition(final SpacecraftState s) throws OrekitException {
+
+        ++requests;
+
+        final AbsoluteDate date     = s.getDate();
+        final Frame        frame    = s.getFrame();
+        final Vector3D     position = s.getPVCoordinates().getPosition();
+        if (cache == null) {
+            cache = new HashMap<AbsoluteDate, CachedPosition>();
+        }
+        final CachedPosition cached = cache.get(date);
+        if (cached != null && cached.frame == frame && cached.position.equals(position)) {
+            // the cached value is still valid
+            return cached.bodyPosition;
+        }
+
+        // single frame transform for all stations
+        final Vector3D bodyPosition = frame.transformPosition(position, bodyFrame, date);
+        ++transforms;
+
+        if (cache.size() >= CAPACITY) {
+            cache.clear();
+        }
+        cache.put(date, new CachedPosition(frame, position, bodyPosition));
+
+        return bodyPosition;
+
+    }
+
+    /** Cached satellite position. */
+    private static class CachedPosition {
+
+        /** Frame of the state. */
+        private final Frame frame;
+
+        /** Position in state frame. */
+        private final Vector3D position;
+
+        /** Position in body frame. */
+        private final Vector3D bodyPosition;
+
+        /** Simple constructor.
+         * @param frame frame of the state
+         * @param position position in state frame
+         * @param bodyPosition position in body frame
+         */
+        CachedPosition(final Frame frame, final Vector3D position, final Vector3D bodyPosition) {
+            this.frame        = frame;
+            this.position     = position;
+            this.bodyPosition = bodyPosition;
+        }
+
+    }
+
+}
@@ -0,0 +1,215 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.orekit.errors.OrekitException;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.sampling.OrekitStepInterpolator;
+import org.orekit.time.AbsoluteDate;
+
+/** Cache for interpolated states shared by all event detectors of one propagator.
+ * <p>
+ * When several event detectors are registered in a propagator, each of them
+ * samples the current step and runs its own root solver. Detectors with the same
+ * maximal checking interval sample the step on the same grid, so without sharing
+ * the same {@link SpacecraftState} is rebuilt once for each detector at each grid
+ * point. This cache keeps the states built during the current step, so they are
+ * built only once.
+ * </p>
+ * <p>
+ * States are keyed by date. For integration-based propagators, the raw state
+ * vector is also stored and checked, so a state is reused only if it was built
+ * from exactly the same raw data. Propagators {@link #clear() clear} the cache at
+ * each new step; as a safety net, it is also cleared when it reaches its capacity.
+ * </p>
+ * <p>
+ * If {@link #setGridAlignment(boolean) grid alignment} is enabled, {@link EventState}
+ * rounds the number of sub-steps of each detector up to a power of two. The sampling
+ * grids of all detectors are then nested and share their points even if their maximal
+ * checking intervals differ. As the number of sub-steps is only increased, the sub-steps
+ * remain smaller than the maximal checking intervals and no event can be missed that
+ * would be found without alignment. Alignment applies only to propagators that use
+ * {@link EventState} directly (i.e. analytical propagators), integration-based
+ * propagators rely on the integrator own sampling.
+ * </p>
+ * <p>
+ * This class is <em>not</em> thread-safe, each propagator has its own instance.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class InterpolatedStatesCache {
+
+    /** Default capacity. */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /** Maximum number of cached states. */
+    private final int capacity;
+
+    /** Cached states. */
+    private final Map<AbsoluteDate, Entry> entries;
+
+    /** Indicator for sampling grids alignment. */
+    private boolean gridAlignment;
+
+    /** Number of states requested. */
+    private long requests;
+
+    /** Number of states actually built. */
+    private long interpolations;
+
+    /** Build a cache with {@link #DEFAULT_CAPACITY default capacity}.
+     */
+    public InterpolatedStatesCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** Build a cache with specified capacity.
+     * @param capacity maximum number of cached states
+     */
+    public InterpolatedStatesCache(final int capacity) {
+        this.capacity       = capacity;
+        this.entries        = new HashMap<AbsoluteDate, Entry>();
+        this.gridAlignment  = false;
+        this.requests       = 0;
+        this.interpolations = 0;
+    }
+
+    /** Enable or disable sampling grids alignment.
+     * @param gridAlignment if true, numbers of sub-steps are rounded
+     * up to powers of two so sampling grids are nested
+     */
+    public void setGridAlignment(final boolean gridAlignment) {
+        this.gridAlignment = gridAlignment;
+    }
+
+    /** Check if sampling grids alignment is enabled.
+     * @return true if numbers of sub-steps are rounded up to powers of two
+     */
+    public boolean isGridAlignment() {
+        return gridAlignment;
+    }
+
+    /** Drop all cached states.
+     * <p>
+     * Counters are preserved.
+     * </p>
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /** Get an interpolated state, building it only if not already cached.
+     * @param interpolator interpolator for the current step
+     * @param date interpolation date
+     * @return interpolated state
+     * @exception OrekitException if state cannot be interpolated
+     */
+    public SpacecraftState getInterpolatedState(final OrekitStepInterpolator interpolator,
+                                                final AbsoluteDate date)
+        throws OrekitException {
+        SpacecraftState state = getState(date, null);
+        if (state == null) {
+            interpolator.setInterpolatedDate(date);
+            state = interpolator.getInterpolatedState();
+            putState(date, null, state);
+        }
+        return state;
+    }
+
+    /** Get a cached state.
+     * @param date state date
+     * @param y raw state vector the state should be built from (may be null
+     * if the state does not depend on anything but the date)
+     * @return cached state, or null if no state was cached for this date and raw vector
+     */
+    public SpacecraftState getState(final AbsoluteDate date, final double[] y) {
+        ++requests;
+        final Entry entry = entries.get(date);
+        if (entry == null || !Arrays.equals(entry.y, y)) {
+            return null;
+        }
+        return entry.state;
+    }
+
+    /** Put a newly built state in the cache.
+     * @param date state date
+     * @param y raw state vector the state was built from (may be null
+     * if the state does not depend on anything but the date)
+     * @param state state to cache
+     */
+    public void putState(final AbsoluteDate date, final double[] y, final SpacecraftState state) {
+        ++interpolations;
+        if (entries.size() >= capacity) {
+            entries.clear();
+        }
+        entries.put(date, new Entry(y == null ? null : y.clone(), state));
+    }
+
+    /** Get the number of states requested.
+     * @return number of states requested
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /** Get the number of states actually built.
+     * @return number of states actually built
+     */
+    public long getInterpolations() {
+        return interpolations;
+    }
+
+    /** Get the number of interpolations saved thanks to the cache.
+     * @return number of interpolations saved
+     */
+    public long getSavedInterpolations() {
+        return requests - interpolations;
+    }
+
+    /** Reset the counters.
+     */
+    public void resetCounters() {
+        requests       = 0;
+        interpolations = 0;
+    }
+
+    /** Cache entry. */
+    private static class Entry {
+
+        /** Raw state vector (may be null). */
+        private final double[] y;
+
+        /** Cached state. */
+        private final SpacecraftState state;
+
+        /** Simple constructor.
+         * @param y raw state vector (may be null)
+         * @param state cached state
+         */
+        Entry(final double[] y, final SpacecraftState state) {
+            this.y     = y;
+            this.state = state;
+        }
+
+    }
+
+}
@@ -0,0 +1,233 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.models.AtmosphericRefractionModel;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.handlers.ContinueOnEvent;
+import org.orekit.propagation.events.handlers.EventHandler;
+import org.orekit.utils.ElevationMask;
+
+/** Finder for satellite rising/setting events above one station of a
+ * {@link GroundStationsVisibility group of stations}.
+ * <p>
+ * This detector has the same switching function as {@link ElevationDetector},
+ * but elevations and azimuths are retrieved from a {@link GroundStationsVisibility}
+ * engine shared with the detectors of the other stations of the group, so the
+ * frame transform is computed only once for all stations at each date.
+ * </p>
+ * <p>
+ * Instances are built by {@link GroundStationsVisibility#getDetector(int)} or
+ * {@link GroundStationsVisibility#getDetectors()}. The default implementation
+ * behavior is to {@link EventHandler.Action#CONTINUE continue} propagation at
+ * both rising and setting, as groups are intended for monitoring many stations.
+ * This can be changed by calling {@link #withHandler(EventHandler)} after
+ * construction.
+ * </p>
+ * @see GroundStationsVisibility
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class StationVisibilityDetector extends AbstractDetector<StationVisibilityDetector> {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20161016L;
+
+    /** Shared visibility engine. */
+    private final GroundStationsVisibility visibility;
+
+    /** Index of the station in the engine. */
+    private final int index;
+
+    /** Elevation mask used for calculations, if defined. */
+    private final ElevationMask elevationMask;
+
+    /** Minimum elevation value used if mask is not defined. */
+    private final double minElevation;
+
+    /** Atmospheric Model used for calculations, if defined. */
+    private final AtmosphericRefractionModel refractionModel;
+
+    /** Build a detector with default settings.
+     * @param visibility shared visibility engine
+     * @param index index of the station in the engine
+     */
+    StationVisibilityDetector(final GroundStationsVisibility visibility, final int index) {
+        this(DEFAULT_MAXCHECK, DEFAULT_THRESHOLD, DEFAULT_MAX_ITER,
+             new ContinueOnEvent<StationVisibilityDetector>(),
+             visibility, index, 0.0, null, null);
+    }
+
+    /** Private constructor with full parameters.
+     * <p>
+     * This constructor is private as users are expected to use the builder
+     * API with the various {@code withXxx()} methods to set up the instance
+     * in a readable manner without using a huge amount of parameters.
+     * </p>
+     * @param maxCheck maximum checking interval (s)
+     * @param threshold convergence threshold (s)
+     * @param maxIter maximum number of iterations in the event time search
+     * @param handler event handler to call at event occurrences
+     * @param visibility shared visibility engine
+     * @param index index of the station in the engine
+     * @param minElevation minimum elevation in radians (rad)
+     * @param mask reference to elevation mask
+     * @param refractionModel reference to refraction model
+     */
+    private StationVisibilityDetector(final double maxCheck, final double threshold,
+                                      final int maxIter, final EventHandler<? super StationVisibilityDetector> handler,
+                                      final GroundStationsVisibility visibility, final int index,
+                                      final double minElevation, final ElevationMask mask,
+                                      final AtmosphericRefractionModel refractionModel) {
+        super(maxCheck, threshold, maxIter, handler);
+        this.visibility      = visibility;
+        this.index           = index;
+        this.minElevation    = minElevation;
+        this.elevationMask   = mask;
+        this.refractionModel = refractionModel;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected StationVisibilityDetector create(final double newMaxCheck, final double newThreshold,
+                                               final int newMaxIter,
+                                               final EventHandler<? super StationVisibilityDetector> newHandler) {
+        return new StationVisibilityDetector(newMaxCheck, newThreshold, newMaxIter, newHandler,
+                                             visibility, index, minElevation, elevationMask, refractionModel);
+    }
+
+    /** Get the shared visibility engine.
+     * @return shared visibility engine
+     */
+    public GroundStationsVisibility getVisibility() {
+        return visibility;
+    }
+
+    /** Get the index of the station in the engine.
+     * @return index of the station in the engine
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /** Get the monitored station.
+     * @return monitored station
+     */
+    public TopocentricFrame getTopocentricFrame() {
+        return visibility.getStations().get(index);
+    }
+
+    /**
+     * Returns the currently configured elevation mask.
+     * @return elevation mask
+     * (null if instance has been configured with {@link #withConstantElevation(double)}
+     * @see #withElevationMask(ElevationMask)
+     */
+    public ElevationMask getElevationMask() {
+        return elevationMask;
+    }
+
+    /**
+     * Returns the currently configured minimum valid elevation value.
+     * @return minimum elevation value
+     * ({@code Double.NaN} if instance has been configured with {@link #withElevationMask(ElevationMask)}
+     * @see #withConstantElevation(double)
+     */
+    public double getMinElevation() {
+        return minElevation;
+    }
+
+    /**
+     * Returns the currently configured refraction model.
+     * @return refraction model
+     * @see #withRefraction(AtmosphericRefractionModel)
+     */
+    public AtmosphericRefractionModel getRefractionModel() {
+        return refractionModel;
+    }
+
+    /** Compute the value of the switching function.
+     * This function measures the difference between the current elevation
+     * (and azimuth if necessary) and the reference mask or minimum value.
+     * @param s the current state information: date, kinematics, attitude
+     * @return value of the switching function
+     * @exception OrekitException if some specific error occurs
+     */
+    @Override
+    public double g(final SpacecraftState s) throws OrekitException {
+
+        final double trueElevation = visibility.getElevation(s, index);
+
+        final double calculatedElevation;
+        if (refractionModel != null) {
+            calculatedElevation = trueElevation + refractionModel.getRefraction(trueElevation);
+        } else {
+            calculatedElevation = trueElevation;
+        }
+
+        if (elevationMask != null) {
+            return calculatedElevation - elevationMask.getElevation(visibility.getAzimuth(s, index));
+        } else {
+            return calculatedElevation - minElevation;
+        }
+
+    }
+
+    /**
+     * Setup the minimum elevation for detection.
+     * <p>
+     * This will override an elevation mask if it has been configured as such previously.
+     * </p>
+     * @param newMinElevation minimum elevation for visibility in radians (rad)
+     * @return a new detector with updated configuration (the instance is not changed)
+     * @see #getMinElevation()
+     */
+    public StationVisibilityDetector withConstantElevation(final double newMinElevation) {
+        return new StationVisibilityDetector(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), getHandler(),
+                                             visibility, index, newMinElevation, null, refractionModel);
+    }
+
+    /**
+     * Setup the elevation mask for detection using the passed in mask object.
+     * @param newElevationMask elevation mask to use for the computation
+     * @return a new detector with updated configuration (the instance is not changed)
+     * @see #getElevationMask()
+     */
+    public StationVisibilityDetector withElevationMask(final ElevationMask newElevationMask) {
+        return new StationVisibilityDetector(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), getHandler(),
+                                             visibility, index, Double.NaN, newElevationMask, refractionModel);
+    }
+
+    /**
+     * Setup the detector to use an atmospheric refraction model in its
+     * calculations.
+     * <p>
+     * To disable the refraction when copying an existing detector,
+     * call this method with a null argument.
+     * </p>
+     * @param newRefractionModel refraction model to use for the computation
+     * @return a new detector with updated configuration (the instance is not changed)
+     * @see #getRefractionModel()
+     */
+    public StationVisibilityDetector withRefraction(final AtmosphericRefractionModel newRefractionModel) {
+        return new StationVisibilityDetector(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), getHandler(),
+                                             visibility, index, minElevation, elevationMask, newRefractionModel);
+    }
+
+}
@@ -48,6 +48,7 @@ import org.orekit.propagation.AbstractPropagator;
 import org.orekit.propagation.BoundedPropagator;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.events.InterpolatedStatesCache;
 import org.orekit.propagation.events.handlers.EventHandler;
 import org.orekit.propagation.sampling.OrekitStepHandler;
 import org.orekit.propagation.sampling.OrekitStepInterpolator;
@@ -63,6 +64,9 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
     /** Event detectors not related to force models. */
     private final List<EventDetector> detectors;
 
+    /** Complete states shared by all event detectors. */
+    private final InterpolatedStatesCache statesCache;
+
     /** Integrator selected by the user for the orbital extrapolation process. */
     private final AbstractIntegrator integrator;
 
@@ -98,6 +102,7 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
      */
     protected AbstractIntegratedPropagator(final AbstractIntegrator integrator, final boolean meanOrbit) {
         detectors           = new ArrayList<EventDetector>();
+        statesCache         = new InterpolatedStatesCache();
         additionalEquations = new ArrayList<AdditionalEquations>();
         this.integrator     = integrator;
         this.meanOrbit      = meanOrbit;
@@ -252,6 +257,21 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         detectors.clear();
     }
 
+    /** Get the cache for complete states shared by all event detectors.
+     * <p>
+     * The cache can be used to monitor the number of states building saved. As
+     * sampling of steps is managed by the integrator, {@link
+     * InterpolatedStatesCache#setGridAlignment(boolean) sampling grids alignment}
+     * is ignored by this propagator, states are shared between detectors with
+     * the same maximal checking interval.
+     * </p>
+     * @return cache for complete states shared by all event detectors
+     * @since 8.0
+     */
+    public InterpolatedStatesCache getInterpolatedStatesCache() {
+        return statesCache;
+    }
+
     /** Set up all user defined event detectors.
      */
     protected void setUpUserEventDetectors() {
@@ -435,6 +455,7 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
             }
 
             integrator.clearEventHandlers();
+            statesCache.clear();
 
             // set up events added by user
             setUpUserEventDetectors();
@@ -595,6 +616,23 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
 
     }
 
+    /** Get a complete state, sharing it between all event detectors.
+     * @param t current value of the independent <I>time</I> variable
+     * @param y array containing the current value of the state vector
+     * @return complete state
+     * @exception OrekitException if state cannot be mapped
+     */
+    private SpacecraftState getSharedState(final double t, final double[] y)
+        throws OrekitException {
+        final AbsoluteDate date = stateMapper.mapDoubleToDate(t);
+        SpacecraftState state = statesCache.getState(date, y);
+        if (state == null) {
+            state = getCompleteState(t, y);
+            statesCache.putState(date, y, state);
+        }
+        return state;
+    }
+
     /** Differential equations for the main state (orbit, attitude and mass). */
     public interface MainStateEquations {
 
@@ -753,7 +791,7 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
             try {
                 if (!Precision.equals(lastT, t, 1)) {
                     lastT = t;
-                    lastG = detector.g(getCompleteState(t, y));
+                    lastG = detector.g(getSharedState(t, y));
                 }
                 return lastG;
             } catch (OrekitException oe) {
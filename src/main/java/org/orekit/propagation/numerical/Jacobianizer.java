@@ -30,6 +30,7 @@ import org.apache.commons.math3.util.Precision;
 import org.orekit.attitudes.Attitude;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.EvaluationContext;
 import org.orekit.forces.ForceModel;
 import org.orekit.frames.Frame;
 import org.orekit.frames.Transform;
@@ -310,11 +311,15 @@ public class Jacobianizer {
         /** Current orbit. */
         private Orbit orbit;
 
+        /** Memo for quantities shared between force models. */
+        private final EvaluationContext context;
+
         /** Simple constructor.
          */
         protected AccelerationRetriever() {
             acceleration = Vector3D.ZERO;
             this.orbit   = null;
+            this.context = new EvaluationContext();
         }
 
         /** Get acceleration.
@@ -357,6 +362,11 @@ public class Jacobianizer {
             // we don't compute (yet) the mass part of the Jacobian, we just ignore this
         }
 
+        /** {@inheritDoc} */
+        public EvaluationContext getEvaluationContext() {
+            return context;
+        }
+
     }
 
 }
@@ -31,6 +31,7 @@ import org.orekit.errors.OrekitIllegalArgumentException;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.errors.PropagationException;
+import org.orekit.forces.EvaluationContext;
 import org.orekit.forces.ForceModel;
 import org.orekit.forces.gravity.NewtonianAttraction;
 import org.orekit.frames.Frame;
@@ -406,6 +407,12 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
         /** Jacobian of the orbital parameters with respect to the cartesian parameters. */
         private double[][] jacobian;
 
+        /** Current state. */
+        private SpacecraftState state;
+
+        /** Memo for quantities shared between force models. */
+        private final EvaluationContext context;
+
         /** Simple constructor.
          * @param integrator numerical integrator to use for propagation.
          */
@@ -413,6 +420,7 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
 
             this.yDot     = new double[7];
             this.jacobian = new double[6][6];
+            this.context  = new EvaluationContext();
 
             for (final ForceModel forceModel : forceModels) {
                 final EventDetector[] modelDetectors = forceModel.getEventsDetectors();
@@ -426,8 +434,9 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
         }
 
         /** {@inheritDoc} */
-        public double[] computeDerivatives(final SpacecraftState state) throws OrekitException {
+        public double[] computeDerivatives(final SpacecraftState currentState) throws OrekitException {
 
+            state = currentState;
             orbit = state.getOrbit();
             Arrays.fill(yDot, 0.0);
             orbit.getJacobianWrtCartesian(getPositionAngleType(), jacobian);
@@ -460,9 +469,14 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
         /** {@inheritDoc} */
         public void addAcceleration(final Vector3D gamma, final Frame frame)
             throws OrekitException {
-            final Transform t = frame.getTransformTo(orbit.getFrame(), orbit.getDate());
-            final Vector3D gammInRefFrame = t.transformVector(gamma);
-            addXYZAcceleration(gammInRefFrame.getX(), gammInRefFrame.getY(), gammInRefFrame.getZ());
+            if (frame == orbit.getFrame()) {
+                // no conversion needed
+                addXYZAcceleration(gamma.getX(), gamma.getY(), gamma.getZ());
+            } else {
+                final Transform t = context.getTransformFrom(state, frame);
+                final Vector3D gammInRefFrame = t.transformVector(gamma);
+                addXYZAcceleration(gammInRefFrame.getX(), gammInRefFrame.getY(), gammInRefFrame.getZ());
+            }
         }
 
         /** {@inheritDoc} */
@@ -473,6 +487,11 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
             yDot[6] += q;
         }
 
+        /** {@inheritDoc} */
+        public EvaluationContext getEvaluationContext() {
+            return context;
+        }
+
     }
 
     /** Estimate tolerance vectors for integrators.
@@ -18,6 +18,7 @@ package org.orekit.propagation.numerical;
 
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.orekit.errors.OrekitException;
+import org.orekit.forces.EvaluationContext;
 import org.orekit.frames.Frame;
 
 /** Interface summing up the contribution of several forces into orbit and mass derivatives.
@@ -68,5 +69,15 @@ public interface TimeDerivativesEquations {
      */
     void addMassDerivative(final double q);
 
+    /** Get the memo for quantities shared between force models.
+     * <p>
+     * Force models should retrieve the quantities that other models may
+     * also need (frames transforms, bodies positions) from this memo, so
+     * they are computed only once for each state.
+     * </p>
+     * @return memo for quantities shared between force models
+     * @since 8.0
+     */
+    EvaluationContext getEvaluationContext();
 
 }
@@ -0,0 +1,559 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.sampling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.PropagationException;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.LatencyHistogram;
+
+/** Step handler dispatching states to a batch handler running on another thread.
+ * <p>
+ * Step handlers are called synchronously on the propagation thread, so handlers
+ * that write ephemerides to disk, compute accesses or log data stall propagation.
+ * This adapter only puts the states in a bounded queue on the propagation thread.
+ * A consumer task running on another thread takes them from the queue and hands
+ * them to an {@link OrekitBatchStepHandler} in batches, in propagation order.
+ * </p>
+ * <p>
+ * As {@link OrekitStepInterpolator interpolators} are reused by propagators from
+ * one step to the next, they cannot be handed over to another thread. The adapter
+ * therefore snapshots {@link SpacecraftState spacecraft states}, which are immutable:
+ * </p>
+ * <ul>
+ *   <li>when used as an {@link OrekitFixedStepHandler} (for example with {@link
+ *   org.orekit.propagation.Propagator#setMasterMode(double, OrekitFixedStepHandler)}),
+ *   all fixed step states are queued,</li>
+ *   <li>when used as an {@link OrekitStepHandler}, the initial state and the
+ *   state at the end of each step are queued.</li>
+ * </ul>
+ * <p>
+ * When the queue is full, the behavior depends on the {@link BackPressure back-pressure}
+ * policy: either the propagation thread waits for the consumer, or states are dropped.
+ * The last state of the propagation is never dropped, and the adapter waits for the
+ * consumer to handle it before returning, so when the propagation ends, all states
+ * have been handled. Errors raised by the batch handler are reported to the propagation
+ * thread as {@link PropagationException} at the next step. If the batch handler throws an
+ * unchecked exception, the consumer task stops, and the propagation thread notices it even
+ * if it is waiting for room in the queue.
+ * </p>
+ * <p>
+ * Metrics are available for monitoring: current and maximal queue depth, number of
+ * handled and dropped states, {@link #getLatency() latency} between the queuing of a
+ * state and the end of its handling, and {@link #getProcessingTime() processing time}
+ * of the batches.
+ * </p>
+ * <p>
+ * An instance may be reused for several successive propagations, but not for
+ * concurrent propagations.
+ * </p>
+ * @see OrekitBatchStepHandler
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class AsynchronousStepHandler implements OrekitStepHandler, OrekitFixedStepHandler {
+
+    /** Back-pressure policy when the queue is full. */
+    public enum BackPressure {
+
+        /** Block the propagation thread until the consumer frees some room. */
+        BLOCK,
+
+        /** Drop the newest state (i.e. the one being queued). */
+        DROP_NEWEST,
+
+        /** Drop the oldest queued state. */
+        DROP_OLDEST;
+
+    }
+
+    /** Default queue capacity. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** Default maximum batch size. */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    /** Waiting period before checking again the consumer task when the queue is full (ms). */
+    private static final long OFFER_PERIOD = 10;
+
+    /** Underlying batch handler. */
+    private final OrekitBatchStepHandler handler;
+
+    /** Queue capacity. */
+    private final int capacity;
+
+    /** Maximum batch size. */
+    private final int maxBatchSize;
+
+    /** Back-pressure policy. */
+    private final BackPressure backPressure;
+
+    /** Executor service for the consumer task (may be null). */
+    private final ExecutorService executor;
+
+    /** Number of handled states. */
+    private final AtomicLong handledStates;
+
+    /** Number of dropped states. */
+    private final AtomicLong droppedStates;
+
+    /** Number of handled batches. */
+    private final AtomicLong batches;
+
+    /** Maximal queue depth. */
+    private final AtomicInteger maxQueueDepth;
+
+    /** Latency between queuing and end of handling of states. */
+    private final LatencyHistogram latency;
+
+    /** Processing time of batches. */
+    private final LatencyHistogram processingTime;
+
+    /** First error raised by the batch handler. */
+    private final AtomicReference<Exception> failure;
+
+    /** Queue for the current propagation. */
+    private volatile BlockingQueue<Entry> queue;
+
+    /** Executor service used for the current propagation. */
+    private ExecutorService service;
+
+    /** Handle on the consumer task for the current propagation. */
+    private Future<Void> consumer;
+
+    /** Indicator for first step. */
+    private boolean firstStep;
+
+    /** Simple constructor with default settings.
+     * <p>
+     * The queue has {@link #DEFAULT_CAPACITY default capacity}, batches have
+     * {@link #DEFAULT_MAX_BATCH_SIZE default maximum size}, the propagation
+     * thread is {@link BackPressure#BLOCK blocked} when the queue is full and
+     * a dedicated consumer thread is created for each propagation.
+     * </p>
+     * @param handler underlying batch handler
+     */
+    public AsynchronousStepHandler(final OrekitBatchStepHandler handler) {
+        this(handler, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH_SIZE, BackPressure.BLOCK, null);
+    }
+
+    /** Complete constructor.
+     * @param handler underlying batch handler
+     * @param capacity queue capacity
+     * @param maxBatchSize maximum number of states in one batch
+     * @param backPressure back-pressure policy when the queue is full
+     * @param executor executor service for the consumer task (if null, a
+     * dedicated daemon thread is created for each propagation)
+     */
+    public AsynchronousStepHandler(final OrekitBatchStepHandler handler,
+                                   final int capacity, final int maxBatchSize,
+                                   final BackPressure backPressure,
+                                   final ExecutorService executor) {
+        if (capacity <= 0) {
+            throw new NotStrictlyPositiveException(capacity);
+        }
+        if (maxBatchSize <= 0) {
+            throw new NotStrictlyPositiveException(maxBatchSize);
+        }
+        this.handler        = handler;
+        this.capacity       = capacity;
+        this.maxBatchSize   = maxBatchSize;
+        this.backPressure   = backPressure;
+        this.executor       = executor;
+        this.handledStates  = new AtomicLong(0);
+        this.droppedStates  = new AtomicLong(0);
+        this.batches        = new AtomicLong(0);
+        this.maxQueueDepth  = new AtomicInteger(0);
+        this.latency        = new LatencyHistogram();
+        this.processingTime = new LatencyHistogram();
+        this.failure        = new AtomicReference<Exception>();
+    }
+
+    /** Get the underlying batch handler.
+     * @return underlying batch handler
+     */
+    public OrekitBatchStepHandler getHandler() {
+        return handler;
+    }
+
+    /** Get the queue capacity.
+     * @return queue capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Get the maximum number of states in one batch.
+     * @return maximum number of states in one batch
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /** Get the back-pressure policy.
+     * @return back-pressure policy
+     */
+    public BackPressure getBackPressure() {
+        return backPressure;
+    }
+
+    /** Get the current queue depth.
+     * @return number of states waiting to be handled
+     */
+    public int getQueueDepth() {
+        final BlockingQueue<Entry> current = queue;
+        return (current == null) ? 0 : current.size();
+    }
+
+    /** Get the maximal queue depth observed.
+     * @return maximal queue depth observed
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /** Get the number of states handled.
+     * @return number of states handled
+     */
+    public long getHandledStates() {
+        return handledStates.get();
+    }
+
+    /** Get the number of states dropped due to back-pressure.
+     * @return number of states dropped
+     */
+    public long getDroppedStates() {
+        return droppedStates.get();
+    }
+
+    /** Get the number of batches handled.
+     * @return number of batches handled
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /** Get the latency between queuing and end of handling of states.
+     * @return latency histogram, one entry per handled state
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /** Get the processing time of batches.
+     * @return processing time histogram, one entry per handled batch
+     */
+    public LatencyHistogram getProcessingTime() {
+        return processingTime;
+    }
+
+    /** {@inheritDoc} */
+    public void init(final SpacecraftState s0, final AbsoluteDate t) {
+
+        // get rid of a previous propagation that did not end properly
+        abort();
+
+        failure.set(null);
+        queue     = new ArrayBlockingQueue<Entry>(capacity);
+        service   = (executor == null) ? createExecutor() : executor;
+        consumer  = service.submit(new Consumer(queue, s0, t));
+        firstStep = true;
+
+    }
+
+    /** {@inheritDoc} */
+    public void handleStep(final OrekitStepInterpolator interpolator, final boolean isLast)
+        throws PropagationException {
+        try {
+
+            if (firstStep) {
+                // queue the initial state
+                interpolator.setInterpolatedDate(interpolator.getPreviousDate());
+                enqueue(interpolator.getInterpolatedState(), false);
+                firstStep = false;
+            }
+
+            interpolator.setInterpolatedDate(interpolator.getCurrentDate());
+            enqueue(interpolator.getInterpolatedState(), isLast);
+
+        } catch (PropagationException pe) {
+            throw pe;
+        } catch (OrekitException oe) {
+            throw new PropagationException(oe);
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void handleStep(final SpacecraftState currentState, final boolean isLast)
+        throws PropagationException {
+        enqueue(currentState, isLast);
+    }
+
+    /** Abort the current propagation consumer task, if any.
+     * <p>
+     * This method is useful only if a propagation failed before its last
+     * step was handled, in order to release the consumer thread. It is
+     * called automatically at the start of the next propagation.
+     * </p>
+     */
+    public void abort() {
+        if (consumer != null) {
+            consumer.cancel(true);
+            release();
+        }
+    }
+
+    /** Queue a state.
+     * @param state state to queue
+     * @param isLast if true, this is the last state of the propagation
+     * @exception PropagationException if the batch handler failed or
+     * if the propagation thread is interrupted
+     */
+    private void enqueue(final SpacecraftState state, final boolean isLast)
+        throws PropagationException {
+
+        checkFailure();
+
+        final Entry entry = new Entry(state, isLast, System.nanoTime());
+        try {
+            if (isLast || backPressure == BackPressure.BLOCK) {
+                while (!queue.offer(entry, OFFER_PERIOD, TimeUnit.MILLISECONDS)) {
+                    // the queue is full, check the consumer is still alive
+                    checkFailure();
+                }
+            } else if (backPressure == BackPressure.DROP_NEWEST) {
+                if (!queue.offer(entry)) {
+                    droppedStates.incrementAndGet();
+                }
+            } else {
+                while (!queue.offer(entry)) {
+                    if (queue.poll() != null) {
+                        droppedStates.incrementAndGet();
+                    }
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new PropagationException(ie, LocalizedFormats.SIMPLE_MESSAGE, ie.getMessage());
+        }
+
+        // update queue depth metric
+        final int depth = queue.size();
+        for (int max = maxQueueDepth.get(); depth > max; max = maxQueueDepth.get()) {
+            if (maxQueueDepth.compareAndSet(max, depth)) {
+                break;
+            }
+        }
+
+        if (isLast) {
+            // wait until all states have been handled
+            try {
+                waitForConsumer();
+            } finally {
+                release();
+            }
+            checkFailure();
+        }
+
+    }
+
+    /** Wait for the consumer task to complete.
+     * <p>
+     * If the consumer task ended abruptly, the cause is stored as the failure.
+     * </p>
+     * @exception PropagationException if the propagation thread is interrupted
+     */
+    private void waitForConsumer() throws PropagationException {
+        try {
+            consumer.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new PropagationException(ie, LocalizedFormats.SIMPLE_MESSAGE, ie.getMessage());
+        } catch (ExecutionException ee) {
+            failure.compareAndSet(null, (ee.getCause() instanceof Exception) ?
+                                        (Exception) ee.getCause() : ee);
+        }
+    }
+
+    /** Release the resources used by the current propagation.
+     */
+    private void release() {
+        if (executor == null && service != null) {
+            service.shutdown();
+        }
+        service  = null;
+        consumer = null;
+    }
+
+    /** Check if the batch handler failed.
+     * <p>
+     * If the batch handler failed, the consumer task is aborted.
+     * </p>
+     * @exception PropagationException if the batch handler failed
+     */
+    private void checkFailure() throws PropagationException {
+        if (consumer != null && consumer.isDone()) {
+            // the consumer task ended before the last state was queued,
+            // it has been stopped by an unchecked exception
+            waitForConsumer();
+        }
+        final Exception e = failure.get();
+        if (e != null) {
+            abort();
+        }
+        if (e instanceof PropagationException) {
+            throw (PropagationException) e;
+        } else if (e instanceof OrekitException) {
+            throw new PropagationException((OrekitException) e);
+        } else if (e != null) {
+            throw new PropagationException(e, LocalizedFormats.SIMPLE_MESSAGE, e.getMessage());
+        }
+    }
+
+    /** Create an executor service with one daemon thread.
+     * @return new executor service
+     */
+    private static ExecutorService createExecutor() {
+        final ThreadFactory factory = new ThreadFactory() {
+            /** {@inheritDoc} */
+            public Thread newThread(final Runnable r) {
+                final Thread thread = Executors.defaultThreadFactory().newThread(r);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        return Executors.newSingleThreadExecutor(factory);
+    }
+
+    /** Consumer task. */
+    private class Consumer implements Callable<Void> {
+
+        /** Queue to consume. */
+        private final BlockingQueue<Entry> source;
+
+        /** Initial state. */
+        private final SpacecraftState s0;
+
+        /** Target time for the integration. */
+        private final AbsoluteDate t;
+
+        /** Simple constructor.
+         * @param source queue to consume
+         * @param s0 initial state
+         * @param t target time for the integration
+         */
+        Consumer(final BlockingQueue<Entry> source, final SpacecraftState s0, final AbsoluteDate t) {
+            this.source = source;
+            this.s0     = s0;
+            this.t      = t;
+        }
+
+        /** {@inheritDoc} */
+        public Void call() throws InterruptedException {
+
+            try {
+                handler.init(s0, t);
+            } catch (OrekitException oe) {
+                failure.compareAndSet(null, oe);
+            }
+
+            final List<Entry> entries = new ArrayList<Entry>(maxBatchSize);
+            boolean isLast = false;
+            while (!isLast) {
+
+                // wait for at least one state, then take all available ones up to batch size
+                entries.clear();
+                entries.add(source.take());
+                source.drainTo(entries, maxBatchSize - 1);
+
+                final List<SpacecraftState> states = new ArrayList<SpacecraftState>(entries.size());
+                for (final Entry entry : entries) {
+                    states.add(entry.state);
+                    isLast = isLast || entry.isLast;
+                }
+
+                if (failure.get() == null) {
+                    // handle the batch
+                    final long start = System.nanoTime();
+                    try {
+                        handler.handleBatch(Collections.unmodifiableList(states), isLast);
+                    } catch (OrekitException oe) {
+                        failure.compareAndSet(null, oe);
+                    }
+                    final long end = System.nanoTime();
+                    processingTime.record(end - start);
+                    for (final Entry entry : entries) {
+                        latency.record(end - entry.queued);
+                    }
+                    handledStates.addAndGet(entries.size());
+                    batches.incrementAndGet();
+                }
+                // after a failure, states are just drained so the propagation thread is never blocked
+
+            }
+
+            return null;
+
+        }
+
+    }
+
+    /** Queue entry. */
+    private static class Entry {
+
+        /** Queued state. */
+        private final SpacecraftState state;
+
+        /** Indicator for last state. */
+        private final boolean isLast;
+
+        /** Queuing time (ns). */
+        private final long queued;
+
+        /** Simple constructor.
+         * @param state queued state
+         * @param isLast indicator for last state
+         * @param queued queuing time (ns)
+         */
+        Entry(final SpacecraftState state, final boolean isLast, final long queued) {
+            this.state  = state;
+            this.isLast = isLast;
+            this.queued = queued;
+        }
+
+    }
+
+}
@@ -0,0 +1,55 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.sampling;
+
+import java.util.List;
+
+import org.orekit.errors.OrekitException;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+
+/** This interface is a space-dynamics aware step handler processing states in batches.
+ *
+ * <p>It is used by {@link AsynchronousStepHandler}, which calls its methods
+ * from a consumer thread, <em>not</em> from the propagation thread.</p>
+ * @see AsynchronousStepHandler
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public interface OrekitBatchStepHandler {
+
+    /** Initialize batch handler at the start of a propagation.
+     * <p>
+     * This method is called once at the start of the propagation, before
+     * the first batch is handled. It may be used by the batch handler to
+     * initialize some internal data if needed.
+     * </p>
+     * @param s0 initial state
+     * @param t target time for the integration
+     * @exception OrekitException if batch handler cannot be initialized
+     */
+    void init(SpacecraftState s0, AbsoluteDate t) throws OrekitException;
+
+    /** Handle a batch of states.
+     * @param states states, in propagation order
+     * @param isLast if true, the batch contains the last state of the propagation
+     * @exception OrekitException if batch cannot be handled
+     */
+    void handleBatch(List<SpacecraftState> states, boolean isLast)
+        throws OrekitException;
+
+}
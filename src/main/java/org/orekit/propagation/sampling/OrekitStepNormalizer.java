@@ -21,6 +21,7 @@ import org.orekit.errors.OrekitException;
 import org.orekit.errors.PropagationException;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeGrid;
 
 /**
  * This class wraps an object implementing {@link OrekitFixedStepHandler}
@@ -29,13 +30,26 @@ import org.orekit.time.AbsoluteDate;
  * <p>It mirrors the <code>StepNormalizer</code> interface from <a
  * href="http://commons.apache.org/math/">commons-math</a> but
  * provides a space-dynamics interface to the methods.</p>
+ * <p>Instead of a fixed step, a {@link TimeGrid time grid} can be used, in which
+ * case the underlying handler is called only at the grid dates that lie within
+ * the propagation range. Grid dates are materialized one at a time, as they are
+ * reached, so very large grids can be used.</p>
  * @author Luc Maisonobe
  */
 public class OrekitStepNormalizer implements OrekitStepHandler {
 
+    /** Marker for grid sampling not started yet. */
+    private static final int NOT_STARTED = Integer.MIN_VALUE;
+
     /** Fixed time step. */
     private double h;
 
+    /** Time grid (null for fixed step). */
+    private final TimeGrid grid;
+
+    /** Index of the next grid date to handle. */
+    private int nextIndex;
+
     /** Underlying step handler. */
     private OrekitFixedStepHandler handler;
 
@@ -54,12 +68,36 @@ public class OrekitStepNormalizer implements OrekitStepHandler {
      */
     public OrekitStepNormalizer(final double h, final OrekitFixedStepHandler handler) {
         this.h       = FastMath.abs(h);
+        this.grid    = null;
         this.handler = handler;
         lastDate  = null;
         lastState = null;
         forward   = true;
     }
 
+    /** Constructor for sampling on a time grid.
+     * @param grid time grid at which the underlying handler should be called
+     * @param handler handler to wrap
+     * @since 8.0
+     */
+    public OrekitStepNormalizer(final TimeGrid grid, final OrekitFixedStepHandler handler) {
+        this.h         = Double.NaN;
+        this.grid      = grid;
+        this.nextIndex = NOT_STARTED;
+        this.handler   = handler;
+        lastDate  = null;
+        lastState = null;
+        forward   = true;
+    }
+
+    /** Get the time grid.
+     * @return time grid, or null if the normalizer uses a fixed step
+     * @since 8.0
+     */
+    public TimeGrid getTimeGrid() {
+        return grid;
+    }
+
     /** Determines whether this handler needs dense output.
      * This handler needs dense output in order to provide data at
      * regularly spaced steps regardless of the steps the propagator
@@ -76,6 +114,7 @@ public class OrekitStepNormalizer implements OrekitStepHandler {
         lastDate  = null;
         lastState = null;
         forward   = true;
+        nextIndex = NOT_STARTED;
         handler.init(s0, t);
     }
 
@@ -96,6 +135,11 @@ public class OrekitStepNormalizer implements OrekitStepHandler {
         throws PropagationException {
         try {
 
+            if (grid != null) {
+                handleGridStep(interpolator, isLast);
+                return;
+            }
+
             if (lastState == null) {
                 // initialize lastState in the first step case
 
@@ -151,4 +195,53 @@ public class OrekitStepNormalizer implements OrekitStepHandler {
         }
     }
 
+    /** Handle the last accepted step, sampling on the time grid.
+     * @param interpolator interpolator for the last accepted step
+     * @param isLast true if the step is the last one
+     * @exception OrekitException if the underlying handler triggers one
+     */
+    private void handleGridStep(final OrekitStepInterpolator interpolator, final boolean isLast)
+        throws OrekitException {
+
+        final AbsoluteDate start = grid.getStart();
+        final double       tCurrent = interpolator.getCurrentDate().durationFrom(start);
+
+        if (nextIndex == NOT_STARTED) {
+            // first step, locate the first grid date within propagation range
+            final AbsoluteDate previous = interpolator.getPreviousDate();
+            final double tPrevious = previous.durationFrom(start);
+            forward = tCurrent >= tPrevious;
+            final int floor = grid.floorIndex(previous);
+            if (forward) {
+                nextIndex = (floor >= 0 && grid.getOffset(floor) >= tPrevious) ? floor : floor + 1;
+            } else {
+                nextIndex = floor;
+            }
+        }
+
+        // push all grid dates within the step to the underlying handler
+        while (nextIndex >= 0 && nextIndex < grid.size() &&
+               (forward ? grid.getOffset(nextIndex) <= tCurrent : grid.getOffset(nextIndex) >= tCurrent)) {
+
+            // output the stored previous grid date
+            if (lastState != null) {
+                handler.handleStep(lastState, false);
+            }
+
+            // store the next grid date
+            lastDate = grid.getDate(nextIndex);
+            interpolator.setInterpolatedDate(lastDate);
+            lastState = interpolator.getInterpolatedState();
+            nextIndex += forward ? 1 : -1;
+
+        }
+
+        if (isLast && lastState != null) {
+            // there will be no more steps,
+            // the stored one should be flagged as being the last
+            handler.handleStep(lastState, true);
+        }
+
+    }
+
 }
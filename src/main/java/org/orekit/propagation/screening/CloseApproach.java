@@ -0,0 +1,112 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.screening;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeStamped;
+
+/** Container for close approaches found by {@link ConjunctionScreener}.
+ * <p>
+ * Objects are identified by their index in the list of propagators
+ * provided to the screener. The first index is always smaller than
+ * the second one.
+ * </p>
+ * @see ConjunctionScreener
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class CloseApproach implements TimeStamped {
+
+    /** Index of the first object. */
+    private final int first;
+
+    /** Index of the second object. */
+    private final int second;
+
+    /** Time of closest approach. */
+    private final AbsoluteDate tca;
+
+    /** Relative position of second object with respect to first object at TCA. */
+    private final Vector3D relativePosition;
+
+    /** Relative velocity of second object with respect to first object at TCA. */
+    private final Vector3D relativeVelocity;
+
+    /** Simple constructor.
+     * @param first index of the first object
+     * @param second index of the second object
+     * @param tca time of closest approach
+     * @param relativePosition relative position of second object with respect
+     * to first object at TCA, in screening frame
+     * @param relativeVelocity relative velocity of second object with respect
+     * to first object at TCA, in screening frame
+     */
+    public CloseApproach(final int first, final int second, final AbsoluteDate tca,
+                         final Vector3D relativePosition, final Vector3D relativeVelocity) {
+        this.first            = first;
+        this.second           = second;
+        this.tca              = tca;
+        this.relativePosition = relativePosition;
+        this.relativeVelocity = relativeVelocity;
+    }
+
+    /** Get the index of the first object.
+     * @return index of the first object
+     */
+    public int getFirst() {
+        return first;
+    }
+
+    /** Get the index of the second object.
+     * @return index of the second object
+     */
+    public int getSecond() {
+        return second;
+    }
+
+    /** Get the time of closest approach.
+     * @return time of closest approach
+     */
+    public AbsoluteDate getDate() {
+        return tca;
+    }
+
+    /** Get the miss distance.
+     * @return miss distance (m)
+     */
+    public double getMissDistance() {
+        return relativePosition.getNorm();
+    }
+
+    /** Get the relative position at TCA.
+     * @return relative position of second object with respect to first object
+     * at TCA, in screening frame (m)
+     */
+    public Vector3D getRelativePosition() {
+        return relativePosition;
+    }
+
+    /** Get the relative velocity at TCA.
+     * @return relative velocity of second object with respect to first object
+     * at TCA, in screening frame (m/s)
+     */
+    public Vector3D getRelativeVelocity() {
+        return relativeVelocity;
+    }
+
+}
@@ -0,0 +1,40 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.screening;
+
+import org.orekit.errors.OrekitException;
+
+/** Interface for handling close approaches found by {@link ConjunctionScreener}.
+ * @see ConjunctionScreener
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public interface CloseApproachHandler {
+
+    /** Handle a close approach.
+     * <p>
+     * This method is always called from the thread that called
+     * {@link ConjunctionScreener#screen(org.orekit.time.AbsoluteDate,
+     * org.orekit.time.AbsoluteDate, CloseApproachHandler) screen},
+     * in chronological order.
+     * </p>
+     * @param approach close approach found
+     * @exception OrekitException if close approach cannot be handled
+     */
+    void handleCloseApproach(CloseApproach approach) throws OrekitException;
+
+}
@@ -0,0 +1,526 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.screening;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.apache.commons.math3.analysis.UnivariateFunction;
+import org.apache.commons.math3.analysis.solvers.BracketingNthOrderBrentSolver;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.Frame;
+import org.orekit.propagation.Propagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.ChronologicalComparator;
+import org.orekit.utils.PVCoordinates;
+
+/** All-vs-all close approaches screening.
+ * <p>
+ * The screening is performed in several stages, so that the costly
+ * computations are done only for the few pairs that can really be close
+ * to each other:
+ * </p>
+ * <ol>
+ *   <li>all objects are propagated once on a shared time grid,</li>
+ *   <li>pairs of objects whose radial distance ranges (i.e. apogee and perigee
+ *   bounds) are separated by more than the screening threshold are rejected,</li>
+ *   <li>for each time interval of the grid, objects are sorted in a spatial hash
+ *   whose cell size ensures only objects in neighboring cells can come closer
+ *   than the threshold during the interval,</li>
+ *   <li>the remaining pairs are rejected if a lower bound of their distance
+ *   over the interval is larger than the threshold,</li>
+ *   <li>time of closest approach is refined using Hermite interpolation of the
+ *   relative motion on the interval for the surviving pairs.</li>
+ * </ol>
+ * <p>
+ * Propagation of the various objects and screening of the various time intervals
+ * are both performed in parallel using a user-provided {@link ExecutorService
+ * executor service}. Each propagator is used by only one thread, but the same
+ * propagator instance should not appear twice in the list.
+ * </p>
+ * <p>
+ * The accuracy of the time and distance of closest approach depends on the
+ * grid step, which should be a small fraction of the shortest orbital period
+ * (typically one minute for low Earth orbits). Close approaches occurring
+ * exactly at the boundaries of the screening range are not reported.
+ * </p>
+ * @see CloseApproach
+ * @see CloseApproachHandler
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class ConjunctionScreener {
+
+    /** Safety factor for velocity bounds between samples. */
+    private static final double VELOCITY_SAFETY_FACTOR = 1.1;
+
+    /** Mask for spatial hash cells indices packing. */
+    private static final long CELL_INDEX_MASK = 0x1FFFFFL;
+
+    /** Shift for spatial hash cells indices packing. */
+    private static final int CELL_INDEX_SHIFT = 21;
+
+    /** Convergence threshold for time of closest approach (s). */
+    private static final double TCA_CONVERGENCE = 1.0e-6;
+
+    /** Maximal number of evaluations for time of closest approach refinement. */
+    private static final int MAX_EVALUATIONS = 100;
+
+    /** Propagators for all objects. */
+    private final List<Propagator> propagators;
+
+    /** Screening frame. */
+    private final Frame frame;
+
+    /** Screening distance threshold (m). */
+    private final double threshold;
+
+    /** Maximum step for the shared time grid (s). */
+    private final double maxStep;
+
+    /** Executor service for parallel computation (null for computation in caller thread). */
+    private final ExecutorService executor;
+
+    /** Simple constructor.
+     * @param propagators propagators for all objects (they may be {@link
+     * org.orekit.propagation.BoundedPropagator bounded propagators} if the screening
+     * range is within their validity range)
+     * @param frame screening frame (preferably an inertial frame)
+     * @param threshold screening distance threshold (m)
+     * @param maxStep maximum step for the shared time grid (s)
+     * @param executor executor service to use for parallel computation
+     * (if null, all computation will be done in the caller thread)
+     */
+    public ConjunctionScreener(final List<? extends Propagator> propagators, final Frame frame,
+                               final double threshold, final double maxStep,
+                               final ExecutorService executor) {
+        if (threshold <= 0) {
+            throw new NotStrictlyPositiveException(threshold);
+        }
+        if (maxStep <= 0) {
+            throw new NotStrictlyPositiveException(maxStep);
+        }
+        this.propagators = new ArrayList<Propagator>(propagators);
+        this.frame       = frame;
+        this.threshold   = threshold;
+        this.maxStep     = maxStep;
+        this.executor    = executor;
+    }
+
+    /** Screen all objects for close approaches.
+     * @param start start of the screening range
+     * @param end end of the screening range
+     * @param handler handler to call for each close approach found, in chronological order
+     * @exception OrekitException if some propagator fails or the handler fails
+     */
+    public void screen(final AbsoluteDate start, final AbsoluteDate end,
+                       final CloseApproachHandler handler)
+        throws OrekitException {
+        for (final CloseApproach approach : screen(start, end)) {
+            handler.handleCloseApproach(approach);
+        }
+    }
+
+    /** Screen all objects for close approaches.
+     * @param start start of the screening range
+     * @param end end of the screening range
+     * @return close approaches found, in chronological order
+     * @exception OrekitException if some propagator fails
+     */
+    public List<CloseApproach> screen(final AbsoluteDate start, final AbsoluteDate end)
+        throws OrekitException {
+
+        if (end.compareTo(start) < 0) {
+            return screen(end, start);
+        }
+        if (end.durationFrom(start) == 0) {
+            return new ArrayList<CloseApproach>();
+        }
+
+        // set up shared time grid
+        final int n = FastMath.max(1, (int) FastMath.ceil(end.durationFrom(start) / maxStep));
+        final double h = end.durationFrom(start) / n;
+        final AbsoluteDate[] dates = new AbsoluteDate[n + 1];
+        for (int j = 0; j < n; ++j) {
+            dates[j] = start.shiftedBy(j * h);
+        }
+        dates[n] = end;
+
+        // sample all objects
+        final double[][] samples = new double[propagators.size()][];
+        final List<Callable<Void>> samplingTasks = new ArrayList<Callable<Void>>(propagators.size());
+        for (int k = 0; k < propagators.size(); ++k) {
+            final int index = k;
+            samplingTasks.add(new Callable<Void>() {
+                /** {@inheritDoc} */
+                public Void call() throws OrekitException {
+                    samples[index] = sample(propagators.get(index), dates);
+                    return null;
+                }
+            });
+        }
+        run(samplingTasks);
+
+        // compute bounds for apogee/perigee filter and spatial hash
+        final Bounds bounds = new Bounds(samples, h);
+
+        // screen all intervals
+        final List<Callable<List<CloseApproach>>> screeningTasks =
+                new ArrayList<Callable<List<CloseApproach>>>(n);
+        for (int j = 0; j < n; ++j) {
+            final int interval = j;
+            screeningTasks.add(new Callable<List<CloseApproach>>() {
+                /** {@inheritDoc} */
+                public List<CloseApproach> call() {
+                    return screenInterval(samples, bounds, dates[interval], interval, h);
+                }
+            });
+        }
+        final List<CloseApproach> approaches = new ArrayList<CloseApproach>();
+        for (final List<CloseApproach> found : run(screeningTasks)) {
+            approaches.addAll(found);
+        }
+
+        Collections.sort(approaches, new ChronologicalComparator());
+        return approaches;
+
+    }
+
+    /** Sample one object on the time grid.
+     * @param propagator propagator for the object
+     * @param dates time grid
+     * @return sampled positions and velocities, six values per date
+     * @exception OrekitException if propagation fails
+     */
+    private double[] sample(final Propagator propagator, final AbsoluteDate[] dates)
+        throws OrekitException {
+        final double[] sample = new double[6 * dates.length];
+        for (int j = 0; j < dates.length; ++j) {
+            final PVCoordinates pv = propagator.propagate(dates[j]).getPVCoordinates(frame);
+            sample[6 * j]     = pv.getPosition().getX();
+            sample[6 * j + 1] = pv.getPosition().getY();
+            sample[6 * j + 2] = pv.getPosition().getZ();
+            sample[6 * j + 3] = pv.getVelocity().getX();
+            sample[6 * j + 4] = pv.getVelocity().getY();
+            sample[6 * j + 5] = pv.getVelocity().getZ();
+        }
+        return sample;
+    }
+
+    /** Screen one interval of the time grid.
+     * @param samples sampled positions and velocities for all objects
+     * @param bounds objects bounds
+     * @param intervalStart start date of the interval
+     * @param j index of the interval
+     * @param h interval duration (s)
+     * @return close approaches found in the interval
+     */
+    private List<CloseApproach> screenInterval(final double[][] samples, final Bounds bounds,
+                                               final AbsoluteDate intervalStart,
+                                               final int j, final double h) {
+
+        // objects can move at most 2 vMax h with respect to each other during the interval,
+        // so pairs that can come closer than threshold are in neighboring cells at interval start
+        final double cellSize = threshold + 2 * bounds.globalMaxSpeed * h;
+
+        // build the spatial hash
+        final int[] cells = new int[3 * samples.length];
+        final Map<Long, List<Integer>> hash = new HashMap<Long, List<Integer>>();
+        for (int k = 0; k < samples.length; ++k) {
+            for (int c = 0; c < 3; ++c) {
+                cells[3 * k + c] = (int) FastMath.floor(samples[k][6 * j + c] / cellSize);
+            }
+            final Long key = cellKey(cells[3 * k], cells[3 * k + 1], cells[3 * k + 2]);
+            List<Integer> list = hash.get(key);
+            if (list == null) {
+                list = new ArrayList<Integer>();
+                hash.put(key, list);
+            }
+            list.add(k);
+        }
+
+        // check pairs in neighboring cells
+        final List<CloseApproach> found = new ArrayList<CloseApproach>();
+        for (int a = 0; a < samples.length; ++a) {
+            for (int dx = -1; dx <= 1; ++dx) {
+                for (int dy = -1; dy <= 1; ++dy) {
+                    for (int dz = -1; dz <= 1; ++dz) {
+                        final List<Integer> neighbors = hash.get(cellKey(cells[3 * a] + dx,
+                                                                         cells[3 * a + 1] + dy,
+                                                                         cells[3 * a + 2] + dz));
+                        if (neighbors != null) {
+                            for (final int b : neighbors) {
+                                if (b > a) {
+                                    final CloseApproach approach =
+                                            checkPair(samples, bounds, intervalStart, j, h, a, b);
+                                    if (approach != null) {
+                                        found.add(approach);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return found;
+
+    }
+
+    /** Check one pair of objects on one interval.
+     * @param samples sampled positions and velocities for all objects
+     * @param bounds objects bounds
+     * @param intervalStart start date of the interval
+     * @param j index of the interval
+     * @param h interval duration (s)
+     * @param a index of the first object
+     * @param b index of the second object
+     * @return close approach, or null if objects do not come closer than threshold
+     */
+    private CloseApproach checkPair(final double[][] samples, final Bounds bounds,
+                                    final AbsoluteDate intervalStart, final int j, final double h,
+                                    final int a, final int b) {
+
+        // apogee/perigee filter
+        if (bounds.minRadius[a] - bounds.maxRadius[b] > threshold ||
+            bounds.minRadius[b] - bounds.maxRadius[a] > threshold) {
+            return null;
+        }
+
+        // relative motion at interval boundaries
+        final double[] dr0 = new double[3];
+        final double[] dv0 = new double[3];
+        final double[] dr1 = new double[3];
+        final double[] dv1 = new double[3];
+        for (int c = 0; c < 3; ++c) {
+            dr0[c] = samples[b][6 * j + c]           - samples[a][6 * j + c];
+            dv0[c] = samples[b][6 * j + c + 3]       - samples[a][6 * j + c + 3];
+            dr1[c] = samples[b][6 * (j + 1) + c]     - samples[a][6 * (j + 1) + c];
+            dv1[c] = samples[b][6 * (j + 1) + c + 3] - samples[a][6 * (j + 1) + c + 3];
+        }
+
+        // distance lower bound over the interval
+        final double d0 = FastMath.sqrt(dot(dr0, dr0));
+        final double d1 = FastMath.sqrt(dot(dr1, dr1));
+        if (0.5 * (d0 + d1 - (bounds.maxSpeed[a] + bounds.maxSpeed[b]) * h) > threshold) {
+            return null;
+        }
+
+        // a minimum of the distance occurs when range rate changes from negative to positive
+        if (dot(dr0, dv0) >= 0 || dot(dr1, dv1) < 0) {
+            return null;
+        }
+
+        // refine time of closest approach
+        final double[] dr = new double[3];
+        final double[] dv = new double[3];
+        final UnivariateFunction rangeRate = new UnivariateFunction() {
+            /** {@inheritDoc} */
+            public double value(final double tau) {
+                hermite(dr0, dv0, dr1, dv1, h, tau, dr, dv);
+                return dot(dr, dv);
+            }
+        };
+        final BracketingNthOrderBrentSolver solver = new BracketingNthOrderBrentSolver(TCA_CONVERGENCE, 5);
+        final double tca = solver.solve(MAX_EVALUATIONS, rangeRate, 0, h);
+
+        // check miss distance
+        hermite(dr0, dv0, dr1, dv1, h, tca, dr, dv);
+        if (dot(dr, dr) > threshold * threshold) {
+            return null;
+        }
+
+        return new CloseApproach(a, b, intervalStart.shiftedBy(tca), new Vector3D(dr), new Vector3D(dv));
+
+    }
+
+    /** Cubic Hermite interpolation of relative motion.
+     * @param dr0 relative position at interval start
+     * @param dv0 relative velocity at interval start
+     * @param dr1 relative position at interval end
+     * @param dv1 relative velocity at interval end
+     * @param h interval duration
+     * @param tau time offset with respect to interval start
+     * @param dr placeholder for interpolated relative position
+     * @param dv placeholder for interpolated relative velocity
+     */
+    private static void hermite(final double[] dr0, final double[] dv0,
+                                final double[] dr1, final double[] dv1,
+                                final double h, final double tau,
+                                final double[] dr, final double[] dv) {
+        final double s   = tau / h;
+        final double s2  = s * s;
+        final double s3  = s2 * s;
+        final double h00 = 2 * s3 - 3 * s2 + 1;
+        final double h10 = (s3 - 2 * s2 + s) * h;
+        final double h01 = 3 * s2 - 2 * s3;
+        final double h11 = (s3 - s2) * h;
+        final double d00 = (6 * s2 - 6 * s) / h;
+        final double d10 = 3 * s2 - 4 * s + 1;
+        final double d01 = (6 * s - 6 * s2) / h;
+        final double d11 = 3 * s2 - 2 * s;
+        for (int c = 0; c < 3; ++c) {
+            dr[c] = h00 * dr0[c] + h10 * dv0[c] + h01 * dr1[c] + h11 * dv1[c];
+            dv[c] = d00 * dr0[c] + d10 * dv0[c] + d01 * dr1[c] + d11 * dv1[c];
+        }
+    }
+
+    /** Compute a dot product.
+     * @param u first vector
+     * @param v second vector
+     * @return u.v
+     */
+    private static double dot(final double[] u, final double[] v) {
+        return u[0] * v[0] + u[1] * v[1] + u[2] * v[2];
+    }
+
+    /** Build a spatial hash key.
+     * <p>
+     * Cell indices are truncated, so very far away cells may share the same
+     * key. This only adds spurious candidates that are rejected later on.
+     * </p>
+     * @param ix cell index along X
+     * @param iy cell index along Y
+     * @param iz cell index along Z
+     * @return spatial hash key
+     */
+    private static Long cellKey(final int ix, final int iy, final int iz) {
+        return ((ix & CELL_INDEX_MASK) << (2 * CELL_INDEX_SHIFT)) |
+               ((iy & CELL_INDEX_MASK) << CELL_INDEX_SHIFT) |
+               (iz & CELL_INDEX_MASK);
+    }
+
+    /** Run tasks, either in the caller thread or using the executor.
+     * @param tasks tasks to run
+     * @param <T> type of the tasks results
+     * @return tasks results, in tasks order
+     * @exception OrekitException if some task fails
+     */
+    private <T> List<T> run(final List<Callable<T>> tasks)
+        throws OrekitException {
+        try {
+            final List<T> results = new ArrayList<T>(tasks.size());
+            if (executor == null) {
+                for (final Callable<T> task : tasks) {
+                    final FutureTask<T> future = new FutureTask<T>(task);
+                    future.run();
+                    results.add(future.get());
+                }
+            } else {
+                for (final Future<T> future : executor.invokeAll(tasks)) {
+                    results.add(future.get());
+                }
+            }
+            return results;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new OrekitException(ie, LocalizedFormats.SIMPLE_MESSAGE, ie.getMessage());
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof OrekitException) {
+                throw (OrekitException) ee.getCause();
+            }
+            throw OrekitException.createInternalError(ee.getCause());
+        }
+    }
+
+    /** Container for objects bounds. */
+    private static class Bounds {
+
+        /** Minimum radius of each object, with margin. */
+        private final double[] minRadius;
+
+        /** Maximum radius of each object, with margin. */
+        private final double[] maxRadius;
+
+        /** Maximum speed of each object, with margin. */
+        private final double[] maxSpeed;
+
+        /** Maximum speed of all objects, with margin. */
+        private final double globalMaxSpeed;
+
+        /** Simple constructor.
+         * @param samples sampled positions and velocities for all objects
+         * @param h interval duration (s)
+         */
+        Bounds(final double[][] samples, final double h) {
+
+            minRadius = new double[samples.length];
+            maxRadius = new double[samples.length];
+            maxSpeed  = new double[samples.length];
+            double max = 0;
+
+            for (int k = 0; k < samples.length; ++k) {
+
+                final double[] sample = samples[k];
+                final int nbDates = sample.length / 6;
+
+                // speed bound
+                double v2Max = 0;
+                for (int j = 0; j < nbDates; ++j) {
+                    final double vx = sample[6 * j + 3];
+                    final double vy = sample[6 * j + 4];
+                    final double vz = sample[6 * j + 5];
+                    v2Max = FastMath.max(v2Max, vx * vx + vy * vy + vz * vz);
+                }
+                maxSpeed[k] = VELOCITY_SAFETY_FACTOR * FastMath.sqrt(v2Max);
+                max = FastMath.max(max, maxSpeed[k]);
+
+                // radius bounds, taking into account motion between samples
+                minRadius[k] = Double.POSITIVE_INFINITY;
+                maxRadius[k] = 0;
+                double r0 = radius(sample, 0);
+                for (int j = 1; j < nbDates; ++j) {
+                    final double r1 = radius(sample, j);
+                    minRadius[k] = FastMath.min(minRadius[k], 0.5 * (r0 + r1 - maxSpeed[k] * h));
+                    maxRadius[k] = FastMath.max(maxRadius[k], 0.5 * (r0 + r1 + maxSpeed[k] * h));
+                    r0 = r1;
+                }
+
+            }
+
+            globalMaxSpeed = max;
+
+        }
+
+        /** Compute the radius of a sample.
+         * @param sample sampled positions and velocities
+         * @param j index of the date
+         * @return radius at date j
+         */
+        private static double radius(final double[] sample, final int j) {
+            final double x = sample[6 * j];
+            final double y = sample[6 * j + 1];
+            final double z = sample[6 * j + 2];
+            return FastMath.sqrt(x * x + y * y + z * z);
+        }
+
+    }
+
+}
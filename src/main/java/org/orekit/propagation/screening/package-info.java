@@ -0,0 +1,30 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ *
+ * This package provides tools to screen sets of objects for close approaches.
+ * <p>
+ * The {@link org.orekit.propagation.screening.ConjunctionScreener ConjunctionScreener}
+ * samples all objects on a shared time grid, prunes pairs using apogee/perigee
+ * and spatial hashing filters, and refines time and distance of closest approach
+ * only for the surviving pairs.
+ * </p>
+ *
+ * @author Luc Maisonobe
+ *
+ */
+package org.orekit.propagation.screening;
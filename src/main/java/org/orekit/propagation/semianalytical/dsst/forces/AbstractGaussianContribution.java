@@ -29,6 +29,7 @@ import org.orekit.attitudes.Attitude;
 import org.orekit.attitudes.AttitudeProvider;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitExceptionWrapper;
+import org.orekit.forces.EvaluationContext;
 import org.orekit.forces.ForceModel;
 import org.orekit.frames.Frame;
 import org.orekit.orbits.EquinoctialOrbit;
@@ -390,12 +391,16 @@ public abstract class AbstractGaussianContribution implements DSSTForceModel {
         /** state. */
         private final SpacecraftState state;
 
+        /** Memo for quantities shared between force models. */
+        private final EvaluationContext context;
+
         /** Simple constructor.
          *  @param state input state
          */
         AccelerationRetriever(final SpacecraftState state) {
             this.acceleration = Vector3D.ZERO;
             this.state = state;
+            this.context = new EvaluationContext();
         }
 
         /** {@inheritDoc} */
@@ -422,6 +427,12 @@ public abstract class AbstractGaussianContribution implements DSSTForceModel {
         public void addMassDerivative(final double q) {
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public EvaluationContext getEvaluationContext() {
+            return context;
+        }
+
         /** Get the acceleration vector.
          * @return acceleration vector
          */
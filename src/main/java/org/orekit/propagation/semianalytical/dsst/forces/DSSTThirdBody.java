@@ -334,7 +334,7 @@ public class DSSTThirdBody implements DSSTForceModel {
         ecc = aux.getEcc();
 
         // Distance from center of mass of the central body to the 3rd body
-        final Vector3D bodyPos = body.getPVCoordinates(aux.getDate(), aux.getFrame()).getPosition();
+        final Vector3D bodyPos = body.getPosition(aux.getDate(), aux.getFrame());
         R3 = bodyPos.getNorm();
 
         // Direction cosines
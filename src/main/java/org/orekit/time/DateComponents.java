@@ -18,8 +18,6 @@ package org.orekit.time;
 
 import java.io.Serializable;
 import java.text.DecimalFormat;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.orekit.errors.OrekitIllegalArgumentException;
 import org.orekit.errors.OrekitMessages;
@@ -98,15 +96,6 @@ public class DateComponents implements Serializable, Comparable<DateComponents>
     /** Offset between J2000 epoch and modified julian day epoch. */
     private static final int MJD_TO_J2000 = 51544;
 
-    /** Basic and extended format calendar date. */
-    private static Pattern CALENDAR_FORMAT = Pattern.compile("^(-?\\d\\d\\d\\d)-?(\\d\\d)-?(\\d\\d)$");
-
-    /** Basic and extended format ordinal date. */
-    private static Pattern ORDINAL_FORMAT = Pattern.compile("^(-?\\d\\d\\d\\d)-?(\\d\\d\\d)$");
-
-    /** Basic and extended format week date. */
-    private static Pattern WEEK_FORMAT = Pattern.compile("^(-?\\d\\d\\d\\d)-?W(\\d\\d)-?(\\d)$");
-
     static {
         // this static statement makes sure the reference epoch are initialized
         // once AFTER the various factories have been set up
@@ -288,34 +277,10 @@ public class DateComponents implements Serializable, Comparable<DateComponents>
      * @param string string to parse
      * @return a parsed date
      * @exception IllegalArgumentException if string cannot be parsed
+     * @see DateTimeParser#parseDateComponents(CharSequence, int, int)
      */
     public static  DateComponents parseDate(final String string) {
-
-        // is the date a calendar date ?
-        final Matcher calendarMatcher = CALENDAR_FORMAT.matcher(string);
-        if (calendarMatcher.matches()) {
-            return new DateComponents(Integer.parseInt(calendarMatcher.group(1)),
-                                      Integer.parseInt(calendarMatcher.group(2)),
-                                      Integer.parseInt(calendarMatcher.group(3)));
-        }
-
-        // is the date an ordinal date ?
-        final Matcher ordinalMatcher = ORDINAL_FORMAT.matcher(string);
-        if (ordinalMatcher.matches()) {
-            return new DateComponents(Integer.parseInt(ordinalMatcher.group(1)),
-                                      Integer.parseInt(ordinalMatcher.group(2)));
-        }
-
-        // is the date a week date ?
-        final Matcher weekMatcher = WEEK_FORMAT.matcher(string);
-        if (weekMatcher.matches()) {
-            return createFromWeekComponents(Integer.parseInt(weekMatcher.group(1)),
-                                            Integer.parseInt(weekMatcher.group(2)),
-                                            Integer.parseInt(weekMatcher.group(3)));
-        }
-
-        throw new OrekitIllegalArgumentException(OrekitMessages.NON_EXISTENT_DATE, string);
-
+        return DateTimeParser.parseDateComponents(string, 0, string.length());
     }
 
     /** Get the year number.
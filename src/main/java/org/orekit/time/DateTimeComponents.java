@@ -152,16 +152,7 @@ public class DateTimeComponents implements Serializable, Comparable<DateTimeComp
      * @exception IllegalArgumentException if string cannot be parsed
      */
     public static DateTimeComponents parseDateTime(final String string) {
-
-        // is there a time ?
-        final int tIndex = string.indexOf('T');
-        if (tIndex > 0) {
-            return new DateTimeComponents(DateComponents.parseDate(string.substring(0, tIndex)),
-                                          TimeComponents.parseTime(string.substring(tIndex + 1)));
-        }
-
-        return new DateTimeComponents(DateComponents.parseDate(string), TimeComponents.H00);
-
+        return DateTimeParser.parseDateTime(string, 0, string.length());
     }
 
     /** Compute the seconds offset between two instances.
@@ -0,0 +1,466 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.time;
+
+import java.nio.charset.Charset;
+
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+
+/** Regular expressions free parser for dates and times.
+ * <p>
+ * This class parses the ISO-8601 formats supported by {@link
+ * DateComponents#parseDate(String)}, {@link TimeComponents#parseTime(String)}
+ * and {@link DateTimeComponents#parseDateTime(String)} (which all delegate
+ * to it), including the CCSDS ASCII calendar and ordinal segmented time codes.
+ * It works directly on character ranges, either from {@link CharSequence} or
+ * from ASCII bytes, so data lines do not need to be split into strings before
+ * being parsed. It is intended for high throughput parsing of files with
+ * one epoch per record.
+ * </p>
+ * <p>
+ * Seconds with fractional parts are parsed exactly as {@link
+ * Double#parseDouble(String)} would parse them, so results are identical to
+ * those obtained with regular parsing.
+ * </p>
+ * <p>
+ * This class is a utility class, it cannot be instantiated.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class DateTimeParser {
+
+    /** Maximum number of significant digits that can be parsed exactly using a long. */
+    private static final int MAX_DIGITS = 15;
+
+    /** Charset for ASCII bytes. */
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    /** Powers of ten. */
+    private static final double[] POWERS_OF_TEN = {
+        1.0e0, 1.0e1, 1.0e2, 1.0e3, 1.0e4, 1.0e5, 1.0e6, 1.0e7,
+        1.0e8, 1.0e9, 1.0e10, 1.0e11, 1.0e12, 1.0e13, 1.0e14, 1.0e15
+    };
+
+    /** Private constructor for utility class.
+     */
+    private DateTimeParser() {
+    }
+
+    /** Parse a date.
+     * @param location location in the time scale, in one of the formats
+     * supported by {@link DateTimeComponents#parseDateTime(String)}
+     * @param timeScale time scale
+     * @return parsed date
+     * @exception IllegalArgumentException if location is not in a supported format
+     */
+    public static AbsoluteDate parseDate(final CharSequence location, final TimeScale timeScale) {
+        return parseDate(location, 0, location.length(), timeScale);
+    }
+
+    /** Parse a date from a range of characters.
+     * @param sequence character sequence containing the date
+     * @param start index of the first character of the date
+     * @param end index after the last character of the date
+     * @param timeScale time scale
+     * @return parsed date
+     * @exception IllegalArgumentException if location is not in a supported format
+     */
+    public static AbsoluteDate parseDate(final CharSequence sequence, final int start, final int end,
+                                         final TimeScale timeScale) {
+        final int tIndex = indexOf(sequence, start, end, 'T');
+        if (tIndex > start) {
+            return new AbsoluteDate(parseDateComponents(sequence, start, tIndex),
+                                    parseTimeComponents(sequence, tIndex + 1, end),
+                                    timeScale);
+        }
+        return new AbsoluteDate(parseDateComponents(sequence, start, end), TimeComponents.H00, timeScale);
+    }
+
+    /** Parse a date from a range of ASCII bytes.
+     * @param bytes bytes array containing the date
+     * @param start index of the first byte of the date
+     * @param end index after the last byte of the date
+     * @param timeScale time scale
+     * @return parsed date
+     * @exception IllegalArgumentException if location is not in a supported format
+     */
+    public static AbsoluteDate parseDate(final byte[] bytes, final int start, final int end,
+                                         final TimeScale timeScale) {
+        return parseDate(new AsciiSequence(bytes), start, end, timeScale);
+    }
+
+    /** Parse date and time components from a range of characters.
+     * @param sequence character sequence containing the date
+     * @param start index of the first character of the date
+     * @param end index after the last character of the date
+     * @return parsed date and time components
+     * @exception IllegalArgumentException if location is not in a supported format
+     * @see DateTimeComponents#parseDateTime(String)
+     */
+    public static DateTimeComponents parseDateTime(final CharSequence sequence,
+                                                   final int start, final int end) {
+        final int tIndex = indexOf(sequence, start, end, 'T');
+        if (tIndex > start) {
+            return new DateTimeComponents(parseDateComponents(sequence, start, tIndex),
+                                          parseTimeComponents(sequence, tIndex + 1, end));
+        }
+        return new DateTimeComponents(parseDateComponents(sequence, start, end), TimeComponents.H00);
+    }
+
+    /** Parse date components from a range of characters.
+     * @param sequence character sequence containing the date
+     * @param start index of the first character of the date
+     * @param end index after the last character of the date
+     * @return parsed date components
+     * @exception IllegalArgumentException if location is not in a supported format
+     * @see DateComponents#parseDate(String)
+     */
+    public static DateComponents parseDateComponents(final CharSequence sequence,
+                                                     final int start, final int end) {
+
+        // year, with optional sign
+        int i = start;
+        final boolean negative = i < end && sequence.charAt(i) == '-';
+        if (negative) {
+            ++i;
+        }
+        final int year = digits(sequence, i, end, 4);
+        if (year >= 0) {
+            i += 4;
+            if (i < end && sequence.charAt(i) == '-') {
+                ++i;
+            }
+            final int signedYear = negative ? -year : year;
+
+            if (i < end && sequence.charAt(i) == 'W') {
+                // week date
+                final int week = digits(sequence, i + 1, end, 2);
+                int j = i + 3;
+                if (j < end && sequence.charAt(j) == '-') {
+                    ++j;
+                }
+                final int dayOfWeek = digits(sequence, j, end, 1);
+                if (week >= 0 && dayOfWeek >= 0 && j + 1 == end) {
+                    return DateComponents.createFromWeekComponents(signedYear, week, dayOfWeek);
+                }
+            } else if (end - i == 3) {
+                // ordinal date
+                final int dayOfYear = digits(sequence, i, end, 3);
+                if (dayOfYear >= 0) {
+                    return new DateComponents(signedYear, dayOfYear);
+                }
+            } else {
+                // calendar date
+                final int month = digits(sequence, i, end, 2);
+                int j = i + 2;
+                if (j < end && sequence.charAt(j) == '-') {
+                    ++j;
+                }
+                final int day = digits(sequence, j, end, 2);
+                if (month >= 0 && day >= 0 && j + 2 == end) {
+                    return new DateComponents(signedYear, month, day);
+                }
+            }
+        }
+
+        throw new OrekitIllegalArgumentException(OrekitMessages.NON_EXISTENT_DATE,
+                                                 sequence.subSequence(start, end).toString());
+
+    }
+
+    /** Parse time components from a range of characters.
+     * @param sequence character sequence containing the time
+     * @param start index of the first character of the time
+     * @param end index after the last character of the time
+     * @return parsed time components
+     * @exception IllegalArgumentException if location is not in a supported format
+     * @see TimeComponents#parseTime(String)
+     */
+    public static TimeComponents parseTimeComponents(final CharSequence sequence,
+                                                     final int start, final int end) {
+
+        // hours and minutes
+        int i = start;
+        final int hour = digits(sequence, i, end, 2);
+        i += 2;
+        if (i < end && sequence.charAt(i) == ':') {
+            ++i;
+        }
+        final int minute = digits(sequence, i, end, 2);
+        i += 2;
+        if (i < end && sequence.charAt(i) == ':') {
+            ++i;
+        }
+
+        // seconds, with optional fractional part
+        final int wholeSeconds = digits(sequence, i, end, 2);
+        final int secondsStart = i;
+        i += 2;
+        int fractionDigits = 0;
+        if (i < end && (sequence.charAt(i) == '.' || sequence.charAt(i) == ',')) {
+            ++i;
+            while (i < end && isDigit(sequence.charAt(i))) {
+                ++i;
+                ++fractionDigits;
+            }
+            if (fractionDigits == 0) {
+                // a separator must be followed by at least one digit
+                i = -1;
+            }
+        }
+        final int secondsEnd = i;
+
+        // optional UTC designator or null offset
+        if (i >= 0 && i < end) {
+            final char c = sequence.charAt(i);
+            if (c == 'Z') {
+                ++i;
+            } else if ((c == '+' || c == '-') && digits(sequence, i + 1, end, 2) == 0) {
+                i += 3;
+                if (i < end && sequence.charAt(i) == ':' && digits(sequence, i + 1, end, 2) == 0) {
+                    i += 3;
+                }
+            }
+        }
+
+        if (hour >= 0 && minute >= 0 && wholeSeconds >= 0 && i == end) {
+            final double second;
+            if (fractionDigits == 0) {
+                second = wholeSeconds;
+            } else if (fractionDigits + 2 <= MAX_DIGITS) {
+                // both the mantissa and the power of ten are exact doubles,
+                // so the correctly rounded division gives the same result as Double.parseDouble
+                long mantissa = wholeSeconds;
+                for (int k = secondsEnd - fractionDigits; k < secondsEnd; ++k) {
+                    mantissa = mantissa * 10 + sequence.charAt(k) - '0';
+                }
+                second = mantissa / POWERS_OF_TEN[fractionDigits];
+            } else {
+                second = Double.parseDouble(sequence.subSequence(secondsStart, secondsEnd).toString().replace(',', '.'));
+            }
+            return new TimeComponents(hour, minute, second);
+        }
+
+        throw new OrekitIllegalArgumentException(OrekitMessages.NON_EXISTENT_TIME,
+                                                 sequence.subSequence(start, end).toString());
+
+    }
+
+    /** Parse an integer from a range of characters.
+     * <p>
+     * Leading and trailing blanks are ignored, so this method can be used
+     * directly on fixed columns fields.
+     * </p>
+     * @param sequence character sequence containing the integer
+     * @param start index of the first character of the field
+     * @param end index after the last character of the field
+     * @return parsed integer
+     * @exception NumberFormatException if the field does not contain an integer
+     */
+    public static int parseInt(final CharSequence sequence, final int start, final int end) {
+
+        final int s = skipLeadingBlanks(sequence, start, end);
+        final int e = skipTrailingBlanks(sequence, s, end);
+
+        int i = s;
+        final boolean negative = i < e && sequence.charAt(i) == '-';
+        if (negative || (i < e && sequence.charAt(i) == '+')) {
+            ++i;
+        }
+        if (i == e || e - i > 9) {
+            // empty field or possible overflow, let the standard parser handle it
+            return Integer.parseInt(sequence.subSequence(s, e).toString());
+        }
+
+        int value = 0;
+        for (; i < e; ++i) {
+            final char c = sequence.charAt(i);
+            if (!isDigit(c)) {
+                throw new NumberFormatException(sequence.subSequence(s, e).toString());
+            }
+            value = value * 10 + c - '0';
+        }
+        return negative ? -value : value;
+
+    }
+
+    /** Parse a real number from a range of characters.
+     * <p>
+     * Leading and trailing blanks are ignored, so this method can be used
+     * directly on fixed columns fields. The result is always identical to
+     * the result of {@link Double#parseDouble(String)}. Simple decimal
+     * numbers are parsed without allocating any object, other formats
+     * (exponents, very long mantissas) are delegated to the standard parser.
+     * </p>
+     * @param sequence character sequence containing the number
+     * @param start index of the first character of the field
+     * @param end index after the last character of the field
+     * @return parsed number
+     * @exception NumberFormatException if the field does not contain a number
+     */
+    public static double parseDouble(final CharSequence sequence, final int start, final int end) {
+
+        final int s = skipLeadingBlanks(sequence, start, end);
+        final int e = skipTrailingBlanks(sequence, s, end);
+
+        int i = s;
+        final boolean negative = i < e && sequence.charAt(i) == '-';
+        if (negative || (i < e && sequence.charAt(i) == '+')) {
+            ++i;
+        }
+
+        long mantissa       = 0;
+        int  digits         = 0;
+        int  fractionDigits = -1;
+        for (; i < e; ++i) {
+            final char c = sequence.charAt(i);
+            if (isDigit(c)) {
+                mantissa = mantissa * 10 + c - '0';
+                ++digits;
+                if (fractionDigits >= 0) {
+                    ++fractionDigits;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                break;
+            }
+        }
+
+        if (i < e || digits == 0 || digits > MAX_DIGITS) {
+            // not a simple decimal number, let the standard parser handle it
+            return Double.parseDouble(sequence.subSequence(s, e).toString());
+        }
+
+        final double value = (fractionDigits <= 0) ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+
+    }
+
+    /** Find the first occurrence of a character in a range.
+     * @param sequence character sequence to search
+     * @param start index of the first character of the range
+     * @param end index after the last character of the range
+     * @param c character to search
+     * @return index of the first occurrence of c, or -1 if not found
+     */
+    private static int indexOf(final CharSequence sequence, final int start, final int end, final char c) {
+        for (int i = start; i < end; ++i) {
+            if (sequence.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Parse a fixed number of digits.
+     * @param sequence character sequence containing the digits
+     * @param start index of the first digit
+     * @param end index after the last character of the range
+     * @param n number of digits to parse
+     * @return parsed value, or -1 if the characters are not all digits
+     */
+    private static int digits(final CharSequence sequence, final int start, final int end, final int n) {
+        if (start + n > end) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < start + n; ++i) {
+            final char c = sequence.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + c - '0';
+        }
+        return value;
+    }
+
+    /** Check if a character is an ASCII digit.
+     * @param c character to check
+     * @return true if c is an ASCII digit
+     */
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /** Skip leading blanks.
+     * @param sequence character sequence
+     * @param start index of the first character of the range
+     * @param end index after the last character of the range
+     * @return index of the first non-blank character (or end)
+     */
+    private static int skipLeadingBlanks(final CharSequence sequence, final int start, final int end) {
+        int i = start;
+        while (i < end && sequence.charAt(i) == ' ') {
+            ++i;
+        }
+        return i;
+    }
+
+    /** Skip trailing blanks.
+     * @param sequence character sequence
+     * @param start index of the first character of the range
+     * @param end index after the last character of the range
+     * @return index after the last non-blank character (or start)
+     */
+    private static int skipTrailingBlanks(final CharSequence sequence, final int start, final int end) {
+        int i = end;
+        while (i > start && sequence.charAt(i - 1) == ' ') {
+            --i;
+        }
+        return i;
+    }
+
+    /** Character sequence view of an ASCII bytes array. */
+    private static class AsciiSequence implements CharSequence {
+
+        /** Underlying bytes. */
+        private final byte[] bytes;
+
+        /** Simple constructor.
+         * @param bytes underlying bytes
+         */
+        AsciiSequence(final byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        /** {@inheritDoc} */
+        public int length() {
+            return bytes.length;
+        }
+
+        /** {@inheritDoc} */
+        public char charAt(final int index) {
+            return (char) (bytes[index] & 0xff);
+        }
+
+        /** {@inheritDoc} */
+        public CharSequence subSequence(final int start, final int end) {
+            return new String(bytes, start, end - start, US_ASCII);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String toString() {
+            return subSequence(0, bytes.length).toString();
+        }
+
+    }
+
+}
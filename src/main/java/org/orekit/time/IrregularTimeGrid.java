@@ -0,0 +1,153 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.time;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.apache.commons.math3.exception.NoDataException;
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+
+/** Time grid with arbitrary sorted dates.
+ * <p>
+ * Dates are stored as whole seconds and fractional seconds offsets with
+ * respect to the first date, in primitive arrays, so they keep the full
+ * {@link AbsoluteDate} accuracy even for long time spans. Locating a date
+ * is done by binary search, with a first guess assuming roughly evenly
+ * spaced dates, so nearly regular grids are searched in constant time.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class IrregularTimeGrid implements TimeGrid, Serializable {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20160405L;
+
+    /** First date of the grid. */
+    private final AbsoluteDate start;
+
+    /** Whole seconds part of the offsets with respect to start. */
+    private final long[] seconds;
+
+    /** Fractional seconds part of the offsets with respect to start. */
+    private final double[] fractions;
+
+    /** Build a grid from time-stamped elements.
+     * @param sample time-stamped elements, sorted in chronological order
+     * @exception OrekitIllegalArgumentException if elements are not sorted
+     */
+    public IrregularTimeGrid(final List<? extends TimeStamped> sample)
+        throws OrekitIllegalArgumentException {
+
+        if (sample.isEmpty()) {
+            throw new NoDataException();
+        }
+
+        this.start     = sample.get(0).getDate();
+        this.seconds   = new long[sample.size()];
+        this.fractions = new double[sample.size()];
+
+        AbsoluteDate previous = start;
+        for (int i = 0; i < sample.size(); ++i) {
+            final AbsoluteDate date = sample.get(i).getDate();
+            if (date.compareTo(previous) < 0) {
+                throw new OrekitIllegalArgumentException(OrekitMessages.NON_CHRONOLOGICALLY_SORTED_ENTRIES,
+                                                         previous, date);
+            }
+            seconds[i]   = (long) FastMath.floor(date.durationFrom(start));
+            fractions[i] = date.durationFrom(start.shiftedBy(seconds[i]));
+            previous     = date;
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    public int size() {
+        return seconds.length;
+    }
+
+    /** {@inheritDoc} */
+    public AbsoluteDate getStart() {
+        return start;
+    }
+
+    /** {@inheritDoc} */
+    public AbsoluteDate getEnd() {
+        return getDate(seconds.length - 1);
+    }
+
+    /** {@inheritDoc} */
+    public double getOffset(final int index) {
+        return seconds[index] + fractions[index];
+    }
+
+    /** {@inheritDoc} */
+    public AbsoluteDate getDate(final int index) {
+        return start.shiftedBy(seconds[index]).shiftedBy(fractions[index]);
+    }
+
+    /** {@inheritDoc} */
+    public int floorIndex(final AbsoluteDate date) {
+
+        // split date offset the same way grid dates are split
+        final double dt = date.durationFrom(start);
+        if (dt < 0) {
+            return -1;
+        }
+        final long   s = (long) FastMath.floor(dt);
+        final double f = date.durationFrom(start.shiftedBy(s));
+
+        final int last = seconds.length - 1;
+        if (compare(last, s, f) <= 0) {
+            return last;
+        }
+
+        // first guess assuming evenly spaced dates
+        final int guess = (int) FastMath.min(last - 1, FastMath.floor(last * dt / getOffset(last)));
+        if (compare(guess, s, f) <= 0 && compare(guess + 1, s, f) > 0) {
+            return guess;
+        }
+
+        // binary search for the last index such that grid date <= date
+        int low  = 0;
+        int high = last;
+        while (high - low > 1) {
+            final int mid = (low + high) >>> 1;
+            if (compare(mid, s, f) <= 0) {
+                low  = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+
+    }
+
+    /** Compare one grid date with a split offset.
+     * @param index index of the grid date
+     * @param s whole seconds part of the offset
+     * @param f fractional seconds part of the offset
+     * @return negative, zero or positive if grid date is before, at or after offset
+     */
+    private int compare(final int index, final long s, final double f) {
+        return Double.compare((seconds[index] - s) + (fractions[index] - f), 0.0);
+    }
+
+}
@@ -20,8 +20,6 @@ import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.math3.util.FastMath;
 import org.orekit.errors.OrekitIllegalArgumentException;
@@ -53,9 +51,6 @@ public class TimeComponents implements Serializable, Comparable<TimeComponents>
     private static final DecimalFormat SECONDS_FORMAT =
         new DecimalFormat("00.000", new DecimalFormatSymbols(Locale.US));
 
-    /** Basic and extends formats for local time, UTC time (only 0 difference with UTC is supported). */
-    private static Pattern ISO8601_FORMATS = Pattern.compile("^(\\d\\d):?(\\d\\d):?(\\d\\d(?:[.,]\\d+)?)?(?:Z|[-+]00(?::00)?)?$");
-
     /** Hour number. */
     private final int hour;
 
@@ -159,19 +154,10 @@ public class TimeComponents implements Serializable, Comparable<TimeComponents>
      * @param string string to parse
      * @return a parsed time
      * @exception IllegalArgumentException if string cannot be parsed
+     * @see DateTimeParser#parseTimeComponents(CharSequence, int, int)
      */
     public static  TimeComponents parseTime(final String string) {
-
-        // is the date a calendar date ?
-        final Matcher timeMatcher = ISO8601_FORMATS.matcher(string);
-        if (timeMatcher.matches()) {
-            return new TimeComponents(Integer.parseInt(timeMatcher.group(1)),
-                                      Integer.parseInt(timeMatcher.group(2)),
-                                      Double.parseDouble(timeMatcher.group(3).replace(',', '.')));
-        }
-
-        throw new OrekitIllegalArgumentException(OrekitMessages.NON_EXISTENT_TIME, string);
-
+        return DateTimeParser.parseTimeComponents(string, 0, string.length());
     }
 
     /** Get the hour number.
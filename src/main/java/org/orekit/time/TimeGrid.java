@@ -0,0 +1,74 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.time;
+
+/** Interface for compact sorted sequences of dates.
+ * <p>
+ * Time grids store dates as primitive offsets with respect to their first
+ * date, so large samples (for example one date per second over years) do
+ * not require one {@link AbsoluteDate} instance per date. Dates can be
+ * iterated over using {@link #getOffset(int)} without materializing them,
+ * and are only built on demand by {@link #getDate(int)}.
+ * </p>
+ * <p>
+ * Implementations are immutable and thread-safe.
+ * </p>
+ * @see UniformTimeGrid
+ * @see IrregularTimeGrid
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public interface TimeGrid {
+
+    /** Get the number of dates in the grid.
+     * @return number of dates in the grid
+     */
+    int size();
+
+    /** Get the first date of the grid.
+     * @return first date of the grid
+     */
+    AbsoluteDate getStart();
+
+    /** Get the last date of the grid.
+     * @return last date of the grid
+     */
+    AbsoluteDate getEnd();
+
+    /** Get the offset of one date with respect to the first date of the grid.
+     * @param index index of the date, between 0 and {@link #size()} - 1
+     * @return offset of the date with respect to {@link #getStart()} (s)
+     */
+    double getOffset(int index);
+
+    /** Get one date of the grid.
+     * <p>
+     * This method creates a new {@link AbsoluteDate} at each call.
+     * </p>
+     * @param index index of the date, between 0 and {@link #size()} - 1
+     * @return date at specified index
+     */
+    AbsoluteDate getDate(int index);
+
+    /** Find the index of the last grid date before or at a specified date.
+     * @param date date to locate
+     * @return index of the last grid date before or at date, -1 if date
+     * is before the first grid date
+     */
+    int floorIndex(AbsoluteDate date);
+
+}
@@ -18,14 +18,12 @@ package org.orekit.time;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitInternalError;
-import org.orekit.errors.TimeStampedCacheException;
 import org.orekit.utils.Constants;
-import org.orekit.utils.ImmutableTimeStampedCache;
-import org.orekit.utils.TimeStampedCache;
 
 /** Coordinated Universal Time.
  * <p>UTC is related to TAI using step adjustments from time to time
@@ -49,19 +47,36 @@ public class UTCScale implements TimeScale {
     /** Serializable UID. */
     private static final long serialVersionUID = 20150402L;
 
-    /** Time steps. */
-    private transient TimeStampedCache<UTCTAIOffset> cache;
+    /** UTC-TAI offsets models, sorted in chronological order. */
+    private transient List<OffsetModel> models;
+
+    /** UTC-TAI offsets, sorted in chronological order. */
+    private transient UTCTAIOffset[] offsets;
+
+    /** Leaps dates in seconds since J2000 in TAI, used for fast index search. */
+    private transient double[] leapsTAI;
+
+    /** Leaps dates in Modified Julian Days, used for fast index search. */
+    private transient int[] leapsMJD;
+
+    /** Index of the last offset found.
+     * <p>
+     * This is only a hint that is always checked before being used, so
+     * unsynchronized accesses from several threads are harmless.
+     * </p>
+     */
+    private transient int lastIndex;
 
     /** Package private constructor for the factory.
      * Used to create the prototype instance of this class that is used to
      * clone all subsequent instances of {@link UTCScale}. Initializes the offset
      * table that is shared among all instances.
      * @param offsets UTC-TAI offsets
-     * @exception OrekitException if cache cannot be set up
+     * @exception OrekitException if offsets cannot be set up
      */
     UTCScale(final List<OffsetModel> offsets) throws OrekitException {
 
-        // create cache
+        // create offsets
         final List<UTCTAIOffset> data = new ArrayList<UTCTAIOffset>(offsets.size());
 
         if (offsets.get(0).getStart().getYear() > 1968) {
@@ -123,57 +138,41 @@ public class UTCScale implements TimeScale {
 
         }
 
-        cache = new ImmutableTimeStampedCache<UTCTAIOffset>(2, data);
+        this.models    = Collections.unmodifiableList(new ArrayList<OffsetModel>(offsets));
+        this.offsets   = data.toArray(new UTCTAIOffset[data.size()]);
+        this.leapsTAI  = new double[data.size()];
+        this.leapsMJD  = new int[data.size()];
+        for (int i = 0; i < data.size(); ++i) {
+            leapsTAI[i] = data.get(i).getDate().durationFrom(AbsoluteDate.J2000_EPOCH);
+            leapsMJD[i] = data.get(i).getMJD();
+        }
+        this.lastIndex = 0;
 
     }
 
+    /** Get the UTC-TAI offsets models this scale was built from.
+     * <p>
+     * The models include the pre-1972 linear offsets, even if they
+     * were not present in the loaded data.
+     * </p>
+     * @return unmodifiable list of offsets models, sorted in chronological order
+     * @since 8.0
+     */
+    public List<OffsetModel> getOffsetModels() {
+        return models;
+    }
+
     /** {@inheritDoc} */
     public double offsetFromTAI(final AbsoluteDate date) {
-        if (cache.getEarliest().getDate().compareTo(date) > 0) {
-            // the date is before the first known leap
-            return 0;
-        } else if (cache.getLatest().getDate().compareTo(date) < 0) {
-            // the date is after the last known leap
-            return -cache.getLatest().getOffset(date);
-        } else {
-            // the date is nominally bracketed by two leaps
-            try {
-                return -cache.getNeighbors(date).get(0).getOffset(date);
-            } catch (TimeStampedCacheException tce) {
-                // this should never happen as boundaries have been handled in the previous statements
-                throw new OrekitInternalError(tce);
-            }
-        }
+        final int i = findIndex(date);
+        return (i < 0) ? 0 : -offsets[i].getOffset(date);
     }
 
     /** {@inheritDoc} */
     public double offsetToTAI(final DateComponents date,
                               final TimeComponents time) {
-
-        if (cache.getEarliest().getMJD() > date.getMJD()) {
-            // the date is before the first known leap
-            return 0;
-        } else if (cache.getLatest().getMJD() <= date.getMJD()) {
-            // the date is after the last known leap
-            return cache.getLatest().getOffset(date, time);
-        } else {
-            // the date is nominally bracketed by two leaps
-            try {
-                // find close neighbors, assuming date in TAI, i.e a date earlier than real UTC date
-                final List<UTCTAIOffset> neighbors =
-                        cache.getNeighbors(new AbsoluteDate(date, time, TimeScalesFactory.getTAI()));
-                if (neighbors.get(1).getMJD() <= date.getMJD()) {
-                    // the date is in fact just after a leap second!
-                    return neighbors.get(1).getOffset(date, time);
-                } else {
-                    return neighbors.get(0).getOffset(date, time);
-                }
-            } catch (TimeStampedCacheException tce) {
-                // this should never happen as boundaries have been handled in the previous statements
-                throw new OrekitInternalError(tce);
-            }
-        }
-
+        final int i = findIndex(date.getMJD());
+        return (i < 0) ? 0 : offsets[i].getOffset(date, time);
     }
 
     /** {@inheritDoc} */
@@ -190,14 +189,14 @@ public class UTCScale implements TimeScale {
      * @return date of the first known leap second
      */
     public AbsoluteDate getFirstKnownLeapSecond() {
-        return cache.getEarliest().getDate();
+        return offsets[0].getDate();
     }
 
     /** Get the date of the last known leap second.
      * @return date of the last known leap second
      */
     public AbsoluteDate getLastKnownLeapSecond() {
-        return cache.getLatest().getDate();
+        return offsets[offsets.length - 1].getDate();
     }
 
     /** Check if date is within a leap second introduction.
@@ -205,21 +204,8 @@ public class UTCScale implements TimeScale {
      * @return true if time is within a leap second introduction
      */
     public boolean insideLeap(final AbsoluteDate date) {
-        if (cache.getEarliest().getDate().compareTo(date) > 0) {
-            // the date is before the first known leap
-            return false;
-        } else if (cache.getLatest().getDate().compareTo(date) < 0) {
-            // the date is after the last known leap
-            return date.compareTo(cache.getLatest().getValidityStart()) < 0;
-        } else {
-            // the date is nominally bracketed by two leaps
-            try {
-                return date.compareTo(cache.getNeighbors(date).get(0).getValidityStart()) < 0;
-            } catch (TimeStampedCacheException tce) {
-                // this should never happen as boundaries have been handled in the previous statements
-                throw new OrekitInternalError(tce);
-            }
-        }
+        final int i = findIndex(date);
+        return (i >= 0) && date.compareTo(offsets[i].getValidityStart()) < 0;
     }
 
     /** Get the value of the previous leap.
@@ -227,20 +213,108 @@ public class UTCScale implements TimeScale {
      * @return value of the previous leap
      */
     public double getLeap(final AbsoluteDate date) {
-        if (cache.getEarliest().getDate().compareTo(date) > 0) {
-            return 0;
-        } else if (cache.getLatest().getDate().compareTo(date) < 0) {
-            // the date is after the last known leap
-            return cache.getLatest().getLeap();
-        } else {
-            // the date is nominally bracketed by two leaps
-            try {
-                return cache.getNeighbors(date).get(0).getLeap();
-            } catch (TimeStampedCacheException tce) {
-                // this should never happen as boundaries have been handled in the previous statements
-                throw new OrekitInternalError(tce);
+        final int i = findIndex(date);
+        return (i < 0) ? 0 : offsets[i].getLeap();
+    }
+
+    /** Find the index of the offset valid at a date.
+     * <p>
+     * The search is done in constant time for dates after the last
+     * known leap and for dates close to the previous search, and
+     * falls back to a binary search on primitive leaps dates otherwise.
+     * </p>
+     * @param date date to check
+     * @return index i such that offsets[i] starts at or before date and
+     * offsets[i+1] (if it exists) starts after date, or -1 if date is
+     * before the first known leap
+     */
+    private int findIndex(final AbsoluteDate date) {
+
+        final int last = offsets.length - 1;
+        if (date.compareTo(offsets[last].getDate()) >= 0) {
+            // fast path for dates after the last known leap
+            return last;
+        }
+
+        // check the previous search result
+        final int hint = lastIndex;
+        if (date.compareTo(offsets[hint].getDate()) >= 0 &&
+            date.compareTo(offsets[hint + 1].getDate()) < 0) {
+            return hint;
+        }
+
+        // binary search on primitive dates, which may be off by one
+        // very close to leaps as doubles are not as accurate as dates
+        int i = search(leapsTAI, date.durationFrom(AbsoluteDate.J2000_EPOCH));
+        if (i >= 0 && date.compareTo(offsets[i].getDate()) < 0) {
+            --i;
+        } else if (i < last && date.compareTo(offsets[i + 1].getDate()) >= 0) {
+            ++i;
+        }
+
+        if (i >= 0) {
+            lastIndex = i;
+        }
+        return i;
+
+    }
+
+    /** Find the index of the offset valid at a date.
+     * @param mjd date to check, as a Modified Julian Day in UTC
+     * @return index i such that offsets[i] starts at or before date and
+     * offsets[i+1] (if it exists) starts after date, or -1 if date is
+     * before the first known leap
+     */
+    private int findIndex(final int mjd) {
+
+        final int last = leapsMJD.length - 1;
+        if (mjd >= leapsMJD[last]) {
+            // fast path for dates after the last known leap
+            return last;
+        }
+
+        // check the previous search result
+        final int hint = lastIndex;
+        if (mjd >= leapsMJD[hint] && mjd < leapsMJD[hint + 1]) {
+            return hint;
+        }
+
+        int low  = 0;
+        int high = last;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (leapsMJD[mid] <= mjd) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        final int i = low - 1;
+
+        if (i >= 0) {
+            lastIndex = i;
+        }
+        return i;
+
+    }
+
+    /** Search the last element lower than or equal to a value in a sorted array.
+     * @param sorted sorted array
+     * @param t value to search
+     * @return index of the last element lower than or equal to t, -1 if all elements are greater
+     */
+    private static int search(final double[] sorted, final double t) {
+        int low  = 0;
+        int high = sorted.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sorted[mid] <= t) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
         }
+        return low - 1;
     }
 
     /** Replace the instance with a data transfer object for serialization.
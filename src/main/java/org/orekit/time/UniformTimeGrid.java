@@ -0,0 +1,127 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.time;
+
+import java.io.Serializable;
+
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.util.FastMath;
+
+/** Time grid with constant step.
+ * <p>
+ * Date i of the grid is {@code start.shiftedBy(i * step)}. Mapping
+ * between indices and dates is done in constant time.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class UniformTimeGrid implements TimeGrid, Serializable {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20160405L;
+
+    /** First date of the grid. */
+    private final AbsoluteDate start;
+
+    /** Grid step. */
+    private final double step;
+
+    /** Number of dates. */
+    private final int size;
+
+    /** Simple constructor.
+     * @param start first date of the grid
+     * @param step grid step (s), must be strictly positive
+     * @param size number of dates in the grid, must be strictly positive
+     */
+    public UniformTimeGrid(final AbsoluteDate start, final double step, final int size) {
+        if (!(step > 0)) {
+            throw new NotStrictlyPositiveException(step);
+        }
+        if (size <= 0) {
+            throw new NotStrictlyPositiveException(size);
+        }
+        this.start = start;
+        this.step  = step;
+        this.size  = size;
+    }
+
+    /** Build a grid covering a time range.
+     * <p>
+     * The grid starts exactly at start date and its last date is
+     * the last grid date before or at end date.
+     * </p>
+     * @param start first date of the grid
+     * @param end end of the time range
+     * @param step grid step (s), must be strictly positive
+     * @return time grid covering the range
+     */
+    public static UniformTimeGrid covering(final AbsoluteDate start, final AbsoluteDate end, final double step) {
+        final double span = end.durationFrom(start);
+        return new UniformTimeGrid(start, step, 1 + (int) FastMath.max(0, FastMath.floor(span / step)));
+    }
+
+    /** Get the grid step.
+     * @return grid step (s)
+     */
+    public double getStep() {
+        return step;
+    }
+
+    /** {@inheritDoc} */
+    public int size() {
+        return size;
+    }
+
+    /** {@inheritDoc} */
+    public AbsoluteDate getStart() {
+        return start;
+    }
+
+    /** {@inheritDoc} */
+    public AbsoluteDate getEnd() {
+        return getDate(size - 1);
+    }
+
+    /** {@inheritDoc} */
+    public double getOffset(final int index) {
+        return index * step;
+    }
+
+    /** {@inheritDoc} */
+    public AbsoluteDate getDate(final int index) {
+        return start.shiftedBy(index * step);
+    }
+
+    /** {@inheritDoc} */
+    public int floorIndex(final AbsoluteDate date) {
+        final double dt = date.durationFrom(start);
+        if (dt < 0) {
+            return -1;
+        }
+        int index = (int) FastMath.min(size - 1, FastMath.floor(dt / step));
+        // fix possible rounding effects in the division
+        while (index > 0 && index * step > dt) {
+            --index;
+        }
+        while (index < size - 1 && (index + 1) * step <= dt) {
+            ++index;
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,45 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+/** Interface for exporters notified when caches are registered or unregistered.
+ * <p>
+ * Exporters are called while the {@link CacheMetricsRegistry registry} is locked,
+ * so they should return quickly and must not call back the registry.
+ * </p>
+ * @see CacheMetricsRegistry#addExporter(CacheMetricsExporter)
+ * @see JMXCacheMetricsExporter
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public interface CacheMetricsExporter {
+
+    /** Notify that a cache has been registered.
+     * @param name name under which the cache is registered
+     * @param cache registered cache
+     */
+    void cacheRegistered(String name, MonitoredCache cache);
+
+    /** Notify that a cache has been unregistered.
+     * <p>
+     * This method is also called when a cache has been garbage collected.
+     * </p>
+     * @param name name under which the cache was registered
+     */
+    void cacheUnregistered(String name);
+
+}
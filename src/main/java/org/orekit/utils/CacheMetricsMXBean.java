@@ -0,0 +1,91 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+/** Management interface for monitored caches.
+ * @see JMXCacheMetricsExporter
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public interface CacheMetricsMXBean {
+
+    /** Get the number of calls to the cache.
+     * @return number of calls to the cache
+     */
+    int getCalls();
+
+    /** Get the number of calls served from already cached data.
+     * @return number of calls served from already cached data
+     */
+    int getHits();
+
+    /** Get the number of calls that needed to generate new data.
+     * @return number of calls that needed to generate new data
+     */
+    int getMisses();
+
+    /** Get the ratio of calls served from already cached data.
+     * @return ratio of calls served from already cached data
+     */
+    double getHitRatio();
+
+    /** Get the number of calls to the generator.
+     * @return number of calls to the generator
+     */
+    int getGenerateCalls();
+
+    /** Get the number of slots evictions.
+     * @return number of slots evictions
+     */
+    int getEvictions();
+
+    /** Get the number of slots in use.
+     * @return number of slots in use
+     */
+    int getSlots();
+
+    /** Get the maximum number of slots.
+     * @return maximum number of slots
+     */
+    int getMaxSlots();
+
+    /** Get the number of cached entries.
+     * @return number of cached entries
+     */
+    int getEntries();
+
+    /** Get the mean generation latency.
+     * @return mean generation latency in nanoseconds
+     */
+    double getLatencyMean();
+
+    /** Get the estimated median generation latency.
+     * @return estimated median generation latency in nanoseconds
+     */
+    long getLatency50();
+
+    /** Get the estimated 90th percentile of generation latency.
+     * @return estimated 90th percentile of generation latency in nanoseconds
+     */
+    long getLatency90();
+
+    /** Get the estimated 99th percentile of generation latency.
+     * @return estimated 99th percentile of generation latency in nanoseconds
+     */
+    long getLatency99();
+
+}
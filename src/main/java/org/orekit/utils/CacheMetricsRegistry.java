@@ -0,0 +1,196 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Registry for monitoring the time-stamped caches.
+ * <p>
+ * The caches Orekit builds internally through {@link TimeStampedCacheType}
+ * are registered automatically, other caches can be registered explicitly.
+ * The registry holds only weak references to the caches, so registering
+ * a cache does not prevent it from being garbage collected. Collected
+ * caches are removed from the registry the next time it is accessed.
+ * </p>
+ * <p>
+ * Metrics can be retrieved on demand as {@link CacheMetricsSnapshot snapshots},
+ * or published by {@link CacheMetricsExporter exporters} like {@link
+ * JMXCacheMetricsExporter} or {@link PeriodicCacheMetricsReporter}.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @see MonitoredCache
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class CacheMetricsRegistry {
+
+    /** Registered caches. */
+    private static final Map<String, WeakReference<MonitoredCache>> CACHES =
+            new TreeMap<String, WeakReference<MonitoredCache>>();
+
+    /** Registered exporters. */
+    private static final List<CacheMetricsExporter> EXPORTERS =
+            new ArrayList<CacheMetricsExporter>();
+
+    /** Private constructor.
+     * <p>This class is a utility class, it should neither have a public
+     * nor a default constructor. This private constructor prevents
+     * the compiler from generating one automatically.</p>
+     */
+    private CacheMetricsRegistry() {
+    }
+
+    /** Register a cache.
+     * <p>
+     * If the name is already used by another cache, a numerical suffix
+     * is appended to make it unique.
+     * </p>
+     * @param name name of the cache
+     * @param cache cache to register
+     * @return name under which the cache has been registered
+     */
+    public static synchronized String register(final String name, final MonitoredCache cache) {
+
+        purge();
+
+        // make sure the name is unique
+        String unique = name;
+        for (int i = 2; CACHES.containsKey(unique); ++i) {
+            unique = name + "#" + i;
+        }
+
+        CACHES.put(unique, new WeakReference<MonitoredCache>(cache));
+        for (final CacheMetricsExporter exporter : EXPORTERS) {
+            exporter.cacheRegistered(unique, cache);
+        }
+
+        return unique;
+
+    }
+
+    /** Unregister a cache.
+     * @param name name under which the cache has been registered
+     * @return true if a cache was registered under this name
+     */
+    public static synchronized boolean unregister(final String name) {
+        purge();
+        if (CACHES.remove(name) == null) {
+            return false;
+        }
+        for (final CacheMetricsExporter exporter : EXPORTERS) {
+            exporter.cacheUnregistered(name);
+        }
+        return true;
+    }
+
+    /** Get the names of the registered caches.
+     * @return sorted names of the registered caches
+     */
+    public static synchronized List<String> getNames() {
+        purge();
+        return new ArrayList<String>(CACHES.keySet());
+    }
+
+    /** Get a snapshot of the metrics of one cache.
+     * @param name name under which the cache has been registered
+     * @return snapshot of the metrics of the cache, or null if no
+     * cache is registered under this name
+     */
+    public static synchronized CacheMetricsSnapshot getSnapshot(final String name) {
+        purge();
+        final WeakReference<MonitoredCache> reference = CACHES.get(name);
+        final MonitoredCache cache = (reference == null) ? null : reference.get();
+        return (cache == null) ? null : new CacheMetricsSnapshot(name, System.currentTimeMillis(), cache);
+    }
+
+    /** Get snapshots of the metrics of all registered caches.
+     * @return snapshots of the metrics of all registered caches, sorted by name
+     */
+    public static synchronized List<CacheMetricsSnapshot> getSnapshots() {
+        purge();
+        final long now = System.currentTimeMillis();
+        final List<CacheMetricsSnapshot> snapshots = new ArrayList<CacheMetricsSnapshot>(CACHES.size());
+        for (final Map.Entry<String, WeakReference<MonitoredCache>> entry : CACHES.entrySet()) {
+            final MonitoredCache cache = entry.getValue().get();
+            if (cache != null) {
+                snapshots.add(new CacheMetricsSnapshot(entry.getKey(), now, cache));
+            }
+        }
+        return snapshots;
+    }
+
+    /** Add an exporter.
+     * <p>
+     * The exporter is immediately notified of all already registered caches.
+     * </p>
+     * @param exporter exporter to add
+     */
+    public static synchronized void addExporter(final CacheMetricsExporter exporter) {
+        purge();
+        EXPORTERS.add(exporter);
+        for (final Map.Entry<String, WeakReference<MonitoredCache>> entry : CACHES.entrySet()) {
+            final MonitoredCache cache = entry.getValue().get();
+            if (cache != null) {
+                exporter.cacheRegistered(entry.getKey(), cache);
+            }
+        }
+    }
+
+    /** Remove an exporter.
+     * <p>
+     * The exporter is notified that all registered caches are unregistered.
+     * </p>
+     * @param exporter exporter to remove
+     * @return true if the exporter was registered
+     */
+    public static synchronized boolean removeExporter(final CacheMetricsExporter exporter) {
+        purge();
+        if (!EXPORTERS.remove(exporter)) {
+            return false;
+        }
+        for (final String name : CACHES.keySet()) {
+            exporter.cacheUnregistered(name);
+        }
+        return true;
+    }
+
+    /** Remove the caches that have been garbage collected.
+     * <p>
+     * We own the registry lock while calling this method.
+     * </p>
+     */
+    private static void purge() {
+        for (final Iterator<Map.Entry<String, WeakReference<MonitoredCache>>> iterator = CACHES.entrySet().iterator();
+             iterator.hasNext();) {
+            final Map.Entry<String, WeakReference<MonitoredCache>> entry = iterator.next();
+            if (entry.getValue().get() == null) {
+                iterator.remove();
+                for (final CacheMetricsExporter exporter : EXPORTERS) {
+                    exporter.cacheUnregistered(entry.getKey());
+                }
+            }
+        }
+    }
+
+}
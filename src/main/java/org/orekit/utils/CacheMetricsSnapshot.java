@@ -0,0 +1,228 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.io.Serializable;
+
+import org.apache.commons.math3.util.FastMath;
+
+/** Immutable snapshot of the metrics of one monitored cache.
+ * @see CacheMetricsRegistry
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class CacheMetricsSnapshot implements Serializable {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20160315L;
+
+    /** Name under which the cache is registered. */
+    private final String name;
+
+    /** Time at which the snapshot was taken (ms since epoch). */
+    private final long timestamp;
+
+    /** Number of calls to the cache. */
+    private final int calls;
+
+    /** Number of calls that needed to generate new data. */
+    private final int misses;
+
+    /** Number of calls to the generator. */
+    private final int generateCalls;
+
+    /** Number of slots evictions. */
+    private final int evictions;
+
+    /** Number of slots in use. */
+    private final int slots;
+
+    /** Maximum number of slots. */
+    private final int maxSlots;
+
+    /** Number of cached entries. */
+    private final int entries;
+
+    /** Sum of generation latencies (ns). */
+    private final long latencyTotal;
+
+    /** Counts in latency buckets. */
+    private final long[] latencyCounts;
+
+    /** Median generation latency (ns). */
+    private final long latency50;
+
+    /** 90th percentile of generation latency (ns). */
+    private final long latency90;
+
+    /** 99th percentile of generation latency (ns). */
+    private final long latency99;
+
+    /** Build a snapshot from a cache.
+     * @param name name under which the cache is registered
+     * @param timestamp time at which the snapshot is taken (ms since epoch)
+     * @param cache monitored cache
+     */
+    public CacheMetricsSnapshot(final String name, final long timestamp, final MonitoredCache cache) {
+        final LatencyHistogram histogram = cache.getGenerationLatency();
+        this.name          = name;
+        this.timestamp     = timestamp;
+        this.calls         = cache.getGetNeighborsCalls();
+        this.misses        = cache.getMisses();
+        this.generateCalls = cache.getGenerateCalls();
+        this.evictions     = cache.getSlotsEvictions();
+        this.slots         = cache.getSlots();
+        this.maxSlots      = cache.getMaxSlots();
+        this.entries       = cache.getEntries();
+        this.latencyTotal  = histogram.getTotal();
+        this.latencyCounts = histogram.getAllCounts();
+        this.latency50     = histogram.getPercentile(50.0);
+        this.latency90     = histogram.getPercentile(90.0);
+        this.latency99     = histogram.getPercentile(99.0);
+    }
+
+    /** Get the name under which the cache is registered.
+     * @return name under which the cache is registered
+     */
+    public String getName() {
+        return name;
+    }
+
+    /** Get the time at which the snapshot was taken.
+     * @return time at which the snapshot was taken (ms since epoch)
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /** Get the number of calls to the cache.
+     * @return number of calls to the cache
+     */
+    public int getCalls() {
+        return calls;
+    }
+
+    /** Get the number of calls served from already cached data.
+     * @return number of calls served from already cached data
+     */
+    public int getHits() {
+        return FastMath.max(0, calls - misses);
+    }
+
+    /** Get the number of calls that needed to generate new data.
+     * @return number of calls that needed to generate new data
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /** Get the ratio of calls served from already cached data.
+     * @return ratio of calls served from already cached data
+     * (0 if the cache has not been called yet)
+     */
+    public double getHitRatio() {
+        return (calls == 0) ? 0.0 : ((double) getHits()) / calls;
+    }
+
+    /** Get the number of calls to the generator.
+     * @return number of calls to the generator
+     */
+    public int getGenerateCalls() {
+        return generateCalls;
+    }
+
+    /** Get the number of slots evictions.
+     * @return number of slots evictions
+     */
+    public int getEvictions() {
+        return evictions;
+    }
+
+    /** Get the number of slots in use.
+     * @return number of slots in use
+     */
+    public int getSlots() {
+        return slots;
+    }
+
+    /** Get the maximum number of slots.
+     * @return maximum number of slots
+     */
+    public int getMaxSlots() {
+        return maxSlots;
+    }
+
+    /** Get the number of cached entries.
+     * @return number of cached entries
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /** Get the number of recorded generation latencies.
+     * @return number of recorded generation latencies
+     */
+    public long getLatencyCount() {
+        long count = 0;
+        for (final long c : latencyCounts) {
+            count += c;
+        }
+        return count;
+    }
+
+    /** Get the mean generation latency.
+     * @return mean generation latency in nanoseconds (0 if no latencies have been recorded)
+     */
+    public double getLatencyMean() {
+        final long count = getLatencyCount();
+        return (count == 0) ? 0.0 : ((double) latencyTotal) / count;
+    }
+
+    /** Get the estimated median generation latency.
+     * @return estimated median generation latency in nanoseconds
+     * @see LatencyHistogram#getPercentile(double)
+     */
+    public long getLatency50() {
+        return latency50;
+    }
+
+    /** Get the estimated 90th percentile of generation latency.
+     * @return estimated 90th percentile of generation latency in nanoseconds
+     * @see LatencyHistogram#getPercentile(double)
+     */
+    public long getLatency90() {
+        return latency90;
+    }
+
+    /** Get the estimated 99th percentile of generation latency.
+     * @return estimated 99th percentile of generation latency in nanoseconds
+     * @see LatencyHistogram#getPercentile(double)
+     */
+    public long getLatency99() {
+        return latency99;
+    }
+
+    /** Get the counts in the generation latency buckets.
+     * @return copy of the counts in the generation latency buckets
+     * @see LatencyHistogram#getLowerBound(int)
+     * @see LatencyHistogram#getUpperBound(int)
+     */
+    public long[] getLatencyCounts() {
+        return latencyCounts.clone();
+    }
+
+}
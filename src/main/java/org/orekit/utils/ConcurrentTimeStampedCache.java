@@ -0,0 +1,823 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.util.FastMath;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitIllegalStateException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.errors.TimeStampedCacheException;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeStamped;
+
+/** Thread-safe cache for {@link TimeStamped time-stamped} data with non-blocking reads.
+ * <p>
+ * This cache has the same behavior as {@link GenericTimeStampedCache} but a
+ * different concurrency model. Slots are immutable and the list of slots is
+ * an immutable snapshot published atomically. A call to {@link
+ * #getNeighbors(AbsoluteDate)} that can be served by the current snapshot
+ * therefore never acquires any lock. Only calls that need to generate new
+ * data (creating a new slot or extending an existing one) are serialized,
+ * they build a new snapshot and publish it, without preventing other threads
+ * to keep reading the previous one.
+ * </p>
+ * <p>
+ * As in {@link GenericTimeStampedCache}, the slot evicted when the maximum number
+ * of slots is reached is the least recently accessed one. Accesses are stamped
+ * with the value of a global counter incremented at each slot creation or extension,
+ * so reads only perform a volatile write when the slot was not already accessed
+ * since the last update.
+ * </p>
+ * <p>
+ * This implementation is intended for heavily multi-threaded applications where
+ * most calls hit already cached data. It can be selected for the caches built
+ * by Orekit itself using {@link OrekitConfiguration#setCacheType(TimeStampedCacheType)}.
+ * </p>
+ * @param <T> Type of the cached data.
+ * @see GenericTimeStampedCache
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class ConcurrentTimeStampedCache<T extends TimeStamped> implements TimeStampedCache<T>, MonitoredCache {
+
+    /** Quantum step. */
+    private static final double QUANTUM_STEP = 1.0e-6;
+
+    /** Number of stripes for the calls counter (must be a power of 2). */
+    private static final int STRIPES = 16;
+
+    /** Distance between stripes in the counter array, to avoid false sharing. */
+    private static final int PADDING = 8;
+
+    /** Reference date for indexing. */
+    private final AtomicReference<AbsoluteDate> reference;
+
+    /** Maximum number of independent cached time slots. */
+    private final int maxSlots;
+
+    /** Maximum duration span in seconds of one slot. */
+    private final double maxSpan;
+
+    /** Quantum gap above which a new slot is created instead of extending an existing one. */
+    private final long newSlotQuantumGap;
+
+    /** Class of the cached entries. */
+    private final Class<T> entriesClass;
+
+    /** Generator to use for yet non-cached data. */
+    private final TimeStampedGenerator<T> generator;
+
+    /** Number of entries in a neighbors array. */
+    private final int neighborsSize;
+
+    /** Current snapshot of independent time slots, sorted chronologically. */
+    private final AtomicReference<List<Slot>> slots;
+
+    /** Striped counter for the calls to the getNeighbors method. */
+    private final AtomicLongArray getNeighborsCalls;
+
+    /** Lock for threads that need to generate data. */
+    private final ReentrantLock updateLock;
+
+    /** Number of calls to the generate method (updated only under lock). */
+    private volatile int generateCalls;
+
+    /** Number of evictions (updated only under lock). */
+    private volatile int evictions;
+
+    /** Number of calls that needed to generate new data (updated only under lock). */
+    private volatile int misses;
+
+    /** Histogram of generator latencies. */
+    private final LatencyHistogram generationLatency;
+
+    /** Counter for slots creation and extension (updated only under lock). */
+    private volatile long updates;
+
+    /** Simple constructor.
+     * @param neighborsSize fixed size of the arrays to be returned by {@link
+     * #getNeighbors(AbsoluteDate)}, must be at least 2
+     * @param maxSlots maximum number of independent cached time slots
+     * @param maxSpan maximum duration span in seconds of one slot
+     * (can be set to {@code Double.POSITIVE_INFINITY} if desired)
+     * @param newSlotInterval time interval above which a new slot is created
+     * instead of extending an existing one
+     * @param generator generator to use for yet non-existent data
+     * @param entriesClass class of the cached entries
+     */
+    public ConcurrentTimeStampedCache(final int neighborsSize, final int maxSlots, final double maxSpan,
+                                      final double newSlotInterval, final TimeStampedGenerator<T> generator,
+                                      final Class<T> entriesClass) {
+
+        // safety check
+        if (maxSlots < 1) {
+            throw new OrekitIllegalArgumentException(LocalizedFormats.NUMBER_TOO_SMALL, maxSlots, 1);
+        }
+        if (neighborsSize < 2) {
+            throw new OrekitIllegalArgumentException(OrekitMessages.NOT_ENOUGH_CACHED_NEIGHBORS,
+                                                     neighborsSize, 2);
+        }
+
+        this.reference         = new AtomicReference<AbsoluteDate>();
+        this.maxSlots          = maxSlots;
+        this.maxSpan           = maxSpan;
+        this.newSlotQuantumGap = FastMath.round(newSlotInterval / QUANTUM_STEP);
+        this.entriesClass      = entriesClass;
+        this.generator         = generator;
+        this.neighborsSize     = neighborsSize;
+        this.slots             = new AtomicReference<List<Slot>>(Collections.<Slot>emptyList());
+        this.getNeighborsCalls = new AtomicLongArray(STRIPES * PADDING);
+        this.updateLock        = new ReentrantLock();
+        this.generateCalls     = 0;
+        this.evictions         = 0;
+        this.misses            = 0;
+        this.generationLatency = new LatencyHistogram();
+        this.updates           = 0;
+
+    }
+
+    /** Get the generator.
+     * @return generator
+     */
+    public TimeStampedGenerator<T> getGenerator() {
+        return generator;
+    }
+
+    /** Get the maximum number of independent cached time slots.
+     * @return maximum number of independent cached time slots
+     */
+    public int getMaxSlots() {
+        return maxSlots;
+    }
+
+    /** Get the maximum duration span in seconds of one slot.
+     * @return maximum duration span in seconds of one slot
+     */
+    public double getMaxSpan() {
+        return maxSpan;
+    }
+
+    /** Get quantum gap above which a new slot is created instead of extending an existing one.
+     * <p>
+     * The quantum gap is the {@code newSlotInterval} value provided at construction
+     * rounded to the nearest quantum step used internally by the cache.
+     * </p>
+     * @return quantum gap in seconds
+     */
+    public double getNewSlotQuantumGap() {
+        return newSlotQuantumGap * QUANTUM_STEP;
+    }
+
+    /** Get the number of calls to the {@link #getNeighbors(AbsoluteDate)} method.
+     * <p>
+     * This number of calls is used as a reference to interpret {@link #getGenerateCalls()}.
+     * </p>
+     * @return number of calls to the {@link #getNeighbors(AbsoluteDate)} method
+     * @see #getGenerateCalls()
+     */
+    public int getGetNeighborsCalls() {
+        long calls = 0;
+        for (int i = 0; i < STRIPES; ++i) {
+            calls += getNeighborsCalls.get(i * PADDING);
+        }
+        return (int) calls;
+    }
+
+    /** Get the number of calls to the generate method.
+     * <p>
+     * This number of calls is related to the number of cache misses and may
+     * be used to tune the cache configuration. Each cache miss implies at
+     * least one call is performed, but may require several calls if the new
+     * date is far offset from the existing cache, depending on the number of
+     * elements and step between elements in the arrays returned by the generator.
+     * </p>
+     * @return number of calls to the generate method
+     * @see #getGetNeighborsCalls()
+     */
+    public int getGenerateCalls() {
+        return generateCalls;
+    }
+
+    /** Get the number of slots evictions.
+     * <p>
+     * This number should remain small when the max number of slots is sufficient
+     * with respect to the number of concurrent requests to the cache. If it
+     * increases too much, then the cache configuration is probably bad and cache
+     * does not really improve things (in this case, the {@link #getGenerateCalls()
+     * number of calls to the generate method} will probably increase too.
+     * </p>
+     * @return number of slots evictions
+     */
+    public int getSlotsEvictions() {
+        return evictions;
+    }
+
+    /** Get the number of calls that needed to generate new data.
+     * @return number of calls that needed to generate new data
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /** Get the histogram of the generator latencies.
+     * @return histogram of the generator latencies
+     */
+    public LatencyHistogram getGenerationLatency() {
+        return generationLatency;
+    }
+
+    /** Get the number of slots in use.
+     * @return number of slots in use
+     */
+    public int getSlots() {
+        return slots.get().size();
+    }
+
+    /** Get the total number of entries cached.
+     * @return total number of entries cached
+     */
+    public int getEntries() {
+        int entries = 0;
+        for (final Slot slot : slots.get()) {
+            entries += slot.getEntries();
+        }
+        return entries;
+    }
+
+    /** Get the earliest cached entry.
+     * @return earliest cached entry
+     * @exception IllegalStateException if the cache has no slots at all
+     * @see #getSlots()
+     */
+    public T getEarliest() throws IllegalStateException {
+        final List<Slot> current = slots.get();
+        if (current.isEmpty()) {
+            throw new OrekitIllegalStateException(OrekitMessages.NO_CACHED_ENTRIES);
+        }
+        return current.get(0).getEarliest();
+    }
+
+    /** Get the latest cached entry.
+     * @return latest cached entry
+     * @exception IllegalStateException if the cache has no slots at all
+     * @see #getSlots()
+     */
+    public T getLatest() throws IllegalStateException {
+        final List<Slot> current = slots.get();
+        if (current.isEmpty()) {
+            throw new OrekitIllegalStateException(OrekitMessages.NO_CACHED_ENTRIES);
+        }
+        return current.get(current.size() - 1).getLatest();
+    }
+
+    /** Get the fixed size of the arrays to be returned by {@link #getNeighbors(AbsoluteDate)}.
+     * @return size of the array
+     */
+    public int getNeighborsSize() {
+        return neighborsSize;
+    }
+
+    /** Get the entries surrounding a central date.
+     * <p>
+     * If the central date is well within covered range, the returned array
+     * will be balanced with half the points before central date and half the
+     * points after it (depending on n parity, of course). If the central date
+     * is near the generator range boundary, then the returned array will be
+     * unbalanced and will contain only the n earliest (or latest) generated
+     * (and cached) entries. A typical example of the later case is leap seconds
+     * cache, since the number of leap seconds cannot be arbitrarily increased.
+     * </p>
+     * @param central central date
+     * @return array of cached entries surrounding specified date (the size
+     * of the array is fixed to the one specified in the {@link
+     * #ConcurrentTimeStampedCache(int, int, double, double, TimeStampedGenerator,
+     * Class) constructor})
+     * @exception TimeStampedCacheException if entries are not chronologically
+     * sorted or if new data cannot be generated
+     * @see #getEarliest()
+     * @see #getLatest()
+     */
+    public List<T> getNeighbors(final AbsoluteDate central) throws TimeStampedCacheException {
+
+        getNeighborsCalls.incrementAndGet((int) (Thread.currentThread().getId() & (STRIPES - 1)) * PADDING);
+        final long dateQuantum = quantum(central);
+
+        // non-blocking path, using the current snapshot
+        final List<Slot> current = slots.get();
+        if (!current.isEmpty()) {
+            final Slot slot = current.get(slotIndex(current, dateQuantum));
+            if (slot.covers(dateQuantum)) {
+                final T[] neighbors = slot.getNeighbors(central, dateQuantum);
+                if (neighbors != null) {
+                    slot.touch();
+                    return Arrays.asList(neighbors);
+                }
+            }
+        }
+
+        // the snapshot cannot serve the request, we need to generate new data
+        updateLock.lock();
+        try {
+            return Arrays.asList(update(central, dateQuantum));
+        } finally {
+            updateLock.unlock();
+        }
+
+    }
+
+    /** Convert a date to a rough global quantum.
+     * @param date date to convert
+     * @return quantum corresponding to the date
+     */
+    private long quantum(final AbsoluteDate date) {
+        AbsoluteDate ref = reference.get();
+        if (ref == null) {
+            reference.compareAndSet(null, date);
+            ref = reference.get();
+        }
+        return FastMath.round(date.durationFrom(ref) / QUANTUM_STEP);
+    }
+
+    /** Update the cache so it can serve a request.
+     * <p>
+     * We own the update lock while calling this method.
+     * </p>
+     * @param central central date
+     * @param dateQuantum global quantum of the date
+     * @return array of cached entries surrounding specified date
+     * @exception TimeStampedCacheException if entries are not chronologically
+     * sorted or if new data cannot be generated
+     */
+    private T[] update(final AbsoluteDate central, final long dateQuantum)
+        throws TimeStampedCacheException {
+
+        // check slots again as another thread may have changed
+        // the snapshot while we were waiting for the lock
+        final int generateCallsBefore = generateCalls;
+        final List<Slot> current = slots.get();
+        int index = current.isEmpty() ? 0 : slotIndex(current, dateQuantum);
+        Slot slot;
+        if (current.isEmpty() || !current.get(index).covers(dateQuantum)) {
+
+            // we really need to create a new slot
+            if ((!current.isEmpty()) &&
+                current.get(index).getLatestQuantum() < dateQuantum - newSlotQuantumGap) {
+                ++index;
+            }
+
+            slot = createSlot(central);
+            final List<Slot> updated = new ArrayList<Slot>(current);
+            if (updated.size() >= maxSlots) {
+                // we must prevent exceeding allowed max
+
+                // select the least recently accessed slot for eviction
+                int evict = 0;
+                for (int i = 0; i < updated.size(); ++i) {
+                    if (updated.get(i).getLastAccess() < updated.get(evict).getLastAccess()) {
+                        evict = i;
+                    }
+                }
+
+                // evict the selected slot
+                evictions++;
+                updated.remove(evict);
+
+                if (evict < index) {
+                    // adjust index of created slot as it was shifted by the eviction
+                    index--;
+                }
+            }
+
+            updated.add(index, slot);
+            slots.set(Collections.unmodifiableList(updated));
+
+        } else {
+            slot = current.get(index);
+            slot.touch();
+        }
+
+        // extend the slot until it is balanced around the central date
+        T[] neighbors = slot.getNeighbors(central, dateQuantum);
+        while (neighbors == null) {
+            slot = slot.extend(central, dateQuantum);
+            final List<Slot> updated = new ArrayList<Slot>(slots.get());
+            updated.set(index, slot);
+            slots.set(Collections.unmodifiableList(updated));
+            neighbors = slot.getNeighbors(central, dateQuantum);
+        }
+
+        if (generateCalls > generateCallsBefore) {
+            // the call was not served from already cached data
+            misses++;
+        }
+
+        return neighbors;
+
+    }
+
+    /** Get the index of the slot in which a date could be cached.
+     * @param current current snapshot of slots (must not be empty)
+     * @param dateQuantum quantum of the date to search for
+     * @return the slot in which the date could be cached
+     */
+    private int slotIndex(final List<Slot> current, final long dateQuantum) {
+
+        int  iInf = 0;
+        final long qInf = current.get(iInf).getEarliestQuantum();
+        int  iSup = current.size() - 1;
+        final long qSup = current.get(iSup).getLatestQuantum();
+        while (iSup - iInf > 0) {
+            final int iInterp = (int) ((iInf * (qSup - dateQuantum) + iSup * (dateQuantum - qInf)) / (qSup - qInf));
+            final int iMed    = FastMath.max(iInf, FastMath.min(iInterp, iSup));
+            final Slot slot   = current.get(iMed);
+            if (dateQuantum < slot.getEarliestQuantum()) {
+                iSup = iMed - 1;
+            } else if (dateQuantum > slot.getLatestQuantum()) {
+                iInf = FastMath.min(iSup, iMed + 1);
+            } else {
+                return iMed;
+            }
+        }
+
+        return iInf;
+
+    }
+
+    /** Create a new slot.
+     * <p>
+     * We own the update lock while calling this method.
+     * </p>
+     * @param date central date for initial entries to insert in the slot
+     * @return new slot
+     * @exception TimeStampedCacheException if entries are not chronologically
+     * sorted or if new data cannot be generated
+     */
+    private Slot createSlot(final AbsoluteDate date) throws TimeStampedCacheException {
+
+        final List<T> entries = new ArrayList<T>(generateAndCheck(null, date));
+
+        while (entries.size() < neighborsSize) {
+            // we need to generate more entries
+
+            final T entry0 = entries.get(0);
+            final T entryN = entries.get(entries.size() - 1);
+            final double step = meanStep(entries);
+
+            if (entryN.getDate().durationFrom(date) <= date.durationFrom(entry0.getDate())) {
+                // generate additional point at the end of the slot
+                final AbsoluteDate generationDate = entryN.getDate().shiftedBy(step * (neighborsSize - entries.size()));
+                final long qn = quantum(entryN.getDate());
+                final List<T> data = generateAndCheck(entryN, generationDate);
+                final int n = entries.size();
+                for (int i = data.size() - 1; i >= 0 && quantum(data.get(i).getDate()) > qn; --i) {
+                    entries.add(n, data.get(i));
+                }
+                if (entries.size() == n) {
+                    throw new TimeStampedCacheException(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_AFTER,
+                                                        entryN.getDate());
+                }
+            } else {
+                // generate additional point at the start of the slot
+                final AbsoluteDate generationDate = entry0.getDate().shiftedBy(-step * (neighborsSize - entries.size()));
+                final long q0 = quantum(entry0.getDate());
+                final List<T> data = generateAndCheck(entry0, generationDate);
+                final int n = entries.size();
+                for (int i = 0; i < data.size() && quantum(data.get(i).getDate()) < q0; ++i) {
+                    entries.add(i, data.get(i));
+                }
+                if (entries.size() == n) {
+                    throw new TimeStampedCacheException(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_BEFORE,
+                                                        entry0.getDate());
+                }
+            }
+
+        }
+
+        return new Slot(entries, false, false);
+
+    }
+
+    /** Get the mean step between entries.
+     * @param entries entries to consider
+     * @return mean step between entries (or an arbitrary non-null value
+     * if there are fewer than 2 entries)
+     */
+    private double meanStep(final List<T> entries) {
+        if (entries.size() < 2) {
+            return 1.0;
+        } else {
+            final AbsoluteDate t0 = entries.get(0).getDate();
+            final AbsoluteDate tn = entries.get(entries.size() - 1).getDate();
+            return tn.durationFrom(t0) / (entries.size() - 1);
+        }
+    }
+
+    /** Generate entries and check ordering.
+     * <p>
+     * We own the update lock while calling this method.
+     * </p>
+     * @param existing closest already existing entry (may be null)
+     * @param date date that must be covered by the range of the generated array
+     * @return chronologically sorted list of generated entries
+     * @exception TimeStampedCacheException if if entries are not chronologically
+     * sorted or if new data cannot be generated
+     */
+    private List<T> generateAndCheck(final T existing, final AbsoluteDate date)
+        throws TimeStampedCacheException {
+        generateCalls++;
+        final long start = System.nanoTime();
+        final List<T> entries = generator.generate(existing, date);
+        generationLatency.record(System.nanoTime() - start);
+        if (entries.isEmpty()) {
+            throw new TimeStampedCacheException(OrekitMessages.NO_DATA_GENERATED, date);
+        }
+        for (int i = 1; i < entries.size(); ++i) {
+            if (entries.get(i).getDate().compareTo(entries.get(i - 1).getDate()) < 0) {
+                throw new TimeStampedCacheException(OrekitMessages.NON_CHRONOLOGICALLY_SORTED_ENTRIES,
+                                                    entries.get(i - 1).getDate(),
+                                                    entries.get(i).getDate());
+            }
+        }
+        return entries;
+    }
+
+    /** Immutable time slot. */
+    private final class Slot {
+
+        /** Cached time-stamped entries. */
+        private final T[] entries;
+
+        /** Global quanta of the entries. */
+        private final long[] quanta;
+
+        /** Indicator for generator exhausted before earliest entry. */
+        private final boolean exhaustedBefore;
+
+        /** Indicator for generator exhausted after latest entry. */
+        private final boolean exhaustedAfter;
+
+        /** Value of the updates counter when slot was last accessed. */
+        private volatile long lastAccess;
+
+        /** Simple constructor.
+         * <p>
+         * We own the update lock while calling this constructor.
+         * </p>
+         * @param entries chronologically sorted entries
+         * @param exhaustedBefore if true, the generator cannot provide data
+         * before the earliest entry
+         * @param exhaustedAfter if true, the generator cannot provide data
+         * after the latest entry
+         */
+        Slot(final List<T> entries, final boolean exhaustedBefore, final boolean exhaustedAfter) {
+            @SuppressWarnings("unchecked")
+            final T[] array = (T[]) Array.newInstance(entriesClass, entries.size());
+            this.entries         = entries.toArray(array);
+            this.quanta          = new long[entries.size()];
+            for (int i = 0; i < quanta.length; ++i) {
+                quanta[i] = quantum(this.entries[i].getDate());
+            }
+            this.exhaustedBefore = exhaustedBefore;
+            this.exhaustedAfter  = exhaustedAfter;
+            this.lastAccess      = ++updates;
+        }
+
+        /** Get the earliest entry contained in the slot.
+         * @return earliest entry contained in the slot
+         */
+        public T getEarliest() {
+            return entries[0];
+        }
+
+        /** Get the quantum of the earliest date contained in the slot.
+         * @return quantum of the earliest date contained in the slot
+         */
+        public long getEarliestQuantum() {
+            return quanta[0];
+        }
+
+        /** Get the latest entry contained in the slot.
+         * @return latest entry contained in the slot
+         */
+        public T getLatest() {
+            return entries[entries.length - 1];
+        }
+
+        /** Get the quantum of the latest date contained in the slot.
+         * @return quantum of the latest date contained in the slot
+         */
+        public long getLatestQuantum() {
+            return quanta[quanta.length - 1];
+        }
+
+        /** Get the number of entries contained in the slot.
+         * @return number of entries contained in the slot
+         */
+        public int getEntries() {
+            return entries.length;
+        }
+
+        /** Get the value of the updates counter when slot was last accessed.
+         * @return value of the updates counter when slot was last accessed
+         */
+        public long getLastAccess() {
+            return lastAccess;
+        }
+
+        /** Mark the slot as accessed now.
+         * <p>
+         * The write is skipped if the slot was already accessed since
+         * the last update, to avoid contention on hot slots.
+         * </p>
+         */
+        public void touch() {
+            final long current = updates;
+            if (lastAccess != current) {
+                lastAccess = current;
+            }
+        }
+
+        /** Check if a date is close enough to the slot to be served by it.
+         * @param dateQuantum global quantum of the date
+         * @return true if the date is close enough to the slot
+         */
+        public boolean covers(final long dateQuantum) {
+            return getEarliestQuantum() <= dateQuantum + newSlotQuantumGap &&
+                   getLatestQuantum()   >= dateQuantum - newSlotQuantumGap;
+        }
+
+        /** Get the entries surrounding a central date.
+         * @param central central date
+         * @param dateQuantum global quantum of the date
+         * @return a new array containing date neighbors, or null if new
+         * data should be generated to serve the request
+         */
+        public T[] getNeighbors(final AbsoluteDate central, final long dateQuantum) {
+
+            int firstNeighbor = entryIndex(dateQuantum) - (neighborsSize - 1) / 2;
+
+            if (firstNeighbor < 0) {
+                if (!(exhaustedBefore && entries[0].getDate().compareTo(central) <= 0)) {
+                    return null;
+                }
+                // the generator cannot rebalance the neighborhood,
+                // but the central date is covered by existing data
+                firstNeighbor = 0;
+            } else if (firstNeighbor + neighborsSize > entries.length) {
+                if (!(exhaustedAfter && entries[entries.length - 1].getDate().compareTo(central) >= 0)) {
+                    return null;
+                }
+                // the generator cannot rebalance the neighborhood,
+                // but the central date is covered by existing data
+                firstNeighbor = entries.length - neighborsSize;
+            }
+
+            @SuppressWarnings("unchecked")
+            final T[] array = (T[]) Array.newInstance(entriesClass, neighborsSize);
+            System.arraycopy(entries, firstNeighbor, array, 0, neighborsSize);
+            return array;
+
+        }
+
+        /** Get the index of the entry corresponding to a date.
+         * @param dateQuantum global quantum of the date
+         * @return index in the array such that entry[index] is before
+         * date and entry[index + 1] is after date (or they are at array boundaries)
+         */
+        private int entryIndex(final long dateQuantum) {
+            if (dateQuantum < getEarliestQuantum()) {
+                // date if before the first entry
+                return -1;
+            } else if (dateQuantum > getLatestQuantum()) {
+                // date is after the last entry
+                return quanta.length;
+            } else {
+                final int index = Arrays.binarySearch(quanta, dateQuantum);
+                return (index >= 0) ? index : (-index - 2);
+            }
+        }
+
+        /** Build a new slot extended towards a central date.
+         * <p>
+         * We own the update lock while calling this method.
+         * </p>
+         * @param central central date
+         * @param dateQuantum global quantum of the date
+         * @return new extended slot
+         * @exception TimeStampedCacheException if entries are not chronologically
+         * sorted or if new data cannot be generated
+         */
+        public Slot extend(final AbsoluteDate central, final long dateQuantum)
+            throws TimeStampedCacheException {
+
+            // estimate which data we need to be generated
+            final List<T> list = new ArrayList<T>(Arrays.asList(entries));
+            final int firstNeighbor = entryIndex(dateQuantum) - (neighborsSize - 1) / 2;
+            final double step = meanStep(list);
+            final boolean before = firstNeighbor < 0;
+            final T existing;
+            final AbsoluteDate generationDate;
+            final boolean simplyRebalance;
+            if (before) {
+                existing        = getEarliest();
+                generationDate  = existing.getDate().shiftedBy(step * firstNeighbor);
+                simplyRebalance = existing.getDate().compareTo(central) <= 0;
+            } else {
+                existing        = getLatest();
+                generationDate  = existing.getDate().shiftedBy(step * (firstNeighbor + neighborsSize - entries.length));
+                simplyRebalance = existing.getDate().compareTo(central) >= 0;
+            }
+
+            // generate data and add it to the slot
+            final List<T> data;
+            try {
+                data = generateAndCheck(existing, generationDate);
+            } catch (TimeStampedCacheException tce) {
+                if (simplyRebalance) {
+                    // we were simply trying to rebalance an unbalanced interval near slot end
+                    // we failed, but the central date is already covered by the existing (unbalanced) data
+                    // so we ignore the exception and remember the generator is exhausted on this side
+                    return new Slot(list, before || exhaustedBefore, !before || exhaustedAfter);
+                }
+                throw tce;
+            }
+
+            boolean added = false;
+            if (before) {
+                for (int i = 0; i < data.size() && quantum(data.get(i).getDate()) < quanta[0]; ++i) {
+                    list.add(i, data.get(i));
+                    added = true;
+                }
+            } else {
+                final int n = list.size();
+                for (int i = data.size() - 1; i >= 0 && quantum(data.get(i).getDate()) > getLatestQuantum(); --i) {
+                    list.add(n, data.get(i));
+                    added = true;
+                }
+            }
+
+            if (!added) {
+                final TimeStampedCacheException tce =
+                        before ?
+                        new TimeStampedCacheException(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_BEFORE,
+                                                      getEarliest().getDate()) :
+                        new TimeStampedCacheException(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_AFTER,
+                                                      getLatest().getDate());
+                if (simplyRebalance) {
+                    return new Slot(list, before || exhaustedBefore, !before || exhaustedAfter);
+                }
+                throw tce;
+            }
+
+            // evict excess data at the other end
+            boolean evictedBefore = false;
+            boolean evictedAfter  = false;
+            if (before) {
+                final AbsoluteDate t0 = list.get(0).getDate();
+                while (list.size() > neighborsSize &&
+                       list.get(list.size() - 1).getDate().durationFrom(t0) > maxSpan) {
+                    list.remove(list.size() - 1);
+                    evictedAfter = true;
+                }
+            } else {
+                final AbsoluteDate tn = list.get(list.size() - 1).getDate();
+                while (list.size() > neighborsSize &&
+                       tn.durationFrom(list.get(0).getDate()) > maxSpan) {
+                    list.remove(0);
+                    evictedBefore = true;
+                }
+            }
+
+            return new Slot(list,
+                            exhaustedBefore && !before && !evictedBefore,
+                            exhaustedAfter  &&  before && !evictedAfter);
+
+        }
+
+    }
+
+}
@@ -41,7 +41,7 @@ import org.orekit.time.TimeStamped;
 
  * @author Luc Maisonobe
  */
-public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStampedCache<T> {
+public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStampedCache<T>, MonitoredCache {
 
     /** Default number of independent cached time slots. */
     public static final int DEFAULT_CACHED_SLOTS_NUMBER = 10;
@@ -82,6 +82,12 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
     /** Number of evictions. */
     private final AtomicInteger evictions;
 
+    /** Number of calls that needed to generate new data. */
+    private final AtomicInteger misses;
+
+    /** Histogram of generator latencies. */
+    private final LatencyHistogram generationLatency;
+
     /** Global lock. */
     private final ReadWriteLock lock;
 
@@ -120,6 +126,8 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
         this.getNeighborsCalls = new AtomicInteger(0);
         this.generateCalls     = new AtomicInteger(0);
         this.evictions         = new AtomicInteger(0);
+        this.misses            = new AtomicInteger(0);
+        this.generationLatency = new LatencyHistogram();
         this.lock              = new ReentrantReadWriteLock();
 
     }
@@ -196,6 +204,26 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
         return evictions.get();
     }
 
+    /** Get the number of calls that needed to generate new data.
+     * <p>
+     * In rare cases, a call that creates a new slot and then needs to
+     * extend it to rebalance the neighbors is counted twice.
+     * </p>
+     * @return number of calls that needed to generate new data
+     * @since 8.0
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /** Get the histogram of the generator latencies.
+     * @return histogram of the generator latencies
+     * @since 8.0
+     */
+    public LatencyHistogram getGenerationLatency() {
+        return generationLatency;
+    }
+
     /** Get the number of slots in use.
      * @return number of slots in use
      */
@@ -353,6 +381,7 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
 
                     // we really need to create a new slot in the current thread
                     // (no other threads have created it while we were waiting for the lock)
+                    misses.incrementAndGet();
                     if ((!slots.isEmpty()) &&
                         slots.get(index).getLatestQuantum() < dateQuantum - newSlotQuantumGap) {
                         ++index;
@@ -584,6 +613,7 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
                     // check entries again as another thread may have changed
                     // the list while we were waiting for the write lock
                     boolean loop = true;
+                    boolean missed = false;
                     while (loop) {
                         index         = entryIndex(central, dateQuantum);
                         firstNeighbor = index - (neighborsSize - 1) / 2;
@@ -604,6 +634,10 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
                                 simplyRebalance = existing.getDate().compareTo(central) >= 0;
                             }
                             generateCalls.incrementAndGet();
+                            if (!missed) {
+                                misses.incrementAndGet();
+                                missed = true;
+                            }
 
                             // generated data and add it to the slot
                             try {
@@ -808,7 +842,9 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
          */
         private List<T> generateAndCheck(final T existing, final AbsoluteDate date)
             throws TimeStampedCacheException {
+            final long start = System.nanoTime();
             final List<T> entries = generator.generate(existing, date);
+            generationLatency.record(System.nanoTime() - start);
             if (entries.isEmpty()) {
                 throw new TimeStampedCacheException(OrekitMessages.NO_DATA_GENERATED, date);
             }
@@ -0,0 +1,203 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.orekit.errors.OrekitException;
+
+/** Exporter publishing the registered caches metrics as JMX MXBeans.
+ * <p>
+ * Each cache is published under the object name
+ * {@code org.orekit:type=TimeStampedCache,name=<registered name>}
+ * using the {@link CacheMetricsMXBean} management interface.
+ * </p>
+ * <p>
+ * Typical use is simply:
+ * </p>
+ * <pre>
+ *   CacheMetricsRegistry.addExporter(new JMXCacheMetricsExporter());
+ * </pre>
+ * @see CacheMetricsRegistry#addExporter(CacheMetricsExporter)
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class JMXCacheMetricsExporter implements CacheMetricsExporter {
+
+    /** Domain of the object names. */
+    private static final String DOMAIN = "org.orekit";
+
+    /** Server in which beans are registered. */
+    private final MBeanServer server;
+
+    /** Simple constructor, using the platform MBean server.
+     */
+    public JMXCacheMetricsExporter() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /** Simple constructor.
+     * @param server server in which beans should be registered
+     */
+    public JMXCacheMetricsExporter(final MBeanServer server) {
+        this.server = server;
+    }
+
+    /** Get the object name corresponding to a registered cache.
+     * @param name name under which the cache is registered
+     * @return object name under which the cache is published
+     */
+    public static ObjectName getObjectName(final String name) {
+        try {
+            return new ObjectName(DOMAIN + ":type=TimeStampedCache,name=" + ObjectName.quote(name));
+        } catch (JMException jme) {
+            throw OrekitException.createInternalError(jme);
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void cacheRegistered(final String name, final MonitoredCache cache) {
+        try {
+            final ObjectName objectName = getObjectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(new CacheMetrics(cache), objectName);
+        } catch (JMException jme) {
+            throw OrekitException.createInternalError(jme);
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void cacheUnregistered(final String name) {
+        try {
+            final ObjectName objectName = getObjectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException jme) {
+            throw OrekitException.createInternalError(jme);
+        }
+    }
+
+    /** Management bean for one cache. */
+    private static class CacheMetrics implements CacheMetricsMXBean {
+
+        /** Monitored cache (weakly referenced to allow garbage collection). */
+        private final WeakReference<MonitoredCache> reference;
+
+        /** Simple constructor.
+         * @param cache monitored cache
+         */
+        CacheMetrics(final MonitoredCache cache) {
+            this.reference = new WeakReference<MonitoredCache>(cache);
+        }
+
+        /** Get a snapshot of the cache metrics.
+         * @return snapshot of the cache metrics, or null if the cache has been garbage collected
+         */
+        private CacheMetricsSnapshot snapshot() {
+            final MonitoredCache cache = reference.get();
+            return (cache == null) ? null : new CacheMetricsSnapshot("", System.currentTimeMillis(), cache);
+        }
+
+        /** {@inheritDoc} */
+        public int getCalls() {
+            final MonitoredCache cache = reference.get();
+            return (cache == null) ? 0 : cache.getGetNeighborsCalls();
+        }
+
+        /** {@inheritDoc} */
+        public int getHits() {
+            final CacheMetricsSnapshot snapshot = snapshot();
+            return (snapshot == null) ? 0 : snapshot.getHits();
+        }
+
+        /** {@inheritDoc} */
+        public int getMisses() {
+            final MonitoredCache cache = reference.get();
+            return (cache == null) ? 0 : cache.getMisses();
+        }
+
+        /** {@inheritDoc} */
+        public double getHitRatio() {
+            final CacheMetricsSnapshot snapshot = snapshot();
+            return (snapshot == null) ? 0.0 : snapshot.getHitRatio();
+        }
+
+        /** {@inheritDoc} */
+        public int getGenerateCalls() {
+            final MonitoredCache cache = reference.get();
+            return (cache == null) ? 0 : cache.getGenerateCalls();
+        }
+
+        /** {@inheritDoc} */
+        public int getEvictions() {
+            final MonitoredCache cache = reference.get();
+            return (cache == null) ? 0 : cache.getSlotsEvictions();
+        }
+
+        /** {@inheritDoc} */
+        public int getSlots() {
+            final MonitoredCache cache = reference.get();
+            return (cache == null) ? 0 : cache.getSlots();
+        }
+
+        /** {@inheritDoc} */
+        public int getMaxSlots() {
+            final MonitoredCache cache = reference.get();
+            return (cache == null) ? 0 : cache.getMaxSlots();
+        }
+
+        /** {@inheritDoc} */
+        public int getEntries() {
+            final MonitoredCache cache = reference.get();
+            return (cache == null) ? 0 : cache.getEntries();
+        }
+
+        /** {@inheritDoc} */
+        public double getLatencyMean() {
+            final CacheMetricsSnapshot snapshot = snapshot();
+            return (snapshot == null) ? 0.0 : snapshot.getLatencyMean();
+        }
+
+        /** {@inheritDoc} */
+        public long getLatency50() {
+            final MonitoredCache cache = reference.get();
+            return (cache == null) ? 0 : cache.getGenerationLatency().getPercentile(50.0);
+        }
+
+        /** {@inheritDoc} */
+        public long getLatency90() {
+            final MonitoredCache cache = reference.get();
+            return (cache == null) ? 0 : cache.getGenerationLatency().getPercentile(90.0);
+        }
+
+        /** {@inheritDoc} */
+        public long getLatency99() {
+            final MonitoredCache cache = reference.get();
+            return (cache == null) ? 0 : cache.getGenerationLatency().getPercentile(99.0);
+        }
+
+    }
+
+}
@@ -0,0 +1,159 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Thread-safe histogram of latencies with logarithmic buckets.
+ * <p>
+ * Bucket 0 holds latencies up to 1ns, and bucket i &gt; 0 holds latencies
+ * between 2<sup>i</sup>ns (included) and 2<sup>i+1</sup>ns (excluded). The
+ * last bucket also holds all larger latencies. Recording a latency is
+ * a lock-free operation.
+ * </p>
+ * @see CacheMetricsRegistry
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class LatencyHistogram {
+
+    /** Number of buckets (the last one starts at about 9 minutes). */
+    private static final int BUCKETS = 40;
+
+    /** Counts in each bucket. */
+    private final AtomicLongArray counts;
+
+    /** Sum of all recorded latencies. */
+    private final AtomicLong total;
+
+    /** Simple constructor.
+     */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.total  = new AtomicLong(0);
+    }
+
+    /** Record one latency.
+     * @param nanos latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        counts.incrementAndGet(bucket(nanos));
+        total.addAndGet(nanos);
+    }
+
+    /** Get the bucket corresponding to a latency.
+     * @param nanos latency in nanoseconds
+     * @return index of the bucket
+     */
+    private static int bucket(final long nanos) {
+        if (nanos <= 1) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /** Get the number of buckets.
+     * @return number of buckets
+     */
+    public int getBucketsNumber() {
+        return BUCKETS;
+    }
+
+    /** Get the lower bound of a bucket.
+     * @param bucket index of the bucket
+     * @return lower bound of the bucket in nanoseconds (included)
+     */
+    public long getLowerBound(final int bucket) {
+        return (bucket == 0) ? 0L : (1L << bucket);
+    }
+
+    /** Get the upper bound of a bucket.
+     * @param bucket index of the bucket
+     * @return upper bound of the bucket in nanoseconds (excluded),
+     * {@code Long.MAX_VALUE} for the last bucket
+     */
+    public long getUpperBound(final int bucket) {
+        return (bucket == BUCKETS - 1) ? Long.MAX_VALUE : (1L << (bucket + 1));
+    }
+
+    /** Get the number of latencies recorded in one bucket.
+     * @param bucket index of the bucket
+     * @return number of latencies recorded in the bucket
+     */
+    public long getCount(final int bucket) {
+        return counts.get(bucket);
+    }
+
+    /** Get the number of latencies recorded in all buckets.
+     * @return number of latencies recorded in all buckets
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /** Get the sum of all recorded latencies.
+     * @return sum of all recorded latencies in nanoseconds
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    /** Get a copy of the counts in all buckets.
+     * @return copy of the counts in all buckets
+     */
+    public long[] getAllCounts() {
+        final long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            copy[i] = counts.get(i);
+        }
+        return copy;
+    }
+
+    /** Estimate a percentile.
+     * <p>
+     * The estimate is the upper bound of the bucket containing the percentile,
+     * so it overestimates the real value by at most a factor 2.
+     * </p>
+     * @param p percentile, between 0 and 100
+     * @return estimated percentile in nanoseconds (0 if no latencies have been recorded)
+     */
+    public long getPercentile(final double p) {
+        final long[] copy = getAllCounts();
+        long count = 0;
+        for (final long c : copy) {
+            count += c;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        final double threshold = count * p / 100.0;
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            cumulated += copy[i];
+            if (cumulated >= threshold && cumulated > 0) {
+                return getUpperBound(i);
+            }
+        }
+        return getUpperBound(BUCKETS - 1);
+    }
+
+}
@@ -0,0 +1,66 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+/** Interface for caches that can be monitored by {@link CacheMetricsRegistry}.
+ * @see CacheMetricsRegistry
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public interface MonitoredCache {
+
+    /** Get the number of calls to the cache.
+     * @return number of calls to the cache
+     */
+    int getGetNeighborsCalls();
+
+    /** Get the number of calls that needed to generate new data.
+     * @return number of calls that needed to generate new data
+     */
+    int getMisses();
+
+    /** Get the number of calls to the generator.
+     * @return number of calls to the generator
+     */
+    int getGenerateCalls();
+
+    /** Get the number of slots evictions.
+     * @return number of slots evictions
+     */
+    int getSlotsEvictions();
+
+    /** Get the number of slots in use.
+     * @return number of slots in use
+     */
+    int getSlots();
+
+    /** Get the maximum number of independent cached time slots.
+     * @return maximum number of independent cached time slots
+     */
+    int getMaxSlots();
+
+    /** Get the total number of entries cached.
+     * @return total number of entries cached
+     */
+    int getEntries();
+
+    /** Get the histogram of the generator latencies.
+     * @return histogram of the generator latencies
+     */
+    LatencyHistogram getGenerationLatency();
+
+}
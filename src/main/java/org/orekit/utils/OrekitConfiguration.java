@@ -26,8 +26,12 @@ public class OrekitConfiguration {
     /** Number of slots to use in caches. */
     private static int CACHE_SLOTS_NUMBER;
 
+    /** Implementation to use for time-stamped caches. */
+    private static TimeStampedCacheType CACHE_TYPE;
+
     static {
         CACHE_SLOTS_NUMBER = 100;
+        CACHE_TYPE         = TimeStampedCacheType.GENERIC;
     }
 
     /** Private constructor.
@@ -52,4 +56,25 @@ public class OrekitConfiguration {
         return CACHE_SLOTS_NUMBER;
     }
 
+    /** Set the implementation to use for time-stamped caches.
+     * <p>
+     * The setting applies to caches built after the call, so it should
+     * be set before frames, ephemerides or gravity fields are first used.
+     * The default implementation is {@link TimeStampedCacheType#GENERIC}.
+     * </p>
+     * @param cacheType implementation to use for time-stamped caches
+     * @since 8.0
+     */
+    public static void setCacheType(final TimeStampedCacheType cacheType) {
+        OrekitConfiguration.CACHE_TYPE = cacheType;
+    }
+
+    /** Get the implementation to use for time-stamped caches.
+     * @return implementation to use for time-stamped caches
+     * @since 8.0
+     */
+    public static TimeStampedCacheType getCacheType() {
+        return CACHE_TYPE;
+    }
+
 }
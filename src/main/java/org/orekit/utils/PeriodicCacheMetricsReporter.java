@@ -0,0 +1,104 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/** Reporter periodically sending snapshots of all registered caches to a handler.
+ * <p>
+ * The reporter uses its own daemon thread, so it does not prevent the
+ * JVM from exiting.
+ * </p>
+ * @see CacheMetricsRegistry#getSnapshots()
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public class PeriodicCacheMetricsReporter {
+
+    /** Reporting period. */
+    private final long period;
+
+    /** Unit of the reporting period. */
+    private final TimeUnit unit;
+
+    /** Handler for the snapshots. */
+    private final CacheMetricsHandler handler;
+
+    /** Scheduler (null if reporter is stopped). */
+    private ScheduledExecutorService scheduler;
+
+    /** Simple constructor.
+     * @param period reporting period
+     * @param unit unit of the reporting period
+     * @param handler handler for the snapshots
+     */
+    public PeriodicCacheMetricsReporter(final long period, final TimeUnit unit,
+                                        final CacheMetricsHandler handler) {
+        this.period    = period;
+        this.unit      = unit;
+        this.handler   = handler;
+        this.scheduler = null;
+    }
+
+    /** Start reporting.
+     * <p>
+     * The first report is sent after one period. Calling this
+     * method on an already started reporter does nothing.
+     * </p>
+     */
+    public synchronized void start() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                /** {@inheritDoc} */
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "Orekit cache metrics reporter");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            scheduler.scheduleAtFixedRate(new Runnable() {
+                /** {@inheritDoc} */
+                public void run() {
+                    handler.handleSnapshots(CacheMetricsRegistry.getSnapshots());
+                }
+            }, period, period, unit);
+        }
+    }
+
+    /** Check if the reporter is started.
+     * @return true if the reporter is started
+     */
+    public synchronized boolean isStarted() {
+        return scheduler != null;
+    }
+
+    /** Stop reporting.
+     * <p>
+     * Calling this method on an already stopped reporter does nothing.
+     * </p>
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+}
@@ -30,6 +30,7 @@ import org.orekit.time.TimeStamped;
  * @author Evan Ward
  * @param <T> the type of data
  * @see GenericTimeStampedCache
+ * @see ConcurrentTimeStampedCache
  * @see ImmutableTimeStampedCache
  */
 public interface TimeStampedCache<T extends TimeStamped> {
@@ -0,0 +1,87 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import org.orekit.time.TimeStamped;
+
+/** Enumerate for the implementations of {@link TimeStampedCache} built from generators.
+ * <p>
+ * The implementation used by the caches Orekit builds internally (frames
+ * transforms, tidal corrections, JPL ephemerides, time-dependent gravity
+ * fields) is selected using {@link OrekitConfiguration#setCacheType(TimeStampedCacheType)}.
+ * </p>
+ * @see OrekitConfiguration#setCacheType(TimeStampedCacheType)
+ * @author Luc Maisonobe
+ * @since 8.0
+ */
+public enum TimeStampedCacheType {
+
+    /** Constant for {@link GenericTimeStampedCache}, using a global read/write lock. */
+    GENERIC {
+
+        /** {@inheritDoc} */
+        @Override
+        public <T extends TimeStamped> TimeStampedCache<T>
+            createCache(final String name, final int neighborsSize, final int maxSlots,
+                        final double maxSpan, final double newSlotInterval,
+                        final TimeStampedGenerator<T> generator, final Class<T> entriesClass) {
+            final GenericTimeStampedCache<T> cache =
+                    new GenericTimeStampedCache<T>(neighborsSize, maxSlots, maxSpan,
+                                                    newSlotInterval, generator, entriesClass);
+            CacheMetricsRegistry.register(name, cache);
+            return cache;
+        }
+
+    },
+
+    /** Constant for {@link ConcurrentTimeStampedCache}, with non-blocking reads. */
+    CONCURRENT {
+
+        /** {@inheritDoc} */
+        @Override
+        public <T extends TimeStamped> TimeStampedCache<T>
+            createCache(final String name, final int neighborsSize, final int maxSlots,
+                        final double maxSpan, final double newSlotInterval,
+                        final TimeStampedGenerator<T> generator, final Class<T> entriesClass) {
+            final ConcurrentTimeStampedCache<T> cache =
+                    new ConcurrentTimeStampedCache<T>(neighborsSize, maxSlots, maxSpan,
+                                                       newSlotInterval, generator, entriesClass);
+            CacheMetricsRegistry.register(name, cache);
+            return cache;
+        }
+
+    };
+
+    /** Create a cache and register it in the {@link CacheMetricsRegistry}.
+     * @param name name under which the cache should be registered
+     * @param neighborsSize fixed size of the arrays to be returned by {@link
+     * TimeStampedCache#getNeighbors(org.orekit.time.AbsoluteDate)}, must be at least 2
+     * @param maxSlots maximum number of independent cached time slots
+     * @param maxSpan maximum duration span in seconds of one slot
+     * (can be set to {@code Double.POSITIVE_INFINITY} if desired)
+     * @param newSlotInterval time interval above which a new slot is created
+     * instead of extending an existing one
+     * @param generator generator to use for yet non-existent data
+     * @param entriesClass class of the cached entries
+     * @param <T> Type of the cached data
+     * @return a new cache
+     */
+    public abstract <T extends TimeStamped> TimeStampedCache<T>
+        createCache(String name, int neighborsSize, int maxSlots, double maxSpan, double newSlotInterval,
+                    TimeStampedGenerator<T> generator, Class<T> entriesClass);
+
+}
@@ -0,0 +1,292 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.bodies;
+
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.orekit.Utils;
+import org.orekit.bodies.JPLEphemeridesLoader.EphemerisType;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.PVCoordinates;
+
+public class MappedJPLEphemeridesLoaderTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testConstantsJPL() throws OrekitException, URISyntaxException {
+        MappedJPLEphemeridesLoader loader =
+                new MappedJPLEphemeridesLoader(EphemerisType.SUN, deFiles());
+        Assert.assertEquals(149597870691.0, loader.getLoadedAstronomicalUnit(), 0.1);
+        Assert.assertEquals(81.30056, loader.getLoadedEarthMoonMassRatio(), 1.0e-8);
+        Assert.assertEquals(42828.314e9,
+                            loader.getLoadedGravitationalCoefficient(EphemerisType.MARS),
+                            1.0e6);
+        Assert.assertTrue(Double.isNaN(loader.getLoadedConstant("not-a-constant")));
+    }
+
+    @Test
+    public void testConstantsInpop() throws OrekitException, URISyntaxException {
+        MappedJPLEphemeridesLoader loader =
+                new MappedJPLEphemeridesLoader(EphemerisType.SUN,
+                                               resource("inpop/inpop10b_TCB_summer_1969_littleendian.dat"));
+        Assert.assertEquals(149597870691.0, loader.getLoadedAstronomicalUnit(), 0.1);
+        Assert.assertEquals(81.30057, loader.getLoadedEarthMoonMassRatio(), 1.0e-8);
+    }
+
+    @Test
+    public void testSameAsStreamedLoaderDE() throws OrekitException, URISyntaxException {
+        Utils.setDataRoot("regular-data/de405-ephemerides");
+        final File[] files = deFiles();
+        for (final EphemerisType type : new EphemerisType[] {
+            EphemerisType.SUN, EphemerisType.MOON, EphemerisType.MARS, EphemerisType.EARTH_MOON
+        }) {
+            final CelestialBody streamed =
+                    new JPLEphemeridesLoader(JPLEphemeridesLoader.DEFAULT_DE_SUPPORTED_NAMES, type).
+                    loadCelestialBody(type.name());
+            final CelestialBody mapped =
+                    new MappedJPLEphemeridesLoader(type, files).loadCelestialBody(type.name());
+            // first chunk of records, where both loaders use the same chunk start
+            for (int i = 0; i < 4; ++i) {
+                final AbsoluteDate recordStart =
+                        new AbsoluteDate(1969, 5, 27, TimeScalesFactory.getTDB()).shiftedBy(i * 32 * Constants.JULIAN_DAY);
+                checkSame(streamed, mapped, recordStart.shiftedBy(60.0), 300.0, 12, 1.0e-3, 1.0e-9, 1.0e-14);
+            }
+            // the streamed loader shifts chunks start dates using TAI durations whereas
+            // chunks are regular in the file time scale, so there are sub-millisecond
+            // time offsets between the two loaders for all chunks but the first one in each record
+            checkSame(streamed, mapped, new AbsoluteDate(1969, 6, 25, TimeScalesFactory.getTT()), 3600.0, 48, 15.0, 1.0e-5, 1.0e-9);
+            checkSame(streamed, mapped, new AbsoluteDate(1970, 1, 15, TimeScalesFactory.getTT()), 7200.0, 48, 15.0, 1.0e-5, 1.0e-9);
+            checkSame(streamed, mapped, new AbsoluteDate(2003, 7, 1, TimeScalesFactory.getTT()), 9000.0, 48, 15.0, 1.0e-5, 1.0e-9);
+        }
+    }
+
+    @Test
+    public void testSameAsStreamedLoaderInpop() throws OrekitException, URISyntaxException {
+        Utils.setDataRoot("inpop");
+        final File file = resource("inpop/inpop10b_TCB_summer_1969_littleendian.dat");
+        for (final EphemerisType type : new EphemerisType[] {
+            EphemerisType.SUN, EphemerisType.MOON, EphemerisType.JUPITER
+        }) {
+            final CelestialBody streamed =
+                    new JPLEphemeridesLoader("^inpop.*TCB.*littleendian.*\\.dat$", type).
+                    loadCelestialBody(type.name());
+            final CelestialBody mapped =
+                    new MappedJPLEphemeridesLoader(type, file).loadCelestialBody(type.name());
+            // the file is in TCB, so chunks start dates drift too much with respect to
+            // the streamed loader, we check only the first chunk of each record
+            for (int i = 0; i < 3; ++i) {
+                final AbsoluteDate recordStart =
+                        new AbsoluteDate(1969, 6, 4, 12, 0, 0.0, TimeScalesFactory.getTCB()).shiftedBy(i * 32 * Constants.JULIAN_DAY);
+                checkSame(streamed, mapped, recordStart.shiftedBy(60.0), 300.0, 12, 1.0e-3, 1.0e-9, 1.0e-14);
+            }
+        }
+    }
+
+    @Test
+    public void testBatchPositionsVelocities() throws OrekitException, URISyntaxException {
+        final File[] files = deFiles();
+        final Frame icrf = FramesFactory.getICRF();
+        final AbsoluteDate t0 = new AbsoluteDate(2003, 3, 1, TimeScalesFactory.getTT());
+        final AbsoluteDate[] dates = new AbsoluteDate[100];
+        for (int i = 0; i < dates.length; ++i) {
+            dates[i] = t0.shiftedBy(i * 6151.0);
+        }
+        final double[] positions  = new double[3 * dates.length];
+        final double[] velocities = new double[3 * dates.length];
+        for (final EphemerisType type : new EphemerisType[] {
+            EphemerisType.SUN, EphemerisType.MOON, EphemerisType.EARTH
+        }) {
+            final CelestialBody body = new MappedJPLEphemeridesLoader(type, files).loadCelestialBody(type.name());
+            body.getPositionsVelocities(dates, icrf, positions, velocities);
+            for (int i = 0; i < dates.length; ++i) {
+                final PVCoordinates ref = body.getPVCoordinates(dates[i], icrf);
+                final Vector3D p = new Vector3D(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2]);
+                final Vector3D v = new Vector3D(velocities[3 * i], velocities[3 * i + 1], velocities[3 * i + 2]);
+                Assert.assertEquals(0, Vector3D.distance(ref.getPosition(), p), 1.0e-4);
+                Assert.assertEquals(0, Vector3D.distance(ref.getVelocity(), v), 1.0e-9);
+                Assert.assertEquals(0, Vector3D.distance(ref.getPosition(), body.getPosition(dates[i], icrf)), 1.0e-4);
+            }
+        }
+    }
+
+    @Test
+    public void testOutOfRange() throws OrekitException, URISyntaxException {
+        final CelestialBody sun =
+                new MappedJPLEphemeridesLoader(EphemerisType.SUN, deFiles()).loadCelestialBody("Sun");
+        try {
+            // this date is in a gap between the files
+            sun.getPVCoordinates(new AbsoluteDate(1970, 5, 1, TimeScalesFactory.getTT()),
+                                 FramesFactory.getICRF());
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testNotAJPLFile() throws IOException {
+        final File file = tempFolder.newFile("not-jpl.405");
+        final FileOutputStream fos = new FileOutputStream(file);
+        fos.write(new byte[20000]);
+        fos.close();
+        try {
+            new MappedJPLEphemeridesLoader(EphemerisType.SUN, file);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NOT_A_JPL_EPHEMERIDES_BINARY_FILE, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testMissingFile() throws IOException {
+        try {
+            new MappedJPLEphemeridesLoader(EphemerisType.SUN, new File(tempFolder.getRoot(), "missing.405"));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.UNABLE_TO_FIND_FILE, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testConcurrentAccess()
+        throws OrekitException, URISyntaxException, InterruptedException, ExecutionException {
+
+        final CelestialBody moon =
+                new MappedJPLEphemeridesLoader(EphemerisType.MOON, deFiles()).loadCelestialBody("Moon");
+        final Frame gcrf = FramesFactory.getGCRF();
+        final AbsoluteDate t0 = new AbsoluteDate(2003, 1, 1, TimeScalesFactory.getTT());
+
+        // reference values computed sequentially
+        final int n = 2000;
+        final Vector3D[] reference = new Vector3D[n];
+        for (int i = 0; i < n; ++i) {
+            reference[i] = moon.getPVCoordinates(t0.shiftedBy(i * 3571.0), gcrf).getPosition();
+        }
+
+        // same values computed concurrently, in shuffled order
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+        for (int k = 0; k < 8; ++k) {
+            final int shift = k;
+            results.add(executor.submit(new Callable<Boolean>() {
+                public Boolean call() throws OrekitException {
+                    for (int i = 0; i < n; ++i) {
+                        final int index = (i * 7 + shift * 251) % n;
+                        final Vector3D p = moon.getPVCoordinates(t0.shiftedBy(index * 3571.0), gcrf).getPosition();
+                        if (Vector3D.distance(p, reference[index]) != 0.0) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            }));
+        }
+        executor.shutdown();
+        for (final Future<Boolean> result : results) {
+            Assert.assertTrue(result.get());
+        }
+
+    }
+
+    @Ignore
+    @Test
+    public void benchmark() throws OrekitException, URISyntaxException {
+        Utils.setDataRoot("regular-data/de405-ephemerides");
+        final Frame gcrf = FramesFactory.getGCRF();
+        final AbsoluteDate t0 = new AbsoluteDate(2003, 1, 1, TimeScalesFactory.getTT());
+        for (final EphemerisType type : new EphemerisType[] { EphemerisType.MOON, EphemerisType.SUN }) {
+            final CelestialBody streamed =
+                    new JPLEphemeridesLoader(JPLEphemeridesLoader.DEFAULT_DE_SUPPORTED_NAMES, type).
+                    loadCelestialBody(type.name());
+            final CelestialBody mapped =
+                    new MappedJPLEphemeridesLoader(type, deFiles()).loadCelestialBody(type.name());
+            for (int run = 0; run < 5; ++run) {
+                for (final CelestialBody body : new CelestialBody[] { streamed, mapped }) {
+                    final long start = System.nanoTime();
+                    double sum = 0;
+                    for (int i = 0; i < 1000000; ++i) {
+                        sum += body.getPVCoordinates(t0.shiftedBy((i * 17) % 31000000), gcrf).getPosition().getX();
+                    }
+                    final long end = System.nanoTime();
+                    System.out.format("%-4s %s %s: %8.3f ms (%g)%n",
+                                      type, body == streamed ? "streamed" : "mapped  ",
+                                      run, (end - start) * 1.0e-6, sum);
+                }
+            }
+        }
+    }
+
+    private void checkSame(final CelestialBody streamed, final CelestialBody mapped,
+                           final AbsoluteDate start, final double step, final int n,
+                           final double pTol, final double vTol, final double aTol)
+        throws OrekitException {
+        final Frame icrf = FramesFactory.getICRF();
+        for (int i = 0; i < n; ++i) {
+            final AbsoluteDate date = start.shiftedBy(i * step);
+            final PVCoordinates pv1 = streamed.getPVCoordinates(date, icrf);
+            final PVCoordinates pv2 = mapped.getPVCoordinates(date, icrf);
+            Assert.assertEquals(0, Vector3D.distance(pv1.getPosition(),     pv2.getPosition()),     pTol);
+            Assert.assertEquals(0, Vector3D.distance(pv1.getVelocity(),     pv2.getVelocity()),     vTol);
+            Assert.assertEquals(0, Vector3D.distance(pv1.getAcceleration(), pv2.getAcceleration()), aTol);
+        }
+    }
+
+    private File[] deFiles() throws URISyntaxException {
+        return new File[] {
+            resource("regular-data/de405-ephemerides/unxp0000.405"),
+            resource("regular-data/de405-ephemerides/unxp0001.405"),
+            resource("regular-data/de405-ephemerides/unxp0002.405"),
+            resource("regular-data/de405-ephemerides/unxp0003.405")
+        };
+    }
+
+    private File resource(final String name) throws URISyntaxException {
+        return new File(MappedJPLEphemeridesLoaderTest.class.getClassLoader().getResource(name).toURI());
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("regular-data");
+    }
+
+}
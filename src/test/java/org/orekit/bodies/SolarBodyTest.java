@@ -24,6 +24,7 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 
 import org.apache.commons.math3.analysis.differentiation.DerivativeStructure;
+import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.geometry.euclidean.threed.FieldRotation;
 import org.apache.commons.math3.geometry.euclidean.threed.FieldVector3D;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
@@ -32,6 +33,7 @@ import org.apache.commons.math3.ode.AbstractParameterizable;
 import org.apache.commons.math3.ode.nonstiff.DormandPrince853Integrator;
 import org.apache.commons.math3.util.FastMath;
 import org.junit.Assert;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.orekit.Utils;
 import org.orekit.errors.OrekitException;
@@ -54,6 +56,7 @@ import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeScale;
 import org.orekit.time.TimeScalesFactory;
 import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
 import org.orekit.utils.PVCoordinates;
 import org.orekit.utils.PVCoordinatesProvider;
 
@@ -524,6 +527,110 @@ public class SolarBodyTest {
         checkKepler(CelestialBodyFactory.getPluto(),   CelestialBodyFactory.getSun(),   date, 39.24  * au, 3.0e-7);
     }
 
+    @Test
+    public void testPositionFastPath() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        final AbsoluteDate t0 = new AbsoluteDate(1969, 06, 28, TimeScalesFactory.getTT());
+        for (final CelestialBody body : new CelestialBody[] {
+            CelestialBodyFactory.getSun(), CelestialBodyFactory.getMoon(),
+            CelestialBodyFactory.getEarth(), CelestialBodyFactory.getMars()
+        }) {
+            for (final Frame frame : new Frame[] {
+                FramesFactory.getICRF(), FramesFactory.getGCRF(),
+                FramesFactory.getEME2000(), CelestialBodyFactory.getMoon().getBodyOrientedFrame()
+            }) {
+                for (double dt = 0; dt < 20 * Constants.JULIAN_DAY; dt += 7200.0) {
+                    final AbsoluteDate date = t0.shiftedBy(dt);
+                    final Vector3D ref  = body.getPVCoordinates(date, frame).getPosition();
+                    final Vector3D fast = body.getPosition(date, frame);
+                    Assert.assertEquals(0, Vector3D.distance(ref, fast), 3.0e-15 * ref.getNorm() + 1.0e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBatchPositionsVelocities() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        final AbsoluteDate t0 = new AbsoluteDate(1969, 06, 28, TimeScalesFactory.getTT());
+        final AbsoluteDate[] dates = new AbsoluteDate[200];
+        for (int i = 0; i < dates.length; ++i) {
+            dates[i] = t0.shiftedBy(i * 3917.0);
+        }
+        final double[] positions  = new double[3 * dates.length];
+        final double[] velocities = new double[3 * dates.length];
+        for (final CelestialBody body : new CelestialBody[] {
+            CelestialBodyFactory.getSun(), CelestialBodyFactory.getMoon(), CelestialBodyFactory.getJupiter()
+        }) {
+            for (final Frame frame : new Frame[] {
+                body.getInertiallyOrientedFrame().getParent(), FramesFactory.getICRF(),
+                FramesFactory.getEME2000(), FramesFactory.getITRF(IERSConventions.IERS_2010, true)
+            }) {
+
+                // positions and velocities
+                body.getPositionsVelocities(dates, frame, positions, velocities);
+                for (int i = 0; i < dates.length; ++i) {
+                    final PVCoordinates ref = body.getPVCoordinates(dates[i], frame);
+                    final Vector3D p = new Vector3D(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2]);
+                    final Vector3D v = new Vector3D(velocities[3 * i], velocities[3 * i + 1], velocities[3 * i + 2]);
+                    Assert.assertEquals(0, Vector3D.distance(ref.getPosition(), p), 3.0e-15 * ref.getPosition().getNorm() + 1.0e-6);
+                    Assert.assertEquals(0, Vector3D.distance(ref.getVelocity(), v), 1.0e-12 * ref.getVelocity().getNorm() + 1.0e-9);
+                }
+
+                // positions only
+                final double[] positionsOnly = new double[3 * dates.length];
+                body.getPositionsVelocities(dates, frame, positionsOnly, null);
+                for (int i = 0; i < dates.length; ++i) {
+                    final Vector3D p1 = new Vector3D(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2]);
+                    final Vector3D p2 = new Vector3D(positionsOnly[3 * i], positionsOnly[3 * i + 1], positionsOnly[3 * i + 2]);
+                    Assert.assertEquals(0, Vector3D.distance(p1, p2), 3.0e-15 * p1.getNorm() + 1.0e-6);
+                }
+
+            }
+        }
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testBatchWrongDimension() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        final AbsoluteDate t0 = new AbsoluteDate(1969, 06, 28, TimeScalesFactory.getTT());
+        CelestialBodyFactory.getSun().getPositionsVelocities(new AbsoluteDate[] { t0, t0.shiftedBy(60.0) },
+                                                             FramesFactory.getICRF(),
+                                                             new double[5], null);
+    }
+
+    @Ignore
+    @Test
+    public void benchmarkBatch() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        final CelestialBody moon = CelestialBodyFactory.getMoon();
+        final Frame frame = moon.getInertiallyOrientedFrame().getParent();
+        final AbsoluteDate t0 = new AbsoluteDate(1969, 06, 28, TimeScalesFactory.getTT());
+        final AbsoluteDate[] dates = new AbsoluteDate[100000];
+        for (int i = 0; i < dates.length; ++i) {
+            dates[i] = t0.shiftedBy(i * 17.0);
+        }
+        final double[] positions = new double[3 * dates.length];
+        for (int run = 0; run < 10; ++run) {
+            double sum = 0;
+            long start = System.nanoTime();
+            for (final AbsoluteDate date : dates) {
+                sum += moon.getPVCoordinates(date, frame).getPosition().getX();
+            }
+            final long pvTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (final AbsoluteDate date : dates) {
+                sum += moon.getPosition(date, frame).getX();
+            }
+            final long positionTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            moon.getPositionsVelocities(dates, frame, positions, null);
+            final long batchTime = System.nanoTime() - start;
+            System.out.format("run %d: getPVCoordinates %8.3f ms, getPosition %8.3f ms, batch %8.3f ms (%g)%n",
+                              run, pvTime * 1.0e-6, positionTime * 1.0e-6, batchTime * 1.0e-6, sum);
+        }
+    }
+
     private void checkKepler(final PVCoordinatesProvider orbiting, final CelestialBody central,
                              final AbsoluteDate start, final double a, final double epsilon)
         throws OrekitException {
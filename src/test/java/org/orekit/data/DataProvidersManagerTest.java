@@ -20,7 +20,10 @@ package org.orekit.data;
 import java.io.File;
 import java.io.InputStream;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Pattern;
 
 import org.apache.commons.math3.exception.util.DummyLocalizable;
@@ -60,6 +63,50 @@ public class DataProvidersManagerTest {
         Assert.assertEquals(0, manager.getLoadedDataNames().size());
     }
 
+    @Test
+    public void testConcurrentFeed() throws OrekitException {
+        System.setProperty(DataProvidersManager.OREKIT_DATA_PATH, getPath("regular-data"));
+        DataProvidersManager manager = DataProvidersManager.getInstance();
+        manager.clearProviders();
+        manager.clearLoadedDataNames();
+        CountingLoader tleCounter   = new CountingLoader(false);
+        CountingLoader de405Counter = new CountingLoader(false);
+        CountingLoader noneCounter  = new CountingLoader(false);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Boolean> results =
+                    manager.feed(Arrays.asList(".*\\.tle$", ".*\\.405$", ".*\\.unknown$"),
+                                 Arrays.asList(tleCounter, de405Counter, noneCounter),
+                                 executor);
+            Assert.assertEquals(Arrays.asList(true, true, false), results);
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(4, tleCounter.getCount());
+        Assert.assertEquals(4, de405Counter.getCount());
+        Assert.assertEquals(0, noneCounter.getCount());
+        Assert.assertEquals(8, manager.getLoadedDataNames().size());
+        manager.clearLoadedDataNames();
+    }
+
+    @Test
+    public void testConcurrentFeedFailure() throws OrekitException {
+        System.setProperty(DataProvidersManager.OREKIT_DATA_PATH, getPath("regular-data"));
+        DataProvidersManager manager = DataProvidersManager.getInstance();
+        manager.clearProviders();
+        CountingLoader tleCounter = new CountingLoader(false);
+        CountingLoader failing    = new CountingLoader(true);
+        try {
+            manager.feed(Arrays.asList(".*\\.tle$", ".*\\.405$"),
+                         Arrays.asList(tleCounter, failing));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals("intentional failure", oe.getMessage());
+        }
+        Assert.assertEquals(4, tleCounter.getCount());
+        Assert.assertEquals(4, failing.getCount());
+    }
+
     @Test
     public void testLoadFailure() {
         System.setProperty(DataProvidersManager.OREKIT_DATA_PATH, getPath("regular-data"));
@@ -0,0 +1,198 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.data;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.gravity.potential.EGMFormatReader;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.ICGEMFormatReader;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider.NormalizedSphericalHarmonics;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Transform;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.IERSConventions;
+
+public class DataSnapshotTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws OrekitException, IOException {
+
+        final File file = tempFolder.newFile("snapshot.bin");
+        new DataSnapshotWriter(5, 5).write(file);
+        final double[] reference = computeValues();
+        Assert.assertFalse(DataProvidersManager.getInstance().getLoadedDataNames().isEmpty());
+
+        // restart from scratch, without any data providers
+        Utils.clearFactories();
+        System.setProperty(DataProvidersManager.OREKIT_DATA_PATH, "");
+        new DataSnapshot(file).configureFactories();
+        final double[] restored = computeValues();
+        Assert.assertTrue(DataProvidersManager.getInstance().getLoadedDataNames().isEmpty());
+
+        Assert.assertEquals(reference.length, restored.length);
+        for (int i = 0; i < reference.length; ++i) {
+            Assert.assertEquals(reference[i], restored[i], 0.0);
+        }
+
+        // more coefficients than stored cannot be provided
+        try {
+            GravityFieldFactory.getNormalizedProvider(6, 6);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NO_GRAVITY_FIELD_DATA_LOADED, oe.getSpecifier());
+        }
+
+    }
+
+    @Test
+    public void testNoGravityField() throws OrekitException, IOException {
+
+        final File file = tempFolder.newFile("snapshot.bin");
+        new DataSnapshotWriter(-1, -1).write(file);
+        final double reference = TimeScalesFactory.getUTC().offsetFromTAI(new AbsoluteDate(2005, 3, 5, TimeScalesFactory.getTAI()));
+
+        Utils.clearFactories();
+        System.setProperty(DataProvidersManager.OREKIT_DATA_PATH, "");
+        new DataSnapshot(file).configureFactories();
+        Assert.assertEquals(reference,
+                            TimeScalesFactory.getUTC().offsetFromTAI(new AbsoluteDate(2005, 3, 5, TimeScalesFactory.getTAI())),
+                            0.0);
+        try {
+            GravityFieldFactory.getNormalizedProvider(2, 2);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NO_GRAVITY_FIELD_DATA_LOADED, oe.getSpecifier());
+        }
+
+    }
+
+    @Test
+    public void testTimeDependentGravityField() throws OrekitException, IOException {
+        Utils.setDataRoot("regular-data:potential/icgem-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new ICGEMFormatReader("^eigen-6s-truncated$", false));
+        try {
+            new DataSnapshotWriter(4, 4).write(tempFolder.newFile("snapshot.bin"));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.TIME_DEPENDENT_GRAVITY_FIELD_IN_SNAPSHOT, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testNotASnapshot() throws OrekitException, IOException {
+        final File file = tempFolder.newFile("not-a-snapshot.bin");
+        final FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[] {0x4f, 0x52, 0x45, 0x4b, 0x49, 0x54});
+        out.close();
+        try {
+            new DataSnapshot(file);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NOT_AN_OREKIT_DATA_SNAPSHOT, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testTruncated() throws OrekitException, IOException {
+        final File file = tempFolder.newFile("snapshot.bin");
+        new DataSnapshotWriter(5, 5).write(file);
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(raf.length() - 8);
+        raf.close();
+        try {
+            new DataSnapshot(file);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NOT_AN_OREKIT_DATA_SNAPSHOT, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testMissingFile() {
+        final File file = new File(tempFolder.getRoot(), "missing.bin");
+        try {
+            new DataSnapshot(file);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.UNABLE_TO_FIND_FILE, oe.getSpecifier());
+        }
+    }
+
+    private double[] computeValues() throws OrekitException {
+
+        final double[] values = new double[4 + 2 * 6 + 2 * 21 + 2];
+        int k = 0;
+
+        // UTC, including pre-1972 linear models
+        for (final int year : new int[] {1965, 1980, 2005, 2015}) {
+            values[k++] = TimeScalesFactory.getUTC().offsetFromTAI(new AbsoluteDate(year, 3, 5, TimeScalesFactory.getTAI()));
+        }
+
+        // EOP, through full frames transforms
+        final AbsoluteDate date = new AbsoluteDate(2005, 3, 5, 12, 0, 0.0, TimeScalesFactory.getUTC());
+        final Frame gcrf = FramesFactory.getGCRF();
+        for (final IERSConventions conventions : new IERSConventions[] {IERSConventions.IERS_1996, IERSConventions.IERS_2010}) {
+            final Transform t = gcrf.getTransformTo(FramesFactory.getITRF(conventions, false), date);
+            values[k++] = t.getRotation().getQ0();
+            values[k++] = t.getRotation().getQ1();
+            values[k++] = t.getRotation().getQ2();
+            values[k++] = t.getRotation().getQ3();
+            values[k++] = FramesFactory.getEOPHistory(conventions, false).getUT1MinusUTC(date);
+            values[k++] = FramesFactory.getEOPHistory(conventions, false).getLOD(date);
+        }
+
+        // gravity field
+        final NormalizedSphericalHarmonicsProvider provider = GravityFieldFactory.getNormalizedProvider(5, 5);
+        final NormalizedSphericalHarmonics harmonics = provider.onDate(date);
+        for (int n = 0; n <= 5; ++n) {
+            for (int m = 0; m <= n; ++m) {
+                values[k++] = harmonics.getNormalizedCnm(n, m);
+                values[k++] = harmonics.getNormalizedSnm(n, m);
+            }
+        }
+        values[k++] = provider.getAe();
+        values[k++] = provider.getMu();
+
+        return values;
+
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("regular-data:potential/egm-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new EGMFormatReader("egm96_to5.ascii", true));
+    }
+
+}
@@ -17,20 +17,30 @@
 package org.orekit.data;
 
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.text.ParseException;
+import java.util.Arrays;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.orekit.errors.OrekitException;
 
 public class DirectoryCrawlerTest {
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     @Test(expected=OrekitException.class)
     public void testNoDirectory() throws OrekitException, URISyntaxException {
         File existing = new File(getClass().getClassLoader().getResource("regular-data").toURI().getPath());
@@ -63,6 +73,72 @@ public class DirectoryCrawlerTest {
         Assert.assertTrue(crawler.getCount() > 0);
     }
 
+    @Test
+    public void testPipelinedDecompression() throws OrekitException, IOException, URISyntaxException {
+        URL url =
+            DirectoryCrawlerTest.class.getClassLoader().getResource("compressed-data");
+        final File directory = new File(url.toURI().getPath());
+        ContentLoader loader = new ContentLoader();
+        new DirectoryCrawler(directory).feed(Pattern.compile("eopc04_08\\.0[0-2]$"), loader);
+        Assert.assertEquals(3, loader.getCount());
+        for (final String name : new String[] {"eopc04_08.00", "eopc04_08.01", "eopc04_08.02"}) {
+            final byte[] reference = readFully(new GZIPInputStream(new FileInputStream(new File(directory, name + ".gz"))));
+            Assert.assertTrue(reference.length > 3 * 16384);
+            Assert.assertTrue(Arrays.equals(reference, loader.getContent(new File(directory, name + ".gz").getPath())));
+        }
+    }
+
+    @Test
+    public void testPersistentIndex() throws OrekitException, IOException {
+        final File root = tempFolder.newFolder("data");
+        final File sub  = new File(root, "sub");
+        Assert.assertTrue(sub.mkdir());
+        createFile(new File(root, "a.txt"));
+        createFile(new File(sub, "b.txt"));
+        final File indexFile = new File(tempFolder.getRoot(), "index");
+
+        // set directories modification time well before listing time,
+        // so their listings are trusted by later crawlers
+        final long past = 1000L * (System.currentTimeMillis() / 1000L - 60L);
+        Assert.assertTrue(root.setLastModified(past));
+        Assert.assertTrue(sub.setLastModified(past));
+
+        CountingLoader loader = new CountingLoader();
+        Assert.assertTrue(new DirectoryCrawler(root, indexFile).feed(Pattern.compile(".*\\.txt$"), loader));
+        Assert.assertEquals(2, loader.getCount());
+        Assert.assertTrue(indexFile.isFile());
+        final long indexLength = indexFile.length();
+
+        // a new file whose directory modification time is reset is not
+        // seen by a new crawler, which proves the persisted listing is used
+        // instead of the filesystem
+        createFile(new File(sub, "c.txt"));
+        Assert.assertTrue(sub.setLastModified(past));
+        loader = new CountingLoader();
+        Assert.assertTrue(new DirectoryCrawler(root, indexFile).feed(Pattern.compile(".*\\.txt$"), loader));
+        Assert.assertEquals(2, loader.getCount());
+        Assert.assertEquals(indexLength, indexFile.length());
+
+        // without persistent index, the filesystem is listed and the file is seen
+        loader = new CountingLoader();
+        Assert.assertTrue(new DirectoryCrawler(root, null).feed(Pattern.compile(".*\\.txt$"), loader));
+        Assert.assertEquals(3, loader.getCount());
+
+        // the new file is seen with the persistent index as soon as
+        // the sub-directory modification time changes
+        Assert.assertTrue(sub.setLastModified(past + 10000L));
+        loader = new CountingLoader();
+        Assert.assertTrue(new DirectoryCrawler(root, indexFile).feed(Pattern.compile(".*\\.txt$"), loader));
+        Assert.assertEquals(3, loader.getCount());
+
+        // a corrupted index is ignored
+        createFile(indexFile);
+        loader = new CountingLoader();
+        Assert.assertTrue(new DirectoryCrawler(root, indexFile).feed(Pattern.compile(".*\\.txt$"), loader));
+        Assert.assertEquals(3, loader.getCount());
+
+    }
+
     @Test
     public void testMultiZipClasspath() throws OrekitException, URISyntaxException {
         URL url =
@@ -116,6 +192,39 @@ public class DirectoryCrawlerTest {
         }
     }
 
+    private static class ContentLoader implements DataLoader {
+        private final java.util.Map<String, byte[]> contents = new java.util.HashMap<String, byte[]>();
+        public boolean stillAcceptsData() {
+            return true;
+        }
+        public void loadData(InputStream input, String name) throws IOException {
+            contents.put(name, readFully(input));
+        }
+        public int getCount() {
+            return contents.size();
+        }
+        public byte[] getContent(String name) {
+            return contents.get(name);
+        }
+    }
+
+    private static byte[] readFully(InputStream input) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1000];
+        for (int n = input.read(buffer); n >= 0; n = input.read(buffer)) {
+            output.write(buffer, 0, n);
+        }
+        // check single byte reads after end of stream
+        Assert.assertEquals(-1, input.read());
+        return output.toByteArray();
+    }
+
+    private static void createFile(File file) throws IOException {
+        final FileOutputStream output = new FileOutputStream(file);
+        output.write("dummy content\n".getBytes("UTF-8"));
+        output.close();
+    }
+
     private static class IOExceptionLoader implements DataLoader {
         public boolean stillAcceptsData() {
             return true;
@@ -44,8 +44,11 @@ public abstract class AbstractForceModelTest {
 
         private Vector3D acceleration;
 
+        private final EvaluationContext context;
+
         public AccelerationRetriever() {
             acceleration = Vector3D.ZERO;
+            context      = new EvaluationContext();
         }
 
         public void addKeplerContribution(double mu) {
@@ -62,6 +65,10 @@ public abstract class AbstractForceModelTest {
         public void addMassDerivative(double q) {
         }
 
+        public EvaluationContext getEvaluationContext() {
+            return context;
+        }
+
         public Vector3D getAcceleration() {
             return acceleration;
         }
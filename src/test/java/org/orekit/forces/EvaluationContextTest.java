@@ -0,0 +1,258 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces;
+
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.ode.AbstractParameterizable;
+import org.apache.commons.math3.ode.nonstiff.DormandPrince853Integrator;
+import org.apache.commons.math3.analysis.differentiation.DerivativeStructure;
+import org.apache.commons.math3.geometry.euclidean.threed.FieldRotation;
+import org.apache.commons.math3.geometry.euclidean.threed.FieldVector3D;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.errors.OrekitException;
+import org.orekit.forces.drag.DragForce;
+import org.orekit.forces.drag.HarrisPriester;
+import org.orekit.forces.drag.IsotropicDrag;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.forces.gravity.SolidTides;
+import org.orekit.forces.gravity.ThirdBodyAttraction;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.forces.radiation.IsotropicRadiationSingleCoefficient;
+import org.orekit.forces.radiation.SolarRadiationPressure;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Transform;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.propagation.numerical.TimeDerivativesEquations;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+public class EvaluationContextTest {
+
+    @Test
+    public void testSharedQuantities() throws OrekitException {
+
+        final ForceModel[] models = buildModels();
+        final SpacecraftState state = new SpacecraftState(orbit);
+
+        // reference accelerations, each model with its own context
+        final Vector3D[] reference = new Vector3D[models.length];
+        for (int i = 0; i < models.length; ++i) {
+            final AbstractForceModelTest.AccelerationRetriever retriever =
+                    new AbstractForceModelTest.AccelerationRetriever();
+            models[i].addContribution(state, retriever);
+            reference[i] = retriever.getAcceleration();
+        }
+
+        // accelerations with a shared context
+        final EvaluationContext context = new EvaluationContext();
+        for (int i = 0; i < models.length; ++i) {
+            final SharedContextRetriever retriever = new SharedContextRetriever(context);
+            models[i].addContribution(state, retriever);
+            Assert.assertEquals(0.0, Vector3D.distance(reference[i], retriever.acceleration), 0.0);
+        }
+
+        // gravity field, solid tides, Sun, Moon, solar radiation pressure, drag
+        // the Earth frame transform is computed once and shared by gravity field and solid tides,
+        // the Sun position is computed once and shared by third body attraction and radiation pressure
+        Assert.assertEquals(7, context.getRequests());
+        Assert.assertEquals(3, context.getComputations());
+
+        // a new state resets the memo
+        models[0].addContribution(state.shiftedBy(10.0), new SharedContextRetriever(context));
+        Assert.assertEquals(9, context.getRequests());
+        Assert.assertEquals(4, context.getComputations());
+
+    }
+
+    @Test
+    public void testConsistentTransforms() throws OrekitException {
+        final SpacecraftState state = new SpacecraftState(orbit);
+        final EvaluationContext context = new EvaluationContext();
+        final Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        final Transform from = context.getTransformFrom(state, itrf);
+        final Transform to   = context.getTransformTo(state, itrf);
+        Assert.assertSame(from, context.getTransformFrom(state, itrf));
+        Assert.assertSame(to,   context.getTransformTo(state, itrf));
+        final Transform direct = itrf.getTransformTo(state.getFrame(), state.getDate());
+        final Vector3D p = new Vector3D(6.4e6, -1.3e6, 2.7e5);
+        Assert.assertEquals(0.0, Vector3D.distance(direct.transformPosition(p), from.transformPosition(p)), 0.0);
+        Assert.assertEquals(0.0, Vector3D.distance(p, to.transformPosition(from.transformPosition(p))), 1.0e-8);
+        Assert.assertEquals(4, context.getRequests());
+        Assert.assertEquals(1, context.getComputations());
+    }
+
+    @Test
+    public void testPropagationSharing() throws OrekitException {
+        final NumericalPropagator propagator = buildPropagator();
+        final ContextSpy spy = new ContextSpy();
+        propagator.addForceModel(spy);
+        propagator.propagate(orbit.getDate().shiftedBy(600.0));
+        // at each evaluation, there are 7 requests from the force models and 1 from the spy,
+        // but only 3 computations
+        final long requests     = spy.context.getRequests();
+        final long computations = spy.context.getComputations();
+        Assert.assertTrue(requests > 0);
+        Assert.assertEquals(0, requests % 8);
+        Assert.assertEquals(requests / 8 * 3, computations);
+    }
+
+    @Ignore
+    @Test
+    public void benchmarkLEO() throws OrekitException {
+        for (int run = 0; run < 10; ++run) {
+            final NumericalPropagator propagator = buildPropagator();
+            final ContextSpy spy = new ContextSpy();
+            propagator.addForceModel(spy);
+            final long start = System.nanoTime();
+            propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+            final long end = System.nanoTime();
+            System.out.format("run %d: %8.3f ms, %d frame/ephemeris requests, %d computed (%d saved)%n",
+                              run, (end - start) * 1.0e-6,
+                              spy.context.getRequests(), spy.context.getComputations(),
+                              spy.context.getRequests() - spy.context.getComputations());
+        }
+    }
+
+    private ForceModel[] buildModels() throws OrekitException {
+        final NormalizedSphericalHarmonicsProvider gravityField =
+                GravityFieldFactory.getConstantNormalizedProvider(8, 8);
+        final Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        final OneAxisEllipsoid earth = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                            Constants.WGS84_EARTH_FLATTENING,
+                                                            itrf);
+        return new ForceModel[] {
+            new HolmesFeatherstoneAttractionModel(itrf, gravityField),
+            new SolidTides(itrf, gravityField.getAe(), gravityField.getMu(),
+                           gravityField.getTideSystem(), IERSConventions.IERS_2010,
+                           TimeScalesFactory.getUT1(IERSConventions.IERS_2010, true),
+                           CelestialBodyFactory.getSun(), CelestialBodyFactory.getMoon()),
+            new ThirdBodyAttraction(CelestialBodyFactory.getSun()),
+            new ThirdBodyAttraction(CelestialBodyFactory.getMoon()),
+            new SolarRadiationPressure(CelestialBodyFactory.getSun(), earth.getEquatorialRadius(),
+                                       new IsotropicRadiationSingleCoefficient(2.0, 1.5)),
+            new DragForce(new HarrisPriester(CelestialBodyFactory.getSun(), earth),
+                          new IsotropicDrag(2.0, 2.2))
+        };
+    }
+
+    private NumericalPropagator buildPropagator() throws OrekitException {
+        final double[][] tolerances = NumericalPropagator.tolerances(0.001, orbit, OrbitType.CARTESIAN);
+        final NumericalPropagator propagator =
+                new NumericalPropagator(new DormandPrince853Integrator(0.001, 300.0, tolerances[0], tolerances[1]));
+        propagator.setOrbitType(OrbitType.CARTESIAN);
+        propagator.setInitialState(new SpacecraftState(orbit, 1000.0));
+        for (final ForceModel model : buildModels()) {
+            propagator.addForceModel(model);
+        }
+        return propagator;
+    }
+
+    /** Force model doing nothing but retrieving the evaluation context. */
+    private static class ContextSpy extends AbstractParameterizable implements ForceModel {
+
+        private EvaluationContext context;
+
+        public void addContribution(SpacecraftState s, TimeDerivativesEquations adder)
+            throws OrekitException {
+            context = adder.getEvaluationContext();
+            // this request is always served from the memo, as the gravity field already needed it
+            context.getTransformFrom(s, FramesFactory.getITRF(IERSConventions.IERS_2010, true));
+        }
+
+        public FieldVector3D<DerivativeStructure> accelerationDerivatives(AbsoluteDate date, Frame frame,
+                                                                          FieldVector3D<DerivativeStructure> position,
+                                                                          FieldVector3D<DerivativeStructure> velocity,
+                                                                          FieldRotation<DerivativeStructure> rotation,
+                                                                          DerivativeStructure mass) {
+            return null;
+        }
+
+        public FieldVector3D<DerivativeStructure> accelerationDerivatives(SpacecraftState s, String paramName) {
+            return null;
+        }
+
+        public EventDetector[] getEventsDetectors() {
+            return new EventDetector[0];
+        }
+
+        public double getParameter(String name) {
+            return Double.NaN;
+        }
+
+        public void setParameter(String name, double value) {
+        }
+
+    }
+
+    private static class SharedContextRetriever extends AbstractForceModelTest.AccelerationRetriever {
+
+        private final EvaluationContext context;
+        private Vector3D acceleration;
+
+        SharedContextRetriever(final EvaluationContext context) {
+            this.context      = context;
+            this.acceleration = Vector3D.ZERO;
+        }
+
+        @Override
+        public void addXYZAcceleration(double x, double y, double z) {
+            acceleration = new Vector3D(x, y, z);
+        }
+
+        @Override
+        public void addAcceleration(Vector3D gamma, Frame frame) {
+            acceleration = gamma;
+        }
+
+        @Override
+        public EvaluationContext getEvaluationContext() {
+            return context;
+        }
+
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data:potential/icgem-format");
+        orbit = new KeplerianOrbit(6778137.0, 1.0e-3, FastMath.toRadians(51.6),
+                                   FastMath.toRadians(93.0), FastMath.toRadians(15.0 * 22.5),
+                                   0, PositionAngle.MEAN, FramesFactory.getEME2000(),
+                                   new AbsoluteDate(2003, 07, 01, 13, 59, 27.816, TimeScalesFactory.getUTC()),
+                                   Constants.EIGEN5C_EARTH_MU);
+    }
+
+    private Orbit orbit;
+
+}
@@ -0,0 +1,385 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.gravity;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.ode.nonstiff.DormandPrince853Integrator;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937a;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.ForceModel;
+import org.orekit.forces.gravity.potential.GRGSFormatReader;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.IERSConventions;
+
+public class GriddedGravityAttractionModelTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testHeader() throws OrekitException, IOException {
+        final HolmesFeatherstoneAttractionModel direct = createDirect(20);
+        final File file = tempFolder.newFile("grid.bin");
+        new GriddedGravityWriter(direct, 400.0e3, 600.0e3, 2, 19, 36).write(file, date);
+        final GriddedGravityAttractionModel gridded = new GriddedGravityAttractionModel(file, direct);
+        final double ae = direct.getProvider().getAe();
+        Assert.assertEquals(file, gridded.getFile());
+        Assert.assertSame(direct, gridded.getDirectModel());
+        Assert.assertEquals(itrf.getName(), gridded.getFrameName());
+        Assert.assertEquals(ae + 400.0e3, gridded.getMinRadius(), 1.0e-9);
+        Assert.assertEquals(ae + 600.0e3, gridded.getMaxRadius(), 1.0e-9);
+
+        // 2 radial points have been raised to 4
+        Assert.assertEquals(8 + 4 + 2 + itrf.getName().length() + 3 * 8 + 3 * 4 + 4 * 19 * 36 * 3 * 8,
+                            file.length());
+
+        // grid nodes are reproduced
+        final double r   = ae + 400.0e3 + 200.0e3 / 3;
+        final double lat = FastMath.toRadians(30.0);
+        final double lon = FastMath.toRadians(-50.0);
+        final Vector3D node = new Vector3D(r * FastMath.cos(lat) * FastMath.cos(lon),
+                                           r * FastMath.cos(lat) * FastMath.sin(lon),
+                                           r * FastMath.sin(lat));
+        final Vector3D reference = new Vector3D(direct.gradient(date, node));
+        final Vector3D tabulated = new Vector3D(gridded.gradient(date, node));
+        Assert.assertEquals(0.0, Vector3D.distance(reference, tabulated), 1.0e-10 * reference.getNorm());
+    }
+
+    @Test
+    public void testAccuracy() throws OrekitException, IOException {
+        final HolmesFeatherstoneAttractionModel direct = createDirect(20);
+        final File file = tempFolder.newFile("grid.bin");
+        new GriddedGravityWriter(direct, 400.0e3, 600.0e3, 9, 181, 360).write(file, date);
+        final GriddedGravityAttractionModel gridded = new GriddedGravityAttractionModel(file, direct);
+        final double[] errors = maxErrors(direct, gridded, 400.0e3, 600.0e3, 10000);
+        Assert.assertTrue(errors[0] < 1.0e-6);
+        Assert.assertTrue(errors[0] < 1.0e-4 * errors[1]);
+    }
+
+    @Test
+    public void testOutsideGrid() throws OrekitException, IOException {
+        final HolmesFeatherstoneAttractionModel direct = createDirect(20);
+        final File file = tempFolder.newFile("grid.bin");
+        new GriddedGravityWriter(direct, 400.0e3, 600.0e3, 4, 19, 36).write(file, date);
+        final GriddedGravityAttractionModel gridded = new GriddedGravityAttractionModel(file, direct);
+        final Vector3D direction = new Vector3D(0.3, -0.5, 0.4).normalize();
+        for (final double r : new double[] { gridded.getMinRadius() - 1.0, gridded.getMaxRadius() + 1.0 }) {
+            final Vector3D position = new Vector3D(r, direction);
+            Assert.assertFalse(gridded.isInGrid(position));
+            final double[] reference = direct.gradient(date, position);
+            final double[] tabulated = gridded.gradient(date, position);
+            for (int i = 0; i < 3; ++i) {
+                Assert.assertEquals(reference[i], tabulated[i], 0.0);
+            }
+        }
+        Assert.assertTrue(gridded.isInGrid(new Vector3D(0.5 * (gridded.getMinRadius() + gridded.getMaxRadius()),
+                                                        direction)));
+    }
+
+    @Test
+    public void testMuScaling() throws OrekitException, IOException {
+        final HolmesFeatherstoneAttractionModel direct = createDirect(20);
+        final File file = tempFolder.newFile("grid.bin");
+        new GriddedGravityWriter(direct, 400.0e3, 600.0e3, 4, 19, 36).write(file, date);
+        final GriddedGravityAttractionModel gridded = new GriddedGravityAttractionModel(file, direct);
+        final Vector3D position = new Vector3D(6878137.0, new Vector3D(0.3, -0.5, 0.4).normalize());
+        final double[] before = gridded.gradient(date, position);
+        final double mu = gridded.getParameter(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT);
+        gridded.setParameter(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT, 1.001 * mu);
+        Assert.assertEquals(1.001 * mu,
+                            direct.getParameter(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT),
+                            1.0e-15 * mu);
+        final double[] after = gridded.gradient(date, position);
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertEquals(1.001 * before[i], after[i], 1.0e-15 * FastMath.abs(before[i]));
+        }
+    }
+
+    @Test
+    public void testPropagation() throws OrekitException, IOException {
+        final HolmesFeatherstoneAttractionModel direct = createDirect(20);
+        final File file = tempFolder.newFile("grid.bin");
+        new GriddedGravityWriter(direct, 400.0e3, 600.0e3, 9, 181, 360).write(file, date);
+        final GriddedGravityAttractionModel gridded = new GriddedGravityAttractionModel(file, direct);
+        final Orbit orbit = new KeplerianOrbit(6878137.0, 0.001, FastMath.toRadians(97.4),
+                                               FastMath.toRadians(90.0), FastMath.toRadians(45.0),
+                                               0.0, PositionAngle.MEAN,
+                                               FramesFactory.getEME2000(), date,
+                                               direct.getProvider().getMu());
+        final Vector3D pDirect  = propagate(orbit, direct, 7200.0).getPVCoordinates().getPosition();
+        final Vector3D pGridded = propagate(orbit, gridded, 7200.0).getPVCoordinates().getPosition();
+        Assert.assertEquals(0.0, Vector3D.distance(pDirect, pGridded), 1.0);
+    }
+
+    @Test
+    public void testSharedAcrossThreads()
+        throws OrekitException, IOException, InterruptedException, ExecutionException {
+        final HolmesFeatherstoneAttractionModel direct = createDirect(20);
+        final File file = tempFolder.newFile("grid.bin");
+        new GriddedGravityWriter(direct, 400.0e3, 600.0e3, 4, 37, 72).write(file, date);
+        final GriddedGravityAttractionModel gridded = new GriddedGravityAttractionModel(file, direct);
+
+        final RandomGenerator random = new Well19937a(0x2bd2a6a9f0e4c3d1l);
+        final Vector3D[] positions = new Vector3D[1000];
+        final double[][] expected  = new double[positions.length][];
+        for (int i = 0; i < positions.length; ++i) {
+            positions[i] = randomPosition(random, gridded.getMinRadius(), gridded.getMaxRadius());
+            expected[i]  = gridded.gradient(date, positions[i]);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+        for (int t = 0; t < 8; ++t) {
+            results.add(executor.submit(new Callable<Boolean>() {
+                public Boolean call() throws OrekitException {
+                    for (int i = 0; i < positions.length; ++i) {
+                        final double[] g = gridded.gradient(date, positions[i]);
+                        for (int k = 0; k < 3; ++k) {
+                            if (g[k] != expected[i][k]) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }
+            }));
+        }
+        executor.shutdown();
+        for (final Future<Boolean> result : results) {
+            Assert.assertTrue(result.get());
+        }
+    }
+
+    @Test
+    public void testNotAGrid() throws IOException {
+        final File file = tempFolder.newFile("not-a-grid.bin");
+        final DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        out.writeLong(0x123456789abcdefL);
+        out.writeInt(GriddedGravityWriter.VERSION);
+        out.close();
+        checkNotAGrid(file);
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        final File file = tempFolder.newFile("truncated.bin");
+        final DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        out.writeLong(GriddedGravityWriter.MAGIC);
+        out.writeInt(GriddedGravityWriter.VERSION);
+        out.writeUTF("ITRF");
+        out.writeDouble(3.986004415e14);
+        out.close();
+        checkNotAGrid(file);
+    }
+
+    @Test
+    public void testMissingRecords() throws OrekitException, IOException {
+        final File file = tempFolder.newFile("missing.bin");
+        final DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        out.writeLong(GriddedGravityWriter.MAGIC);
+        out.writeInt(GriddedGravityWriter.VERSION);
+        out.writeUTF("ITRF");
+        out.writeDouble(3.986004415e14);
+        out.writeDouble(6.7e6);
+        out.writeDouble(6.9e6);
+        out.writeInt(4);
+        out.writeInt(4);
+        out.writeInt(4);
+        out.writeDouble(0.0);
+        out.close();
+        checkNotAGrid(file);
+    }
+
+    @Test
+    public void testFramesMismatch() throws OrekitException, IOException {
+        final File file = tempFolder.newFile("grid.bin");
+        new GriddedGravityWriter(createDirect(8), 400.0e3, 600.0e3, 4, 19, 36).write(file, date);
+        final Frame other = FramesFactory.getGTOD(IERSConventions.IERS_2010, true);
+        try {
+            new GriddedGravityAttractionModel(file,
+                                              new HolmesFeatherstoneAttractionModel(other,
+                                                                                    GravityFieldFactory.getNormalizedProvider(8, 8)));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.FRAMES_MISMATCH, oe.getSpecifier());
+            Assert.assertEquals(itrf.getName(), oe.getParts()[0]);
+            Assert.assertEquals(other.getName(), oe.getParts()[1]);
+        }
+    }
+
+    @Test
+    public void testTooLargeGrid() throws OrekitException, IOException {
+        final File file = new File(tempFolder.getRoot(), "too-large.bin");
+        try {
+            new GriddedGravityWriter(createDirect(8), 400.0e3, 600.0e3, 100, 1801, 3600).write(file, date);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.TOO_LARGE_FILE_FOR_MAPPING, oe.getSpecifier());
+            Assert.assertEquals(file.getAbsolutePath(), oe.getParts()[0]);
+            Assert.assertFalse(file.exists());
+        }
+    }
+
+    @Ignore
+    @Test
+    public void benchmarkGrid() throws OrekitException, IOException {
+        for (final int degree : new int[] { 20, 69 }) {
+            final HolmesFeatherstoneAttractionModel direct = createDirect(degree);
+            for (final int pointsPerDegree : new int[] { 1, 2, 4 }) {
+                final File file = tempFolder.newFile();
+                final long w0 = System.nanoTime();
+                new GriddedGravityWriter(direct, 300.0e3, 900.0e3, 25,
+                                         180 * pointsPerDegree + 1, 360 * pointsPerDegree).write(file, date);
+                final long w1 = System.nanoTime();
+                final GriddedGravityAttractionModel gridded = new GriddedGravityAttractionModel(file, direct);
+                final double[] errors = maxErrors(direct, gridded, 300.0e3, 900.0e3, 100000);
+                final double tDirect  = timePerCall(direct,  gridded.getMinRadius(), gridded.getMaxRadius(), false);
+                final double tGridded = timePerCall(gridded, gridded.getMinRadius(), gridded.getMaxRadius(), true);
+                System.out.format(java.util.Locale.US,
+                                  "degree %2d, step %5.3f°: file %6.1f MB written in %6.1f s," +
+                                  " max error %9.3e m/s² (%9.3e relative)," +
+                                  " direct %8.3f µs, gridded %8.3f µs, speed-up %6.1f%n",
+                                  degree, 1.0 / pointsPerDegree, file.length() / 1.0e6, (w1 - w0) * 1.0e-9,
+                                  errors[0], errors[0] / errors[1],
+                                  tDirect * 1.0e6, tGridded * 1.0e6, tDirect / tGridded);
+            }
+        }
+    }
+
+    private HolmesFeatherstoneAttractionModel createDirect(final int degree) throws OrekitException {
+        return new HolmesFeatherstoneAttractionModel(itrf, GravityFieldFactory.getNormalizedProvider(degree, degree));
+    }
+
+    private double[] maxErrors(final HolmesFeatherstoneAttractionModel direct,
+                               final GriddedGravityAttractionModel gridded,
+                               final double minAltitude, final double maxAltitude,
+                               final int n)
+        throws OrekitException {
+        final RandomGenerator random = new Well19937a(0x5b0b51b6e6b8d5f2l);
+        final double ae = direct.getProvider().getAe();
+        double maxError     = 0;
+        double maxMagnitude = 0;
+        for (int i = 0; i < n; ++i) {
+            final Vector3D position  = randomPosition(random, ae + minAltitude, ae + maxAltitude);
+            final Vector3D reference = new Vector3D(direct.gradient(date, position));
+            final Vector3D tabulated = new Vector3D(gridded.gradient(date, position));
+            maxError     = FastMath.max(maxError, Vector3D.distance(reference, tabulated));
+            maxMagnitude = FastMath.max(maxMagnitude, reference.getNorm());
+        }
+        return new double[] {
+            maxError, maxMagnitude
+        };
+    }
+
+    private double timePerCall(final Object model, final double rMin, final double rMax, final boolean gridded)
+        throws OrekitException {
+        final RandomGenerator random = new Well19937a(0x7e2c1f5b9a7d3c41l);
+        final Vector3D[] positions = new Vector3D[10000];
+        for (int i = 0; i < positions.length; ++i) {
+            positions[i] = randomPosition(random, rMin, rMax);
+        }
+        double sum = 0;
+        long t0 = 0;
+        for (int warmup = 0; warmup < 2; ++warmup) {
+            t0 = System.nanoTime();
+            for (final Vector3D position : positions) {
+                sum += gridded ?
+                       ((GriddedGravityAttractionModel) model).gradient(date, position)[0] :
+                       ((HolmesFeatherstoneAttractionModel) model).gradient(date, position)[0];
+            }
+        }
+        final long t1 = System.nanoTime();
+        if (Double.isNaN(sum)) {
+            Assert.fail("NaN acceleration");
+        }
+        return (t1 - t0) * 1.0e-9 / positions.length;
+    }
+
+    private Vector3D randomPosition(final RandomGenerator random, final double rMin, final double rMax) {
+        final double r   = rMin + random.nextDouble() * (rMax - rMin);
+        final double lat = FastMath.asin(2 * random.nextDouble() - 1);
+        final double lon = 2 * FastMath.PI * random.nextDouble();
+        return new Vector3D(r * FastMath.cos(lat) * FastMath.cos(lon),
+                            r * FastMath.cos(lat) * FastMath.sin(lon),
+                            r * FastMath.sin(lat));
+    }
+
+    private SpacecraftState propagate(final Orbit orbit, final ForceModel model, final double duration)
+        throws OrekitException {
+        final double[][] tolerances = NumericalPropagator.tolerances(0.001, orbit, OrbitType.CARTESIAN);
+        final NumericalPropagator propagator =
+                new NumericalPropagator(new DormandPrince853Integrator(0.001, 300, tolerances[0], tolerances[1]));
+        propagator.setOrbitType(OrbitType.CARTESIAN);
+        propagator.setInitialState(new SpacecraftState(orbit));
+        propagator.addForceModel(model);
+        return propagator.propagate(orbit.getDate().shiftedBy(duration));
+    }
+
+    private void checkNotAGrid(final File file) {
+        try {
+            new GriddedGravityAttractionModel(file, null);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NOT_AN_OREKIT_GRAVITY_GRID, oe.getSpecifier());
+            Assert.assertEquals(file.getAbsolutePath(), oe.getParts()[0]);
+        }
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data:potential/grgs-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new GRGSFormatReader("grim4s4_gr", true));
+        itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        date = new AbsoluteDate(2000, 7, 1, TimeScalesFactory.getUTC());
+    }
+
+    private Frame        itrf;
+    private AbsoluteDate date;
+
+}
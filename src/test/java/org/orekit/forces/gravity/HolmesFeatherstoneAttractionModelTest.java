@@ -17,6 +17,15 @@
 package org.orekit.forces.gravity;
 
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.apache.commons.math3.dfp.Dfp;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
@@ -28,6 +37,7 @@ import org.apache.commons.math3.util.FastMath;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.orekit.Utils;
 import org.orekit.bodies.CelestialBodyFactory;
@@ -183,6 +193,211 @@ public class HolmesFeatherstoneAttractionModelTest extends AbstractForceModelTes
 
     }
 
+    @Test
+    public void testWorkspaceReuse() throws OrekitException {
+
+        int max = 50;
+        NormalizedSphericalHarmonicsProvider provider = new GleasonProvider(max, max);
+        HolmesFeatherstoneAttractionModel fresh  = new HolmesFeatherstoneAttractionModel(itrf, provider);
+        HolmesFeatherstoneAttractionModel reused = new HolmesFeatherstoneAttractionModel(itrf, provider);
+        Vector3D position = new Vector3D(0.7, -0.4, 0.9);
+        Vector3D pole     = new Vector3D(0.0, 0.0, 1.25);
+
+        double   refValue    = fresh.nonCentralPart(null, position);
+        double[] refGradient = fresh.gradient(null, position);
+        HolmesFeatherstoneAttractionModel.GradientHessian refGH =
+                new HolmesFeatherstoneAttractionModel(itrf, provider).gradientHessian(null, position);
+
+        // evaluations at the pole leave non-finite values in the work arrays
+        reused.gradientHessian(null, pole);
+        Assert.assertEquals(refValue, reused.nonCentralPart(null, position), 0.0);
+        reused.gradientHessian(null, pole);
+        double[] gradient = reused.gradient(null, position);
+        reused.gradientHessian(null, pole);
+        HolmesFeatherstoneAttractionModel.GradientHessian gh = reused.gradientHessian(null, position);
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertEquals(refGradient[i], gradient[i], 0.0);
+            Assert.assertEquals(refGH.getGradient()[i], gh.getGradient()[i], 0.0);
+            for (int j = 0; j < 3; ++j) {
+                Assert.assertEquals(refGH.getHessian()[i][j], gh.getHessian()[i][j], 0.0);
+            }
+        }
+
+        // returned arrays are not shared between calls
+        Assert.assertNotSame(gradient, reused.gradient(null, position));
+
+    }
+
+    @Test
+    public void testConcurrentEvaluation() throws Exception {
+
+        int max = 60;
+        NormalizedSphericalHarmonicsProvider provider = new GleasonProvider(max, max);
+        final HolmesFeatherstoneAttractionModel model = new HolmesFeatherstoneAttractionModel(itrf, provider);
+        final Vector3D[] positions = new Vector3D[200];
+        final double[][] reference = new double[positions.length][];
+        for (int i = 0; i < positions.length; ++i) {
+            final double lambda = 0.1 * i;
+            final double theta  = 0.05 + 0.015 * i;
+            positions[i] = new Vector3D(1.25 * FastMath.sin(theta) * FastMath.cos(lambda),
+                                        1.25 * FastMath.sin(theta) * FastMath.sin(lambda),
+                                        1.25 * FastMath.cos(theta));
+            reference[i] = model.gradient(null, positions[i]);
+        }
+
+        final int nbThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+        for (int k = 0; k < nbThreads; ++k) {
+            final int start = k;
+            results.add(executor.submit(new Callable<Integer>() {
+                public Integer call() throws OrekitException {
+                    int mismatches = 0;
+                    for (int loop = 0; loop < 20; ++loop) {
+                        for (int i = 0; i < positions.length; ++i) {
+                            final int index = (start * 37 + i) % positions.length;
+                            final double[] g = model.gradient(null, positions[index]);
+                            for (int j = 0; j < 3; ++j) {
+                                if (g[j] != reference[index][j]) {
+                                    ++mismatches;
+                                }
+                            }
+                        }
+                    }
+                    return mismatches;
+                }
+            }));
+        }
+        executor.shutdown();
+        for (final Future<Integer> result : results) {
+            Assert.assertEquals(0, result.get().intValue());
+        }
+
+    }
+
+    @Test
+    public void testAdaptiveDegree() throws OrekitException {
+
+        Utils.setDataRoot("regular-data:potential/grgs-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new GRGSFormatReader("grim4s4_gr", true));
+        NormalizedSphericalHarmonicsProvider provider = GravityFieldFactory.getNormalizedProvider(69, 69);
+        AbsoluteDate date = new AbsoluteDate(2000, 7, 1, TimeScalesFactory.getUTC());
+        HolmesFeatherstoneAttractionModel full     = new HolmesFeatherstoneAttractionModel(itrf, provider);
+        HolmesFeatherstoneAttractionModel adaptive = new HolmesFeatherstoneAttractionModel(itrf, provider, 1.0e-9);
+        Assert.assertEquals(69, full.getLastDegree());
+
+        int leoDegree = 0;
+        int geoDegree = 0;
+        for (final double r : new double[] { 7.0e6, 2.66e7, 4.2164e7 }) {
+            for (double lambda = 0; lambda < 2 * FastMath.PI; lambda += 0.7) {
+                for (double theta = 0.1; theta < 3.1; theta += 0.3) {
+                    Vector3D position = new Vector3D(r * FastMath.sin(theta) * FastMath.cos(lambda),
+                                                     r * FastMath.sin(theta) * FastMath.sin(lambda),
+                                                     r * FastMath.cos(theta));
+                    Vector3D ref = new Vector3D(full.gradient(date, position));
+                    Vector3D acc = new Vector3D(adaptive.gradient(date, position));
+                    Assert.assertEquals(0.0, Vector3D.distance(ref, acc), 1.0e-9);
+                    Assert.assertEquals(69, full.getLastDegree());
+                }
+            }
+            if (r < 1.0e7) {
+                leoDegree = adaptive.getLastDegree();
+            } else {
+                geoDegree = adaptive.getLastDegree();
+            }
+        }
+        Assert.assertTrue(leoDegree > 60);
+        Assert.assertTrue(geoDegree < 10);
+
+    }
+
+    @Test
+    public void testAdaptiveDegreeHysteresis() throws OrekitException {
+
+        Utils.setDataRoot("regular-data:potential/grgs-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new GRGSFormatReader("grim4s4_gr", true));
+        NormalizedSphericalHarmonicsProvider provider = GravityFieldFactory.getNormalizedProvider(69, 69);
+        AbsoluteDate date = new AbsoluteDate(2000, 7, 1, TimeScalesFactory.getUTC());
+        HolmesFeatherstoneAttractionModel adaptive = new HolmesFeatherstoneAttractionModel(itrf, provider, 1.0e-8);
+        Vector3D direction = new Vector3D(0.3, -0.5, 0.4).normalize();
+
+        // going down, degree never decreases
+        final double[] radii   = new double[200];
+        final int[]    degrees = new int[radii.length];
+        double threshold = Double.NaN;
+        for (int i = 0; i < radii.length; ++i) {
+            radii[i] = 4.0e7 - i * 1.6e5;
+            adaptive.gradient(date, new Vector3D(radii[i], direction));
+            degrees[i] = adaptive.getLastDegree();
+            if (i > 0) {
+                Assert.assertTrue(degrees[i] >= degrees[i - 1]);
+                if (degrees[i] > degrees[i - 1]) {
+                    threshold = radii[i];
+                }
+            }
+        }
+        Assert.assertTrue(degrees[radii.length - 1] > degrees[0]);
+
+        // going up, degree never increases and stays above the degree used when going down
+        for (int i = radii.length - 1; i >= 0; --i) {
+            final int previous = adaptive.getLastDegree();
+            adaptive.gradient(date, new Vector3D(radii[i], direction));
+            Assert.assertTrue(adaptive.getLastDegree() <= previous);
+            Assert.assertTrue(adaptive.getLastDegree() >= degrees[i]);
+        }
+
+        // oscillating around a threshold does not chatter
+        int changes = 0;
+        adaptive.gradient(date, new Vector3D(threshold, direction));
+        for (int k = 0; k < 50; ++k) {
+            final int previous = adaptive.getLastDegree();
+            adaptive.gradient(date, new Vector3D(threshold + ((k % 2 == 0) ? 1.0e3 : -1.0e3), direction));
+            if (adaptive.getLastDegree() != previous) {
+                ++changes;
+            }
+        }
+        Assert.assertTrue(changes <= 1);
+
+    }
+
+    @Ignore
+    @Test
+    public void benchmarkWorkspace() throws OrekitException {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        final boolean allocationSupported =
+                bean instanceof com.sun.management.ThreadMXBean &&
+                ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported();
+        final long threadId = Thread.currentThread().getId();
+        for (final int degree : new int[] { 8, 36, 70, 120 }) {
+            HolmesFeatherstoneAttractionModel model =
+                    new HolmesFeatherstoneAttractionModel(itrf, new GleasonProvider(degree, degree));
+            final int n = 2000000 / degree;
+            for (int warmup = 0; warmup < 2; ++warmup) {
+                double sum = 0;
+                final long a0 = allocationSupported ?
+                                ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(threadId) : 0l;
+                final long t0 = System.nanoTime();
+                for (int i = 0; i < n; ++i) {
+                    final double lambda = 0.001 * i;
+                    final double theta  = 0.3 + 0.0001 * i;
+                    final Vector3D position =
+                            new Vector3D(1.25 * FastMath.sin(theta) * FastMath.cos(lambda),
+                                         1.25 * FastMath.sin(theta) * FastMath.sin(lambda),
+                                         1.25 * FastMath.cos(theta));
+                    sum += model.gradient(null, position)[0];
+                }
+                final long t1 = System.nanoTime();
+                final long a1 = allocationSupported ?
+                                ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(threadId) : 0l;
+                if (warmup == 1) {
+                    System.out.format(java.util.Locale.US,
+                                      "degree %3d: %10.0f calls/s, %8.1f bytes/call (%g)%n",
+                                      degree, n * 1.0e9 / (t1 - t0), (a1 - a0) / (double) n, sum);
+                }
+            }
+        }
+    }
+
     private Dfp error(Dfp refValue, double value) {
         return refValue.getField().newDfp(value).subtract(refValue);
     }
@@ -0,0 +1,233 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.radiation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.bodies.CelestialBody;
+import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.errors.OrekitException;
+import org.orekit.forces.SphericalSpacecraft;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.BoundedPropagator;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.events.EclipseDetector;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.events.EventsLogger;
+import org.orekit.propagation.events.EventsLogger.LoggedEvent;
+import org.orekit.propagation.events.handlers.ContinueOnEvent;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.TimeSpanMap;
+import org.orekit.utils.TimeSpanMap.Transition;
+
+public class EclipseEngineTest {
+
+    @Test
+    public void testSameAsEclipseDetector() throws OrekitException {
+        final EclipseDetector umbra    = new EclipseDetector(sun, Constants.SUN_RADIUS,
+                                                             earth, Constants.WGS84_EARTH_EQUATORIAL_RADIUS);
+        final EclipseDetector penumbra = umbra.withPenumbra();
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        for (double dt = 0; dt < Constants.JULIAN_DAY; dt += 97.0) {
+            final SpacecraftState s = propagator.propagate(orbit.getDate().shiftedBy(dt));
+            Assert.assertEquals(umbra.g(s),    engine.getUmbraG(s),    1.0e-10);
+            Assert.assertEquals(penumbra.g(s), engine.getPenumbraG(s), 1.0e-10);
+        }
+    }
+
+    @Test
+    public void testSameAsSolarRadiationPressure() throws OrekitException {
+        final SphericalSpacecraft spacecraft = new SphericalSpacecraft(10.0, 2.2, 0.5, 0.5);
+        final SolarRadiationPressure direct =
+                new SolarRadiationPressure(sun, Constants.WGS84_EARTH_EQUATORIAL_RADIUS, spacecraft);
+        final SolarRadiationPressure shared = new SolarRadiationPressure(engine, spacecraft);
+        Assert.assertSame(engine, shared.getEclipseEngine());
+        Assert.assertNull(direct.getEclipseEngine());
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        int penumbra = 0;
+        for (double dt = 0; dt < Constants.JULIAN_DAY; dt += 1.5) {
+            final SpacecraftState s = propagator.propagate(orbit.getDate().shiftedBy(dt));
+            final double expected = direct.getLightingRatio(s.getPVCoordinates().getPosition(),
+                                                            s.getFrame(), s.getDate());
+            Assert.assertEquals(expected, engine.getLightingRatio(s), 1.0e-7);
+            Assert.assertEquals(expected,
+                                shared.getLightingRatio(s.getPVCoordinates().getPosition(), s.getFrame(), s.getDate()),
+                                1.0e-7);
+            if (expected > 0 && expected < 1) {
+                ++penumbra;
+                Assert.assertEquals(EclipseEngine.Lighting.PENUMBRA, engine.getLighting(s));
+            } else if (expected == 0) {
+                Assert.assertEquals(EclipseEngine.Lighting.UMBRA, engine.getLighting(s));
+            } else {
+                Assert.assertEquals(EclipseEngine.Lighting.LIGHT, engine.getLighting(s));
+            }
+        }
+        Assert.assertTrue(penumbra > 10);
+        Assert.assertEquals(2, shared.getEventsDetectors().length);
+        Assert.assertTrue(shared.getEventsDetectors()[0] instanceof EclipseEngineDetector);
+    }
+
+    @Test
+    public void testSameEventsAsEclipseDetector() throws OrekitException {
+
+        final AbsoluteDate end = orbit.getDate().shiftedBy(2 * Constants.JULIAN_DAY);
+
+        final List<LoggedEvent> reference =
+                propagate(new EclipseDetector(60.0, 1.0e-6, sun, Constants.SUN_RADIUS,
+                                              earth, Constants.WGS84_EARTH_EQUATORIAL_RADIUS).
+                          withHandler(new ContinueOnEvent<EclipseDetector>()),
+                          end);
+        final List<LoggedEvent> shared =
+                propagate(new EclipseEngineDetector(engine).
+                          withMaxCheck(60.0).
+                          withThreshold(1.0e-6).
+                          withHandler(new ContinueOnEvent<EclipseEngineDetector>()),
+                          end);
+
+        Assert.assertTrue(reference.size() > 20);
+        Assert.assertEquals(reference.size(), shared.size());
+        for (int i = 0; i < reference.size(); ++i) {
+            Assert.assertEquals(reference.get(i).isIncreasing(), shared.get(i).isIncreasing());
+            Assert.assertEquals(0.0,
+                                shared.get(i).getState().getDate().durationFrom(reference.get(i).getState().getDate()),
+                                1.0e-5);
+        }
+
+    }
+
+    @Test
+    public void testComputeLighting() throws OrekitException {
+
+        final AbsoluteDate end = orbit.getDate().shiftedBy(2 * Constants.JULIAN_DAY);
+        final KeplerianPropagator propagator = new KeplerianPropagator(orbit);
+        propagator.setEphemerisMode();
+        propagator.propagate(end);
+        final BoundedPropagator ephemeris = propagator.getGeneratedEphemeris();
+
+        final TimeSpanMap<EclipseEngine.Lighting> lighting = engine.computeLighting(ephemeris, 60.0, 1.0e-6);
+
+        final EclipseDetector umbra = new EclipseDetector(60.0, 1.0e-6, sun, Constants.SUN_RADIUS,
+                                                          earth, Constants.WGS84_EARTH_EQUATORIAL_RADIUS).
+                                      withHandler(new ContinueOnEvent<EclipseDetector>());
+        final List<LoggedEvent> umbraEvents    = propagate(umbra, end);
+        final List<LoggedEvent> penumbraEvents = propagate(umbra.withPenumbra(), end);
+
+        // each eclipse has penumbra entry, umbra entry, umbra exit and penumbra exit
+        final List<Transition<EclipseEngine.Lighting>> transitions =
+                new ArrayList<Transition<EclipseEngine.Lighting>>(lighting.getTransitions());
+        Assert.assertEquals(umbraEvents.size() + penumbraEvents.size(), transitions.size());
+        int iU = 0;
+        int iP = 0;
+        for (final Transition<EclipseEngine.Lighting> transition : transitions) {
+            final LoggedEvent event;
+            switch (transition.getAfter()) {
+                case LIGHT :
+                    event = penumbraEvents.get(iP++);
+                    Assert.assertTrue(event.isIncreasing());
+                    Assert.assertEquals(EclipseEngine.Lighting.PENUMBRA, transition.getBefore());
+                    break;
+                case UMBRA :
+                    event = umbraEvents.get(iU++);
+                    Assert.assertFalse(event.isIncreasing());
+                    Assert.assertEquals(EclipseEngine.Lighting.PENUMBRA, transition.getBefore());
+                    break;
+                default :
+                    if (transition.getBefore() == EclipseEngine.Lighting.LIGHT) {
+                        event = penumbraEvents.get(iP++);
+                        Assert.assertFalse(event.isIncreasing());
+                    } else {
+                        event = umbraEvents.get(iU++);
+                        Assert.assertTrue(event.isIncreasing());
+                    }
+            }
+            Assert.assertEquals(0.0, transition.getDate().durationFrom(event.getState().getDate()), 1.0e-5);
+        }
+
+        // check some intermediate dates
+        final Propagator checker = new KeplerianPropagator(orbit);
+        for (double dt = 30.0; dt < end.durationFrom(orbit.getDate()); dt += 600.0) {
+            final SpacecraftState s = checker.propagate(orbit.getDate().shiftedBy(dt));
+            Assert.assertEquals(engine.getLighting(s), lighting.get(s.getDate()));
+        }
+
+    }
+
+    @Test
+    public void testSerialization() throws OrekitException, IOException, ClassNotFoundException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final ObjectOutputStream    oos = new ObjectOutputStream(bos);
+        oos.writeObject(engine);
+
+        final ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
+        final ObjectInputStream    ois = new ObjectInputStream(bis);
+        final EclipseEngine deserialized = (EclipseEngine) ois.readObject();
+        Assert.assertEquals(engine.getGridPoints(),      deserialized.getGridPoints());
+        Assert.assertEquals(engine.getStep(),            deserialized.getStep(), 1.0e-15);
+        Assert.assertEquals(engine.getOccultedRadius(),  deserialized.getOccultedRadius(), 1.0e-15);
+        Assert.assertEquals(engine.getOccultingRadius(), deserialized.getOccultingRadius(), 1.0e-15);
+        final SpacecraftState s = new KeplerianPropagator(orbit).propagate(orbit.getDate().shiftedBy(1000.0));
+        Assert.assertEquals(engine.getPenumbraG(s), deserialized.getPenumbraG(s), 1.0e-15);
+    }
+
+    private List<LoggedEvent> propagate(final EventDetector detector, final AbsoluteDate end)
+        throws OrekitException {
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        final EventsLogger logger = new EventsLogger();
+        propagator.addEventDetector(logger.monitorDetector(detector));
+        propagator.propagate(end);
+        return logger.getLoggedEvents();
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        sun   = CelestialBodyFactory.getSun();
+        earth = CelestialBodyFactory.getEarth();
+        orbit = new KeplerianOrbit(7078137.0, 0.001, FastMath.toRadians(28.0),
+                                   FastMath.toRadians(90.0), 0.0, 0.0,
+                                   PositionAngle.MEAN, FramesFactory.getEME2000(),
+                                   new AbsoluteDate(2003, 9, 16, TimeScalesFactory.getUTC()),
+                                   Constants.EIGEN5C_EARTH_MU);
+        engine = new EclipseEngine(sun, Constants.SUN_RADIUS,
+                                   earth, Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                   orbit.getFrame());
+    }
+
+    private CelestialBody sun;
+    private CelestialBody earth;
+    private Orbit         orbit;
+    private EclipseEngine engine;
+
+}
@@ -23,6 +23,7 @@ import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.apache.commons.math3.util.FastMath;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.orekit.Utils;
 import org.orekit.bodies.GeodeticPoint;
@@ -30,6 +31,8 @@ import org.orekit.bodies.OneAxisEllipsoid;
 import org.orekit.errors.OrekitException;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.CartesianDerivativesFilter;
 import org.orekit.utils.Constants;
 import org.orekit.utils.IERSConventions;
 import org.orekit.utils.PVCoordinates;
@@ -228,6 +231,155 @@ public class FrameTest {
 
     }
 
+    @Test
+    public void testPathCache() throws OrekitException {
+
+        // use more destinations than cached paths
+        Random random = new Random(0x2a5c3e6d0c1f2b47l);
+        Frame source = new Frame(FramesFactory.getEME2000(), randomTransform(random), "source");
+        Frame[] destinations = new Frame[20];
+        Transform[] references = new Transform[destinations.length];
+        for (int i = 0; i < destinations.length; ++i) {
+            destinations[i] = new Frame(i % 2 == 0 ? FramesFactory.getGCRF() : source,
+                                        randomTransform(random), "destination-" + i);
+            references[i]   = source.getTransformTo(destinations[i], AbsoluteDate.J2000_EPOCH);
+        }
+
+        for (int k = 0; k < 3; ++k) {
+            for (int i = 0; i < destinations.length; ++i) {
+                final int j = (k == 1) ? i : random.nextInt(destinations.length);
+                Transform t = source.getTransformTo(destinations[j], AbsoluteDate.J2000_EPOCH);
+                checkNoTransform(new Transform(t.getDate(), t, references[j].getInverse()), random);
+            }
+        }
+
+    }
+
+    @Test
+    public void testFusedPositionVelocity() throws OrekitException {
+
+        AbsoluteDate date = new AbsoluteDate(2010, 7, 1, 10, 42, 9.0, TimeScalesFactory.getUTC());
+        Frame itrf  = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        Frame teme  = FramesFactory.getTEME();
+        Frame pad   = new TopocentricFrame(new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                                Constants.WGS84_EARTH_FLATTENING,
+                                                                itrf),
+                                           new GeodeticPoint(FastMath.toRadians(5.0), FastMath.toRadians(-100.0), 0.0),
+                                           "launch pad");
+        PVCoordinates pv = new PVCoordinates(new Vector3D(-29536113.0, 30329259.0, -100125.0),
+                                             new Vector3D(-2194.0, -2141.0, -8.0));
+
+        Frame[][] pairs = new Frame[][] {
+            { itrf, FramesFactory.getEME2000() }, { FramesFactory.getEME2000(), teme },
+            { pad, teme }, { teme, pad }, { pad, pad }
+        };
+        for (Frame[] pair : pairs) {
+            for (double dt = 0; dt < 3600; dt += 600) {
+                AbsoluteDate  d         = date.shiftedBy(dt);
+                Transform     t         = pair[0].getTransformTo(pair[1], d);
+                PVCoordinates reference = t.transformPVCoordinates(pv);
+                Vector3D      p         = pair[0].transformPosition(pv.getPosition(), pair[1], d);
+                PVCoordinates fused     = pair[0].transformPositionVelocity(pv, pair[1], d);
+                Assert.assertEquals(0, Vector3D.distance(reference.getPosition(), p), 1.0e-7);
+                Assert.assertEquals(0, Vector3D.distance(reference.getPosition(), fused.getPosition()), 1.0e-7);
+                Assert.assertEquals(0, Vector3D.distance(reference.getVelocity(), fused.getVelocity()), 1.0e-10);
+                Assert.assertEquals(0, fused.getAcceleration().getNorm(), 1.0e-15);
+            }
+        }
+
+    }
+
+    @Test
+    public void testFilteredTransform() throws OrekitException {
+
+        AbsoluteDate date = new AbsoluteDate(2010, 7, 1, 10, 42, 9.0, TimeScalesFactory.getUTC());
+        Frame[] frames = new Frame[] {
+            FramesFactory.getITRF(IERSConventions.IERS_2010, true),
+            FramesFactory.getITRF(IERSConventions.IERS_2010, false),
+            FramesFactory.getGTOD(IERSConventions.IERS_1996, true),
+            FramesFactory.getTEME(),
+            FramesFactory.getEME2000()
+        };
+        for (Frame from : frames) {
+            for (Frame to : frames) {
+                for (double dt = 0; dt < 3600; dt += 900) {
+                    AbsoluteDate d    = date.shiftedBy(dt);
+                    Transform    full = from.getTransformTo(to, d);
+                    Transform    p    = from.getTransformTo(to, d,
+                                                            CartesianDerivativesFilter.USE_P,
+                                                            AngularDerivativesFilter.USE_R);
+                    Assert.assertEquals(0, Vector3D.distance(full.getTranslation(), p.getTranslation()), 1.0e-15);
+                    Assert.assertEquals(0, Rotation.distance(full.getRotation(), p.getRotation()), 1.0e-15);
+                    Assert.assertEquals(0, p.getRotationRate().getNorm(), 0);
+                    Assert.assertEquals(0, p.getVelocity().getNorm(), 0);
+                    Transform pv   = from.getTransformTo(to, d,
+                                                         CartesianDerivativesFilter.USE_PV,
+                                                         AngularDerivativesFilter.USE_R);
+                    Assert.assertEquals(0, Rotation.distance(full.getRotation(), pv.getRotation()), 1.0e-15);
+                    Assert.assertEquals(0, Vector3D.distance(full.getVelocity(), pv.getVelocity()), 1.0e-15);
+                    Assert.assertEquals(0, Vector3D.distance(full.getRotationRate(), pv.getRotationRate()), 1.0e-20);
+                    Assert.assertEquals(0, pv.getAcceleration().getNorm(), 0);
+                }
+            }
+        }
+
+    }
+
+    @Test
+    @Ignore
+    public void testFilteredPerformance() throws OrekitException {
+
+        Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        Frame eme2000 = FramesFactory.getEME2000();
+        AbsoluteDate date = new AbsoluteDate(2010, 7, 1, 10, 42, 9.0, TimeScalesFactory.getUTC());
+        Vector3D p = new Vector3D(-29536113.0, 30329259.0, -100125.0);
+        int n = 1000000;
+        for (int run = 0; run < 3; ++run) {
+            double sum = 0;
+            long t0 = System.currentTimeMillis();
+            for (int i = 0; i < n; ++i) {
+                sum += eme2000.getTransformTo(itrf, date.shiftedBy(0.01 * i)).transformPosition(p).getX();
+            }
+            long t1 = System.currentTimeMillis();
+            for (int i = 0; i < n; ++i) {
+                sum += eme2000.getTransformTo(itrf, date.shiftedBy(0.01 * i),
+                                              CartesianDerivativesFilter.USE_P,
+                                              AngularDerivativesFilter.USE_R).transformPosition(p).getX();
+            }
+            long t2 = System.currentTimeMillis();
+            System.out.println("EME2000 -> ITRF, " + n + " positions: full " + (t1 - t0) +
+                               " ms, position-only " + (t2 - t1) + " ms (" + sum + ")");
+        }
+
+    }
+
+    @Test
+    @Ignore
+    public void testPerformance() throws OrekitException {
+
+        Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        Frame teme = FramesFactory.getTEME();
+        AbsoluteDate date = new AbsoluteDate(2010, 7, 1, 10, 42, 9.0, TimeScalesFactory.getUTC());
+        PVCoordinates pv = new PVCoordinates(new Vector3D(-29536113.0, 30329259.0, -100125.0),
+                                             new Vector3D(-2194.0, -2141.0, -8.0));
+        int n = 1000000;
+        for (int run = 0; run < 3; ++run) {
+            double sum = 0;
+            long t0 = System.currentTimeMillis();
+            for (int i = 0; i < n; ++i) {
+                sum += itrf.getTransformTo(teme, date.shiftedBy(0.01 * i)).transformPVCoordinates(pv).getPosition().getX();
+            }
+            long t1 = System.currentTimeMillis();
+            for (int i = 0; i < n; ++i) {
+                sum += itrf.transformPositionVelocity(pv, teme, date.shiftedBy(0.01 * i)).getPosition().getX();
+            }
+            long t2 = System.currentTimeMillis();
+            System.out.println("ITRF -> TEME, " + n + " conversions: transform " + (t1 - t0) +
+                               " ms, fused " + (t2 - t1) + " ms (" + sum + ")");
+        }
+
+    }
+
     private Transform randomTransform(Random random) {
         Transform transform = Transform.IDENTITY;
         for (int i = random.nextInt(10); i > 0; --i) {
@@ -0,0 +1,191 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+public class TabulatedTransformProviderTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testAccuracy() throws OrekitException, IOException {
+        Assert.assertEquals(2.7e-12, maxError( 60.0, 2), 1.0e-13);
+        Assert.assertEquals(1.3e-11, maxError(300.0, 2), 1.0e-12);
+        Assert.assertEquals(2.2e-11, maxError(300.0, 4), 1.0e-12);
+        Assert.assertEquals(4.7e-11, maxError(900.0, 2), 1.0e-12);
+    }
+
+    @Test
+    public void testHeader() throws OrekitException, IOException {
+        final Frame gcrf = FramesFactory.getGCRF();
+        final Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, false);
+        final File file = tempFolder.newFile("gcrf-itrf.bin");
+        final AbsoluteDate start = new AbsoluteDate(2004, 6, 1, 0, 0, 0.125, TimeScalesFactory.getUTC());
+        new TabulatedTransformWriter(gcrf, itrf, 600.0, 6).write(file, start, start.shiftedBy(3599.0));
+        final TabulatedTransformProvider provider = new TabulatedTransformProvider(file);
+        Assert.assertEquals(file, provider.getFile());
+        Assert.assertEquals(gcrf.getName(), provider.getFromName());
+        Assert.assertEquals(itrf.getName(), provider.getToName());
+        Assert.assertEquals(0.0, provider.getMinDate().durationFrom(start), 1.0e-15);
+        Assert.assertEquals(3600.0, provider.getMaxDate().durationFrom(start), 1.0e-15);
+        Assert.assertEquals(600.0, provider.getStep(), 1.0e-15);
+        Assert.assertEquals(6, provider.getInterpolationPoints());
+
+        // grid points are reproduced exactly
+        final AbsoluteDate date = start.shiftedBy(1200.0);
+        Assert.assertEquals(0.0,
+                            Rotation.distance(gcrf.getTransformTo(itrf, date).getRotation(),
+                                              provider.getTransform(date).getRotation()),
+                            1.0e-15);
+    }
+
+    @Test
+    public void testOutOfRange() throws OrekitException, IOException {
+        final TabulatedTransformProvider provider = createProvider(600.0, 4);
+        try {
+            provider.getTransform(provider.getMinDate().shiftedBy(-0.001));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.OUT_OF_RANGE_TABULATED_TRANSFORM_DATE, oe.getSpecifier());
+        }
+        try {
+            provider.getTransform(provider.getMaxDate().shiftedBy(0.001));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.OUT_OF_RANGE_TABULATED_TRANSFORM_DATE, oe.getSpecifier());
+        }
+        // boundaries are allowed
+        provider.getTransform(provider.getMinDate());
+        provider.getTransform(provider.getMaxDate());
+    }
+
+    @Test
+    public void testNotATabulatedFile() throws IOException {
+        final File file = tempFolder.newFile("not-tabulated.bin");
+        final DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        out.writeLong(0x123456789abcdefL);
+        out.writeInt(TabulatedTransformWriter.VERSION);
+        out.close();
+        checkNotTabulated(file);
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        final File file = tempFolder.newFile("truncated.bin");
+        final DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        out.writeLong(TabulatedTransformWriter.MAGIC);
+        out.writeInt(TabulatedTransformWriter.VERSION);
+        out.writeUTF("GCRF");
+        out.close();
+        checkNotTabulated(file);
+    }
+
+    @Test
+    public void testMissingFile() {
+        try {
+            new TabulatedTransformProvider(new File(tempFolder.getRoot(), "missing.bin"));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.UNABLE_TO_FIND_FILE, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testSerialization() throws OrekitException, IOException, ClassNotFoundException {
+        final TabulatedTransformProvider provider = createProvider(600.0, 4);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream    oos = new ObjectOutputStream(bos);
+        oos.writeObject(provider);
+        Assert.assertTrue(bos.size() < 400);
+
+        ByteArrayInputStream  bis = new ByteArrayInputStream(bos.toByteArray());
+        ObjectInputStream     ois = new ObjectInputStream(bis);
+        TabulatedTransformProvider deserialized  = (TabulatedTransformProvider) ois.readObject();
+        final AbsoluteDate date = provider.getMinDate().shiftedBy(1234.5);
+        Assert.assertEquals(0.0,
+                            Rotation.distance(provider.getTransform(date).getRotation(),
+                                              deserialized.getTransform(date).getRotation()),
+                            1.0e-20);
+    }
+
+    private void checkNotTabulated(final File file) {
+        try {
+            new TabulatedTransformProvider(file);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NOT_A_TABULATED_TRANSFORM_FILE, oe.getSpecifier());
+            Assert.assertEquals(file.getAbsolutePath(), oe.getParts()[0]);
+        }
+    }
+
+    private TabulatedTransformProvider createProvider(final double step, final int points)
+        throws OrekitException, IOException {
+        final File file = tempFolder.newFile();
+        final AbsoluteDate start = new AbsoluteDate(2004, 6, 1, TimeScalesFactory.getUTC());
+        new TabulatedTransformWriter(FramesFactory.getGCRF(),
+                                     FramesFactory.getITRF(IERSConventions.IERS_2010, false),
+                                     step, points).write(file, start, start.shiftedBy(Constants.JULIAN_DAY));
+        return new TabulatedTransformProvider(file);
+    }
+
+    private double maxError(final double step, final int points)
+        throws OrekitException, IOException {
+        final TabulatedTransformProvider provider = createProvider(step, points);
+        final Frame gcrf = FramesFactory.getGCRF();
+        final Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, false);
+        final Frame tabulated = new Frame(gcrf, provider, "tabulated ITRF");
+        double maxError = 0;
+        for (double dt = 0; dt < Constants.JULIAN_DAY; dt += 37.0) {
+            final AbsoluteDate date = provider.getMinDate().shiftedBy(dt);
+            final Rotation reference = gcrf.getTransformTo(itrf, date).getRotation();
+            final Rotation tabulatedR = gcrf.getTransformTo(tabulated, date).getRotation();
+            maxError = FastMath.max(maxError, Rotation.distance(reference, tabulatedR));
+        }
+        return maxError;
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("compressed-data");
+    }
+
+}
@@ -21,6 +21,7 @@ package org.orekit.frames;
 import java.io.IOException;
 
 import org.apache.commons.math3.analysis.polynomials.PolynomialFunction;
+import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.apache.commons.math3.random.RandomGenerator;
 import org.apache.commons.math3.random.Well1024a;
@@ -443,6 +444,49 @@ public class TopocentricFrameTest {
 
     }
 
+    @Test
+    public void testBulkElevationAzimuthRange() throws OrekitException {
+
+        final TopocentricFrame topoFrame =
+                new TopocentricFrame(earthSpheric,
+                                     new GeodeticPoint(FastMath.toRadians(43.6), FastMath.toRadians(1.44), 150.0),
+                                     "Toulouse");
+        final Frame eme2000 = FramesFactory.getEME2000();
+        final RandomGenerator random = new Well1024a(0x5e4b2d1a9c3f7e60l);
+        final int n = 1000;
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        final double[] z = new double[n];
+        for (int i = 0; i < n; ++i) {
+            x[i] = 4.0e7 * (random.nextDouble() - 0.5);
+            y[i] = 4.0e7 * (random.nextDouble() - 0.5);
+            z[i] = 4.0e7 * (random.nextDouble() - 0.5);
+        }
+
+        final double[] elevation = new double[n];
+        final double[] azimuth   = new double[n];
+        final double[] range     = new double[n];
+        topoFrame.getElevationAzimuthRange(x, y, z, eme2000, date, elevation, azimuth, range);
+        final double[] rangeOnly = new double[n];
+        topoFrame.getElevationAzimuthRange(x, y, z, eme2000, date, null, null, rangeOnly);
+        for (int i = 0; i < n; ++i) {
+            final Vector3D p = new Vector3D(x[i], y[i], z[i]);
+            Assert.assertEquals(topoFrame.getElevation(p, eme2000, date), elevation[i], 1.0e-12);
+            Assert.assertEquals(topoFrame.getAzimuth(p, eme2000, date),   azimuth[i],   1.0e-12);
+            Assert.assertEquals(topoFrame.getRange(p, eme2000, date),     range[i],     1.0e-6);
+            Assert.assertEquals(range[i], rangeOnly[i], 0.0);
+        }
+
+        try {
+            topoFrame.getElevationAzimuthRange(x, y, z, eme2000, date, elevation, new double[n - 1], null);
+            Assert.fail("an exception should have been thrown");
+        } catch (DimensionMismatchException dme) {
+            Assert.assertEquals(n - 1, dme.getArgument());
+            Assert.assertEquals(n, dme.getDimension());
+        }
+
+    }
+
     @Before
     public void setUp() {
         try {
@@ -20,6 +20,7 @@ package org.orekit.frames;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.geometry.euclidean.threed.FieldVector3D;
 import org.apache.commons.math3.geometry.euclidean.threed.Line;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
@@ -35,6 +36,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.orekit.errors.OrekitException;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.AngularDerivativesFilter;
 import org.orekit.utils.CartesianDerivativesFilter;
 import org.orekit.utils.Constants;
 import org.orekit.utils.FieldPVCoordinates;
@@ -193,6 +195,111 @@ public class TransformTest {
 
     }
 
+    @Test
+    public void testFilteredComposition() {
+        RandomGenerator random = new Well19937a(0x4e5bd7e8e7a3f1c9l);
+        for (int i = 0; i < 20; ++i) {
+            Transform first  = randomTransform(random);
+            Transform second = randomTransform(random);
+            Transform full   = new Transform(AbsoluteDate.J2000_EPOCH, first, second);
+            for (final CartesianDerivativesFilter cFilter : CartesianDerivativesFilter.values()) {
+                for (final AngularDerivativesFilter aFilter : AngularDerivativesFilter.values()) {
+                    Transform filtered = new Transform(AbsoluteDate.J2000_EPOCH, first, second, cFilter, aFilter);
+                    checkFiltered(full, filtered, cFilter, aFilter);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFilteredInverse() {
+        RandomGenerator random = new Well19937a(0x1d7a3b9c5e2f4a60l);
+        for (int i = 0; i < 20; ++i) {
+            Transform transform = randomTransform(random);
+            Transform full      = transform.getInverse();
+            for (final CartesianDerivativesFilter cFilter : CartesianDerivativesFilter.values()) {
+                for (final AngularDerivativesFilter aFilter : AngularDerivativesFilter.values()) {
+                    checkFiltered(full, transform.getInverse(cFilter, aFilter), cFilter, aFilter);
+                }
+            }
+        }
+    }
+
+    private void checkFiltered(final Transform full, final Transform filtered,
+                               final CartesianDerivativesFilter cFilter,
+                               final AngularDerivativesFilter aFilter) {
+        Assert.assertEquals(0, Vector3D.distance(full.getTranslation(), filtered.getTranslation()), 0);
+        Assert.assertEquals(0, Rotation.distance(full.getRotation(), filtered.getRotation()), 0);
+        checkFilteredVector(full.getVelocity(),             filtered.getVelocity(),             cFilter.getMaxOrder() >= 1);
+        checkFilteredVector(full.getAcceleration(),         filtered.getAcceleration(),         cFilter.getMaxOrder() >= 2);
+        checkFilteredVector(full.getRotationRate(),         filtered.getRotationRate(),         aFilter.getMaxOrder() >= 1);
+        checkFilteredVector(full.getRotationAcceleration(), filtered.getRotationAcceleration(), aFilter.getMaxOrder() >= 2);
+    }
+
+    private void checkFilteredVector(final Vector3D full, final Vector3D filtered, final boolean computed) {
+        if (computed) {
+            Assert.assertEquals(0, Vector3D.distance(full, filtered), 0);
+        } else {
+            Assert.assertEquals(0, filtered.getNorm(), 0);
+        }
+    }
+
+    @Test
+    public void testBulkTransforms() {
+        RandomGenerator random = new Well19937a(0x3c7e1f5a2b9d8e40l);
+        for (int i = 0; i < 20; ++i) {
+            Transform transform = randomTransform(random);
+            int n = 50;
+            double[] px = new double[n];
+            double[] py = new double[n];
+            double[] pz = new double[n];
+            double[] vx = new double[n];
+            double[] vy = new double[n];
+            double[] vz = new double[n];
+            PVCoordinates[] reference = new PVCoordinates[n];
+            for (int k = 0; k < n; ++k) {
+                PVCoordinates pv = new PVCoordinates(randomVector(1.0e3, random), randomVector(1.0, random));
+                px[k] = pv.getPosition().getX();
+                py[k] = pv.getPosition().getY();
+                pz[k] = pv.getPosition().getZ();
+                vx[k] = pv.getVelocity().getX();
+                vy[k] = pv.getVelocity().getY();
+                vz[k] = pv.getVelocity().getZ();
+                reference[k] = pv;
+            }
+
+            double[] x = new double[n];
+            double[] y = new double[n];
+            double[] z = new double[n];
+            transform.transformPositions(px, py, pz, x, y, z);
+            for (int k = 0; k < n; ++k) {
+                checkVector(transform.transformPosition(reference[k].getPosition()),
+                            new Vector3D(x[k], y[k], z[k]), 1.0e-15);
+            }
+
+            transform.transformVectors(px, py, pz, x, y, z);
+            for (int k = 0; k < n; ++k) {
+                checkVector(transform.transformVector(reference[k].getPosition()),
+                            new Vector3D(x[k], y[k], z[k]), 1.0e-15);
+            }
+
+            // in place transform
+            transform.transformPositionsVelocities(px, py, pz, vx, vy, vz, px, py, pz, vx, vy, vz);
+            for (int k = 0; k < n; ++k) {
+                PVCoordinates expected = transform.transformPVCoordinates(reference[k]);
+                checkVector(expected.getPosition(), new Vector3D(px[k], py[k], pz[k]), 1.0e-15);
+                checkVector(expected.getVelocity(), new Vector3D(vx[k], vy[k], vz[k]), 1.0e-14);
+            }
+
+        }
+    }
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testBulkDimensionMismatch() {
+        Transform.IDENTITY.transformPositions(new double[3], new double[3], new double[3],
+                                              new double[3], new double[2], new double[3]);
+    }
+
     @Test
     public void testReverse() {
         RandomGenerator random = new Well19937a(0x9f82ba2b2c98dac5l);
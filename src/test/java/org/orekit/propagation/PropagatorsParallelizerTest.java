@@ -0,0 +1,290 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.ode.nonstiff.DormandPrince853Integrator;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.events.DateDetector;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.propagation.sampling.MultiSatFixedStepHandler;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+public class PropagatorsParallelizerTest {
+
+    private AbsoluteDate t0;
+    private double       mu;
+
+    @Test
+    public void testSynchronizedSteps() throws OrekitException {
+        checkSynchronizedSteps(null);
+    }
+
+    @Test
+    public void testSingleThreadExecutor() throws OrekitException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            checkSynchronizedSteps(executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void checkSynchronizedSteps(final ExecutorService executor) throws OrekitException {
+
+        final List<Orbit> orbits = orbits(5);
+        final List<Propagator> propagators = new ArrayList<Propagator>();
+        for (int i = 0; i < orbits.size(); ++i) {
+            propagators.add(i % 2 == 0 ? new KeplerianPropagator(orbits.get(i)) : numerical(orbits.get(i), null));
+        }
+
+        final double h = 60.0;
+        final AbsoluteDate start  = t0.shiftedBy(100.0);
+        final AbsoluteDate target = t0.shiftedBy(3600.0);
+        final GlobalHandler handler = new GlobalHandler();
+        final List<SpacecraftState> finalStates =
+                new PropagatorsParallelizer(propagators, h, handler, executor).propagate(start, target);
+
+        Assert.assertEquals(orbits.size(), handler.initStates.size());
+        Assert.assertEquals(0.0, handler.initStates.get(0).getDate().durationFrom(start), 1.0e-10);
+        Assert.assertEquals(0.0, handler.target.durationFrom(target), 1.0e-10);
+        Assert.assertEquals(59, handler.steps.size());
+        Assert.assertEquals(1, handler.lastCount);
+        Assert.assertTrue(handler.lastSeen);
+        for (int j = 0; j < handler.steps.size(); ++j) {
+            final List<SpacecraftState> states = handler.steps.get(j);
+            Assert.assertEquals(orbits.size(), states.size());
+            for (int i = 0; i < orbits.size(); ++i) {
+                Assert.assertEquals(0.0, states.get(i).getDate().durationFrom(start.shiftedBy(j * h)), 1.0e-10);
+            }
+        }
+        for (int i = 0; i < orbits.size(); ++i) {
+            Assert.assertSame(handler.steps.get(handler.steps.size() - 1).get(i), finalStates.get(i));
+        }
+
+        // compare with independent propagators
+        for (int i = 0; i < orbits.size(); ++i) {
+            final Propagator reference = i % 2 == 0 ?
+                                         new KeplerianPropagator(orbits.get(i)) :
+                                         numerical(orbits.get(i), null);
+            for (int j = 0; j < handler.steps.size(); j += 10) {
+                final SpacecraftState state = handler.steps.get(j).get(i);
+                final Vector3D expected = reference.propagate(state.getDate()).getPVCoordinates().getPosition();
+                Assert.assertEquals(0.0, Vector3D.distance(expected, state.getPVCoordinates().getPosition()), 1.0e-2);
+            }
+        }
+
+    }
+
+    @Test
+    public void testEarlyStop() throws OrekitException {
+
+        final List<Orbit> orbits = orbits(3);
+        final List<Propagator> propagators = new ArrayList<Propagator>();
+        for (final Orbit orbit : orbits) {
+            propagators.add(new KeplerianPropagator(orbit));
+        }
+        propagators.get(1).addEventDetector(new DateDetector(t0.shiftedBy(1234.5)));
+
+        final GlobalHandler handler = new GlobalHandler();
+        final List<SpacecraftState> finalStates =
+                new PropagatorsParallelizer(propagators, 60.0, handler).propagate(t0, t0.shiftedBy(3600.0));
+
+        Assert.assertEquals(21, handler.steps.size());
+        Assert.assertEquals(1, handler.lastCount);
+        for (final SpacecraftState state : finalStates) {
+            Assert.assertEquals(1200.0, state.getDate().durationFrom(t0), 1.0e-10);
+        }
+
+    }
+
+    @Test
+    public void testHandlerError() throws OrekitException {
+
+        final List<Propagator> propagators = new ArrayList<Propagator>();
+        for (final Orbit orbit : orbits(4)) {
+            propagators.add(new KeplerianPropagator(orbit));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            new PropagatorsParallelizer(propagators, 60.0, new GlobalHandler() {
+                @Override
+                public void handleStep(final List<SpacecraftState> states, final boolean isLast)
+                    throws OrekitException {
+                    super.handleStep(states, isLast);
+                    if (steps.size() == 3) {
+                        throw new OrekitException(LocalizedFormats.SIMPLE_MESSAGE, "dummy error");
+                    }
+                }
+            }, executor).propagate(t0, t0.shiftedBy(Constants.JULIAN_DAY));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(LocalizedFormats.SIMPLE_MESSAGE, oe.getSpecifier());
+            Assert.assertEquals("dummy error", oe.getParts()[0]);
+        }
+
+        // the executor and the propagators remain usable
+        final GlobalHandler handler = new GlobalHandler();
+        new PropagatorsParallelizer(propagators, 60.0, handler, executor).propagate(t0, t0.shiftedBy(600.0));
+        Assert.assertEquals(11, handler.steps.size());
+        executor.shutdown();
+
+    }
+
+    @Test
+    public void testPropagationError() throws OrekitException {
+
+        final List<Propagator> propagators = new ArrayList<Propagator>();
+        for (final Orbit orbit : orbits(3)) {
+            propagators.add(new KeplerianPropagator(orbit));
+        }
+        propagators.get(2).addEventDetector(new DateDetector(t0.shiftedBy(1000.0)) {
+            /** Serializable UID. */
+            private static final long serialVersionUID = 20160301L;
+            @Override
+            public double g(final SpacecraftState s) throws OrekitException {
+                if (s.getDate().durationFrom(t0) > 500.0) {
+                    throw new OrekitException(LocalizedFormats.SIMPLE_MESSAGE, "dummy error");
+                }
+                return super.g(s);
+            }
+        });
+
+        try {
+            new PropagatorsParallelizer(propagators, 60.0, new GlobalHandler()).propagate(t0, t0.shiftedBy(3600.0));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(LocalizedFormats.SIMPLE_MESSAGE, oe.getSpecifier());
+            Assert.assertEquals("dummy error", oe.getParts()[0]);
+        }
+
+    }
+
+    @Test
+    @Ignore
+    public void testPerformance() throws OrekitException {
+
+        Utils.setDataRoot("regular-data:potential/icgem-format");
+        final NormalizedSphericalHarmonicsProvider gravity = GravityFieldFactory.getNormalizedProvider(20, 20);
+        final List<Orbit> orbits = orbits(64);
+        final AbsoluteDate target = t0.shiftedBy(Constants.JULIAN_DAY);
+
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            final List<Propagator> propagators = new ArrayList<Propagator>();
+            for (final Orbit orbit : orbits) {
+                propagators.add(numerical(orbit, gravity));
+            }
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                final long t1 = System.currentTimeMillis();
+                new PropagatorsParallelizer(propagators, 60.0, new GlobalHandler(), executor).propagate(t0, target);
+                final long t2 = System.currentTimeMillis();
+                System.out.println(propagators.size() + " numerical propagators, " + threads +
+                                   " threads: " + (t2 - t1) + " ms");
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+    }
+
+    private List<Orbit> orbits(final int n) {
+        final List<Orbit> orbits = new ArrayList<Orbit>(n);
+        for (int i = 0; i < n; ++i) {
+            orbits.add(new KeplerianOrbit(7.0e6 + 1.0e4 * i, 0.001, FastMath.toRadians(98.0), 0.0,
+                                          2 * FastMath.PI * i / n, FastMath.PI * i / n,
+                                          PositionAngle.MEAN, FramesFactory.getEME2000(), t0, mu));
+        }
+        return orbits;
+    }
+
+    private Propagator numerical(final Orbit orbit, final NormalizedSphericalHarmonicsProvider gravity)
+        throws OrekitException {
+        final double[][] tol = NumericalPropagator.tolerances(0.001, orbit, OrbitType.CARTESIAN);
+        final NumericalPropagator propagator =
+                new NumericalPropagator(new DormandPrince853Integrator(0.001, 300, tol[0], tol[1]));
+        propagator.setOrbitType(OrbitType.CARTESIAN);
+        propagator.setInitialState(new SpacecraftState(orbit));
+        if (gravity != null) {
+            propagator.addForceModel(new HolmesFeatherstoneAttractionModel(FramesFactory.getITRF(IERSConventions.IERS_2010,
+                                                                                                 true),
+                                                                           gravity));
+        }
+        return propagator;
+    }
+
+    private static class GlobalHandler implements MultiSatFixedStepHandler {
+
+        protected List<SpacecraftState>       initStates;
+        protected AbsoluteDate                target;
+        protected List<List<SpacecraftState>> steps = new ArrayList<List<SpacecraftState>>();
+        protected int                         lastCount;
+        protected boolean                     lastSeen;
+
+        public void init(final List<SpacecraftState> states0, final AbsoluteDate t) {
+            initStates = states0;
+            target     = t;
+            steps.clear();
+            lastCount  = 0;
+            lastSeen   = false;
+        }
+
+        public void handleStep(final List<SpacecraftState> states, final boolean isLast)
+            throws OrekitException {
+            Assert.assertFalse(lastSeen);
+            steps.add(states);
+            if (isLast) {
+                ++lastCount;
+                lastSeen = true;
+            }
+        }
+
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        t0 = new AbsoluteDate(2004, 1, 1, 23, 30, 00.000, TimeScalesFactory.getUTC());
+        mu = Constants.EIGEN5C_EARTH_MU;
+    }
+
+}
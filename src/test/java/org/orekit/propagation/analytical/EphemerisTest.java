@@ -46,9 +46,12 @@ import org.orekit.orbits.PositionAngle;
 import org.orekit.propagation.AdditionalStateProvider;
 import org.orekit.propagation.Propagator;
 import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.sampling.OrekitFixedStepHandler;
+import org.orekit.propagation.sampling.OrekitStepNormalizer;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.DateComponents;
 import org.orekit.time.TimeComponents;
+import org.orekit.time.TimeGrid;
 import org.orekit.time.TimeScalesFactory;
 import org.orekit.utils.TimeStampedPVCoordinates;
 
@@ -153,6 +156,37 @@ public class EphemerisTest {
 
     }
 
+    @Test
+    public void testTimeGrid() throws OrekitException {
+        List<SpacecraftState> states = new ArrayList<SpacecraftState>();
+        for (double dt = 0; dt <= 1200; dt += 60.0 + (dt % 7.0)) {
+            states.add(propagator.propagate(initDate.shiftedBy(dt)));
+        }
+        final Ephemeris ephemeris = new Ephemeris(states, 4);
+        final TimeGrid grid = ephemeris.getTimeGrid();
+        Assert.assertSame(grid, ephemeris.getTimeGrid());
+        Assert.assertEquals(states.size(), grid.size());
+        for (int i = 0; i < grid.size(); ++i) {
+            Assert.assertEquals(0.0, grid.getDate(i).durationFrom(states.get(i).getDate()), 1.0e-15);
+        }
+
+        // sample the ephemeris at its own tabulated dates
+        final List<SpacecraftState> sampled = new ArrayList<SpacecraftState>();
+        ephemeris.setMasterMode(new OrekitStepNormalizer(grid, new OrekitFixedStepHandler() {
+            public void init(SpacecraftState s0, AbsoluteDate t) {
+            }
+            public void handleStep(SpacecraftState currentState, boolean isLast) {
+                sampled.add(currentState);
+            }
+        }));
+        ephemeris.propagate(ephemeris.getMinDate(), ephemeris.getMaxDate());
+        Assert.assertEquals(states.size(), sampled.size());
+        for (int i = 0; i < sampled.size(); ++i) {
+            Assert.assertEquals(0.0, sampled.get(i).getDate().durationFrom(states.get(i).getDate()), 1.0e-15);
+            Assert.assertEquals(0.0, calculatePositionDelta(sampled.get(i), states.get(i)), 1.0e-6);
+        }
+    }
+
     @Test
     public void testNonResettableState() {
         try {
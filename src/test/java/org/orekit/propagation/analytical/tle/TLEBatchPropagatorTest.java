@@ -0,0 +1,212 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical.tle;
+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.PVCoordinates;
+
+
+public class TLEBatchPropagatorTest {
+
+    private List<TLE> tles;
+
+    @Test
+    public void testSequentialTEME() throws OrekitException {
+        checkConsistency(new TLEBatchPropagator(tles, null, 1), null, 1.0e-3, 1.0e-6);
+    }
+
+    @Test
+    public void testParallelTEME() throws OrekitException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            checkConsistency(new TLEBatchPropagator(tles, executor, 3), null, 1.0e-3, 1.0e-6);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDefaultExecutorITRF() throws OrekitException {
+        checkConsistency(new TLEBatchPropagator(tles),
+                         FramesFactory.getITRF(IERSConventions.IERS_2010, true),
+                         1.0e-3, 1.0e-6);
+    }
+
+    @Test
+    public void testNoVelocities() throws OrekitException {
+        final TLEBatchPropagator batch = new TLEBatchPropagator(tles);
+        final AbsoluteDate[] dates = new AbsoluteDate[] {
+            tles.get(0).getDate(), tles.get(0).getDate().shiftedBy(3600.0)
+        };
+        final double[] positions = new double[3 * batch.getSize() * dates.length];
+        batch.propagate(dates, positions, null);
+        final TLEPropagator propagator = TLEPropagator.selectExtrapolator(tles.get(0));
+        final Vector3D p = propagator.getPVCoordinates(dates[1]).getPosition();
+        Assert.assertEquals(p.getX(), positions[3], 1.0e-6);
+        Assert.assertEquals(p.getY(), positions[4], 1.0e-6);
+        Assert.assertEquals(p.getZ(), positions[5], 1.0e-6);
+    }
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testWrongBufferSize() throws OrekitException {
+        final TLEBatchPropagator batch = new TLEBatchPropagator(tles);
+        batch.propagate(new AbsoluteDate[] { tles.get(0).getDate() },
+                        new double[3 * batch.getSize() - 1], null);
+    }
+
+    @Test
+    public void testSeries() throws OrekitException {
+        Utils.setDataRoot("regular-data:tle/extrapolationTest-data");
+        TLESeries series = new TLESeries(".*-entry$", true);
+        series.loadTLEData(5);
+        TLEBatchPropagator batch = new TLEBatchPropagator(series);
+        Assert.assertEquals(series.getTLEs().size(), batch.getSize());
+        Assert.assertEquals(series.getFirst().getSatelliteNumber(), batch.getTLEs().get(0).getSatelliteNumber());
+    }
+
+    @Test
+    @Ignore
+    public void testPerformance() throws OrekitException {
+
+        // replicate the reference TLE to get a catalog-size set
+        final List<TLE> catalog = new ArrayList<TLE>();
+        while (catalog.size() < 25000) {
+            catalog.addAll(tles);
+        }
+        final AbsoluteDate start = tles.get(0).getDate();
+        final AbsoluteDate[] dates = new AbsoluteDate[10];
+        for (int j = 0; j < dates.length; ++j) {
+            dates[j] = start.shiftedBy(60.0 * j);
+        }
+
+        long t0 = System.currentTimeMillis();
+        final List<TLEPropagator> propagators = new ArrayList<TLEPropagator>(catalog.size());
+        for (final TLE tle : catalog) {
+            propagators.add(TLEPropagator.selectExtrapolator(tle));
+        }
+        long t1 = System.currentTimeMillis();
+        for (final TLEPropagator propagator : propagators) {
+            for (final AbsoluteDate date : dates) {
+                try {
+                    propagator.getPVCoordinates(date);
+                } catch (OrekitException oe) {
+                    // ignored
+                }
+            }
+        }
+        long t2 = System.currentTimeMillis();
+        System.out.println("per-object: init " + (t1 - t0) + " ms, propagation " + (t2 - t1) + " ms");
+
+        final TLEBatchPropagator batch = new TLEBatchPropagator(catalog);
+        final double[] positions  = new double[3 * batch.getSize() * dates.length];
+        final double[] velocities = new double[positions.length];
+        long t3 = System.currentTimeMillis();
+        batch.propagate(dates, positions, velocities);
+        long t4 = System.currentTimeMillis();
+        System.out.println("batch: propagation " + (t4 - t3) + " ms");
+
+    }
+
+    private void checkConsistency(final TLEBatchPropagator batch, final Frame frame,
+                                  final double positionTolerance, final double velocityTolerance)
+        throws OrekitException {
+
+        final AbsoluteDate reference = tles.get(0).getDate();
+        final AbsoluteDate[] dates = new AbsoluteDate[5];
+        for (int j = 0; j < dates.length; ++j) {
+            dates[j] = reference.shiftedBy(1200.0 * j - 2400.0);
+        }
+
+        final double[] positions  = new double[3 * batch.getSize() * dates.length];
+        final double[] velocities = new double[positions.length];
+        batch.propagate(dates, frame, positions, velocities);
+
+        int nanCount = 0;
+        for (int k = 0; k < tles.size(); ++k) {
+            final TLEPropagator propagator = TLEPropagator.selectExtrapolator(tles.get(k));
+            for (int j = 0; j < dates.length; ++j) {
+                final int index = 3 * (k * dates.length + j);
+                final AbsoluteDate date = dates[j];
+                PVCoordinates pv;
+                try {
+                    pv = propagator.getPVCoordinates(date);
+                } catch (OrekitException oe) {
+                    Assert.assertTrue(Double.isNaN(positions[index]));
+                    ++nanCount;
+                    continue;
+                }
+                if (frame != null) {
+                    pv = propagator.getFrame().getTransformTo(frame, date).transformPVCoordinates(pv);
+                }
+                Assert.assertEquals(pv.getPosition().getX(), positions[index],     positionTolerance);
+                Assert.assertEquals(pv.getPosition().getY(), positions[index + 1], positionTolerance);
+                Assert.assertEquals(pv.getPosition().getZ(), positions[index + 2], positionTolerance);
+                Assert.assertEquals(pv.getVelocity().getX(), velocities[index],     velocityTolerance);
+                Assert.assertEquals(pv.getVelocity().getY(), velocities[index + 1], velocityTolerance);
+                Assert.assertEquals(pv.getVelocity().getZ(), velocities[index + 2], velocityTolerance);
+            }
+        }
+
+        // some objects in the verification set cannot be propagated at all dates
+        Assert.assertTrue(nanCount < tles.size() * dates.length / 2);
+
+    }
+
+    @Before
+    public void setUp() throws OrekitException, IOException {
+        Utils.setDataRoot("regular-data");
+
+        // load all the TLE from the verification test cases, both near-Earth and deep-space
+        tles = new ArrayList<TLE>();
+        InputStream in =
+            TLEBatchPropagatorTest.class.getResourceAsStream("/tle/extrapolationTest-data/SatCode-entry");
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+        try {
+            for (String line1 = reader.readLine(); line1 != null; line1 = reader.readLine()) {
+                if (line1.startsWith("1 ")) {
+                    String line2 = reader.readLine();
+                    tles.add(new TLE(line1, line2));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+    }
+
+}
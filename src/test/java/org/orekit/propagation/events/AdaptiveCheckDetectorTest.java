@@ -0,0 +1,268 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.events.EventsLogger.LoggedEvent;
+import org.orekit.propagation.events.handlers.ContinueOnEvent;
+import org.orekit.propagation.events.handlers.EventHandler;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+
+public class AdaptiveCheckDetectorTest {
+
+    @Test
+    public void testCheckInterval() {
+        final AdaptiveCheckDetector<NodeDetector> adaptive =
+                new AdaptiveCheckDetector<NodeDetector>(createNode(), 1000.0);
+        Assert.assertEquals(60.0,   adaptive.getMaxCheckInterval(), 1.0e-15);
+        Assert.assertEquals(1000.0, adaptive.getMaxInterval(),      1.0e-15);
+        Assert.assertTrue(Double.isNaN(adaptive.getMaxRate()));
+        Assert.assertEquals(AdaptiveCheckDetector.DEFAULT_SAFETY_FACTOR, adaptive.getSafetyFactor(), 1.0e-15);
+
+        // no rate information yet
+        Assert.assertEquals(60.0, adaptive.getCheckInterval(1.0e6, Double.NaN), 1.0e-15);
+
+        // finite differences estimates
+        Assert.assertEquals(250.0,  adaptive.getCheckInterval(1.0e6, 2000.0), 1.0e-12);
+        Assert.assertEquals(60.0,   adaptive.getCheckInterval(1.0e3, 2000.0), 1.0e-15);
+        Assert.assertEquals(1000.0, adaptive.getCheckInterval(1.0e8, 2000.0), 1.0e-15);
+        Assert.assertEquals(1000.0, adaptive.getCheckInterval(1.0e3, 0.0),    1.0e-15);
+        Assert.assertEquals(500.0,  adaptive.withSafetyFactor(1.0).getCheckInterval(1.0e6, 2000.0), 1.0e-12);
+
+        // rigorous bound
+        final AdaptiveCheckDetector<NodeDetector> bounded = adaptive.withMaxRate(8000.0).withMaxInterval(2000.0);
+        Assert.assertEquals(8000.0, bounded.getMaxRate(),     1.0e-15);
+        Assert.assertEquals(2000.0, bounded.getMaxInterval(), 1.0e-15);
+        Assert.assertEquals(125.0,  bounded.getCheckInterval(1.0e6, Double.NaN), 1.0e-12);
+        Assert.assertEquals(125.0,  bounded.getCheckInterval(-1.0e6, 1.0),       1.0e-12);
+        Assert.assertSame(adaptive.getDetector(), bounded.getDetector());
+
+    }
+
+    @Test
+    public void testNodeFiniteDifferences() throws OrekitException {
+        final NodeDetector node = createNode();
+        checkSameEventsFewerCalls(node, new Wrapper() {
+            public EventDetector wrap(final EventDetector raw) {
+                return new AdaptiveCheckDetector<EventDetector>(raw, orbit.getKeplerianPeriod() / 8);
+            }
+        }, 0.5);
+    }
+
+    @Test
+    public void testNodeMaxRate() throws OrekitException {
+        // the switching function is the Z coordinate, its rate is bounded by velocity
+        final NodeDetector node = createNode();
+        checkSameEventsFewerCalls(node, new Wrapper() {
+            public EventDetector wrap(final EventDetector raw) {
+                return new AdaptiveCheckDetector<EventDetector>(raw, orbit.getKeplerianPeriod() / 8).
+                       withMaxRate(1.05 * orbit.getPVCoordinates().getVelocity().getNorm());
+            }
+        }, 0.5);
+    }
+
+    @Test
+    public void testApside() throws OrekitException {
+        final ApsideDetector apside =
+                new ApsideDetector(1.0e-6, orbit).
+                withMaxCheck(60.0).
+                withHandler(new ContinueOnEvent<ApsideDetector>());
+        checkSameEventsFewerCalls(apside, new Wrapper() {
+            public EventDetector wrap(final EventDetector raw) {
+                return new AdaptiveCheckDetector<EventDetector>(raw, orbit.getKeplerianPeriod() / 8);
+            }
+        }, 0.5);
+    }
+
+    @Test
+    public void testEclipse() throws OrekitException {
+        final EclipseDetector eclipse = createEclipse();
+        checkSameEventsFewerCalls(eclipse, new Wrapper() {
+            public EventDetector wrap(final EventDetector raw) {
+                return new AdaptiveCheckDetector<EventDetector>(raw, orbit.getKeplerianPeriod() / 8);
+            }
+        }, 0.5);
+    }
+
+    @Test
+    public void testReset() throws OrekitException {
+        final KeplerianPropagator propagator = new KeplerianPropagator(orbit);
+        final AdaptiveCheckDetector<DateDetector> adaptive =
+                new AdaptiveCheckDetector<DateDetector>(new DateDetector(orbit.getDate().shiftedBy(1000.0)).
+                                                        withHandler(new EventHandler<DateDetector>() {
+                                                            public Action eventOccurred(SpacecraftState s, DateDetector detector,
+                                                                                        boolean increasing) {
+                                                                return Action.RESET_STATE;
+                                                            }
+                                                            public SpacecraftState resetState(DateDetector detector,
+                                                                                              SpacecraftState oldState) {
+                                                                return oldState.shiftedBy(0.0);
+                                                            }
+                                                        }),
+                                                        3600.0);
+        propagator.addEventDetector(adaptive);
+        final SpacecraftState end = propagator.propagate(orbit.getDate().shiftedBy(5000.0));
+        Assert.assertEquals(5000.0, end.getDate().durationFrom(orbit.getDate()), 1.0e-10);
+    }
+
+    @Ignore
+    @Test
+    public void benchmarkCalls() throws OrekitException {
+        final AbsoluteDate end = orbit.getDate().shiftedBy(30 * Constants.JULIAN_DAY);
+        final EventDetector[] detectors = new EventDetector[] {
+            createNode(),
+            new ApsideDetector(1.0e-6, orbit).withMaxCheck(60.0).withHandler(new ContinueOnEvent<ApsideDetector>()),
+            createEclipse()
+        };
+        for (final EventDetector raw : detectors) {
+            for (final double maxInterval : new double[] { 0, 300, 600, 1200 }) {
+                final CountingDetector counting = new CountingDetector(raw);
+                final EventsLogger logger = new EventsLogger();
+                final EventDetector monitored = logger.monitorDetector(counting);
+                final Propagator propagator = new KeplerianPropagator(orbit);
+                propagator.addEventDetector(maxInterval == 0 ?
+                                            monitored :
+                                            new AdaptiveCheckDetector<EventDetector>(monitored, maxInterval));
+                final long start = System.nanoTime();
+                propagator.propagate(end);
+                final long stop  = System.nanoTime();
+                System.out.format(Locale.US, "%-16s max interval %6.1f s: %4d events, %7d g calls, %8.3f ms%n",
+                                  raw.getClass().getSimpleName(), maxInterval,
+                                  logger.getLoggedEvents().size(), counting.getCalls(), 1.0e-6 * (stop - start));
+            }
+        }
+    }
+
+    private void checkSameEventsFewerCalls(final EventDetector raw, final Wrapper wrapper,
+                                           final double maxRatio)
+        throws OrekitException {
+
+        final AbsoluteDate end = orbit.getDate().shiftedBy(5 * Constants.JULIAN_DAY);
+
+        final CountingDetector fixedCounting = new CountingDetector(raw);
+        final EventsLogger fixedLogger = new EventsLogger();
+        final Propagator fixedPropagator = new KeplerianPropagator(orbit);
+        fixedPropagator.addEventDetector(fixedLogger.monitorDetector(fixedCounting));
+        fixedPropagator.propagate(end);
+
+        final CountingDetector adaptiveCounting = new CountingDetector(raw);
+        final EventsLogger adaptiveLogger = new EventsLogger();
+        final Propagator adaptivePropagator = new KeplerianPropagator(orbit);
+        adaptivePropagator.addEventDetector(wrapper.wrap(adaptiveLogger.monitorDetector(adaptiveCounting)));
+        adaptivePropagator.propagate(end);
+
+        final List<LoggedEvent> fixedEvents    = fixedLogger.getLoggedEvents();
+        final List<LoggedEvent> adaptiveEvents = adaptiveLogger.getLoggedEvents();
+        Assert.assertTrue(fixedEvents.size() > 10);
+        Assert.assertEquals(fixedEvents.size(), adaptiveEvents.size());
+        for (int i = 0; i < fixedEvents.size(); ++i) {
+            Assert.assertEquals(fixedEvents.get(i).isIncreasing(), adaptiveEvents.get(i).isIncreasing());
+            Assert.assertEquals(0.0,
+                                adaptiveEvents.get(i).getState().getDate().durationFrom(fixedEvents.get(i).getState().getDate()),
+                                1.0e-5);
+        }
+
+        Assert.assertTrue(adaptiveCounting.getCalls() < maxRatio * fixedCounting.getCalls());
+
+    }
+
+    private NodeDetector createNode() {
+        return new NodeDetector(1.0e-6, orbit, FramesFactory.getEME2000()).
+               withMaxCheck(60.0).
+               withHandler(new ContinueOnEvent<NodeDetector>());
+    }
+
+    private EclipseDetector createEclipse() throws OrekitException {
+        return new EclipseDetector(60.0, 1.0e-6,
+                                   CelestialBodyFactory.getSun(), Constants.SUN_RADIUS,
+                                   CelestialBodyFactory.getEarth(), Constants.WGS84_EARTH_EQUATORIAL_RADIUS).
+               withHandler(new ContinueOnEvent<EclipseDetector>());
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        orbit = new KeplerianOrbit(7078137.0, 0.01, FastMath.toRadians(98.0),
+                                   FastMath.toRadians(90.0), FastMath.toRadians(30.0), 0.0,
+                                   PositionAngle.MEAN, FramesFactory.getEME2000(),
+                                   new AbsoluteDate(2003, 9, 16, TimeScalesFactory.getUTC()),
+                                   Constants.EIGEN5C_EARTH_MU);
+    }
+
+    private interface Wrapper {
+        EventDetector wrap(EventDetector raw);
+    }
+
+    private static class CountingDetector extends AbstractDetector<CountingDetector> {
+
+        private static final long serialVersionUID = 20161016L;
+
+        private final EventDetector raw;
+        private int calls;
+
+        CountingDetector(final EventDetector raw) {
+            this(raw.getMaxCheckInterval(), raw.getThreshold(), raw.getMaxIterationCount(),
+                 new ContinueOnEvent<CountingDetector>(), raw);
+        }
+
+        private CountingDetector(final double maxCheck, final double threshold, final int maxIter,
+                                 final EventHandler<? super CountingDetector> handler,
+                                 final EventDetector raw) {
+            super(maxCheck, threshold, maxIter, handler);
+            this.raw   = raw;
+            this.calls = 0;
+        }
+
+        protected CountingDetector create(final double newMaxCheck, final double newThreshold,
+                                          final int newMaxIter,
+                                          final EventHandler<? super CountingDetector> newHandler) {
+            return new CountingDetector(newMaxCheck, newThreshold, newMaxIter, newHandler, raw);
+        }
+
+        public double g(final SpacecraftState s) throws OrekitException {
+            ++calls;
+            return raw.g(s);
+        }
+
+        public int getCalls() {
+            return calls;
+        }
+
+    }
+
+    private Orbit orbit;
+
+}
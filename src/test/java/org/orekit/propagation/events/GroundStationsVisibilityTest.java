@@ -0,0 +1,177 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.models.earth.EarthStandardAtmosphereRefraction;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.events.EventsLogger.LoggedEvent;
+import org.orekit.propagation.events.handlers.ContinueOnEvent;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.ElevationMask;
+import org.orekit.utils.IERSConventions;
+
+public class GroundStationsVisibilityTest {
+
+    @Test
+    public void testSameAsTopocentricFrame() throws OrekitException {
+        final GroundStationsVisibility visibility = new GroundStationsVisibility(stations);
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        for (double dt = 0; dt < 6000; dt += 97.0) {
+            final SpacecraftState s = propagator.propagate(orbit.getDate().shiftedBy(dt));
+            final Vector3D p = s.getPVCoordinates().getPosition();
+            for (int i = 0; i < stations.size(); ++i) {
+                final TopocentricFrame topo = stations.get(i);
+                Assert.assertEquals(topo.getElevation(p, s.getFrame(), s.getDate()),
+                                    visibility.getElevation(s, i),
+                                    1.0e-12);
+                Assert.assertEquals(topo.getAzimuth(p, s.getFrame(), s.getDate()),
+                                    visibility.getAzimuth(s, i),
+                                    1.0e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testSameEventsAsElevationDetector() throws OrekitException {
+
+        final double minElevation = FastMath.toRadians(5.0);
+        final GroundStationsVisibility visibility = new GroundStationsVisibility(stations);
+
+        final Propagator groupPropagator = new KeplerianPropagator(orbit);
+        final EventsLogger groupLogger = new EventsLogger();
+        for (final StationVisibilityDetector detector : visibility.getDetectors()) {
+            groupPropagator.addEventDetector(groupLogger.monitorDetector(detector.withConstantElevation(minElevation)));
+        }
+
+        final Propagator singlePropagator = new KeplerianPropagator(orbit);
+        final EventsLogger singleLogger = new EventsLogger();
+        for (final TopocentricFrame topo : stations) {
+            singlePropagator.addEventDetector(singleLogger.monitorDetector(new ElevationDetector(topo).
+                                                                           withConstantElevation(minElevation).
+                                                                           withHandler(new ContinueOnEvent<ElevationDetector>())));
+        }
+
+        final AbsoluteDate end = orbit.getDate().shiftedBy(Constants.JULIAN_DAY);
+        groupPropagator.propagate(end);
+        singlePropagator.propagate(end);
+
+        final List<LoggedEvent> groupEvents  = groupLogger.getLoggedEvents();
+        final List<LoggedEvent> singleEvents = singleLogger.getLoggedEvents();
+        Assert.assertTrue(groupEvents.size() > 20);
+        Assert.assertEquals(singleEvents.size(), groupEvents.size());
+        for (int k = 0; k < groupEvents.size(); ++k) {
+            final LoggedEvent group  = groupEvents.get(k);
+            final LoggedEvent single = singleEvents.get(k);
+            Assert.assertSame(((ElevationDetector) single.getEventDetector()).getTopocentricFrame(),
+                              ((StationVisibilityDetector) group.getEventDetector()).getTopocentricFrame());
+            Assert.assertEquals(single.isIncreasing(), group.isIncreasing());
+            Assert.assertEquals(0.0, group.getState().getDate().durationFrom(single.getState().getDate()), 1.0e-3);
+        }
+
+        // body frame positions are shared by all stations for all dates of a step
+        Assert.assertTrue(visibility.getTransforms() < visibility.getRequests() / 4);
+
+    }
+
+    @Test
+    public void testMaskAndRefraction() throws OrekitException {
+        final ElevationMask mask = new ElevationMask(new double[][] {
+            { FastMath.toRadians(  0.0), FastMath.toRadians(10.0) },
+            { FastMath.toRadians( 90.0), FastMath.toRadians( 5.0) },
+            { FastMath.toRadians(180.0), FastMath.toRadians(15.0) },
+            { FastMath.toRadians(270.0), FastMath.toRadians( 5.0) }
+        });
+        final EarthStandardAtmosphereRefraction refraction = new EarthStandardAtmosphereRefraction();
+        final GroundStationsVisibility visibility = new GroundStationsVisibility(stations);
+        final StationVisibilityDetector group =
+                visibility.getDetector(3).withElevationMask(mask).withRefraction(refraction);
+        final ElevationDetector single =
+                new ElevationDetector(stations.get(3)).withElevationMask(mask).withRefraction(refraction);
+        Assert.assertSame(mask, group.getElevationMask());
+        Assert.assertSame(refraction, group.getRefractionModel());
+        Assert.assertTrue(Double.isNaN(group.getMinElevation()));
+        Assert.assertSame(visibility, group.getVisibility());
+        Assert.assertEquals(3, group.getIndex());
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        for (double dt = 0; dt < 6000; dt += 97.0) {
+            final SpacecraftState s = propagator.propagate(orbit.getDate().shiftedBy(dt));
+            Assert.assertEquals(single.g(s), group.g(s), 1.0e-12);
+        }
+    }
+
+    @Test
+    public void testFramesMismatch() throws OrekitException {
+        final OneAxisEllipsoid other = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                            Constants.WGS84_EARTH_FLATTENING,
+                                                            FramesFactory.getITRF(IERSConventions.IERS_2003, true));
+        final List<TopocentricFrame> mixed = new ArrayList<TopocentricFrame>(stations);
+        mixed.add(new TopocentricFrame(other, new GeodeticPoint(0.1, 0.2, 0.0), "other"));
+        try {
+            new GroundStationsVisibility(mixed);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(OrekitMessages.FRAMES_MISMATCH, oiae.getSpecifier());
+        }
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        final OneAxisEllipsoid earth = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                            Constants.WGS84_EARTH_FLATTENING,
+                                                            FramesFactory.getITRF(IERSConventions.IERS_2010, true));
+        stations = new ArrayList<TopocentricFrame>();
+        for (int i = 0; i < 20; ++i) {
+            final GeodeticPoint point = new GeodeticPoint(FastMath.toRadians(-70.0 + 7.0 * i),
+                                                          FastMath.toRadians(-180.0 + 17.0 * i),
+                                                          100.0 * i);
+            stations.add(new TopocentricFrame(earth, point, "station-" + i));
+        }
+        orbit = new KeplerianOrbit(7078137.0, 0.001, FastMath.toRadians(98.0),
+                                   FastMath.toRadians(90.0), FastMath.toRadians(30.0), 0.0,
+                                   PositionAngle.MEAN, FramesFactory.getEME2000(),
+                                   new AbsoluteDate(2003, 9, 16, TimeScalesFactory.getUTC()),
+                                   Constants.EIGEN5C_EARTH_MU);
+    }
+
+    private List<TopocentricFrame> stations;
+    private Orbit orbit;
+
+}
@@ -0,0 +1,181 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.ode.nonstiff.DormandPrince853Integrator;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.events.EventsLogger.LoggedEvent;
+import org.orekit.propagation.events.handlers.ContinueOnEvent;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+public class InterpolatedStatesCacheTest {
+
+    @Test
+    public void testRawVectorCheck() {
+        final InterpolatedStatesCache cache = new InterpolatedStatesCache();
+        final SpacecraftState state = new SpacecraftState(orbit);
+        final double[] y = new double[] { 1.0, 2.0, 3.0 };
+        Assert.assertNull(cache.getState(orbit.getDate(), y));
+        cache.putState(orbit.getDate(), y, state);
+
+        // the cache holds a copy of the raw vector
+        y[2] = 4.0;
+        Assert.assertNull(cache.getState(orbit.getDate(), y));
+        Assert.assertSame(state, cache.getState(orbit.getDate(), new double[] { 1.0, 2.0, 3.0 }));
+        Assert.assertNull(cache.getState(orbit.getDate().shiftedBy(1.0e-9), new double[] { 1.0, 2.0, 3.0 }));
+
+        Assert.assertEquals(4, cache.getRequests());
+        Assert.assertEquals(1, cache.getInterpolations());
+        Assert.assertEquals(3, cache.getSavedInterpolations());
+        cache.resetCounters();
+        Assert.assertEquals(0, cache.getRequests());
+        Assert.assertEquals(0, cache.getInterpolations());
+    }
+
+    @Test
+    public void testCapacity() {
+        final InterpolatedStatesCache cache = new InterpolatedStatesCache(4);
+        final SpacecraftState state = new SpacecraftState(orbit);
+        for (int i = 0; i < 4; ++i) {
+            cache.putState(orbit.getDate().shiftedBy(i), null, state);
+        }
+        Assert.assertSame(state, cache.getState(orbit.getDate(), null));
+        cache.putState(orbit.getDate().shiftedBy(4), null, state);
+        Assert.assertNull(cache.getState(orbit.getDate(), null));
+        Assert.assertSame(state, cache.getState(orbit.getDate().shiftedBy(4), null));
+        cache.clear();
+        Assert.assertNull(cache.getState(orbit.getDate().shiftedBy(4), null));
+    }
+
+    @Test
+    public void testAnalyticalSharing() throws OrekitException {
+        final KeplerianPropagator propagator = new KeplerianPropagator(orbit);
+        final EventsLogger logger = new EventsLogger();
+        for (final TopocentricFrame station : stations) {
+            propagator.addEventDetector(logger.monitorDetector(createDetector(station, 60.0)));
+        }
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+        final InterpolatedStatesCache cache = propagator.getInterpolatedStatesCache();
+        Assert.assertTrue(logger.getLoggedEvents().size() > 20);
+        Assert.assertEquals(cache.getRequests(), cache.getInterpolations() + cache.getSavedInterpolations());
+        Assert.assertTrue(cache.getSavedInterpolations() > 0.5 * cache.getRequests());
+    }
+
+    @Test
+    public void testGridAlignment() throws OrekitException {
+
+        final List<LoggedEvent> regular = new ArrayList<LoggedEvent>();
+        final long regularSaved  = propagateWithDifferentChecks(false, regular);
+        final List<LoggedEvent> aligned = new ArrayList<LoggedEvent>();
+        final long alignedSaved = propagateWithDifferentChecks(true, aligned);
+
+        // alignment does not change events, but increases sharing
+        Assert.assertTrue(alignedSaved > regularSaved);
+        Assert.assertEquals(regular.size(), aligned.size());
+        for (int i = 0; i < regular.size(); ++i) {
+            Assert.assertSame(((ElevationDetector) regular.get(i).getEventDetector()).getTopocentricFrame(),
+                              ((ElevationDetector) aligned.get(i).getEventDetector()).getTopocentricFrame());
+            Assert.assertEquals(regular.get(i).isIncreasing(), aligned.get(i).isIncreasing());
+            Assert.assertEquals(0.0,
+                                aligned.get(i).getState().getDate().durationFrom(regular.get(i).getState().getDate()),
+                                1.0e-3);
+        }
+
+    }
+
+    @Test
+    public void testNumericalSharing() throws OrekitException {
+        final double[][] tolerances = NumericalPropagator.tolerances(0.001, orbit, OrbitType.CARTESIAN);
+        final NumericalPropagator propagator =
+                new NumericalPropagator(new DormandPrince853Integrator(0.001, 300, tolerances[0], tolerances[1]));
+        propagator.setOrbitType(OrbitType.CARTESIAN);
+        propagator.setInitialState(new SpacecraftState(orbit));
+        final EventsLogger logger = new EventsLogger();
+        for (final TopocentricFrame station : stations) {
+            propagator.addEventDetector(logger.monitorDetector(createDetector(station, 60.0)));
+        }
+        propagator.propagate(orbit.getDate().shiftedBy(0.25 * Constants.JULIAN_DAY));
+        final InterpolatedStatesCache cache = propagator.getInterpolatedStatesCache();
+        Assert.assertTrue(logger.getLoggedEvents().size() > 0);
+        Assert.assertTrue(cache.getSavedInterpolations() > 0.5 * cache.getRequests());
+    }
+
+    private long propagateWithDifferentChecks(final boolean alignment, final List<LoggedEvent> events)
+        throws OrekitException {
+        final KeplerianPropagator propagator = new KeplerianPropagator(orbit);
+        propagator.getInterpolatedStatesCache().setGridAlignment(alignment);
+        final EventsLogger logger = new EventsLogger();
+        for (int i = 0; i < stations.size(); ++i) {
+            propagator.addEventDetector(logger.monitorDetector(createDetector(stations.get(i), 40.0 + 7.0 * i)));
+        }
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+        events.addAll(logger.getLoggedEvents());
+        return propagator.getInterpolatedStatesCache().getSavedInterpolations();
+    }
+
+    private ElevationDetector createDetector(final TopocentricFrame station, final double maxCheck) {
+        return new ElevationDetector(maxCheck, 1.0e-6, station).
+               withConstantElevation(FastMath.toRadians(5.0)).
+               withHandler(new ContinueOnEvent<ElevationDetector>());
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        final OneAxisEllipsoid earth = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                            Constants.WGS84_EARTH_FLATTENING,
+                                                            FramesFactory.getITRF(IERSConventions.IERS_2010, true));
+        stations = new ArrayList<TopocentricFrame>();
+        for (int i = 0; i < 10; ++i) {
+            final GeodeticPoint point = new GeodeticPoint(FastMath.toRadians(-60.0 + 13.0 * i),
+                                                          FastMath.toRadians(-180.0 + 31.0 * i),
+                                                          0.0);
+            stations.add(new TopocentricFrame(earth, point, "station-" + i));
+        }
+        orbit = new KeplerianOrbit(7078137.0, 0.001, FastMath.toRadians(98.0),
+                                   FastMath.toRadians(90.0), FastMath.toRadians(30.0), 0.0,
+                                   PositionAngle.MEAN, FramesFactory.getEME2000(),
+                                   new AbsoluteDate(2003, 9, 16, TimeScalesFactory.getUTC()),
+                                   Constants.EIGEN5C_EARTH_MU);
+    }
+
+    private List<TopocentricFrame> stations;
+    private Orbit orbit;
+
+}
@@ -0,0 +1,258 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.sampling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.PropagationException;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+
+public class AsynchronousStepHandlerTest {
+
+    @Test
+    public void testAllStatesInOrder() throws OrekitException {
+        final Recorder recorder = new Recorder(0, -1);
+        final AsynchronousStepHandler asynchronous = new AsynchronousStepHandler(recorder);
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        propagator.setMasterMode(60.0, asynchronous);
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+
+        // when propagation ends, everything has been handled
+        Assert.assertEquals(1441, recorder.dates.size());
+        for (int i = 0; i < recorder.dates.size(); ++i) {
+            Assert.assertEquals(60.0 * i, recorder.dates.get(i).durationFrom(orbit.getDate()), 1.0e-10);
+        }
+        Assert.assertEquals(1, recorder.lastFlags);
+        Assert.assertTrue(recorder.initialized);
+        Assert.assertNotSame(Thread.currentThread(), recorder.thread);
+
+        Assert.assertEquals(1441, asynchronous.getHandledStates());
+        Assert.assertEquals(0,    asynchronous.getDroppedStates());
+        Assert.assertEquals(0,    asynchronous.getQueueDepth());
+        Assert.assertTrue(asynchronous.getMaxQueueDepth() <= AsynchronousStepHandler.DEFAULT_CAPACITY);
+        Assert.assertTrue(asynchronous.getBatches() <= 1441);
+        Assert.assertEquals(recorder.batches, asynchronous.getBatches());
+        Assert.assertTrue(recorder.maxBatch <= AsynchronousStepHandler.DEFAULT_MAX_BATCH_SIZE);
+        Assert.assertEquals(1441, asynchronous.getLatency().getCount());
+        Assert.assertEquals(asynchronous.getBatches(), asynchronous.getProcessingTime().getCount());
+
+    }
+
+    @Test
+    public void testBlockingSlowHandler() throws OrekitException {
+        final Recorder recorder = new Recorder(2, -1);
+        final AsynchronousStepHandler asynchronous =
+                new AsynchronousStepHandler(recorder, 8, 4, AsynchronousStepHandler.BackPressure.BLOCK, null);
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        propagator.setMasterMode(60.0, asynchronous);
+        propagator.propagate(orbit.getDate().shiftedBy(0.1 * Constants.JULIAN_DAY));
+        Assert.assertEquals(145, recorder.dates.size());
+        Assert.assertEquals(0, asynchronous.getDroppedStates());
+        Assert.assertTrue(asynchronous.getMaxQueueDepth() <= 8);
+        Assert.assertTrue(recorder.maxBatch <= 4);
+    }
+
+    @Test
+    public void testDropNewest() throws OrekitException {
+        checkDrop(AsynchronousStepHandler.BackPressure.DROP_NEWEST);
+    }
+
+    @Test
+    public void testDropOldest() throws OrekitException {
+        checkDrop(AsynchronousStepHandler.BackPressure.DROP_OLDEST);
+    }
+
+    @Test
+    public void testVariableStep() throws OrekitException {
+        final Recorder recorder = new Recorder(0, -1);
+        final AsynchronousStepHandler asynchronous = new AsynchronousStepHandler(recorder);
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        propagator.setMasterMode(asynchronous);
+        propagator.propagate(orbit.getDate().shiftedBy(3600.0));
+        Assert.assertEquals(2, recorder.dates.size());
+        Assert.assertEquals(0.0,    recorder.dates.get(0).durationFrom(orbit.getDate()), 1.0e-10);
+        Assert.assertEquals(3600.0, recorder.dates.get(1).durationFrom(orbit.getDate()), 1.0e-10);
+        Assert.assertEquals(1, recorder.lastFlags);
+    }
+
+    @Test
+    public void testHandlerFailure() throws OrekitException {
+        final Recorder failing = new Recorder(0, 100);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final AsynchronousStepHandler asynchronous =
+                    new AsynchronousStepHandler(failing, 16, 4, AsynchronousStepHandler.BackPressure.BLOCK, executor);
+            final Propagator propagator = new KeplerianPropagator(orbit);
+            propagator.setMasterMode(60.0, asynchronous);
+            try {
+                propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+                Assert.fail("an exception should have been thrown");
+            } catch (PropagationException pe) {
+                Assert.assertEquals(LocalizedFormats.SIMPLE_MESSAGE, pe.getSpecifier());
+                Assert.assertEquals("failure at state 100", pe.getParts()[0]);
+            }
+            Assert.assertTrue(failing.dates.size() <= 100);
+
+            // the adapter can be reused after a failure
+            failing.dates.clear();
+            failing.failAt = -1;
+            propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY),
+                                 orbit.getDate().shiftedBy(2 * Constants.JULIAN_DAY));
+            Assert.assertEquals(1441, failing.dates.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testHandlerUncheckedFailure() throws OrekitException {
+        final OrekitBatchStepHandler failing = new OrekitBatchStepHandler() {
+            private int count;
+            public void init(final SpacecraftState s0, final AbsoluteDate t) {
+                count = 0;
+            }
+            public void handleBatch(final List<SpacecraftState> states, final boolean isLast) {
+                count += states.size();
+                if (count > 20) {
+                    throw new IllegalStateException("unchecked failure");
+                }
+            }
+        };
+
+        // the queue is small, so the propagation thread would wait forever
+        // for room in the queue if it did not notice the consumer died
+        final AsynchronousStepHandler asynchronous =
+                new AsynchronousStepHandler(failing, 4, 2, AsynchronousStepHandler.BackPressure.BLOCK, null);
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        propagator.setMasterMode(60.0, asynchronous);
+        try {
+            propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+            Assert.fail("an exception should have been thrown");
+        } catch (PropagationException pe) {
+            Assert.assertEquals(LocalizedFormats.SIMPLE_MESSAGE, pe.getSpecifier());
+            Assert.assertEquals("unchecked failure", pe.getParts()[0]);
+            Assert.assertTrue(pe.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private void checkDrop(final AsynchronousStepHandler.BackPressure backPressure)
+        throws OrekitException {
+        final Recorder recorder = new Recorder(5, -1);
+        final AsynchronousStepHandler asynchronous =
+                new AsynchronousStepHandler(recorder, 4, 2, backPressure, null);
+        Assert.assertEquals(backPressure, asynchronous.getBackPressure());
+        Assert.assertEquals(4, asynchronous.getCapacity());
+        Assert.assertEquals(2, asynchronous.getMaxBatchSize());
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        propagator.setMasterMode(60.0, asynchronous);
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+        Assert.assertTrue(asynchronous.getDroppedStates() > 0);
+        Assert.assertEquals(1441, asynchronous.getHandledStates() + asynchronous.getDroppedStates());
+        Assert.assertEquals(asynchronous.getHandledStates(), recorder.dates.size());
+
+        // states remain in chronological order, and the last one is always handled
+        for (int i = 1; i < recorder.dates.size(); ++i) {
+            Assert.assertTrue(recorder.dates.get(i).compareTo(recorder.dates.get(i - 1)) > 0);
+        }
+        Assert.assertEquals(Constants.JULIAN_DAY,
+                            recorder.dates.get(recorder.dates.size() - 1).durationFrom(orbit.getDate()),
+                            1.0e-10);
+        Assert.assertEquals(1, recorder.lastFlags);
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        orbit = new KeplerianOrbit(7078137.0, 0.001, FastMath.toRadians(98.0),
+                                   FastMath.toRadians(90.0), FastMath.toRadians(30.0), 0.0,
+                                   PositionAngle.MEAN, FramesFactory.getEME2000(),
+                                   new AbsoluteDate(2003, 9, 16, TimeScalesFactory.getUTC()),
+                                   Constants.EIGEN5C_EARTH_MU);
+    }
+
+    /** Batch handler recording dates, with optional delay and failure. */
+    private static class Recorder implements OrekitBatchStepHandler {
+
+        private final long delay;
+        private int failAt;
+        private final List<AbsoluteDate> dates;
+        private volatile boolean initialized;
+        private volatile Thread thread;
+        private int lastFlags;
+        private long batches;
+        private int maxBatch;
+
+        Recorder(final long delay, final int failAt) {
+            this.delay  = delay;
+            this.failAt = failAt;
+            this.dates  = new ArrayList<AbsoluteDate>();
+        }
+
+        public void init(final SpacecraftState s0, final AbsoluteDate t) {
+            initialized = true;
+            lastFlags   = 0;
+            batches     = 0;
+            maxBatch    = 0;
+        }
+
+        public void handleBatch(final List<SpacecraftState> states, final boolean isLast)
+            throws OrekitException {
+            thread = Thread.currentThread();
+            ++batches;
+            maxBatch = FastMath.max(maxBatch, states.size());
+            for (final SpacecraftState state : states) {
+                if (dates.size() == failAt) {
+                    throw new OrekitException(LocalizedFormats.SIMPLE_MESSAGE, "failure at state " + failAt);
+                }
+                dates.add(state.getDate());
+            }
+            if (isLast) {
+                ++lastFlags;
+            }
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+    }
+
+    private Orbit orbit;
+
+}
@@ -18,6 +18,9 @@ package org.orekit.propagation.sampling;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -39,7 +42,9 @@ import org.orekit.propagation.Propagator;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.analytical.KeplerianPropagator;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.time.IrregularTimeGrid;
 import org.orekit.time.TimeScalesFactory;
+import org.orekit.time.UniformTimeGrid;
 
 public class OrekitStepHandlerTest {
 
@@ -112,6 +117,65 @@ public class OrekitStepHandlerTest {
         }
     }
 
+    @Test
+    public void testTimeGrid() throws OrekitException {
+        final AbsoluteDate initialDate = new AbsoluteDate(2014, 01, 01, 00, 00, 00.000,
+                                                          TimeScalesFactory.getUTC());
+        final KeplerianOrbit initialOrbit =
+                new KeplerianOrbit(8000e3, 0.001, FastMath.toRadians(15.0), FastMath.toRadians(10.0),
+                                   FastMath.toRadians(45.0), FastMath.toRadians(10.0), PositionAngle.TRUE,
+                                   FramesFactory.getEME2000(), initialDate,
+                                   CelestialBodyFactory.getEarth().getGM());
+        final List<AbsoluteDate> dates = new ArrayList<AbsoluteDate>();
+        for (final double dt : new double[] { -100.0, 0.0, 0.5, 17.0, 1000.0, 1000.25, 3599.0, 3600.0, 3600.5 }) {
+            dates.add(initialDate.shiftedBy(dt));
+        }
+        final IrregularTimeGrid grid = new IrregularTimeGrid(dates);
+
+        // forward propagation only sees grid dates within range
+        final List<Double> forward = new ArrayList<Double>();
+        final Propagator kepler = new KeplerianPropagator(initialOrbit);
+        kepler.setMasterMode(new OrekitStepNormalizer(grid, new GridRecorder(initialDate, forward)));
+        kepler.propagate(initialDate.shiftedBy(3600.0));
+        assertEquals(Arrays.asList(0.0, 0.5, 17.0, 1000.0, 1000.25, 3599.0, 3600.0, Double.NaN), forward);
+
+        // backward propagation
+        final List<Double> backward = new ArrayList<Double>();
+        kepler.setMasterMode(new OrekitStepNormalizer(grid, new GridRecorder(initialDate, backward)));
+        kepler.propagate(initialDate.shiftedBy(3600.0), initialDate.shiftedBy(17.0));
+        assertEquals(Arrays.asList(3600.0, 3599.0, 1000.25, 1000.0, 17.0, Double.NaN), backward);
+
+        // uniform grid
+        final List<Double> uniform = new ArrayList<Double>();
+        kepler.setMasterMode(new OrekitStepNormalizer(new UniformTimeGrid(initialDate.shiftedBy(-250), 500.0, 100),
+                                                      new GridRecorder(initialDate, uniform)));
+        kepler.propagate(initialDate, initialDate.shiftedBy(1200.0));
+        assertEquals(Arrays.asList(250.0, 750.0, Double.NaN), uniform);
+    }
+
+    /** Fixed step handler recording offsets, with NaN after last step. */
+    private static class GridRecorder implements OrekitFixedStepHandler {
+
+        private final AbsoluteDate reference;
+        private final List<Double> offsets;
+
+        GridRecorder(final AbsoluteDate reference, final List<Double> offsets) {
+            this.reference = reference;
+            this.offsets   = offsets;
+        }
+
+        public void init(SpacecraftState s0, AbsoluteDate t) {
+        }
+
+        public void handleStep(SpacecraftState currentState, boolean isLast) {
+            offsets.add(currentState.getDate().durationFrom(reference));
+            if (isLast) {
+                offsets.add(Double.NaN);
+            }
+        }
+
+    }
+
     @Before
     public void setUp()
         throws OrekitException {
@@ -0,0 +1,226 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.screening;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937a;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+
+public class ConjunctionScreenerTest {
+
+    private Frame        frame;
+    private AbsoluteDate t0;
+    private double       mu;
+
+    @Test
+    public void testDesignedEncounter() throws OrekitException {
+
+        // two circular orbits crossing at t0, one equatorial and one polar,
+        // with a 500 m radial separation, and one geostationary object
+        final List<Propagator> propagators = new ArrayList<Propagator>();
+        propagators.add(circular(7.0e6,         0.0,            0.0, 0.0));
+        propagators.add(circular(7.0e6 + 500.0, 0.5 * FastMath.PI, 0.0, 0.0));
+        propagators.add(circular(42164.0e3,     0.0,            1.0, 2.0));
+
+        final ConjunctionScreener screener = new ConjunctionScreener(propagators, frame, 5000.0, 60.0, null);
+        final List<CloseApproach> approaches = screener.screen(t0.shiftedBy(-1000.0), t0.shiftedBy(1000.0));
+
+        Assert.assertEquals(1, approaches.size());
+        final CloseApproach approach = approaches.get(0);
+        Assert.assertEquals(0, approach.getFirst());
+        Assert.assertEquals(1, approach.getSecond());
+        Assert.assertEquals(0.0, approach.getDate().durationFrom(t0), 0.01);
+        Assert.assertEquals(500.0, approach.getMissDistance(), 0.5);
+        final double v = FastMath.sqrt(mu / 7.0e6);
+        Assert.assertEquals(v * FastMath.sqrt(2.0), approach.getRelativeVelocity().getNorm(), 1.0);
+        Assert.assertEquals(0.0,
+                            Vector3D.dotProduct(approach.getRelativePosition(), approach.getRelativeVelocity()),
+                            1.0e-3 * approach.getMissDistance() * approach.getRelativeVelocity().getNorm());
+
+    }
+
+    @Test
+    public void testNoEncounterOutsideRange() throws OrekitException {
+        final List<Propagator> propagators = new ArrayList<Propagator>();
+        propagators.add(circular(7.0e6,         0.0,            0.0, 0.0));
+        propagators.add(circular(7.0e6 + 500.0, 0.5 * FastMath.PI, 0.0, 0.0));
+        final ConjunctionScreener screener = new ConjunctionScreener(propagators, frame, 5000.0, 60.0, null);
+        Assert.assertTrue(screener.screen(t0.shiftedBy(100.0), t0.shiftedBy(1000.0)).isEmpty());
+    }
+
+    @Test
+    public void testRandomPopulation() throws OrekitException {
+
+        final List<Propagator> sequentialPropagators = randomPopulation(40);
+        final List<Propagator> parallelPropagators   = randomPopulation(40);
+        final List<Propagator> referencePropagators  = randomPopulation(40);
+        final double threshold = 100.0e3;
+        final AbsoluteDate start = t0;
+        final AbsoluteDate end   = t0.shiftedBy(6 * 3600.0);
+
+        // sequential screening
+        final List<CloseApproach> sequential =
+                new ConjunctionScreener(sequentialPropagators, frame, threshold, 60.0, null).screen(start, end);
+
+        // parallel screening
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<CloseApproach> parallel = new ArrayList<CloseApproach>();
+        try {
+            new ConjunctionScreener(parallelPropagators, frame, threshold, 60.0, executor).
+            screen(start, end, new CloseApproachHandler() {
+                public void handleCloseApproach(final CloseApproach approach) {
+                    if (!parallel.isEmpty()) {
+                        // approaches must be handled in chronological order
+                        Assert.assertTrue(approach.getDate().compareTo(parallel.get(parallel.size() - 1).getDate()) >= 0);
+                    }
+                    parallel.add(approach);
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertTrue(sequential.size() > 2);
+        Assert.assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); ++i) {
+            Assert.assertEquals(sequential.get(i).getFirst(),  parallel.get(i).getFirst());
+            Assert.assertEquals(sequential.get(i).getSecond(), parallel.get(i).getSecond());
+            Assert.assertEquals(0.0, sequential.get(i).getDate().durationFrom(parallel.get(i).getDate()), 1.0e-10);
+        }
+
+        // check all approaches against direct propagation
+        for (final CloseApproach approach : sequential) {
+            final Vector3D p1 = referencePropagators.get(approach.getFirst()).
+                                getPVCoordinates(approach.getDate(), frame).getPosition();
+            final Vector3D p2 = referencePropagators.get(approach.getSecond()).
+                                getPVCoordinates(approach.getDate(), frame).getPosition();
+            Assert.assertEquals(Vector3D.distance(p1, p2), approach.getMissDistance(), 5.0);
+        }
+
+        // brute force search with 10 seconds sampling
+        final double step = 10.0;
+        final int n = (int) FastMath.rint(end.durationFrom(start) / step);
+        final double[][][] positions = new double[referencePropagators.size()][n + 1][];
+        for (int k = 0; k < referencePropagators.size(); ++k) {
+            for (int j = 0; j <= n; ++j) {
+                positions[k][j] = referencePropagators.get(k).getPVCoordinates(start.shiftedBy(j * step), frame).
+                                  getPosition().toArray();
+            }
+        }
+        int count = 0;
+        for (int a = 0; a < referencePropagators.size(); ++a) {
+            for (int b = a + 1; b < referencePropagators.size(); ++b) {
+                for (int j = 1; j < n; ++j) {
+                    final double dPrev = distance(positions[a][j - 1], positions[b][j - 1]);
+                    final double d     = distance(positions[a][j],     positions[b][j]);
+                    final double dNext = distance(positions[a][j + 1], positions[b][j + 1]);
+                    if (d < dPrev && d <= dNext && d < 0.9 * threshold) {
+                        // this is a close approach, it must have been found by the screener
+                        boolean found = false;
+                        for (final CloseApproach approach : sequential) {
+                            if (approach.getFirst() == a && approach.getSecond() == b &&
+                                FastMath.abs(approach.getDate().durationFrom(start.shiftedBy(j * step))) < step) {
+                                found = true;
+                                Assert.assertTrue(approach.getMissDistance() <= d);
+                            }
+                        }
+                        Assert.assertTrue(found);
+                        ++count;
+                    }
+                }
+            }
+        }
+        Assert.assertTrue(count > 2);
+
+    }
+
+    @Test
+    @Ignore
+    public void testPerformance() throws OrekitException {
+        final List<Propagator> propagators = randomPopulation(2000);
+        final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            long t1 = System.currentTimeMillis();
+            final List<CloseApproach> approaches =
+                    new ConjunctionScreener(propagators, frame, 5000.0, 60.0, executor).
+                    screen(t0, t0.shiftedBy(Constants.JULIAN_DAY));
+            long t2 = System.currentTimeMillis();
+            System.out.println(approaches.size() + " close approaches found for " + propagators.size() +
+                               " objects in " + (t2 - t1) + " ms");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private double distance(final double[] p1, final double[] p2) {
+        final double dx = p1[0] - p2[0];
+        final double dy = p1[1] - p2[1];
+        final double dz = p1[2] - p2[2];
+        return FastMath.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private List<Propagator> randomPopulation(final int size) throws OrekitException {
+        // dense population in a narrow altitude band, so approaches do occur
+        final RandomGenerator random = new Well19937a(0x5cda3d7a1ab49b8al);
+        final List<Propagator> propagators = new ArrayList<Propagator>(size);
+        for (int k = 0; k < size; ++k) {
+            final KeplerianOrbit orbit =
+                    new KeplerianOrbit(7.0e6 + 20.0e3 * random.nextDouble(), 0.002 * random.nextDouble(),
+                                       FastMath.PI * random.nextDouble(), 2 * FastMath.PI * random.nextDouble(),
+                                       2 * FastMath.PI * random.nextDouble(), 2 * FastMath.PI * random.nextDouble(),
+                                       PositionAngle.MEAN, frame, t0, mu);
+            propagators.add(new KeplerianPropagator(orbit));
+        }
+        return propagators;
+    }
+
+    private Propagator circular(final double a, final double i, final double raan, final double anomaly)
+        throws OrekitException {
+        return new KeplerianPropagator(new KeplerianOrbit(a, 0.0, i, 0.0, raan, anomaly, PositionAngle.TRUE,
+                                                          frame, t0, mu));
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        frame = FramesFactory.getEME2000();
+        t0    = new AbsoluteDate(2004, 1, 1, 23, 30, 00.000, TimeScalesFactory.getUTC());
+        mu    = Constants.EIGEN5C_EARTH_MU;
+    }
+
+}
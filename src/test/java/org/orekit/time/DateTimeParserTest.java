@@ -0,0 +1,228 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.time;
+
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+
+public class DateTimeParserTest {
+
+    @Test
+    public void testSameAsRegularExpressions() {
+        final String[] locations = {
+            "2004-06-01T12:34:56.789", "20040601T123456.789", "2004-06-01T12:34:56,789Z",
+            "2004-153T00:00:00", "2004153T235960.5", "2004-W23-2T12:00:00+00",
+            "2004W232T12:00:00-00:00", "-4712-01-01", "2004-06-01", "2004-0601T1234:56",
+            "1969-07-20T20:17:40.123456789012345678", "2016-12-31T23:59:60.999999",
+            "2000-01-01T11:58:55.816"
+        };
+        for (final String location : locations) {
+            final DateTimeComponents ref = parseWithRegularExpressions(location);
+            final DateTimeComponents dtc = DateTimeParser.parseDateTime(location, 0, location.length());
+            Assert.assertEquals(ref.getDate(), dtc.getDate());
+            Assert.assertEquals(ref.getTime().getHour(),   dtc.getTime().getHour());
+            Assert.assertEquals(ref.getTime().getMinute(), dtc.getTime().getMinute());
+            Assert.assertEquals(Double.doubleToLongBits(ref.getTime().getSecond()),
+                                Double.doubleToLongBits(dtc.getTime().getSecond()));
+        }
+    }
+
+    @Test
+    public void testRandomSeconds() {
+        final RandomGenerator random = new Well1024a(0x4ab2b3e39bc0d7d6l);
+        for (int i = 0; i < 10000; ++i) {
+            final StringBuilder builder = new StringBuilder("2009-02-13T23:31:");
+            builder.append(random.nextInt(6)).append(random.nextInt(10));
+            final int fractionDigits = random.nextInt(16);
+            if (fractionDigits > 0) {
+                builder.append('.');
+                for (int k = 0; k < fractionDigits; ++k) {
+                    builder.append(random.nextInt(10));
+                }
+            }
+            final String location = builder.toString();
+            final double expected = Double.parseDouble(location.substring(17));
+            Assert.assertEquals(Double.doubleToLongBits(expected),
+                                Double.doubleToLongBits(DateTimeParser.parseDateTime(location, 0, location.length()).getTime().getSecond()));
+        }
+    }
+
+    @Test
+    public void testRanges() throws OrekitException {
+        final TimeScale utc = TimeScalesFactory.getUTC();
+        final AbsoluteDate expected = new AbsoluteDate(2004, 6, 1, 12, 34, 56.789, utc);
+        final String line = "EPOCH 2004-06-01T12:34:56.789 1.0";
+        Assert.assertEquals(0.0, DateTimeParser.parseDate(line, 6, 29, utc).durationFrom(expected), 1.0e-15);
+        final byte[] bytes = line.getBytes(Charset.forName("US-ASCII"));
+        Assert.assertEquals(0.0, DateTimeParser.parseDate(bytes, 6, 29, utc).durationFrom(expected), 1.0e-15);
+        Assert.assertEquals(0.0,
+                            DateTimeParser.parseDate("2004-06-01T12:34:56.789", utc).durationFrom(expected),
+                            1.0e-15);
+        Assert.assertEquals(0.0,
+                            DateTimeParser.parseDate("2004-06-01", utc).durationFrom(new AbsoluteDate(2004, 6, 1, utc)),
+                            1.0e-15);
+    }
+
+    @Test
+    public void testWrongDates() {
+        for (final String wrong : new String[] {
+            "", "2004", "2004-6-01", "2004-06-1", "2004-06-01-", "2004--06-01",
+            "200a-06-01", "2004-W2-1", "2004-W231x", "2004-15", "04-06-01"
+        }) {
+            try {
+                DateTimeParser.parseDateComponents(wrong, 0, wrong.length());
+                Assert.fail("an exception should have been thrown for " + wrong);
+            } catch (OrekitIllegalArgumentException oiae) {
+                Assert.assertEquals(OrekitMessages.NON_EXISTENT_DATE, oiae.getSpecifier());
+                Assert.assertEquals(wrong, oiae.getParts()[0]);
+            }
+        }
+    }
+
+    @Test
+    public void testWrongTimes() {
+        for (final String wrong : new String[] {
+            "", "12", "12:34", "12:34:5", "12:34:56.", "12:34:56.7x", "12:34:56+01",
+            "12:34:56+00:01", "12:34:56ZZ", "1a:34:56"
+        }) {
+            try {
+                DateTimeParser.parseTimeComponents(wrong, 0, wrong.length());
+                Assert.fail("an exception should have been thrown for " + wrong);
+            } catch (OrekitIllegalArgumentException oiae) {
+                Assert.assertEquals(OrekitMessages.NON_EXISTENT_TIME, oiae.getSpecifier());
+                Assert.assertEquals(wrong, oiae.getParts()[0]);
+            }
+        }
+    }
+
+    @Test
+    public void testFields() {
+        final String line = "*  2001  8  8  0  0  0.00000000   -1.5e3 12345678901 x";
+        Assert.assertEquals(2001, DateTimeParser.parseInt(line, 3, 7));
+        Assert.assertEquals(8,    DateTimeParser.parseInt(line, 8, 10));
+        Assert.assertEquals(0.0,  DateTimeParser.parseDouble(line, 20, 31), 1.0e-15);
+        Assert.assertEquals(-1500.0, DateTimeParser.parseDouble(line, 31, 40), 1.0e-15);
+        Assert.assertEquals(12345678901.0, DateTimeParser.parseDouble(line, 40, 52), 1.0e-15);
+        Assert.assertEquals(-17, DateTimeParser.parseInt(" -17 ", 0, 5));
+        Assert.assertEquals(Double.doubleToLongBits(-0.0),
+                            Double.doubleToLongBits(DateTimeParser.parseDouble("-0.0", 0, 4)));
+        Assert.assertEquals(Double.doubleToLongBits(0.1),
+                            Double.doubleToLongBits(DateTimeParser.parseDouble(".1", 0, 2)));
+        for (final String wrong : new String[] { " x", "  ", "1.5", "99999999999" }) {
+            try {
+                DateTimeParser.parseInt(wrong, 0, wrong.length());
+                Assert.fail("an exception should have been thrown");
+            } catch (NumberFormatException nfe) {
+                // expected
+            }
+        }
+        for (final String wrong : new String[] { " x", "  ", ".", "1.2.3" }) {
+            try {
+                DateTimeParser.parseDouble(wrong, 0, wrong.length());
+                Assert.fail("an exception should have been thrown");
+            } catch (NumberFormatException nfe) {
+                // expected
+            }
+        }
+    }
+
+    @Ignore
+    @Test
+    public void testPerformance() throws OrekitException {
+        final TimeScale utc = TimeScalesFactory.getUTC();
+        final int n = 1000000;
+        final String[] locations = new String[n];
+        final AbsoluteDate t0 = new AbsoluteDate(2004, 1, 1, utc);
+        for (int i = 0; i < n; ++i) {
+            locations[i] = t0.shiftedBy(i * 60.125).toString(utc);
+        }
+        for (int run = 0; run < 5; ++run) {
+            double sum = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < n; ++i) {
+                sum += new AbsoluteDate(parseWithRegularExpressions(locations[i]), utc).durationFrom(t0);
+            }
+            final double regexTime = (System.nanoTime() - start) * 1.0e-9;
+            start = System.nanoTime();
+            for (int i = 0; i < n; ++i) {
+                sum += DateTimeParser.parseDate(locations[i], utc).durationFrom(t0);
+            }
+            final double parserTime = (System.nanoTime() - start) * 1.0e-9;
+            System.out.format(Locale.US, "run %d: regular expressions %6.1f ns, parser %6.1f ns (%g)%n",
+                              run, 1.0e9 * regexTime / n, 1.0e9 * parserTime / n, sum);
+        }
+    }
+
+    /** Reference implementation, as was used before the parser was introduced. */
+    private DateTimeComponents parseWithRegularExpressions(final String string) {
+        final int tIndex = string.indexOf('T');
+        final String dateString = (tIndex > 0) ? string.substring(0, tIndex) : string;
+        final DateComponents date;
+        final Matcher calendarMatcher = CALENDAR_FORMAT.matcher(dateString);
+        final Matcher ordinalMatcher  = ORDINAL_FORMAT.matcher(dateString);
+        final Matcher weekMatcher     = WEEK_FORMAT.matcher(dateString);
+        if (calendarMatcher.matches()) {
+            date = new DateComponents(Integer.parseInt(calendarMatcher.group(1)),
+                                      Integer.parseInt(calendarMatcher.group(2)),
+                                      Integer.parseInt(calendarMatcher.group(3)));
+        } else if (ordinalMatcher.matches()) {
+            date = new DateComponents(Integer.parseInt(ordinalMatcher.group(1)),
+                                      Integer.parseInt(ordinalMatcher.group(2)));
+        } else if (weekMatcher.matches()) {
+            date = DateComponents.createFromWeekComponents(Integer.parseInt(weekMatcher.group(1)),
+                                                           Integer.parseInt(weekMatcher.group(2)),
+                                                           Integer.parseInt(weekMatcher.group(3)));
+        } else {
+            throw new IllegalArgumentException(dateString);
+        }
+        if (tIndex < 0) {
+            return new DateTimeComponents(date, TimeComponents.H00);
+        }
+        final Matcher timeMatcher = TIME_FORMAT.matcher(string.substring(tIndex + 1));
+        if (!timeMatcher.matches()) {
+            throw new IllegalArgumentException(string);
+        }
+        return new DateTimeComponents(date,
+                                      new TimeComponents(Integer.parseInt(timeMatcher.group(1)),
+                                                         Integer.parseInt(timeMatcher.group(2)),
+                                                         Double.parseDouble(timeMatcher.group(3).replace(',', '.'))));
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("regular-data");
+    }
+
+    private static final Pattern CALENDAR_FORMAT = Pattern.compile("^(-?\\d\\d\\d\\d)-?(\\d\\d)-?(\\d\\d)$");
+    private static final Pattern ORDINAL_FORMAT  = Pattern.compile("^(-?\\d\\d\\d\\d)-?(\\d\\d\\d)$");
+    private static final Pattern WEEK_FORMAT     = Pattern.compile("^(-?\\d\\d\\d\\d)-?W(\\d\\d)-?(\\d)$");
+    private static final Pattern TIME_FORMAT     = Pattern.compile("^(\\d\\d):?(\\d\\d):?(\\d\\d(?:[.,]\\d+)?)?(?:Z|[-+]00(?::00)?)?$");
+
+}
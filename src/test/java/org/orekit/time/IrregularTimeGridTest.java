@@ -0,0 +1,95 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.time;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.math3.exception.NoDataException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+
+public class IrregularTimeGridTest {
+
+    @Test
+    public void testAccuracyOverLongSpan() {
+        // 30 years span, with sub-microsecond spacing near the end
+        final AbsoluteDate start = AbsoluteDate.J2000_EPOCH;
+        final List<AbsoluteDate> dates = new ArrayList<AbsoluteDate>();
+        dates.add(start);
+        final AbsoluteDate far = start.shiftedBy(30 * 365.25 * 86400.0);
+        for (int i = 0; i < 10; ++i) {
+            dates.add(far.shiftedBy(i * 1.0e-9));
+        }
+        final IrregularTimeGrid grid = new IrregularTimeGrid(dates);
+        Assert.assertEquals(11, grid.size());
+        for (int i = 0; i < grid.size(); ++i) {
+            Assert.assertEquals(0.0, grid.getDate(i).durationFrom(dates.get(i)), 1.0e-15);
+            Assert.assertEquals(i, grid.floorIndex(dates.get(i)));
+        }
+        Assert.assertEquals(5, grid.floorIndex(far.shiftedBy(4.5e-9)));
+        Assert.assertEquals(0, grid.floorIndex(far.shiftedBy(-1.0e-9)));
+        Assert.assertEquals(-1, grid.floorIndex(start.shiftedBy(-1.0e-9)));
+        Assert.assertEquals(0.0, grid.getEnd().durationFrom(far.shiftedBy(9.0e-9)), 1.0e-15);
+    }
+
+    @Test
+    public void testRandomSearch() {
+        final RandomGenerator random = new Well1024a(0x3a5e0fd1f7e4b9a2l);
+        final AbsoluteDate start = new AbsoluteDate(2008, 1, 1, TimeScalesFactory.getTAI());
+        final List<AbsoluteDate> dates = new ArrayList<AbsoluteDate>();
+        AbsoluteDate current = start;
+        for (int i = 0; i < 2000; ++i) {
+            dates.add(current);
+            current = current.shiftedBy(random.nextDouble() * (i < 1000 ? 1.0 : 100.0));
+        }
+        final IrregularTimeGrid grid = new IrregularTimeGrid(dates);
+        for (int k = 0; k < 10000; ++k) {
+            final AbsoluteDate date = start.shiftedBy(-10 + random.nextDouble() * (grid.getOffset(1999) + 20));
+            // brute force reference
+            int expected = -1;
+            while (expected + 1 < dates.size() && dates.get(expected + 1).compareTo(date) <= 0) {
+                ++expected;
+            }
+            Assert.assertEquals(expected, grid.floorIndex(date));
+        }
+    }
+
+    @Test
+    public void testNotSorted() {
+        final List<AbsoluteDate> dates = new ArrayList<AbsoluteDate>();
+        dates.add(AbsoluteDate.J2000_EPOCH);
+        dates.add(AbsoluteDate.J2000_EPOCH.shiftedBy(-1.0));
+        try {
+            new IrregularTimeGrid(dates);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(OrekitMessages.NON_CHRONOLOGICALLY_SORTED_ENTRIES, oiae.getSpecifier());
+        }
+    }
+
+    @Test(expected=NoDataException.class)
+    public void testEmpty() {
+        new IrregularTimeGrid(Collections.<AbsoluteDate>emptyList());
+    }
+
+}
@@ -35,6 +35,7 @@ import org.apache.commons.math3.random.Well1024a;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.orekit.Utils;
 import org.orekit.errors.OrekitException;
@@ -269,6 +270,94 @@ public class UTCScaleTest {
 
     }
 
+    @Test
+    public void testLookupAroundLeaps() throws OrekitException {
+        // since 1972, leaps occur only at the end of June or December
+        final List<AbsoluteDate> leaps = new ArrayList<AbsoluteDate>();
+        for (int year = 1972; year < 2017; ++year) {
+            for (final int month : new int[] {1, 7}) {
+                final AbsoluteDate midnight = new AbsoluteDate(year, month, 1, utc);
+                if (utc.offsetFromTAI(midnight.shiftedBy(-3.0)) - utc.offsetFromTAI(midnight) > 0.5) {
+                    leaps.add(midnight);
+                }
+            }
+        }
+        Assert.assertEquals(26, leaps.size());
+
+        // check dates very close to each leap, visiting leaps in random order
+        // to defeat the last hit hint
+        final RandomGenerator random = new Well1024a(0x5c1e4e1ae8d1b0c3l);
+        for (int k = 0; k < 200; ++k) {
+            final AbsoluteDate leapEnd = leaps.get(random.nextInt(leaps.size()));
+            final double       leap    = utc.getLeap(leapEnd);
+            final AbsoluteDate leapStart = leapEnd.shiftedBy(-leap);
+            final double dt = 1.0e-9 * (1 + random.nextInt(1000));
+            Assert.assertFalse(utc.insideLeap(leapStart.shiftedBy(-dt)));
+            Assert.assertTrue(utc.insideLeap(leapStart));
+            Assert.assertTrue(utc.insideLeap(leapStart.shiftedBy(dt)));
+            Assert.assertTrue(utc.insideLeap(leapEnd.shiftedBy(-dt)));
+            Assert.assertFalse(utc.insideLeap(leapEnd));
+            Assert.assertEquals(leap, utc.getLeap(leapStart.shiftedBy(dt)), 1.0e-15);
+            Assert.assertEquals(utc.offsetFromTAI(leapStart.shiftedBy(-dt)) - leap,
+                                utc.offsetFromTAI(leapStart.shiftedBy(dt)),
+                                1.0e-6);
+        }
+
+        // the last hit hint must not change the results when sweeping time back and forth
+        final AbsoluteDate first = utc.getFirstKnownLeapSecond();
+        for (int k = 0; k < 500; ++k) {
+            final AbsoluteDate date = first.shiftedBy(random.nextDouble() * 2.0e9);
+            final DateTimeComponents dtc = date.getComponents(utc);
+            Assert.assertEquals(0.0, new AbsoluteDate(dtc, utc).durationFrom(date), 1.0e-6);
+        }
+
+    }
+
+    @Test
+    public void testAfterLastLeap() throws OrekitException {
+        final AbsoluteDate last = utc.getLastKnownLeapSecond();
+        final double offset = utc.offsetFromTAI(last.shiftedBy(1.0e-3));
+        for (double dt = 1.0; dt < 1.0e9; dt *= 10) {
+            Assert.assertEquals(offset, utc.offsetFromTAI(last.shiftedBy(dt)), 1.0e-15);
+        }
+        Assert.assertEquals(-offset,
+                            utc.offsetToTAI(new DateComponents(2100, 1, 1), TimeComponents.H12),
+                            1.0e-15);
+    }
+
+    @Ignore
+    @Test
+    public void testPerformance() throws OrekitException {
+        final int n = 2000000;
+        final RandomGenerator random = new Well1024a(0x7e32a5ab1cc84c38l);
+        final AbsoluteDate t0 = new AbsoluteDate(1975, 1, 1, utc);
+        final DateTimeComponents[] components = new DateTimeComponents[n];
+        final AbsoluteDate[] dates = new AbsoluteDate[n];
+        for (int i = 0; i < n; ++i) {
+            // mostly sequential dates, as in logs and files, with a few random jumps
+            final double dt = (i % 1000 == 0) ? random.nextDouble() * 1.3e9 : i * 60.0;
+            dates[i]      = t0.shiftedBy(dt);
+            components[i] = dates[i].getComponents(utc);
+        }
+
+        for (int run = 0; run < 5; ++run) {
+            long start = System.nanoTime();
+            double sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += new AbsoluteDate(components[i], utc).durationFrom(t0);
+            }
+            final double buildTime = (System.nanoTime() - start) * 1.0e-9;
+            start = System.nanoTime();
+            for (int i = 0; i < n; ++i) {
+                sum += dates[i].getComponents(utc).getTime().getSecondsInDay();
+            }
+            final double componentsTime = (System.nanoTime() - start) * 1.0e-9;
+            System.out.format(java.util.Locale.US,
+                              "run %d: AbsoluteDate(components, utc) %7.1f ns, getComponents(utc) %7.1f ns (%g)%n",
+                              run, 1.0e9 * buildTime / n, 1.0e9 * componentsTime / n, sum);
+        }
+    }
+
     @Test
     public void testSerialization() throws OrekitException, IOException, ClassNotFoundException {
         UTCScale utc = TimeScalesFactory.getUTC();
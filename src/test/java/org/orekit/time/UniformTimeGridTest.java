@@ -0,0 +1,61 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.time;
+
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UniformTimeGridTest {
+
+    @Test
+    public void testIndices() {
+        final AbsoluteDate start = AbsoluteDate.J2000_EPOCH.shiftedBy(0.25);
+        final UniformTimeGrid grid = new UniformTimeGrid(start, 0.1, 1000);
+        Assert.assertEquals(1000, grid.size());
+        Assert.assertEquals(0.1, grid.getStep(), 1.0e-15);
+        Assert.assertEquals(0.0, grid.getStart().durationFrom(start), 1.0e-15);
+        Assert.assertEquals(99.9, grid.getEnd().durationFrom(start), 1.0e-12);
+        for (int i = 0; i < grid.size(); ++i) {
+            final AbsoluteDate date = grid.getDate(i);
+            Assert.assertEquals(grid.getOffset(i), date.durationFrom(start), 1.0e-12);
+            Assert.assertEquals(i, grid.floorIndex(date));
+            Assert.assertEquals(i, grid.floorIndex(date.shiftedBy(0.05)));
+            Assert.assertEquals(i - 1, grid.floorIndex(date.shiftedBy(-1.0e-9)));
+        }
+        Assert.assertEquals(999, grid.floorIndex(start.shiftedBy(1.0e6)));
+    }
+
+    @Test
+    public void testCovering() {
+        final AbsoluteDate start = AbsoluteDate.GALILEO_EPOCH;
+        Assert.assertEquals(11, UniformTimeGrid.covering(start, start.shiftedBy(100.0), 10.0).size());
+        Assert.assertEquals(10, UniformTimeGrid.covering(start, start.shiftedBy(99.9), 10.0).size());
+        Assert.assertEquals(1,  UniformTimeGrid.covering(start, start.shiftedBy(-5.0), 10.0).size());
+    }
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testWrongStep() {
+        new UniformTimeGrid(AbsoluteDate.J2000_EPOCH, 0.0, 10);
+    }
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testWrongSize() {
+        new UniformTimeGrid(AbsoluteDate.J2000_EPOCH, 1.0, 0);
+    }
+
+}
@@ -0,0 +1,252 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.math3.util.FastMath;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+
+public class CacheMetricsRegistryTest {
+
+    private List<String> registered;
+
+    @Test
+    public void testSnapshot() throws OrekitException {
+        for (final TimeStampedCacheType type : TimeStampedCacheType.values()) {
+            final TimeStampedCache<AbsoluteDate> cache = createCache(type, "snapshot");
+            final String name = registered.get(registered.size() - 1);
+            Assert.assertTrue(name.startsWith("snapshot"));
+            for (int i = 0; i < 100; ++i) {
+                cache.getNeighbors(AbsoluteDate.J2000_EPOCH.shiftedBy(0.1 * i));
+            }
+            final CacheMetricsSnapshot snapshot = CacheMetricsRegistry.getSnapshot(name);
+            Assert.assertEquals(name, snapshot.getName());
+            Assert.assertEquals(100, snapshot.getCalls());
+            Assert.assertEquals(1, snapshot.getMisses());
+            Assert.assertEquals(99, snapshot.getHits());
+            Assert.assertEquals(0.99, snapshot.getHitRatio(), 1.0e-15);
+            Assert.assertEquals(1, snapshot.getGenerateCalls());
+            Assert.assertEquals(0, snapshot.getEvictions());
+            Assert.assertEquals(1, snapshot.getSlots());
+            Assert.assertEquals(3, snapshot.getMaxSlots());
+            Assert.assertEquals(41, snapshot.getEntries());
+            Assert.assertEquals(1, snapshot.getLatencyCount());
+            Assert.assertTrue(snapshot.getLatencyMean() > 0);
+            Assert.assertTrue(snapshot.getLatency50() >= snapshot.getLatencyMean());
+            Assert.assertEquals(snapshot.getLatency50(), snapshot.getLatency99());
+
+            // far away dates create new slots and evict old ones
+            for (int i = 1; i <= 4; ++i) {
+                cache.getNeighbors(AbsoluteDate.J2000_EPOCH.shiftedBy(i * Constants.JULIAN_YEAR));
+            }
+            final CacheMetricsSnapshot updated = CacheMetricsRegistry.getSnapshot(name);
+            Assert.assertEquals(104, updated.getCalls());
+            Assert.assertEquals(5, updated.getMisses());
+            Assert.assertEquals(2, updated.getEvictions());
+            Assert.assertEquals(3, updated.getSlots());
+            Assert.assertEquals(5, updated.getLatencyCount());
+
+            // the first snapshot is immutable
+            Assert.assertEquals(100, snapshot.getCalls());
+        }
+    }
+
+    @Test
+    public void testUniqueNames() {
+        createCache(TimeStampedCacheType.GENERIC, "duplicated");
+        createCache(TimeStampedCacheType.CONCURRENT, "duplicated");
+        Assert.assertEquals("duplicated", registered.get(0));
+        Assert.assertEquals("duplicated#2", registered.get(1));
+        Assert.assertTrue(CacheMetricsRegistry.getNames().containsAll(registered));
+        Assert.assertTrue(CacheMetricsRegistry.unregister("duplicated"));
+        Assert.assertFalse(CacheMetricsRegistry.unregister("duplicated"));
+        Assert.assertNull(CacheMetricsRegistry.getSnapshot("duplicated"));
+        Assert.assertNotNull(CacheMetricsRegistry.getSnapshot("duplicated#2"));
+    }
+
+    @Test
+    public void testInternalCaches() throws OrekitException {
+        FramesFactory.getITRF(IERSConventions.IERS_2010, false).getTransformTo(FramesFactory.getGCRF(),
+                                                                              AbsoluteDate.J2000_EPOCH);
+        boolean found = false;
+        for (final CacheMetricsSnapshot snapshot : CacheMetricsRegistry.getSnapshots()) {
+            if (snapshot.getName().startsWith("InterpolatingTransformProvider/")) {
+                found = true;
+            }
+        }
+        Assert.assertTrue(found);
+    }
+
+    @Test
+    public void testExporter() {
+        final TimeStampedCache<AbsoluteDate> cache = createCache(TimeStampedCacheType.GENERIC, "exported-1");
+        final RecordingExporter exporter = new RecordingExporter();
+        CacheMetricsRegistry.addExporter(exporter);
+        try {
+            Assert.assertTrue(exporter.added.contains(registered.get(0)));
+            createCache(TimeStampedCacheType.CONCURRENT, "exported-2");
+            Assert.assertTrue(exporter.added.contains(registered.get(1)));
+            CacheMetricsRegistry.unregister(registered.get(1));
+            Assert.assertEquals(1, exporter.removed.size());
+            Assert.assertEquals(registered.get(1), exporter.removed.get(0));
+        } finally {
+            Assert.assertTrue(CacheMetricsRegistry.removeExporter(exporter));
+            Assert.assertFalse(CacheMetricsRegistry.removeExporter(exporter));
+        }
+        Assert.assertTrue(exporter.removed.contains(registered.get(0)));
+        Assert.assertNotNull(cache);
+    }
+
+    @Test
+    public void testJMX() throws Exception {
+        final TimeStampedCache<AbsoluteDate> cache = createCache(TimeStampedCacheType.CONCURRENT, "jmx: test");
+        final String name = registered.get(0);
+        final JMXCacheMetricsExporter exporter = new JMXCacheMetricsExporter();
+        CacheMetricsRegistry.addExporter(exporter);
+        try {
+            for (int i = 0; i < 10; ++i) {
+                cache.getNeighbors(AbsoluteDate.J2000_EPOCH.shiftedBy(0.1 * i));
+            }
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = JMXCacheMetricsExporter.getObjectName(name);
+            Assert.assertTrue(server.isRegistered(objectName));
+            Assert.assertEquals(10,  ((Integer) server.getAttribute(objectName, "Calls")).intValue());
+            Assert.assertEquals(9,   ((Integer) server.getAttribute(objectName, "Hits")).intValue());
+            Assert.assertEquals(1,   ((Integer) server.getAttribute(objectName, "Misses")).intValue());
+            Assert.assertEquals(0.9, ((Double) server.getAttribute(objectName, "HitRatio")).doubleValue(), 1.0e-15);
+            Assert.assertEquals(1,   ((Integer) server.getAttribute(objectName, "Slots")).intValue());
+            Assert.assertEquals(3,   ((Integer) server.getAttribute(objectName, "MaxSlots")).intValue());
+            Assert.assertTrue(((Long) server.getAttribute(objectName, "Latency99")).longValue() > 0);
+            CacheMetricsRegistry.unregister(name);
+            Assert.assertFalse(server.isRegistered(objectName));
+        } finally {
+            CacheMetricsRegistry.removeExporter(exporter);
+        }
+    }
+
+    @Test
+    public void testPeriodicReporter() throws InterruptedException {
+        createCache(TimeStampedCacheType.GENERIC, "periodic");
+        final CountDownLatch latch = new CountDownLatch(3);
+        final List<List<CacheMetricsSnapshot>> reports = new ArrayList<List<CacheMetricsSnapshot>>();
+        final PeriodicCacheMetricsReporter reporter =
+                new PeriodicCacheMetricsReporter(10, TimeUnit.MILLISECONDS, new CacheMetricsHandler() {
+                    public void handleSnapshots(final List<CacheMetricsSnapshot> snapshots) {
+                        synchronized (reports) {
+                            reports.add(snapshots);
+                        }
+                        latch.countDown();
+                    }
+                });
+        Assert.assertFalse(reporter.isStarted());
+        reporter.start();
+        Assert.assertTrue(reporter.isStarted());
+        try {
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            reporter.stop();
+        }
+        Assert.assertFalse(reporter.isStarted());
+        synchronized (reports) {
+            Assert.assertTrue(reports.size() >= 3);
+            boolean found = false;
+            for (final CacheMetricsSnapshot snapshot : reports.get(0)) {
+                if (snapshot.getName().equals(registered.get(0))) {
+                    found = true;
+                }
+            }
+            Assert.assertTrue(found);
+        }
+    }
+
+    private TimeStampedCache<AbsoluteDate> createCache(final TimeStampedCacheType type, final String name) {
+        final TimeStampedCache<AbsoluteDate> cache =
+                type.createCache(name, 4, 3, Constants.JULIAN_YEAR, Constants.JULIAN_DAY,
+                                 new Generator(), AbsoluteDate.class);
+        final List<String> names = CacheMetricsRegistry.getNames();
+        for (int i = names.size() - 1; i >= 0; --i) {
+            if (names.get(i).startsWith(name) && !registered.contains(names.get(i))) {
+                registered.add(names.get(i));
+                break;
+            }
+        }
+        return cache;
+    }
+
+    private static class Generator implements TimeStampedGenerator<AbsoluteDate> {
+
+        public List<AbsoluteDate> generate(final AbsoluteDate existing, final AbsoluteDate date) {
+            // generate points on a 1 second grid, up to 20 seconds beyond requested date
+            final List<AbsoluteDate> list = new ArrayList<AbsoluteDate>();
+            final double t = FastMath.floor(date.durationFrom(AbsoluteDate.J2000_EPOCH));
+            final double e = (existing == null) ? Double.NaN : existing.durationFrom(AbsoluteDate.J2000_EPOCH);
+            final double start = (existing != null && e < t) ? FastMath.min(t - 20, e + 1) : t - 20;
+            final double end   = (existing != null && e > t) ? FastMath.max(t + 20, e - 1) : t + 20;
+            for (double d = start; d <= end; d += 1.0) {
+                if (existing == null || d != e) {
+                    list.add(AbsoluteDate.J2000_EPOCH.shiftedBy(d));
+                }
+            }
+            return list;
+        }
+
+    }
+
+    private static class RecordingExporter implements CacheMetricsExporter {
+
+        private final List<String> added   = new ArrayList<String>();
+        private final List<String> removed = new ArrayList<String>();
+
+        public void cacheRegistered(final String name, final MonitoredCache cache) {
+            added.add(name);
+        }
+
+        public void cacheUnregistered(final String name) {
+            removed.add(name);
+        }
+
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("regular-data");
+        registered = new ArrayList<String>();
+    }
+
+    @After
+    public void tearDown() {
+        for (final String name : registered) {
+            CacheMetricsRegistry.unregister(name);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(40, histogram.getBucketsNumber());
+        Assert.assertEquals(0L, histogram.getLowerBound(0));
+        Assert.assertEquals(2L, histogram.getUpperBound(0));
+        Assert.assertEquals(1024L, histogram.getLowerBound(10));
+        Assert.assertEquals(2048L, histogram.getUpperBound(10));
+        Assert.assertEquals(Long.MAX_VALUE, histogram.getUpperBound(39));
+        histogram.record(0L);
+        histogram.record(1500L);
+        histogram.record(Long.MAX_VALUE / 2);
+        Assert.assertEquals(1L, histogram.getCount(0));
+        Assert.assertEquals(1L, histogram.getCount(10));
+        Assert.assertEquals(1L, histogram.getCount(39));
+        Assert.assertEquals(3L, histogram.getCount());
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0L, histogram.getPercentile(50.0));
+        for (int i = 0; i < 90; ++i) {
+            histogram.record(100L);
+        }
+        for (int i = 0; i < 10; ++i) {
+            histogram.record(100000L);
+        }
+        Assert.assertEquals(90 * 100L + 10 * 100000L, histogram.getTotal());
+        Assert.assertEquals(128L, histogram.getPercentile(50.0));
+        Assert.assertEquals(128L, histogram.getPercentile(90.0));
+        Assert.assertEquals(131072L, histogram.getPercentile(99.0));
+        Assert.assertEquals(100, histogram.getAllCounts()[6] + histogram.getAllCounts()[16]);
+    }
+
+}